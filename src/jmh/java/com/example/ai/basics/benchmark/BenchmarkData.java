@@ -0,0 +1,29 @@
+package com.example.ai.basics.benchmark;
+
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic synthetic data shared by the benchmarks.
+ */
+final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    static float[] randomVector(SplittableRandom random, int dimensions) {
+        float[] vector = new float[dimensions];
+        for (int i = 0; i < dimensions; i++) {
+            vector[i] = (float) (random.nextDouble() * 2 - 1);
+        }
+        return vector;
+    }
+
+    static float[][] randomVectors(long seed, int count, int dimensions) {
+        SplittableRandom random = new SplittableRandom(seed);
+        float[][] vectors = new float[count][];
+        for (int i = 0; i < count; i++) {
+            vectors[i] = randomVector(random, dimensions);
+        }
+        return vectors;
+    }
+}
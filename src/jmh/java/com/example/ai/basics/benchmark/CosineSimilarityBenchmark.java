@@ -0,0 +1,61 @@
+package com.example.ai.basics.benchmark;
+
+import com.example.ai.basics.day1.service.VectorMath;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-pair similarity kernels: the reference cosine (norms recomputed on
+ * every call), cosine with precomputed norms, and the bare dot product.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CosineSimilarityBenchmark {
+
+    @Param({ "128", "384", "768", "1536" })
+    int dimensions;
+
+    private float[] a;
+    private float[] b;
+    private double normA;
+    private double normB;
+
+    @Setup
+    public void setUp() {
+        float[][] vectors = BenchmarkData.randomVectors(42, 2, dimensions);
+        a = vectors[0];
+        b = vectors[1];
+        normA = VectorMath.norm(a);
+        normB = VectorMath.norm(b);
+    }
+
+    @Benchmark
+    public double cosineReference() {
+        return VectorMath.cosineSimilarity(a, b);
+    }
+
+    @Benchmark
+    public double cosinePrecomputedNorms() {
+        return VectorMath.cosineSimilarity(a, normA, b, normB);
+    }
+
+    @Benchmark
+    public double dot() {
+        return VectorMath.dot(a, b);
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.ai.basics.benchmark;
+
+import com.example.ai.basics.common.prompt.CompiledPromptTemplate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.ai.chat.prompt.PromptTemplate;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prompt rendering on the RAG hot path (the study assistant's template):
+ * a new PromptTemplate per request, as the controllers used to do, versus
+ * reusing one template instance, versus the render plan precompiled by
+ * PromptTemplateRegistry that the controllers use now.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PromptTemplateBenchmark {
+
+    private static final String RAG_TEMPLATE = """
+            You are a helpful study assistant. Answer the student's question
+            based ONLY on the provided context. If the context doesn't contain
+            enough information, say so honestly.
+
+            CONTEXT (from study notes):
+            {context}
+
+            STUDENT'S QUESTION:
+            {question}
+
+            Provide a clear, educational answer. If helpful, suggest what else
+            the student might want to learn about this topic.
+            """;
+
+    private Map<String, Object> variables;
+    private PromptTemplate reused;
+    private CompiledPromptTemplate compiled;
+
+    @Setup
+    public void setUp() {
+        variables = Map.of(
+                "context", """
+                        - The mitochondria is the powerhouse of the cell. It produces ATP through cellular respiration.
+                        - Photosynthesis converts sunlight, water, and CO2 into glucose and oxygen in the chloroplasts.
+                        """,
+                "question", "What produces energy in cells?");
+        reused = new PromptTemplate(RAG_TEMPLATE);
+        compiled = CompiledPromptTemplate.compile("study-assistant-answer", RAG_TEMPLATE);
+    }
+
+    @Benchmark
+    public String newTemplatePerRender() {
+        return new PromptTemplate(RAG_TEMPLATE).render(variables);
+    }
+
+    @Benchmark
+    public String reusedTemplate() {
+        return reused.render(variables);
+    }
+
+    @Benchmark
+    public String compiledTemplate() {
+        return compiled.render(variables);
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.ai.basics.benchmark;
+
+import com.example.ai.basics.day1.service.TopK;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Top-K selection over precomputed scores: the bounded heap used by the
+ * vector store versus sorting every candidate and taking the first K (the
+ * original implementation).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TopKBenchmark {
+
+    @Param({ "10000", "100000" })
+    int candidates;
+
+    @Param({ "2", "10", "100" })
+    int k;
+
+    private double[] scores;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        scores = new double[candidates];
+        for (int i = 0; i < candidates; i++) {
+            scores[i] = random.nextDouble() * 2 - 1;
+        }
+    }
+
+    @Benchmark
+    public List<TopK.Hit> boundedHeap() {
+        TopK best = new TopK(k);
+        for (int i = 0; i < scores.length; i++) {
+            best.offer(scores[i], i);
+        }
+        return best.hitsDescending();
+    }
+
+    @Benchmark
+    public List<TopK.Hit> fullSort() {
+        List<TopK.Hit> all = new ArrayList<>(scores.length);
+        for (int i = 0; i < scores.length; i++) {
+            all.add(new TopK.Hit(i, scores[i]));
+        }
+        all.sort((a, b) -> Double.compare(b.score(), a.score()));
+        return all.subList(0, Math.min(k, all.size()));
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.ai.basics.benchmark;
+
+import com.example.ai.basics.common.metrics.LlmMetrics;
+import com.example.ai.basics.day1.service.SimpleVectorStore;
+import com.example.ai.basics.day1.service.VectorStoreProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end brute-force search: SimpleVectorStore.findSimilar over synthetic
+ * corpora. Queries are pre-embedded so only the scan and top-K are measured.
+ * "parallel" compares the single-threaded scan with the partitioned one.
+ * The batch benchmarks score all 64 queries per invocation, one by one or in
+ * a single tiled scan (findSimilarBatch); their times are per query.
+ *
+ * The 1M x 768 case needs ~3 GB of heap (see jmh.jvmArgs in build.gradle).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VectorSearchBenchmark {
+
+    @Param({ "10000", "100000", "1000000" })
+    int size;
+
+    @Param({ "128", "384", "768" })
+    int dimensions;
+
+    @Param({ "5" })
+    int topK;
+
+    @Param({ "false", "true" })
+    boolean parallel;
+
+    private SimpleVectorStore store;
+    private float[][] queries;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // No embedding model: documents and queries are stored pre-embedded
+        store = new SimpleVectorStore("benchmark", null, new LlmMetrics(new SimpleMeterRegistry()),
+                new VectorStoreProperties(0.3, Duration.ofMinutes(30), Path.of("build/jmh-vector-store"),
+                        parallel ? 0 : Integer.MAX_VALUE));
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < size; i++) {
+            store.store("doc-" + i, "document " + i, BenchmarkData.randomVector(random, dimensions));
+        }
+        queries = BenchmarkData.randomVectors(7, 64, dimensions);
+    }
+
+    @Benchmark
+    public List<SimpleVectorStore.SimilarityResult> findSimilar() {
+        float[] query = queries[next++ & (queries.length - 1)];
+        return store.findSimilar(query, topK);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(64)
+    public List<List<SimpleVectorStore.SimilarityResult>> queriesOneByOne() {
+        List<List<SimpleVectorStore.SimilarityResult>> results = new ArrayList<>(queries.length);
+        for (float[] query : queries) {
+            results.add(store.findSimilar(query, topK));
+        }
+        return results;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(64)
+    public List<List<SimpleVectorStore.SimilarityResult>> queriesBatched() {
+        return store.findSimilarBatch(queries, topK, null);
+    }
+}
@@ -0,0 +1,242 @@
+package com.example.ai.basics.loadtest;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * =============================================================================
+ * OPEN-LOOP LOAD GENERATOR
+ * =============================================================================
+ *
+ * Sends the production traffic mix (see {@link Scenarios}) at a fixed average
+ * arrival rate and reports throughput and p50/p95/p99/p999 latency.
+ *
+ * WHY OPEN LOOP?
+ * A closed-loop tester (N users, each waiting for its last response) slows
+ * down when the server does, so queueing delay never shows up in the numbers
+ * ("coordinated omission"). Here requests arrive on a Poisson schedule no
+ * matter how the server is doing, and latency is measured from the moment a
+ * request was SUPPOSED to be sent.
+ *
+ * USAGE (app running, ideally against ./gradlew runModelStub):
+ *
+ * ./gradlew loadTest -Pload.rate=20 -Pload.duration=PT60S
+ * ./gradlew loadTest -Pload.mode=smoke       (every endpoint once)
+ *
+ * Settings (system properties, passed through from -P by build.gradle):
+ * load.base-url (http://localhost:8080), load.rate (10 req/s),
+ * load.duration (PT60S), load.warmup (PT10S), load.mix (production mix),
+ * load.max-in-flight (1000), load.seed (42),
+ * load.output (build/results/loadtest/summary.json)
+ *
+ * The study notes are seeded into a "loadtest" collection that is emptied
+ * before seeding and dropped afterwards, so every run searches the same
+ * notes.
+ *
+ * =============================================================================
+ */
+public final class LoadGenerator {
+
+    private final HttpClient httpClient;
+    private final String baseUrl;
+
+    private LoadGenerator(HttpClient httpClient, String baseUrl) {
+        this.httpClient = httpClient;
+        this.baseUrl = baseUrl;
+    }
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = System.getProperty("load.base-url", "http://localhost:8080");
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            HttpClient httpClient = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .executor(executor)
+                    .build();
+            LoadGenerator generator = new LoadGenerator(httpClient, baseUrl);
+
+            boolean passed;
+            try {
+                passed = "smoke".equals(System.getProperty("load.mode", "load"))
+                        ? generator.smoke()
+                        : generator.load();
+            } finally {
+                generator.dropStudyNotes();
+            }
+            if (!passed) {
+                System.exit(1);
+            }
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Smoke mode: every endpoint once, in order
+    // -------------------------------------------------------------------------
+
+    private boolean smoke() throws InterruptedException {
+        System.out.println("🔍 Smoke testing " + baseUrl);
+        if (!seedStudyNotes()) {
+            return false;
+        }
+
+        SplittableRandom random = new SplittableRandom(42);
+        int failures = 0;
+        for (Scenario scenario : Scenarios.all()) {
+            long start = System.nanoTime();
+            try {
+                HttpResponse<String> response = httpClient.send(
+                        scenario.request().apply(baseUrl, random), HttpResponse.BodyHandlers.ofString());
+                long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                boolean ok = response.statusCode() < 400;
+                failures += ok ? 0 : 1;
+                System.out.printf("%s %-32s %d  %6d ms  %s%n", ok ? "✅" : "❌", scenario.name(),
+                        response.statusCode(), millis, firstLine(response.body()));
+            } catch (IOException e) {
+                failures++;
+                System.out.printf("❌ %-32s %s%n", scenario.name(), e);
+            }
+        }
+
+        System.out.println(failures == 0 ? "✅ All endpoints responded" : "❌ " + failures + " endpoint(s) failed");
+        return failures == 0;
+    }
+
+    // -------------------------------------------------------------------------
+    // Load mode: open-loop Poisson arrivals
+    // -------------------------------------------------------------------------
+
+    private boolean load() throws Exception {
+        double rate = Double.parseDouble(System.getProperty("load.rate", "10"));
+        Duration duration = Duration.parse(System.getProperty("load.duration", "PT60S"));
+        Duration warmup = Duration.parse(System.getProperty("load.warmup", "PT10S"));
+        int maxInFlight = Integer.getInteger("load.max-in-flight", 1000);
+        long seed = Long.getLong("load.seed", 42L);
+        List<Scenario> mix = Scenarios.mix(System.getProperty("load.mix"));
+
+        if (!seedStudyNotes()) {
+            return false;
+        }
+
+        Map<Scenario, ScenarioStats> stats = new LinkedHashMap<>();
+        mix.forEach(scenario -> stats.put(scenario, new ScenarioStats(scenario.name())));
+        ScenarioStats total = new ScenarioStats("TOTAL");
+        int totalWeight = mix.stream().mapToInt(Scenario::weight).sum();
+
+        System.out.printf("🚀 %s: %.1f req/s for %s (+%s warmup), mix %s%n", baseUrl, rate, duration, warmup,
+                mix.stream().map(s -> s.name() + "=" + s.weight()).toList());
+
+        SplittableRandom random = new SplittableRandom(seed);
+        AtomicInteger inFlight = new AtomicInteger();
+        double meanGapNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        long measureFrom = System.nanoTime() + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+        long next = System.nanoTime();
+
+        while (true) {
+            // Exponential inter-arrival gaps give a Poisson arrival process
+            next += (long) (-Math.log(1 - random.nextDouble()) * meanGapNanos);
+            if (next >= end) {
+                break;
+            }
+            long wait;
+            while ((wait = next - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            Scenario scenario = pick(mix, totalWeight, random);
+            ScenarioStats scenarioStats = stats.get(scenario);
+            boolean measured = next >= measureFrom;
+            if (inFlight.get() >= maxInFlight) {
+                // Never wait for capacity: that would close the loop
+                if (measured) {
+                    scenarioStats.dropped();
+                    total.dropped();
+                }
+                continue;
+            }
+
+            long intendedStart = next;
+            inFlight.incrementAndGet();
+            httpClient.sendAsync(scenario.request().apply(baseUrl, random), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        inFlight.decrementAndGet();
+                        if (!measured) {
+                            return;
+                        }
+                        if (error == null && response.statusCode() < 400) {
+                            long latency = System.nanoTime() - intendedStart;
+                            scenarioStats.success(latency);
+                            total.success(latency);
+                        } else {
+                            scenarioStats.error();
+                            total.error();
+                        }
+                    });
+        }
+
+        // Let the stragglers finish (bounded by the request timeout)
+        long drainDeadline = System.nanoTime() + Scenarios.REQUEST_TIMEOUT.toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            Thread.sleep(50);
+        }
+
+        LoadReport report = new LoadReport(rate, duration, List.copyOf(stats.values()), total);
+        report.print();
+        report.writeJson(Path.of(System.getProperty("load.output", "build/results/loadtest/summary.json")));
+        return total.successes() > 0;
+    }
+
+    private boolean seedStudyNotes() throws InterruptedException {
+        // Leftovers of an aborted run would otherwise be seeded twice
+        dropStudyNotes();
+        try {
+            HttpResponse<Void> response = httpClient.send(
+                    Scenarios.post(baseUrl, Scenarios.STUDY_NOTES_PATH, Scenarios.STUDY_NOTES),
+                    HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() < 400) {
+                return true;
+            }
+            System.out.println("❌ Could not seed study notes: HTTP " + response.statusCode());
+        } catch (IOException e) {
+            System.out.println("❌ Server is not reachable at " + baseUrl + ". Start it with: ./gradlew bootRun");
+        }
+        return false;
+    }
+
+    private void dropStudyNotes() throws InterruptedException {
+        try {
+            httpClient.send(Scenarios.delete(baseUrl, Scenarios.STUDY_NOTES_PATH),
+                    HttpResponse.BodyHandlers.discarding());
+        } catch (IOException e) {
+            // Server gone: nothing to clean up, seeding reports it
+        }
+    }
+
+    private static Scenario pick(List<Scenario> mix, int totalWeight, SplittableRandom random) {
+        int ticket = random.nextInt(totalWeight);
+        for (Scenario scenario : mix) {
+            ticket -= scenario.weight();
+            if (ticket < 0) {
+                return scenario;
+            }
+        }
+        return mix.get(mix.size() - 1);
+    }
+
+    private static String firstLine(String body) {
+        String line = body.strip().lines().findFirst().orElse("");
+        return line.length() > 60 ? line.substring(0, 60) + "..." : line;
+    }
+}
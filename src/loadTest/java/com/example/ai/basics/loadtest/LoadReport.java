@@ -0,0 +1,90 @@
+package com.example.ai.basics.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Prints the latency table and writes a JSON summary that can be diffed
+ * between builds.
+ */
+final class LoadReport {
+
+    private static final double[] PERCENTILES = { 50, 95, 99, 99.9 };
+
+    private final double targetRate;
+    private final Duration measured;
+    private final List<ScenarioStats> scenarios;
+    private final ScenarioStats total;
+
+    LoadReport(double targetRate, Duration measured, List<ScenarioStats> scenarios, ScenarioStats total) {
+        this.targetRate = targetRate;
+        this.measured = measured;
+        this.scenarios = scenarios;
+        this.total = total;
+    }
+
+    void print() {
+        System.out.println();
+        System.out.println("=================================================================");
+        System.out.printf(Locale.ROOT, "📈 LOAD TEST RESULTS  (target %.1f req/s, measured %ds)%n",
+                targetRate, measured.toSeconds());
+        System.out.println("=================================================================");
+        System.out.printf(Locale.ROOT, "%-20s %7s %6s %6s %8s %9s %9s %9s %9s %9s%n",
+                "scenario", "ok", "err", "drop", "req/s", "p50 ms", "p95 ms", "p99 ms", "p999 ms", "max ms");
+        for (ScenarioStats stats : scenarios) {
+            printRow(stats);
+        }
+        System.out.println("-----------------------------------------------------------------");
+        printRow(total);
+        System.out.println("=================================================================");
+    }
+
+    private void printRow(ScenarioStats stats) {
+        System.out.printf(Locale.ROOT, "%-20s %7d %6d %6d %8.2f %9.1f %9.1f %9.1f %9.1f %9.1f%n",
+                stats.name(), stats.successes(), stats.errors(), stats.droppedCount(), throughput(stats),
+                stats.percentileMillis(50), stats.percentileMillis(95), stats.percentileMillis(99),
+                stats.percentileMillis(99.9), stats.maxMillis());
+    }
+
+    void writeJson(Path file) throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        ObjectNode root = mapper.createObjectNode()
+                .put("targetRate", targetRate)
+                .put("measuredSeconds", measured.toSeconds());
+        root.set("total", toJson(mapper, total));
+        ArrayNode array = root.putArray("scenarios");
+        scenarios.forEach(stats -> array.add(toJson(mapper, stats)));
+
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        mapper.writerWithDefaultPrettyPrinter().writeValue(file.toFile(), root);
+        System.out.println("📝 Summary written to " + file);
+    }
+
+    private ObjectNode toJson(ObjectMapper mapper, ScenarioStats stats) {
+        ObjectNode node = mapper.createObjectNode()
+                .put("name", stats.name())
+                .put("ok", stats.successes())
+                .put("errors", stats.errors())
+                .put("dropped", stats.droppedCount())
+                .put("throughput", throughput(stats));
+        ObjectNode latency = node.putObject("latencyMillis");
+        for (double percentile : PERCENTILES) {
+            latency.put("p" + String.valueOf(percentile).replace(".0", "").replace(".", ""),
+                    stats.percentileMillis(percentile));
+        }
+        latency.put("max", stats.maxMillis());
+        return node;
+    }
+
+    private double throughput(ScenarioStats stats) {
+        return stats.successes() / Math.max(1.0, measured.toMillis() / 1000.0);
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.ai.basics.loadtest;
+
+import java.net.http.HttpRequest;
+import java.util.SplittableRandom;
+import java.util.function.BiFunction;
+
+/**
+ * One kind of request in the traffic mix.
+ *
+ * @param name    label used in the report
+ * @param weight  relative share of arrivals (0 = smoke checks only)
+ * @param request builds a request against the given base URL; the random
+ *                source lets scenarios vary their input between requests
+ */
+record Scenario(String name, int weight, BiFunction<String, SplittableRandom, HttpRequest> request) {
+
+    Scenario withWeight(int newWeight) {
+        return new Scenario(name, newWeight, request);
+    }
+}
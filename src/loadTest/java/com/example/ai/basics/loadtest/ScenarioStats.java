@@ -0,0 +1,59 @@
+package com.example.ai.basics.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram and outcome counters for one scenario (or the total).
+ * Latencies are recorded in microseconds, 3 significant digits.
+ */
+final class ScenarioStats {
+
+    private final String name;
+    private final Histogram latency = new ConcurrentHistogram(3);
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    ScenarioStats(String name) {
+        this.name = name;
+    }
+
+    void success(long latencyNanos) {
+        latency.recordValue(TimeUnit.NANOSECONDS.toMicros(latencyNanos));
+    }
+
+    void error() {
+        errors.increment();
+    }
+
+    void dropped() {
+        dropped.increment();
+    }
+
+    String name() {
+        return name;
+    }
+
+    long successes() {
+        return latency.getTotalCount();
+    }
+
+    long errors() {
+        return errors.sum();
+    }
+
+    long droppedCount() {
+        return dropped.sum();
+    }
+
+    double percentileMillis(double percentile) {
+        return latency.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    double maxMillis() {
+        return latency.getMaxValue() / 1000.0;
+    }
+}
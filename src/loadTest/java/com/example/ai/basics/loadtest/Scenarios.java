@@ -0,0 +1,189 @@
+package com.example.ai.basics.loadtest;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * =============================================================================
+ * LOAD TEST SCENARIOS
+ * =============================================================================
+ *
+ * The production traffic mix, by share of requests:
+ *
+ * - basic-prompt      40%   short single-turn questions
+ * - study-assistant   30%   RAG questions against the seeded notes
+ * - movie-engine      20%   recommendations and chat
+ * - incident-parallel 10%   the heavy multi-agent investigation
+ *
+ * Override with -Pload.mix=basic-prompt=1,incident-parallel=1
+ *
+ * The remaining scenarios have weight 0: they only run in smoke mode, which
+ * hits every endpoint once (what test-all-endpoints.sh used to do).
+ *
+ * =============================================================================
+ */
+final class Scenarios {
+
+    static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(120);
+
+    // Study notes are seeded into their own collection (and dropped after
+    // the run), so runs don't pile up duplicates or touch the default notes
+    static final String STUDY_NOTES_PATH = "/study-assistant/notes?collection=loadtest";
+
+    private static final List<String> QUESTIONS = List.of(
+            "What is the capital of Japan?",
+            "What is a variable?",
+            "Explain recursion in one sentence.",
+            "Why is the sky blue?",
+            "What does HTTP stand for?",
+            "Name three sorting algorithms.");
+
+    private static final List<String> STUDY_QUESTIONS = List.of(
+            "What produces energy in cells?",
+            "What is photosynthesis?",
+            "What does DNA stand for?",
+            "What are the stages of the water cycle?");
+
+    private static final List<String> MOODS = List.of(
+            "I need something uplifting after a hard week",
+            "I'm feeling sad and need hope",
+            "I want a mind-bending adventure",
+            "Something cozy for a rainy Sunday");
+
+    private static final List<String> INCIDENTS = List.of(
+            "Checkout latency spiked to 5s after the 14:00 deploy",
+            "Payment service returns 502 for 3% of requests",
+            "Database CPU at 95% since the nightly batch started");
+
+    static final String STUDY_NOTES = """
+            {
+              "notes": [
+                "Photosynthesis is the process by which plants convert sunlight, water, and CO2 into glucose and oxygen. It occurs in the chloroplasts.",
+                "The mitochondria is the powerhouse of the cell. It produces ATP through cellular respiration.",
+                "DNA stands for deoxyribonucleic acid. It contains the genetic instructions for all living organisms.",
+                "The water cycle includes evaporation, condensation, precipitation, and collection."
+              ]
+            }
+            """;
+
+    private Scenarios() {
+    }
+
+    static List<Scenario> all() {
+        List<Scenario> scenarios = new ArrayList<>();
+
+        // Weighted production mix
+        scenarios.add(new Scenario("basic-prompt", 40,
+                (base, random) -> get(base, "/basic-prompt/ask?prompt=" + encode(pick(QUESTIONS, random)))));
+        scenarios.add(new Scenario("study-assistant", 30,
+                (base, random) -> post(base, "/study-assistant/ask?collection=loadtest", """
+                        {"question": "%s", "topK": 2, "temperature": 0.7}
+                        """.formatted(pick(STUDY_QUESTIONS, random)))));
+        scenarios.add(new Scenario("movie-engine", 20,
+                (base, random) -> random.nextBoolean()
+                        ? get(base, "/movie-engine/recommend?mood=" + encode(pick(MOODS, random)))
+                        : get(base, "/movie-engine/chat?sessionId=load-" + random.nextInt(100)
+                                + "&message=" + encode(pick(MOODS, random)))));
+        scenarios.add(new Scenario("incident-parallel", 10,
+                (base, random) -> get(base, "/incident/parallel?incident=" + encode(pick(INCIDENTS, random)))));
+
+        // Smoke-only checks
+        scenarios.add(new Scenario("basic-prompt-hello", 0, (base, random) -> get(base, "/basic-prompt/hello")));
+        scenarios.add(new Scenario("basic-prompt-system", 0,
+                (base, random) -> get(base, "/basic-prompt/with-system?prompt=" + encode("What is a variable?"))));
+        scenarios.add(new Scenario("prompt-templates-compare", 0,
+                (base, random) -> get(base, "/prompt-templates/compare?topic=loops")));
+        scenarios.add(new Scenario("prompt-templates-explain", 0,
+                (base, random) -> get(base, "/prompt-templates/explain?topic=functions&audience=teenager&style=casual")));
+        scenarios.add(new Scenario("prompt-templates-role", 0,
+                (base, random) -> get(base, "/prompt-templates/role?role=chef&question=" + encode("What is an algorithm?"))));
+        scenarios.add(new Scenario("generation-params-temperature", 0,
+                (base, random) -> get(base, "/generation-params/temperature-compare")));
+        scenarios.add(new Scenario("generation-params-deterministic", 0,
+                (base, random) -> get(base, "/generation-params/deterministic?runs=2")));
+        scenarios.add(new Scenario("embeddings-generate", 0,
+                (base, random) -> get(base, "/embeddings/generate?text=" + encode("Machine learning is fascinating"))));
+        scenarios.add(new Scenario("embeddings-compare", 0,
+                (base, random) -> get(base, "/embeddings/compare?text1=" + encode("I love programming")
+                        + "&text2=" + encode("Coding is my passion"))));
+        scenarios.add(new Scenario("context-window-retention", 0,
+                (base, random) -> get(base, "/context-window/retention-test")));
+        scenarios.add(new Scenario("context-window-tokens", 0,
+                (base, random) -> get(base, "/context-window/estimate-tokens?text="
+                        + encode("Spring AI is a great framework for building AI applications"))));
+        scenarios.add(new Scenario("study-assistant-status", 0,
+                (base, random) -> get(base, "/study-assistant/status?collection=loadtest")));
+        scenarios.add(new Scenario("study-assistant-compare-rag", 0,
+                (base, random) -> post(base, "/study-assistant/compare-rag?collection=loadtest", """
+                        {"question": "What is photosynthesis?", "customContext": "We also learned it uses chlorophyll."}
+                        """)));
+        scenarios.add(new Scenario("multi-agent-router", 0,
+                (base, random) -> get(base, "/multi-agent/router?input=" + encode("My invoice is wrong"))));
+        scenarios.add(new Scenario("incident-workflow", 0,
+                (base, random) -> get(base, "/incident?incident=" + encode(pick(INCIDENTS, random)))));
+        return scenarios;
+    }
+
+    /**
+     * The production mix, optionally re-weighted by a "name=weight,..." spec.
+     */
+    static List<Scenario> mix(String spec) {
+        List<Scenario> all = all();
+        if (spec == null || spec.isBlank()) {
+            return all.stream().filter(scenario -> scenario.weight() > 0).toList();
+        }
+
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String entry : spec.split(",")) {
+            String[] parts = entry.split("=", 2);
+            weights.put(parts[0].trim(), parts.length > 1 ? Integer.parseInt(parts[1].trim()) : 1);
+        }
+        List<Scenario> selected = all.stream()
+                .filter(scenario -> weights.getOrDefault(scenario.name(), 0) > 0)
+                .map(scenario -> scenario.withWeight(weights.get(scenario.name())))
+                .toList();
+        if (selected.size() != weights.size()) {
+            throw new IllegalArgumentException("Unknown scenario in load.mix: " + spec
+                    + " (known: " + all.stream().map(Scenario::name).toList() + ")");
+        }
+        return selected;
+    }
+
+    static HttpRequest get(String base, String path) {
+        return HttpRequest.newBuilder(URI.create(base + path))
+                .timeout(REQUEST_TIMEOUT)
+                .GET()
+                .build();
+    }
+
+    static HttpRequest post(String base, String path, String json) {
+        return HttpRequest.newBuilder(URI.create(base + path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    static HttpRequest delete(String base, String path) {
+        return HttpRequest.newBuilder(URI.create(base + path))
+                .timeout(REQUEST_TIMEOUT)
+                .DELETE()
+                .build();
+    }
+
+    private static String pick(List<String> values, SplittableRandom random) {
+        return values.get(random.nextInt(values.size()));
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
@@ -2,6 +2,8 @@ package com.example.ai.basics;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * =============================================================================
@@ -32,6 +34,8 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
  * @author AI Basics Educational Team
  */
 @SpringBootApplication
+@ConfigurationPropertiesScan
+@EnableScheduling
 public class AiBasicsApplication {
 
 	public static void main(String[] args) {
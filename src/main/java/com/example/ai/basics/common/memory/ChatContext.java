@@ -0,0 +1,20 @@
+package com.example.ai.basics.common.memory;
+
+import java.util.List;
+
+/**
+ * What a chat turn sends to the model besides the new message.
+ *
+ * @param summary            summary of older turns, or empty
+ * @param summarizedMessages how many earlier messages the summary covers
+ * @param recalled           older messages pulled in for relevance, oldest
+ *                           first (retrieval strategy only)
+ * @param messages           most recent messages sent verbatim, oldest first
+ */
+public record ChatContext(String summary, long summarizedMessages, List<ConversationMessage> recalled,
+        List<ConversationMessage> messages) {
+
+    public static ChatContext recent(List<ConversationMessage> messages) {
+        return new ChatContext("", 0, List.of(), messages);
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.ai.basics.common.memory;
+
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Looks up {@link ChatMemoryStrategy} beans by name; the default comes from
+ * {@code ai.memory.strategy}.
+ */
+@Component
+public class ChatMemoryStrategies {
+
+    private final Map<String, ChatMemoryStrategy> byName;
+    private final ChatMemoryStrategy defaultStrategy;
+
+    public ChatMemoryStrategies(List<ChatMemoryStrategy> strategies, ConversationMemoryProperties properties) {
+        this.byName = strategies.stream()
+                .collect(Collectors.toMap(ChatMemoryStrategy::name, Function.identity()));
+        this.defaultStrategy = get(properties.strategy());
+    }
+
+    /**
+     * The named strategy, or the default if the name is blank.
+     *
+     * @throws IllegalArgumentException for unknown names
+     */
+    public ChatMemoryStrategy get(String name) {
+        if (name == null || name.isBlank()) {
+            return defaultStrategy;
+        }
+        ChatMemoryStrategy strategy = byName.get(name.trim().toLowerCase(Locale.ROOT));
+        if (strategy == null) {
+            throw new IllegalArgumentException(
+                    "Unknown memory strategy '" + name + "', expected one of " + byName.keySet());
+        }
+        return strategy;
+    }
+
+    public ChatMemoryStrategy defaultStrategy() {
+        return defaultStrategy;
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.ai.basics.common.memory;
+
+/**
+ * How a chat turn decides which earlier conversation to send to the model.
+ *
+ * - window:      the last N messages
+ * - summarizing: a rolling summary plus the messages after it
+ * - retrieval:   the past messages most relevant to the new one plus the
+ *                last few
+ *
+ * Messages themselves are always kept in {@link ConversationMemoryStore};
+ * strategies only choose what to send.
+ */
+public interface ChatMemoryStrategy {
+
+    /**
+     * Name used to select the strategy (ai.memory.strategy or ?memory=).
+     */
+    String name();
+
+    /**
+     * Context for the next turn, given the new user message (not yet stored).
+     */
+    ChatContext contextFor(String sessionId, String message);
+
+    /**
+     * Called after the turn's messages were appended to the store.
+     */
+    default void afterTurn(String sessionId) {
+    }
+}
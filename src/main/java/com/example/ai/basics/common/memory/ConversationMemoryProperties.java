@@ -0,0 +1,43 @@
+package com.example.ai.basics.common.memory;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Configuration for {@link ConversationMemoryStore} and the
+ * {@link ChatMemoryStrategy} implementations.
+ *
+ * @param maxMessagesPerSession ring buffer size; older messages are
+ *                              overwritten
+ * @param idleTtl               sessions untouched for this long are removed
+ * @param maxMemory             estimated heap all sessions together may use
+ *                              before least-recently-used sessions are
+ *                              evicted
+ * @param summarizeAboveTokens  unsummarized history above this many tokens
+ *                              triggers a background summary
+ * @param keepRecentMessages    newest messages always sent verbatim (never
+ *                              folded into the summary, always included by
+ *                              the retrieval strategy)
+ * @param strategy              default chat memory strategy: summarizing,
+ *                              window or retrieval
+ * @param windowMessages        messages sent by the window strategy
+ * @param recallMessages        relevant older messages the retrieval
+ *                              strategy pulls in per turn
+ * @param maxIndexedMessages    messages the retrieval strategy indexes per
+ *                              session; the oldest are dropped beyond this
+ */
+@ConfigurationProperties("ai.memory")
+public record ConversationMemoryProperties(
+        @DefaultValue("40") int maxMessagesPerSession,
+        @DefaultValue("30m") Duration idleTtl,
+        @DefaultValue("64MB") DataSize maxMemory,
+        @DefaultValue("1000") int summarizeAboveTokens,
+        @DefaultValue("6") int keepRecentMessages,
+        @DefaultValue("summarizing") String strategy,
+        @DefaultValue("10") int windowMessages,
+        @DefaultValue("4") int recallMessages,
+        @DefaultValue("1000") int maxIndexedMessages) {
+}
@@ -0,0 +1,344 @@
+package com.example.ai.basics.common.memory;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * =============================================================================
+ * CONVERSATION MEMORY STORE - Bounded per-session chat history
+ * =============================================================================
+ *
+ * An unbounded map of growing lists leaks heap: every abandoned session and
+ * every long conversation stays forever. This store keeps memory flat:
+ *
+ * - PER SESSION: a fixed-size ring buffer; once full, the oldest message is
+ *   overwritten. Appends are lock-free (one atomic increment + one slot
+ *   write), so concurrent requests on a session never block each other.
+ * - IDLE TTL: a scheduled sweep removes sessions not touched for idleTtl.
+ * - GLOBAL CAP: estimated bytes across all sessions are tracked; above
+ *   maxMemory the least-recently-used sessions are evicted until usage is
+ *   back under 90% of the cap.
+ *
+ * Each session can also carry a rolling summary of its older messages (see
+ * ConversationSummarizer); it is evicted together with the session. Other
+ * per-session state (e.g. RetrievalChatMemory's index) charges its size to
+ * the session and listens for removals.
+ *
+ * Gauges: ai.memory.sessions, ai.memory.bytes
+ *
+ * =============================================================================
+ */
+@Component
+public class ConversationMemoryStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConversationMemoryStore.class);
+
+    private final ConversationMemoryProperties properties;
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private final AtomicLong totalBytes = new AtomicLong();
+    // Logical clock for LRU order (wall-clock millis tie too easily)
+    private final AtomicLong accessClock = new AtomicLong();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    private final List<Consumer<String>> removalListeners = new CopyOnWriteArrayList<>();
+
+    public ConversationMemoryStore(ConversationMemoryProperties properties, MeterRegistry registry) {
+        this.properties = properties;
+        Gauge.builder("ai.memory.sessions", sessions, Map::size)
+                .description("Chat sessions held in memory")
+                .register(registry);
+        Gauge.builder("ai.memory.bytes", totalBytes, AtomicLong::get)
+                .description("Estimated heap used by chat sessions")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    /**
+     * Appends a message to the session, creating the session if needed.
+     *
+     * @return the message's sequence number within the session (0-based,
+     *         keeps counting after old messages are overwritten)
+     */
+    public long append(String sessionId, ConversationMessage message) {
+        while (true) {
+            Session session = sessions.computeIfAbsent(sessionId,
+                    id -> new Session(properties.maxMessagesPerSession(), accessClock.incrementAndGet()));
+            long sequence = session.append(message, totalBytes, accessClock.incrementAndGet());
+            if (sequence >= 0) {
+                if (totalBytes.get() > properties.maxMemory().toBytes()) {
+                    evictLeastRecentlyUsed();
+                }
+                return sequence;
+            }
+            // Evicted or reset between lookup and append (it is unmapped
+            // already): the message goes into a new session
+        }
+    }
+
+    /**
+     * All retained messages of the session, oldest first.
+     */
+    public List<ConversationMessage> history(String sessionId) {
+        return recent(sessionId, Integer.MAX_VALUE);
+    }
+
+    /**
+     * The newest {@code max} retained messages, oldest first.
+     */
+    public List<ConversationMessage> recent(String sessionId, int max) {
+        Session session = sessions.get(sessionId);
+        return session == null ? List.of() : session.since(session.nextSequence() - max, accessClock.incrementAndGet());
+    }
+
+    /**
+     * Retained messages with a sequence number of at least {@code sequence},
+     * oldest first.
+     */
+    public List<ConversationMessage> since(String sessionId, long sequence) {
+        Session session = sessions.get(sessionId);
+        return session == null ? List.of() : session.since(sequence, accessClock.incrementAndGet());
+    }
+
+    /**
+     * Retained messages with sequence numbers in [from, to), oldest first.
+     */
+    public List<ConversationMessage> range(String sessionId, long from, long to) {
+        Session session = sessions.get(sessionId);
+        return session == null ? List.of() : session.range(from, to, accessClock.incrementAndGet());
+    }
+
+    public ConversationSummary summary(String sessionId) {
+        Session session = sessions.get(sessionId);
+        return session == null ? ConversationSummary.NONE : session.summary.get();
+    }
+
+    /**
+     * Replaces the session's summary if it is still {@code expected}.
+     *
+     * @return false if the session is gone or the summary changed meanwhile
+     */
+    public boolean replaceSummary(String sessionId, ConversationSummary expected, ConversationSummary next) {
+        Session session = sessions.get(sessionId);
+        if (session == null || !session.summary.compareAndSet(expected, next)) {
+            return false;
+        }
+        return session.charge(2L * (next.text().length() - expected.text().length()), totalBytes);
+    }
+
+    /**
+     * Charges (or refunds, if negative) bytes held elsewhere for this session
+     * against the memory cap.
+     *
+     * @return false if the session does not exist
+     */
+    public boolean charge(String sessionId, long bytes) {
+        Session session = sessions.get(sessionId);
+        if (session == null || !session.charge(bytes, totalBytes)) {
+            return false;
+        }
+        if (totalBytes.get() > properties.maxMemory().toBytes()) {
+            evictLeastRecentlyUsed();
+        }
+        return true;
+    }
+
+    /**
+     * Registers a callback invoked with the session ID whenever a session is
+     * reset or evicted.
+     */
+    public void onSessionRemoved(Consumer<String> listener) {
+        removalListeners.add(listener);
+    }
+
+    /**
+     * Sequence number the next appended message will get (= messages ever
+     * appended to the session).
+     */
+    public long nextSequence(String sessionId) {
+        Session session = sessions.get(sessionId);
+        return session == null ? 0 : session.nextSequence();
+    }
+
+    /**
+     * Removes a session; returns whether it existed.
+     */
+    public boolean reset(String sessionId) {
+        Session removed = sessions.remove(sessionId);
+        if (removed != null) {
+            removed(sessionId, removed);
+        }
+        return removed != null;
+    }
+
+    public int sessionCount() {
+        return sessions.size();
+    }
+
+    public long memoryBytes() {
+        return totalBytes.get();
+    }
+
+    /**
+     * Removes sessions idle for longer than the TTL.
+     */
+    @Scheduled(fixedDelayString = "${ai.memory.sweep-interval-ms:60000}")
+    public void evictIdleSessions() {
+        long cutoff = System.currentTimeMillis() - properties.idleTtl().toMillis();
+        int evicted = 0;
+        for (Map.Entry<String, Session> entry : sessions.entrySet()) {
+            if (entry.getValue().lastAccess < cutoff && sessions.remove(entry.getKey(), entry.getValue())) {
+                removed(entry.getKey(), entry.getValue());
+                evicted++;
+            }
+        }
+        if (evicted > 0) {
+            logger.info("🧹 Evicted {} idle chat sessions ({} left)", evicted, sessions.size());
+        }
+    }
+
+    private void evictLeastRecentlyUsed() {
+        // One evicting thread is enough; everyone else keeps appending
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long target = (long) (properties.maxMemory().toBytes() * 0.9);
+            // Snapshot the access order first: it keeps changing while we sort
+            List<Candidate> byAge = new ArrayList<>(sessions.size());
+            sessions.forEach((id, session) -> byAge.add(new Candidate(id, session, session.lastTouch)));
+            byAge.sort(Comparator.comparingLong(Candidate::touch));
+
+            int evicted = 0;
+            for (Candidate candidate : byAge) {
+                if (totalBytes.get() <= target) {
+                    break;
+                }
+                if (sessions.remove(candidate.id(), candidate.session())) {
+                    removed(candidate.id(), candidate.session());
+                    evicted++;
+                }
+            }
+            logger.info("🧹 Memory cap reached: evicted {} least-recently-used chat sessions", evicted);
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    private void removed(String sessionId, Session session) {
+        totalBytes.addAndGet(-session.close());
+        removalListeners.forEach(listener -> listener.accept(sessionId));
+    }
+
+    /**
+     * Lock-free ring buffer of one session's messages.
+     */
+    private static final class Session {
+
+        // Set as the byte count on removal; later charges leave it far below zero
+        private static final long CLOSED = Long.MIN_VALUE / 2;
+
+        private final AtomicReferenceArray<Slot> slots;
+        private final AtomicLong next = new AtomicLong();
+        private final AtomicLong bytes = new AtomicLong();
+        private final AtomicReference<ConversationSummary> summary = new AtomicReference<>(ConversationSummary.NONE);
+        private volatile long lastAccess = System.currentTimeMillis();
+        private volatile long lastTouch;
+
+        Session(int capacity, long touch) {
+            this.slots = new AtomicReferenceArray<>(Math.max(1, capacity));
+            // A new session is as recent as its first append, not the LRU victim
+            this.lastTouch = touch;
+        }
+
+        /**
+         * @return the message's sequence number, or -1 if the session was
+         *         removed meanwhile (nothing is counted then)
+         */
+        long append(ConversationMessage message, AtomicLong totalBytes, long touch) {
+            long sequence = next.getAndIncrement();
+            Slot previous = slots.getAndSet(index(sequence), new Slot(sequence, message));
+            long delta = message.estimatedBytes() - (previous == null ? 0 : previous.message.estimatedBytes());
+            if (!charge(delta, totalBytes)) {
+                return -1;
+            }
+            touch(touch);
+            return sequence;
+        }
+
+        /**
+         * Adds bytes to this session and the total, unless the session was
+         * closed first. A charge racing close() is either part of the bytes
+         * close() refunds or not counted at all, so the total never leaks.
+         */
+        boolean charge(long delta, AtomicLong totalBytes) {
+            if (bytes.addAndGet(delta) < CLOSED / 2) {
+                return false;
+            }
+            totalBytes.addAndGet(delta);
+            return true;
+        }
+
+        /**
+         * Marks the session removed.
+         *
+         * @return the bytes it had charged to the total
+         */
+        long close() {
+            return bytes.getAndSet(CLOSED);
+        }
+
+        long nextSequence() {
+            return next.get();
+        }
+
+        List<ConversationMessage> since(long fromSequence, long touch) {
+            return range(fromSequence, Long.MAX_VALUE, touch);
+        }
+
+        List<ConversationMessage> range(long fromSequence, long toSequence, long touch) {
+            touch(touch);
+            long head = next.get();
+            long end = Math.min(head, toSequence);
+            long start = Math.max(Math.max(0, fromSequence), head - slots.length());
+            List<ConversationMessage> messages = new ArrayList<>((int) Math.max(0, end - start));
+            for (long sequence = start; sequence < end; sequence++) {
+                Slot slot = slots.get(index(sequence));
+                // Skip slots not yet written or already overwritten by a newer append
+                if (slot != null && slot.sequence == sequence) {
+                    messages.add(slot.message);
+                }
+            }
+            return messages;
+        }
+
+        private void touch(long touch) {
+            lastAccess = System.currentTimeMillis();
+            lastTouch = touch;
+        }
+
+        private int index(long sequence) {
+            return (int) (sequence % slots.length());
+        }
+    }
+
+    private record Slot(long sequence, ConversationMessage message) {
+    }
+
+    private record Candidate(String id, Session session, long touch) {
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.ai.basics.common.memory;
+
+/**
+ * One turn of a conversation.
+ *
+ * @param role      "user" or "assistant"
+ * @param content   the message text
+ * @param timestamp epoch millis when the message was added
+ */
+public record ConversationMessage(String role, String content, long timestamp) {
+
+    public static ConversationMessage user(String content) {
+        return new ConversationMessage("user", content, System.currentTimeMillis());
+    }
+
+    public static ConversationMessage assistant(String content) {
+        return new ConversationMessage("assistant", content, System.currentTimeMillis());
+    }
+
+    public boolean isUser() {
+        return "user".equals(role);
+    }
+
+    /**
+     * Rough heap footprint: object headers and fields plus UTF-16 content.
+     */
+    long estimatedBytes() {
+        return 96L + 2L * (content == null ? 0 : content.length());
+    }
+}
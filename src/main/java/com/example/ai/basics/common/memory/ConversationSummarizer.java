@@ -0,0 +1,176 @@
+package com.example.ai.basics.common.memory;
+
+import com.example.ai.basics.common.metrics.LlmMetrics;
+import com.example.ai.basics.common.model.ModelTierPolicy;
+import com.example.ai.basics.day1.service.TokenizerService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * =============================================================================
+ * CONVERSATION SUMMARIZER - Rolling summaries off the request path
+ * =============================================================================
+ *
+ * Resending the whole history makes every turn slower than the last. Instead
+ * each chat turn sends:
+ *
+ *   [summary of older turns] + [turns since the summary] + [new message]
+ *
+ * After a turn, if the unsummarized turns exceed summarizeAboveTokens, a
+ * background job folds all but the newest keepRecentMessages into the
+ * summary (on the FAST model tier) and moves the session's watermark
+ * forward. The request never waits for it; until it finishes, turns simply
+ * send a few more messages verbatim.
+ *
+ * At most one job runs per session, and when the small pool is busy the
+ * job is skipped and retried after the next turn.
+ *
+ * =============================================================================
+ */
+@Component
+public class ConversationSummarizer implements ChatMemoryStrategy {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConversationSummarizer.class);
+
+    private static final String SUMMARY_PROMPT = """
+            You maintain a running summary of a conversation between a user and a
+            movie recommendation assistant. Merge the previous summary with the new
+            messages. Keep the user's stated preferences and dislikes, movies already
+            recommended and how the user reacted. Drop small talk.
+            Answer with the updated summary only, at most 120 words.
+            """;
+
+    private final ChatClient chatClient;
+    private final ModelTierPolicy modelTiers;
+    private final TokenizerService tokenizer;
+    private final ConversationMemoryStore memory;
+    private final ConversationMemoryProperties properties;
+    private final Set<String> compacting = ConcurrentHashMap.newKeySet();
+    private final ThreadPoolExecutor pool;
+
+    public ConversationSummarizer(
+            ChatClient.Builder builder,
+            LlmMetrics metrics,
+            ModelTierPolicy modelTiers,
+            TokenizerService tokenizer,
+            ConversationMemoryStore memory,
+            ConversationMemoryProperties properties) {
+        this.chatClient = builder.defaultAdvisors(metrics.advisor(ConversationSummarizer.class)).build();
+        this.modelTiers = modelTiers;
+        this.tokenizer = tokenizer;
+        this.memory = memory;
+        this.properties = properties;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(
+                2, 2,
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(64),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "chat-summarizer-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.pool.allowCoreThreadTimeOut(true);
+    }
+
+    @Override
+    public String name() {
+        return "summarizing";
+    }
+
+    /**
+     * The summary plus every message after it.
+     */
+    @Override
+    public ChatContext contextFor(String sessionId, String message) {
+        ConversationSummary summary = memory.summary(sessionId);
+        List<ConversationMessage> messages = memory.since(sessionId, summary.throughSequence());
+        return new ChatContext(summary.text(), summary.throughSequence(), List.of(), messages);
+    }
+
+    /**
+     * Schedules a summary if the unsummarized history got too long.
+     */
+    @Override
+    public void afterTurn(String sessionId) {
+        ConversationSummary summary = memory.summary(sessionId);
+        List<ConversationMessage> pending = memory.since(sessionId, summary.throughSequence());
+        if (pending.size() <= properties.keepRecentMessages()) {
+            return;
+        }
+        int tokens = pending.stream().mapToInt(message -> tokenizer.countTokens(message.content())).sum();
+        if (tokens < properties.summarizeAboveTokens() || !compacting.add(sessionId)) {
+            return;
+        }
+
+        try {
+            pool.execute(() -> {
+                try {
+                    compact(sessionId);
+                } catch (RuntimeException e) {
+                    logger.warn("⚠️ Summarizing session {} failed, will retry after the next turn: {}",
+                            sessionId, e.getMessage());
+                } finally {
+                    compacting.remove(sessionId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            compacting.remove(sessionId);
+            logger.debug("Summarizer busy, skipping session {} for now", sessionId);
+        }
+    }
+
+    void compact(String sessionId) {
+        ConversationSummary previous = memory.summary(sessionId);
+        long foldThrough = memory.nextSequence(sessionId) - properties.keepRecentMessages();
+        if (foldThrough <= previous.throughSequence()) {
+            return;
+        }
+        List<ConversationMessage> toFold = memory.range(sessionId, previous.throughSequence(), foldThrough);
+        if (toFold.isEmpty()) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        String transcript = toFold.stream()
+                .map(message -> message.role() + ": " + message.content())
+                .collect(Collectors.joining("\n"));
+        String summary = modelTiers.call("summarizer", options -> chatClient.prompt()
+                .system(SUMMARY_PROMPT)
+                .user("""
+                        PREVIOUS SUMMARY:
+                        %s
+
+                        NEW MESSAGES:
+                        %s
+                        """.formatted(previous.isEmpty() ? "(none)" : previous.text(), transcript))
+                .options(options)
+                .call()
+                .content());
+
+        ConversationSummary next = new ConversationSummary(summary == null ? "" : summary.strip(), foldThrough);
+        if (memory.replaceSummary(sessionId, previous, next)) {
+            logger.info("🗜️ Session {}: folded {} messages into the summary in {} ms", sessionId, toFold.size(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdownNow();
+    }
+}
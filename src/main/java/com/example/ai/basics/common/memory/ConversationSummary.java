@@ -0,0 +1,17 @@
+package com.example.ai.basics.common.memory;
+
+/**
+ * Rolling summary of a session's older messages.
+ *
+ * @param text            the summary (empty when nothing was summarized yet)
+ * @param throughSequence messages with a lower sequence number are covered
+ *                        by the summary; later ones are sent verbatim
+ */
+public record ConversationSummary(String text, long throughSequence) {
+
+    public static final ConversationSummary NONE = new ConversationSummary("", 0);
+
+    public boolean isEmpty() {
+        return text.isEmpty();
+    }
+}
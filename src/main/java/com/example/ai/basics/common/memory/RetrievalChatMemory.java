@@ -0,0 +1,184 @@
+package com.example.ai.basics.common.memory;
+
+import com.example.ai.basics.common.metrics.LlmMetrics;
+import com.example.ai.basics.day1.service.TopK;
+import com.example.ai.basics.day1.service.VectorMath;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingResponse;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * =============================================================================
+ * RETRIEVAL CHAT MEMORY - RAG over the conversation itself
+ * =============================================================================
+ *
+ * Summaries and windows both lose details: "what was that movie I said I
+ * hated three weeks ago?" Instead every message is embedded and indexed per
+ * session, and each turn sends:
+ *
+ *   [recallMessages most similar older messages] + [keepRecentMessages newest]
+ *
+ * so a month-long session costs the same per turn as a new one.
+ *
+ * Indexing happens lazily: the next turn embeds the new user message and the
+ * messages appended since the last turn in ONE embedding request. The index
+ * keeps its own copy of the messages (the store's ring buffer forgets old
+ * ones), is capped at maxIndexedMessages, charges its size to the session's
+ * memory budget and is dropped when the session is reset or evicted.
+ *
+ * =============================================================================
+ */
+@Component
+public class RetrievalChatMemory implements ChatMemoryStrategy {
+
+    private final EmbeddingModel embeddingModel;
+    private final LlmMetrics metrics;
+    private final ConversationMemoryStore memory;
+    private final ConversationMemoryProperties properties;
+    private final Map<String, SessionIndex> indexes = new ConcurrentHashMap<>();
+
+    public RetrievalChatMemory(
+            EmbeddingModel embeddingModel,
+            LlmMetrics metrics,
+            ConversationMemoryStore memory,
+            ConversationMemoryProperties properties) {
+        this.embeddingModel = embeddingModel;
+        this.metrics = metrics;
+        this.memory = memory;
+        this.properties = properties;
+        memory.onSessionRemoved(indexes::remove);
+    }
+
+    @Override
+    public String name() {
+        return "retrieval";
+    }
+
+    @Override
+    public ChatContext contextFor(String sessionId, String message) {
+        List<ConversationMessage> recent = memory.recent(sessionId, properties.keepRecentMessages());
+        long head = memory.nextSequence(sessionId);
+        if (head == 0) {
+            return ChatContext.recent(recent);
+        }
+
+        SessionIndex index = indexes.computeIfAbsent(sessionId,
+                id -> new SessionIndex(properties.maxIndexedMessages()));
+        // One turn at a time per session, so no message is indexed twice
+        synchronized (index) {
+            if (head < index.indexedThrough) {
+                // The session was reset and started over
+                index.clear();
+            }
+            List<ConversationMessage> pending = memory.range(sessionId, index.indexedThrough, head);
+            List<String> texts = new ArrayList<>(pending.size() + 1);
+            texts.add(message);
+            pending.forEach(turn -> texts.add(turn.role() + ": " + turn.content()));
+            List<float[]> embeddings = embed(texts);
+
+            long bytes = 0;
+            for (int i = 0; i < pending.size(); i++) {
+                bytes += index.add(pending.get(i), embeddings.get(i + 1));
+            }
+            index.indexedThrough = head;
+            if (bytes != 0) {
+                memory.charge(sessionId, bytes);
+            }
+
+            List<ConversationMessage> recalled = index.search(embeddings.get(0), properties.recallMessages(), recent);
+            return new ChatContext("", 0, recalled, recent);
+        }
+    }
+
+    private List<float[]> embed(List<String> texts) {
+        EmbeddingResponse response = metrics.timeEmbedding("RetrievalChatMemory",
+                () -> embeddingModel.embedForResponse(texts));
+        return response.getResults().stream().map(embedding -> embedding.getOutput()).toList();
+    }
+
+    /**
+     * Bounded ring of one session's embedded messages. Guarded by its own
+     * monitor.
+     */
+    static final class SessionIndex {
+
+        private final ConversationMessage[] messages;
+        private final float[][] vectors;
+        private final double[] norms;
+        private int next;
+        private int size;
+        long indexedThrough;
+
+        SessionIndex(int capacity) {
+            int slots = Math.max(1, capacity);
+            this.messages = new ConversationMessage[slots];
+            this.vectors = new float[slots][];
+            this.norms = new double[slots];
+        }
+
+        /**
+         * Adds a message, overwriting the oldest once full.
+         *
+         * @return change in estimated bytes
+         */
+        long add(ConversationMessage message, float[] vector) {
+            long delta = bytes(message, vector) - bytes(messages[next], vectors[next]);
+            messages[next] = message;
+            vectors[next] = vector;
+            norms[next] = VectorMath.norm(vector);
+            next = (next + 1) % messages.length;
+            size = Math.min(size + 1, messages.length);
+            return delta;
+        }
+
+        void clear() {
+            Arrays.fill(messages, null);
+            Arrays.fill(vectors, null);
+            next = 0;
+            size = 0;
+            indexedThrough = 0;
+        }
+
+        /**
+         * The {@code max} messages most similar to the query, excluding the
+         * ones already sent as recent, oldest first.
+         */
+        List<ConversationMessage> search(float[] query, int max, List<ConversationMessage> exclude) {
+            if (max <= 0 || size == 0) {
+                return List.of();
+            }
+            Set<ConversationMessage> excluded = Collections.newSetFromMap(new IdentityHashMap<>());
+            excluded.addAll(exclude);
+
+            double queryNorm = VectorMath.norm(query);
+            TopK best = new TopK(max);
+            for (int slot = 0; slot < size; slot++) {
+                if (!excluded.contains(messages[slot])) {
+                    best.offer(VectorMath.cosineSimilarity(query, queryNorm, vectors[slot], norms[slot]), slot);
+                }
+            }
+
+            // Back in conversation order: slot distance from the oldest one
+            int oldest = size < messages.length ? 0 : next;
+            return best.hitsDescending().stream()
+                    .map(TopK.Hit::ordinal)
+                    .sorted(Comparator.comparingInt(slot -> Math.floorMod(slot - oldest, messages.length)))
+                    .map(slot -> messages[slot])
+                    .toList();
+        }
+
+        private static long bytes(ConversationMessage message, float[] vector) {
+            return message == null ? 0 : message.estimatedBytes() + 16L + 4L * vector.length;
+        }
+    }
+}
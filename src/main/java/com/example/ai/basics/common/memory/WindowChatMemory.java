@@ -0,0 +1,29 @@
+package com.example.ai.basics.common.memory;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Sliding window: the last {@code ai.memory.window-messages} messages.
+ * Cheap and predictable, but forgets everything older.
+ */
+@Component
+public class WindowChatMemory implements ChatMemoryStrategy {
+
+    private final ConversationMemoryStore memory;
+    private final ConversationMemoryProperties properties;
+
+    public WindowChatMemory(ConversationMemoryStore memory, ConversationMemoryProperties properties) {
+        this.memory = memory;
+        this.properties = properties;
+    }
+
+    @Override
+    public String name() {
+        return "window";
+    }
+
+    @Override
+    public ChatContext contextFor(String sessionId, String message) {
+        return ChatContext.recent(memory.recent(sessionId, properties.windowMessages()));
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.ai.basics.common.metrics;
+
+import org.springframework.ai.chat.client.advisor.api.AdvisedRequest;
+import org.springframework.ai.chat.client.advisor.api.AdvisedResponse;
+import org.springframework.ai.chat.client.advisor.api.CallAroundAdvisor;
+import org.springframework.ai.chat.client.advisor.api.CallAroundAdvisorChain;
+import org.springframework.ai.chat.client.advisor.api.StreamAroundAdvisor;
+import org.springframework.ai.chat.client.advisor.api.StreamAroundAdvisorChain;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.core.Ordered;
+import reactor.core.publisher.Flux;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * ChatClient advisor that reports every call and stream to {@link LlmMetrics}.
+ *
+ * Register it when building a ChatClient:
+ *
+ * <pre>
+ * this.chatClient = builder.defaultAdvisors(metrics.advisor(RouterAgent.class)).build();
+ * </pre>
+ */
+public class ChatMetricsAdvisor implements CallAroundAdvisor, StreamAroundAdvisor {
+
+    private final LlmMetrics metrics;
+    private final String agent;
+
+    ChatMetricsAdvisor(LlmMetrics metrics, String agent) {
+        this.metrics = metrics;
+        this.agent = agent;
+    }
+
+    @Override
+    public AdvisedResponse aroundCall(AdvisedRequest advisedRequest, CallAroundAdvisorChain chain) {
+        LlmMetrics.ChatCall call = metrics.startChat(agent, "call");
+        try {
+            AdvisedResponse response = chain.nextAroundCall(advisedRequest);
+            call.success(response.response());
+            return response;
+        } catch (RuntimeException e) {
+            call.failure(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public Flux<AdvisedResponse> aroundStream(AdvisedRequest advisedRequest, StreamAroundAdvisorChain chain) {
+        return Flux.defer(() -> {
+            LlmMetrics.ChatCall call = metrics.startChat(agent, "stream");
+            // Usage, when the provider reports it, arrives on the last chunk
+            AtomicReference<ChatResponse> last = new AtomicReference<>();
+            return chain.nextAroundStream(advisedRequest)
+                    .doOnNext(response -> {
+                        call.token();
+                        last.set(response.response());
+                    })
+                    .doOnError(call::failure)
+                    .doOnComplete(() -> call.success(last.get()))
+                    .doOnCancel(call::cancelled);
+        });
+    }
+
+    @Override
+    public String getName() {
+        return "ChatMetricsAdvisor";
+    }
+
+    @Override
+    public int getOrder() {
+        // Outermost, so the timing includes every other advisor
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
@@ -0,0 +1,265 @@
+package com.example.ai.basics.common.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * =============================================================================
+ * LLM METRICS (Micrometer → Actuator → Prometheus)
+ * =============================================================================
+ *
+ * One place that records where time goes in every model, embedding and
+ * vector store operation:
+ *
+ * - ai.chat.calls            latency histogram per agent/endpoint/outcome
+ * - ai.chat.time.to.first.token  streaming calls only
+ * - ai.chat.tokens           prompt/completion token counts
+ * - ai.chat.errors           failed calls by exception type
+ * - ai.chat.in.flight        calls currently waiting on the model
+ * - ai.tool.calls            tool (function) execution latency
+ * - ai.embedding.calls       embedding latency per component
+ * - ai.vectorstore.query     similarity search latency per collection
+ * - ai.vectorstore.scan.size vectors scored per search, per collection
+ *                            (both removed when the collection is dropped
+ *                            or moved to disk)
+ *
+ * "agent" is the class that owns the ChatClient (e.g. RouterAgent) and
+ * "endpoint" is the matched request mapping (e.g. /incident/parallel).
+ *
+ * Scrape: GET http://localhost:8080/actuator/prometheus
+ *
+ * =============================================================================
+ */
+@Component
+public class LlmMetrics {
+
+    private static final String NO_ENDPOINT = "none";
+    // Requests no handler matched (404s, filters, error dispatch): never the
+    // raw URI, which would add a time series per scanned or ID-bearing path
+    private static final String UNKNOWN_ENDPOINT = "UNKNOWN";
+
+    private final MeterRegistry registry;
+    private final Map<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+
+    public LlmMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Creates a ChatClient advisor that records metrics tagged with the owner.
+     */
+    public ChatMetricsAdvisor advisor(Class<?> owner) {
+        return new ChatMetricsAdvisor(this, owner.getSimpleName());
+    }
+
+    /**
+     * Starts timing a chat call. Must be finished with exactly one of
+     * {@link ChatCall#success}, {@link ChatCall#failure} or
+     * {@link ChatCall#cancelled}.
+     */
+    public ChatCall startChat(String agent, String mode) {
+        return new ChatCall(agent, currentEndpoint(), mode);
+    }
+
+    /**
+     * Times a single embedding request.
+     */
+    public <T> T timeEmbedding(String component, Supplier<T> embedding) {
+        Timer.Sample sample = Timer.start(registry);
+        String outcome = "error";
+        try {
+            T result = embedding.get();
+            outcome = "success";
+            return result;
+        } finally {
+            sample.stop(Timer.builder("ai.embedding.calls")
+                    .description("Embedding request latency")
+                    .tags("component", component, "outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(registry));
+        }
+    }
+
+    /**
+     * Times one tool (function) execution.
+     */
+    public <T> T timeTool(String tool, Supplier<T> execution) {
+        Timer.Sample sample = Timer.start(registry);
+        String outcome = "error";
+        try {
+            T result = execution.get();
+            outcome = "success";
+            return result;
+        } finally {
+            sample.stop(Timer.builder("ai.tool.calls")
+                    .description("Tool execution latency")
+                    .tags("tool", tool, "outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(registry));
+        }
+    }
+
+    /**
+     * Records one vector store similarity search.
+     *
+     * @param store        the store (or collection) name
+     * @param scanned      number of stored vectors scored
+     * @param elapsedNanos search latency including the query embedding
+     */
+    public void recordVectorQuery(String store, int scanned, long elapsedNanos) {
+        Timer.builder("ai.vectorstore.query")
+                .description("Vector store similarity search latency")
+                .tag("store", store)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+        DistributionSummary.builder("ai.vectorstore.scan.size")
+                .description("Vectors scored per similarity search")
+                .tag("store", store)
+                .register(registry)
+                .record(scanned);
+    }
+
+    /**
+     * Removes a store's vector store meters. Stores are per collection and
+     * collections come and go with user input, so their meters are removed
+     * when the collection is dropped or evicted instead of piling up.
+     */
+    public void removeVectorStoreMeters(String store) {
+        registry.find("ai.vectorstore.query").tag("store", store).meters().forEach(registry::remove);
+        registry.find("ai.vectorstore.scan.size").tag("store", store).meters().forEach(registry::remove);
+    }
+
+    private AtomicInteger inFlightGauge(String agent) {
+        return inFlight.computeIfAbsent(agent, name -> {
+            AtomicInteger counter = new AtomicInteger();
+            Gauge.builder("ai.chat.in.flight", counter, AtomicInteger::get)
+                    .description("Chat calls currently waiting on the model")
+                    .tag("agent", name)
+                    .register(registry);
+            return counter;
+        });
+    }
+
+    /**
+     * Returns the matched request mapping of the current HTTP request,
+     * "UNKNOWN" when no mapping matched, or "none" when called outside a
+     * request (e.g. background work).
+     */
+    static String currentEndpoint() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes servletAttributes) {
+            try {
+                HttpServletRequest request = servletAttributes.getRequest();
+                Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                return pattern != null ? pattern.toString() : UNKNOWN_ENDPOINT;
+            } catch (IllegalStateException e) {
+                // Request attributes propagated to a worker that outlived the request
+                return NO_ENDPOINT;
+            }
+        }
+        return NO_ENDPOINT;
+    }
+
+    /**
+     * A chat call in progress.
+     */
+    public final class ChatCall {
+
+        private final Tags tags;
+        private final AtomicInteger inFlightCounter;
+        private final Timer.Sample sample;
+        private final long startNanos = System.nanoTime();
+        private boolean firstTokenSeen;
+
+        private ChatCall(String agent, String endpoint, String mode) {
+            this.tags = Tags.of("agent", agent, "endpoint", endpoint, "mode", mode);
+            this.inFlightCounter = inFlightGauge(agent);
+            this.inFlightCounter.incrementAndGet();
+            this.sample = Timer.start(registry);
+        }
+
+        /**
+         * Marks the arrival of a streamed chunk; only the first one is recorded.
+         */
+        public void token() {
+            if (!firstTokenSeen) {
+                firstTokenSeen = true;
+                Timer.builder("ai.chat.time.to.first.token")
+                        .description("Time until the first streamed token arrives")
+                        .tags(tags)
+                        .publishPercentileHistogram()
+                        .register(registry)
+                        .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        public void success(ChatResponse response) {
+            finish("success");
+            Usage usage = response != null && response.getMetadata() != null
+                    ? response.getMetadata().getUsage()
+                    : null;
+            if (usage != null) {
+                recordTokens("prompt", usage.getPromptTokens());
+                recordTokens("completion", usage.getGenerationTokens());
+            }
+        }
+
+        /**
+         * The caller stopped listening (e.g. the client went away mid-stream).
+         */
+        public void cancelled() {
+            finish("cancelled");
+        }
+
+        public void failure(Throwable error) {
+            finish("error");
+            Counter.builder("ai.chat.errors")
+                    .description("Failed chat calls")
+                    .tags(tags)
+                    .tag("exception", error.getClass().getSimpleName())
+                    .register(registry)
+                    .increment();
+        }
+
+        private void finish(String outcome) {
+            inFlightCounter.decrementAndGet();
+            sample.stop(Timer.builder("ai.chat.calls")
+                    .description("Chat call latency")
+                    .tags(tags)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(registry));
+        }
+
+        private void recordTokens(String type, Number count) {
+            if (count != null && count.longValue() > 0) {
+                DistributionSummary.builder("ai.chat.tokens")
+                        .description("Tokens per chat call")
+                        .baseUnit("tokens")
+                        .tags(tags)
+                        .tag("type", type)
+                        .register(registry)
+                        .record(count.doubleValue());
+            }
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.ai.basics.common.model;
+
+/**
+ * Model tiers a chat call can be served from.
+ *
+ * FAST is a small, cheap model (e.g. llama3.2:1b) good enough for
+ * classification, planning and review. STANDARD is the configured answer model.
+ */
+public enum ModelTier {
+    FAST,
+    STANDARD
+}
@@ -0,0 +1,196 @@
+package com.example.ai.basics.common.model;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.openai.OpenAiChatOptions;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.SignalType;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * =============================================================================
+ * LOAD-AWARE MODEL TIERING
+ * =============================================================================
+ *
+ * Picks the model for every chat call based on two things:
+ *
+ * 1. The call site profile: cheap steps (routing, planning, review) are
+ * configured as FAST, answer generation stays on STANDARD.
+ * 2. Current upstream load: when too many calls are in flight, or the
+ * average latency crosses the threshold, STANDARD calls are downgraded to
+ * FAST so throughput degrades gracefully instead of timing out.
+ *
+ * The average only tracks calls that went to the STANDARD model (FAST calls
+ * are quicker and would hide its slowness), and for streams the time to the
+ * first token: a long answer streamed at a healthy pace isn't slow. While
+ * downgraded for latency, one STANDARD call per probe interval is let
+ * through to notice when the model has recovered.
+ *
+ * Usage:
+ *
+ * <pre>
+ * String answer = modelTiers.call("router", options -> chatClient.prompt()
+ *         .user(input)
+ *         .options(options)
+ *         .call()
+ *         .content());
+ * </pre>
+ *
+ * =============================================================================
+ */
+@Component
+public class ModelTierPolicy {
+
+    private static final Logger logger = LoggerFactory.getLogger(ModelTierPolicy.class);
+
+    // Weight of the newest sample in the latency moving average
+    private static final double LATENCY_SMOOTHING = 0.2;
+
+    private static final Duration PROBE_INTERVAL = Duration.ofSeconds(5);
+
+    private final ModelTierProperties properties;
+    private final long probeIntervalNanos;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicBoolean degraded = new AtomicBoolean();
+    private volatile double averageLatencyMillis;
+    // When the last STANDARD latency sample came in, or a probe was let through
+    private volatile long lastStandardNanos = System.nanoTime();
+
+    @Autowired
+    public ModelTierPolicy(ModelTierProperties properties) {
+        this(properties, PROBE_INTERVAL);
+    }
+
+    ModelTierPolicy(ModelTierProperties properties, Duration probeInterval) {
+        this.properties = properties;
+        this.probeIntervalNanos = probeInterval.toNanos();
+    }
+
+    /**
+     * Runs a chat call with the options for the given call site, tracking
+     * in-flight count and latency for the load policy.
+     */
+    public <T> T call(String callSite, Function<OpenAiChatOptions, T> call) {
+        ModelTier tier = resolve(callSite);
+        inFlight.incrementAndGet();
+        long start = System.nanoTime();
+        try {
+            return call.apply(options(tier));
+        } finally {
+            inFlight.decrementAndGet();
+            recordLatency(tier, start);
+        }
+    }
+
+    /**
+     * Streaming variant of {@link #call}: the call counts as in flight until
+     * the stream terminates or is cancelled; its latency is the time to the
+     * first element (or to the end, if none came).
+     */
+    public <T> Flux<T> stream(String callSite, Function<OpenAiChatOptions, Flux<T>> call) {
+        return Flux.defer(() -> {
+            ModelTier tier = resolve(callSite);
+            inFlight.incrementAndGet();
+            long start = System.nanoTime();
+            AtomicBoolean recorded = new AtomicBoolean();
+            return call.apply(options(tier))
+                    .doOnNext(element -> {
+                        if (recorded.compareAndSet(false, true)) {
+                            recordLatency(tier, start);
+                        }
+                    })
+                    .doFinally(signal -> {
+                        inFlight.decrementAndGet();
+                        // A client going away says nothing about the model
+                        if (signal != SignalType.CANCEL && recorded.compareAndSet(false, true)) {
+                            recordLatency(tier, start);
+                        }
+                    });
+        });
+    }
+
+    /**
+     * Builds the chat options (currently only the model) for a call site.
+     */
+    public OpenAiChatOptions options(String callSite) {
+        return options(resolve(callSite));
+    }
+
+    private OpenAiChatOptions options(ModelTier tier) {
+        return OpenAiChatOptions.builder()
+                .model(modelFor(tier))
+                .build();
+    }
+
+    /**
+     * Resolves the tier for a call site, taking current load into account.
+     * With tiering disabled every call site gets STANDARD, the default model.
+     */
+    public ModelTier resolve(String callSite) {
+        if (!properties.enabled()) {
+            return ModelTier.STANDARD;
+        }
+        ModelTier profile = properties.callSites().getOrDefault(callSite, ModelTier.STANDARD);
+        if (profile == ModelTier.FAST) {
+            return profile;
+        }
+        return overloaded() && !probe() ? ModelTier.FAST : ModelTier.STANDARD;
+    }
+
+    public String modelFor(ModelTier tier) {
+        return tier == ModelTier.FAST ? properties.fastModel() : properties.standardModel();
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    public double averageLatencyMillis() {
+        return averageLatencyMillis;
+    }
+
+    private boolean overloaded() {
+        boolean overloaded = inFlight.get() > properties.maxInFlight()
+                || averageLatencyMillis > properties.latencyThreshold().toMillis();
+        if (degraded.compareAndSet(!overloaded, overloaded)) {
+            if (overloaded) {
+                logger.warn("🐢 Model tiering: upstream overloaded (in-flight={}, avg latency={} ms), downgrading to {}",
+                        inFlight.get(), Math.round(averageLatencyMillis), properties.fastModel());
+            } else {
+                logger.info("🚀 Model tiering: load back to normal, using {} again", properties.standardModel());
+            }
+        }
+        return overloaded;
+    }
+
+    /**
+     * Whether to let a STANDARD call through despite high latency: without
+     * new samples the average would never come down.
+     */
+    private synchronized boolean probe() {
+        long now = System.nanoTime();
+        if (inFlight.get() > properties.maxInFlight() || now - lastStandardNanos < probeIntervalNanos) {
+            return false;
+        }
+        lastStandardNanos = now;
+        return true;
+    }
+
+    private synchronized void recordLatency(ModelTier tier, long startNanos) {
+        if (tier != ModelTier.STANDARD) {
+            return;
+        }
+        long now = System.nanoTime();
+        double millis = (now - startNanos) / 1_000_000.0;
+        lastStandardNanos = now;
+        averageLatencyMillis = averageLatencyMillis == 0
+                ? millis
+                : LATENCY_SMOOTHING * millis + (1 - LATENCY_SMOOTHING) * averageLatencyMillis;
+    }
+}
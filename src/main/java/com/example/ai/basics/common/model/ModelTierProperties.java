@@ -0,0 +1,35 @@
+package com.example.ai.basics.common.model;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Configuration for per-call-site model tiering.
+ *
+ * @param enabled          when false every call uses the default model
+ * @param fastModel        model used for the FAST tier
+ * @param standardModel    model used for the STANDARD tier
+ * @param callSites        tier profile per call site (e.g. router=FAST);
+ *                         unlisted call sites use STANDARD
+ * @param maxInFlight      in-flight model calls above which STANDARD calls
+ *                         are downgraded to FAST
+ * @param latencyThreshold average latency of STANDARD calls (time to first
+ *                         token for streams) above which they are
+ *                         downgraded to FAST
+ */
+@ConfigurationProperties("ai.model-tiers")
+public record ModelTierProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("llama3.2:1b") String fastModel,
+        @DefaultValue("llama3.2:3b") String standardModel,
+        Map<String, ModelTier> callSites,
+        @DefaultValue("8") int maxInFlight,
+        @DefaultValue("10s") Duration latencyThreshold) {
+
+    public ModelTierProperties {
+        callSites = callSites == null ? Map.of() : Map.copyOf(callSites);
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.ai.basics.common.prompt;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A prompt template parsed once into a render plan: the literal text
+ * between placeholders and, for each placeholder, which variable goes
+ * there. Rendering is then a single pass of appends into a builder sized
+ * up front; the template text is never scanned again.
+ *
+ * Syntax (the subset of Spring AI's PromptTemplate the prompts use):
+ * {name} is a variable (letters, digits, underscores), \{ and \} are
+ * literal braces. Anything else with a brace is rejected when compiling.
+ *
+ * Immutable and thread-safe.
+ */
+public final class CompiledPromptTemplate {
+
+    private final String name;
+    // literals[i] comes before placeholder i; literals has one more entry
+    private final String[] literals;
+    // Index into variables for every placeholder, in order
+    private final int[] slots;
+    private final List<String> variables;
+    private final int literalLength;
+
+    private CompiledPromptTemplate(String name, List<String> literals, List<Integer> slots, List<String> variables) {
+        this.name = name;
+        this.literals = literals.toArray(String[]::new);
+        this.slots = slots.stream().mapToInt(Integer::intValue).toArray();
+        this.variables = List.copyOf(variables);
+        this.literalLength = literals.stream().mapToInt(String::length).sum();
+    }
+
+    /**
+     * Parses a template.
+     *
+     * @throws IllegalArgumentException if the template is malformed
+     */
+    public static CompiledPromptTemplate compile(String name, String template) {
+        List<String> literals = new ArrayList<>();
+        List<Integer> slots = new ArrayList<>();
+        List<String> variables = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+
+        int i = 0;
+        while (i < template.length()) {
+            char c = template.charAt(i);
+            if (c == '\\' && i + 1 < template.length() && (template.charAt(i + 1) == '{'
+                    || template.charAt(i + 1) == '}')) {
+                literal.append(template.charAt(i + 1));
+                i += 2;
+            } else if (c == '{') {
+                int end = template.indexOf('}', i + 1);
+                if (end < 0) {
+                    throw error(name, template, i, "unclosed '{'");
+                }
+                String variable = template.substring(i + 1, end);
+                if (!isVariableName(variable)) {
+                    throw error(name, template, i, "invalid variable name '" + variable + "'");
+                }
+                int slot = variables.indexOf(variable);
+                if (slot < 0) {
+                    variables.add(variable);
+                    slot = variables.size() - 1;
+                }
+                slots.add(slot);
+                literals.add(literal.toString());
+                literal.setLength(0);
+                i = end + 1;
+            } else if (c == '}') {
+                throw error(name, template, i, "unmatched '}'");
+            } else {
+                literal.append(c);
+                i++;
+            }
+        }
+        literals.add(literal.toString());
+        return new CompiledPromptTemplate(name, literals, slots, variables);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /**
+     * The variables, in order of first appearance.
+     */
+    public List<String> variables() {
+        return variables;
+    }
+
+    /**
+     * Fills in the variables.
+     *
+     * @throws IllegalArgumentException if a variable is missing or unknown
+     */
+    public String render(Map<String, ?> values) {
+        String[] resolved = resolve(values);
+        StringBuilder out = new StringBuilder(length(resolved));
+        append(out, resolved);
+        return out.toString();
+    }
+
+    /**
+     * Appends the filled-in template to a builder the caller may reuse.
+     *
+     * @throws IllegalArgumentException if a variable is missing or unknown
+     */
+    public StringBuilder renderTo(StringBuilder out, Map<String, ?> values) {
+        String[] resolved = resolve(values);
+        out.ensureCapacity(out.length() + length(resolved));
+        append(out, resolved);
+        return out;
+    }
+
+    private String[] resolve(Map<String, ?> values) {
+        for (String key : values.keySet()) {
+            if (!variables.contains(key)) {
+                throw new IllegalArgumentException("Prompt template '" + name + "' has no variable '" + key
+                        + "', only " + variables);
+            }
+        }
+        String[] resolved = new String[variables.size()];
+        for (int v = 0; v < resolved.length; v++) {
+            Object value = values.get(variables.get(v));
+            if (value == null) {
+                throw new IllegalArgumentException("Prompt template '" + name + "' is missing variable '"
+                        + variables.get(v) + "'");
+            }
+            resolved[v] = value.toString();
+        }
+        return resolved;
+    }
+
+    private int length(String[] resolved) {
+        int length = literalLength;
+        for (int slot : slots) {
+            length += resolved[slot].length();
+        }
+        return length;
+    }
+
+    private void append(StringBuilder out, String[] resolved) {
+        for (int i = 0; i < slots.length; i++) {
+            out.append(literals[i]).append(resolved[slots[i]]);
+        }
+        out.append(literals[slots.length]);
+    }
+
+    private static boolean isVariableName(String variable) {
+        if (variable.isEmpty() || Character.isDigit(variable.charAt(0))) {
+            return false;
+        }
+        for (int i = 0; i < variable.length(); i++) {
+            char c = variable.charAt(i);
+            if (!(Character.isLetterOrDigit(c) || c == '_')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static IllegalArgumentException error(String name, String template, int position, String message) {
+        int line = 1;
+        int column = 1;
+        for (int i = 0; i < position; i++) {
+            if (template.charAt(i) == '\n') {
+                line++;
+                column = 1;
+            } else {
+                column++;
+            }
+        }
+        return new IllegalArgumentException(String.format(Locale.ROOT,
+                "Invalid prompt template '%s' at line %d, column %d: %s", name, line, column, message));
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.ai.basics.common.prompt;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * =============================================================================
+ * PROMPT TEMPLATE REGISTRY - Templates compiled once, at startup
+ * =============================================================================
+ *
+ * Creating a PromptTemplate per request parses the template text on every
+ * call. The registry instead compiles every prompts/NAME.st file on the
+ * classpath once, when the application starts, into a
+ * {@link CompiledPromptTemplate}; requests only fill in the variables.
+ *
+ * Controllers look their templates up in their constructors with the
+ * variables they are going to pass:
+ *
+ * <pre>
+ * this.answerTemplate = templates.get("study-assistant-answer", "context", "question");
+ * </pre>
+ *
+ * so a malformed template, a missing one or a renamed variable stops the
+ * application from starting instead of failing requests later.
+ *
+ * =============================================================================
+ */
+@Component
+public class PromptTemplateRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(PromptTemplateRegistry.class);
+
+    private static final String LOCATION = "classpath*:prompts/*.st";
+    private static final String EXTENSION = ".st";
+
+    private final Map<String, CompiledPromptTemplate> templates = new TreeMap<>();
+
+    public PromptTemplateRegistry() {
+        this(load());
+    }
+
+    /**
+     * Compiles the given template sources, by name.
+     *
+     * @throws IllegalStateException if a template doesn't compile
+     */
+    PromptTemplateRegistry(Map<String, String> sources) {
+        long start = System.nanoTime();
+        sources.forEach((name, text) -> {
+            try {
+                templates.put(name, CompiledPromptTemplate.compile(name, text));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalStateException(e.getMessage(), e);
+            }
+        });
+        logger.info("📝 Compiled {} prompt templates in {} µs: {}", templates.size(),
+                (System.nanoTime() - start) / 1_000, templates.keySet());
+    }
+
+    /**
+     * The template with this name, checked to use exactly these variables.
+     *
+     * @throws IllegalStateException if there is no such template or its
+     *         variables differ
+     */
+    public CompiledPromptTemplate get(String name, String... variables) {
+        CompiledPromptTemplate template = templates.get(name);
+        if (template == null) {
+            throw new IllegalStateException("No prompt template '" + name + "' (prompts/" + name + EXTENSION
+                    + "), only " + templates.keySet());
+        }
+        if (!template.variables().stream().sorted().toList().equals(Arrays.stream(variables).sorted().toList())) {
+            throw new IllegalStateException("Prompt template '" + name + "' uses variables " + template.variables()
+                    + " but is rendered with " + List.of(variables));
+        }
+        return template;
+    }
+
+    private static Map<String, String> load() {
+        Map<String, String> sources = new LinkedHashMap<>();
+        try {
+            for (Resource resource : new PathMatchingResourcePatternResolver().getResources(LOCATION)) {
+                String filename = resource.getFilename();
+                String name = filename.substring(0, filename.length() - EXTENSION.length());
+                sources.put(name, resource.getContentAsString(StandardCharsets.UTF_8));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read prompt templates from " + LOCATION, e);
+        }
+        return sources;
+    }
+}
@@ -0,0 +1,213 @@
+package com.example.ai.basics.common.tools;
+
+import com.example.ai.basics.common.metrics.LlmMetrics;
+import com.example.ai.basics.common.model.ModelTierPolicy;
+import com.example.ai.basics.common.tracing.ContextPropagation;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.messages.ToolResponseMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.model.function.FunctionCallback;
+import org.springframework.ai.model.function.FunctionCallbackResolver;
+import org.springframework.ai.openai.OpenAiChatOptions;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * =============================================================================
+ * PARALLEL TOOL EXECUTION
+ * =============================================================================
+ *
+ * When the model asks for several tools in one turn (e.g. flightSearch AND
+ * hotelSearch, or currentWeather for two cities), Spring AI runs them one
+ * after another. This executor asks the model to hand the tool calls back
+ * (proxyToolCalls) and runs the independent calls of a turn concurrently:
+ *
+ * 1. Send the conversation with the tool definitions
+ * 2. If the model answers with tool calls, start them all on a bounded pool
+ *    (calls that don't fit in the pool and its queue are rejected)
+ * 3. Wait for each one with its own timeout
+ * 4. Return the results to the model in call order and repeat
+ *
+ * A turn with N tools now costs max(tool) instead of sum(tool).
+ *
+ * =============================================================================
+ */
+@Component
+public class ParallelToolExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ParallelToolExecutor.class);
+
+    private final ChatModel chatModel;
+    private final FunctionCallbackResolver functionResolver;
+    private final ModelTierPolicy modelTiers;
+    private final ToolExecutionProperties properties;
+    private final LlmMetrics metrics;
+    private final ObservationRegistry observations;
+    private final ThreadPoolExecutor pool;
+    // Same pool, but tool calls keep the request's trace context
+    private final ExecutorService executor;
+
+    public ParallelToolExecutor(
+            ChatModel chatModel,
+            FunctionCallbackResolver functionResolver,
+            ModelTierPolicy modelTiers,
+            ToolExecutionProperties properties,
+            LlmMetrics metrics,
+            ObservationRegistry observations) {
+        this.chatModel = chatModel;
+        this.functionResolver = functionResolver;
+        this.modelTiers = modelTiers;
+        this.properties = properties;
+        this.metrics = metrics;
+        this.observations = observations;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(
+                properties.poolSize(), properties.poolSize(),
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(properties.queueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "tool-exec-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                // Pool saturated: reject instead of running the tool on the request
+                // thread, where no timeout could stop it
+                new ThreadPoolExecutor.AbortPolicy());
+        this.pool.allowCoreThreadTimeOut(true);
+        this.executor = ContextPropagation.wrap(pool);
+    }
+
+    /**
+     * Runs a prompt with the given tools enabled and returns the final answer.
+     *
+     * @param system optional system prompt (may be null)
+     * @param user   the user message
+     * @param tools  names of the function beans the model may call
+     */
+    public String chat(String system, String user, String... tools) {
+        List<Message> messages = new ArrayList<>();
+        if (system != null) {
+            messages.add(new SystemMessage(system));
+        }
+        messages.add(new UserMessage(user));
+
+        for (int round = 0; round < properties.maxRounds(); round++) {
+            ChatResponse response = modelTiers.call("tools", tierOptions -> callModel(new Prompt(
+                    messages,
+                    OpenAiChatOptions.builder()
+                            .model(tierOptions.getModel())
+                            .functions(Set.of(tools))
+                            .proxyToolCalls(true)
+                            .build())));
+
+            AssistantMessage assistant = response.getResult().getOutput();
+            if (!assistant.hasToolCalls()) {
+                return assistant.getContent();
+            }
+
+            messages.add(assistant);
+            messages.add(new ToolResponseMessage(executeAll(assistant.getToolCalls())));
+        }
+
+        logger.warn("🛠️ Tool loop stopped after {} rounds", properties.maxRounds());
+        return "Stopped after %d tool rounds without a final answer.".formatted(properties.maxRounds());
+    }
+
+    /**
+     * Executes all tool calls of one model turn concurrently and returns their
+     * responses in the order the model requested them.
+     */
+    public List<ToolResponseMessage.ToolResponse> executeAll(List<AssistantMessage.ToolCall> toolCalls) {
+        logger.info("🛠️ Executing {} tool call(s) in parallel", toolCalls.size());
+        long start = System.nanoTime();
+
+        List<Future<String>> running = new ArrayList<>(toolCalls.size());
+        for (AssistantMessage.ToolCall toolCall : toolCalls) {
+            try {
+                running.add(executor.submit(() -> invoke(toolCall)));
+            } catch (RejectedExecutionException e) {
+                logger.warn("🚫 Tool {} rejected, tool pool saturated", toolCall.name());
+                running.add(CompletableFuture.completedFuture(
+                        "Tool %s rejected: too many tool calls running".formatted(toolCall.name())));
+            }
+        }
+
+        List<ToolResponseMessage.ToolResponse> responses = new ArrayList<>(toolCalls.size());
+        for (int i = 0; i < toolCalls.size(); i++) {
+            AssistantMessage.ToolCall toolCall = toolCalls.get(i);
+            responses.add(new ToolResponseMessage.ToolResponse(
+                    toolCall.id(), toolCall.name(), await(toolCall, running.get(i), start)));
+        }
+        return responses;
+    }
+
+    private ChatResponse callModel(Prompt prompt) {
+        LlmMetrics.ChatCall call = metrics.startChat(ParallelToolExecutor.class.getSimpleName(), "call");
+        try {
+            ChatResponse response = chatModel.call(prompt);
+            call.success(response);
+            return response;
+        } catch (RuntimeException e) {
+            call.failure(e);
+            throw e;
+        }
+    }
+
+    private String invoke(AssistantMessage.ToolCall toolCall) {
+        FunctionCallback function = functionResolver.resolve(toolCall.name());
+        if (function == null) {
+            return "Unknown tool: " + toolCall.name();
+        }
+        return Observation.createNotStarted("ai.tool", observations)
+                .contextualName("tool " + toolCall.name())
+                .lowCardinalityKeyValue("tool", toolCall.name())
+                .observe(() -> metrics.timeTool(toolCall.name(), () -> function.call(toolCall.arguments())));
+    }
+
+    private String await(AssistantMessage.ToolCall toolCall, Future<String> result, long startNanos) {
+        // Every call started at the same time, so its deadline is relative to the batch start
+        long deadline = startNanos + properties.timeoutFor(toolCall.name()).toNanos();
+        try {
+            return result.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            result.cancel(true);
+            logger.warn("⏱️ Tool {} timed out", toolCall.name());
+            return "Tool %s timed out after %s".formatted(toolCall.name(), properties.timeoutFor(toolCall.name()));
+        } catch (ExecutionException e) {
+            logger.error("Tool {} failed", toolCall.name(), e.getCause());
+            return "Tool %s failed: %s".formatted(toolCall.name(), e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.cancel(true);
+            return "Tool %s was interrupted".formatted(toolCall.name());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
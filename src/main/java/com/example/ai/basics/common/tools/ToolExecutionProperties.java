@@ -0,0 +1,34 @@
+package com.example.ai.basics.common.tools;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Configuration for {@link ParallelToolExecutor}.
+ *
+ * @param poolSize       threads available for running tool calls
+ * @param queueCapacity  tool calls that may wait for a thread; further
+ *                       calls are rejected and reported to the model
+ * @param defaultTimeout timeout for tools without an explicit entry
+ * @param timeouts       per-tool timeouts by function name
+ * @param maxRounds      model turns allowed before giving up on tool calls
+ */
+@ConfigurationProperties("ai.tools")
+public record ToolExecutionProperties(
+        @DefaultValue("8") int poolSize,
+        @DefaultValue("64") int queueCapacity,
+        @DefaultValue("10s") Duration defaultTimeout,
+        Map<String, Duration> timeouts,
+        @DefaultValue("5") int maxRounds) {
+
+    public ToolExecutionProperties {
+        timeouts = timeouts == null ? Map.of() : Map.copyOf(timeouts);
+    }
+
+    public Duration timeoutFor(String toolName) {
+        return timeouts.getOrDefault(toolName, defaultTimeout);
+    }
+}
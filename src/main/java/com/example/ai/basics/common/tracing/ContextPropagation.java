@@ -0,0 +1,35 @@
+package com.example.ai.basics.common.tracing;
+
+import io.micrometer.context.ContextExecutorService;
+import io.micrometer.context.ContextRegistry;
+import io.micrometer.context.ContextSnapshotFactory;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Helpers for keeping the current trace (and request) when work moves to
+ * another thread.
+ *
+ * Plain CompletableFuture.supplyAsync(...) loses the caller's span, so agent
+ * calls fanned out that way show up as unrelated root traces. Submitting the
+ * work to an executor wrapped here captures the caller's context and restores
+ * it on the worker thread.
+ */
+public final class ContextPropagation {
+
+    static {
+        ContextRegistry.getInstance().registerThreadLocalAccessor(new RequestAttributesAccessor());
+    }
+
+    private static final ContextSnapshotFactory SNAPSHOTS = ContextSnapshotFactory.builder().build();
+
+    private ContextPropagation() {
+    }
+
+    /**
+     * Wraps an executor so every task runs with the submitter's context.
+     */
+    public static ExecutorService wrap(ExecutorService executor) {
+        return ContextExecutorService.wrap(executor, SNAPSHOTS);
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.ai.basics.common.tracing;
+
+import io.micrometer.context.ThreadLocalAccessor;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * Carries Spring's request attributes across thread hops (together with the
+ * current trace), so work fanned out to other threads still knows which
+ * endpoint it is serving.
+ */
+class RequestAttributesAccessor implements ThreadLocalAccessor<RequestAttributes> {
+
+    static final String KEY = RequestAttributesAccessor.class.getName();
+
+    @Override
+    public Object key() {
+        return KEY;
+    }
+
+    @Override
+    public RequestAttributes getValue() {
+        return RequestContextHolder.getRequestAttributes();
+    }
+
+    @Override
+    public void setValue(RequestAttributes value) {
+        RequestContextHolder.setRequestAttributes(value);
+    }
+
+    @Override
+    public void setValue() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+}
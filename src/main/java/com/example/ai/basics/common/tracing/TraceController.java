@@ -0,0 +1,143 @@
+package com.example.ai.basics.common.tracing;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * =============================================================================
+ * TRACE VIEWER (in-memory)
+ * =============================================================================
+ *
+ * Shows which agent call dominated a slow request. Every request to
+ * /incident, /incident/parallel or /multi-agent/router produces one trace:
+ *
+ * http get /incident/parallel ............ 41230 ms
+ *   ParallelIncidentService.runInParallel  18020 ms
+ *     LogAnalysisAgent.analyze ........... 17990 ms
+ *       chat llama3.2:3b ................. 17985 ms  tokens=412/903
+ *     ...
+ *
+ * TRY IT:
+ * GET http://localhost:8080/traces?limit=20
+ * GET http://localhost:8080/traces/{traceId}
+ *
+ * Spans are exported in batches, so a trace appears a few seconds after the
+ * request finished.
+ *
+ * =============================================================================
+ */
+@RestController
+@RequestMapping("/traces")
+public class TraceController {
+
+    // Token usage attributes reported by Spring AI model observations
+    private static final AttributeKey<String> INPUT_TOKENS = AttributeKey.stringKey("gen_ai.usage.input_tokens");
+    private static final AttributeKey<String> OUTPUT_TOKENS = AttributeKey.stringKey("gen_ai.usage.output_tokens");
+
+    private final InMemorySpanExporter exporter;
+
+    public TraceController(InMemorySpanExporter exporter) {
+        this.exporter = exporter;
+    }
+
+    @GetMapping
+    public String listTraces(@RequestParam(defaultValue = "20") int limit) {
+        Map<String, List<SpanData>> traces = groupByTrace();
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("=================================================================\n");
+        sb.append("🔭 RECENT TRACES (%d retained)\n".formatted(traces.size()));
+        sb.append("=================================================================\n\n");
+
+        traces.values().stream()
+                .map(this::root)
+                .sorted(Comparator.comparingLong(SpanData::getStartEpochNanos).reversed())
+                .limit(limit)
+                .forEach(root -> sb.append("%s  %8d ms  %s (%d spans)\n".formatted(
+                        root.getTraceId(), millis(root), root.getName(), traces.get(root.getTraceId()).size())));
+
+        return sb.toString();
+    }
+
+    @GetMapping("/{traceId}")
+    public String showTrace(@PathVariable String traceId) {
+        List<SpanData> spans = groupByTrace().get(traceId);
+        if (spans == null) {
+            return "❌ Trace not found (it may not be exported yet or was evicted): " + traceId;
+        }
+
+        Map<String, List<SpanData>> children = spans.stream()
+                .sorted(Comparator.comparingLong(SpanData::getStartEpochNanos))
+                .collect(Collectors.groupingBy(SpanData::getParentSpanId, LinkedHashMap::new, Collectors.toList()));
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("=================================================================\n");
+        sb.append("🔭 TRACE %s\n".formatted(traceId));
+        sb.append("=================================================================\n\n");
+        SpanData root = root(spans);
+        appendSpan(sb, root, children, root.getStartEpochNanos(), 0);
+        return sb.toString();
+    }
+
+    @DeleteMapping
+    public String clearTraces() {
+        exporter.clear();
+        return "🗑️ Trace store cleared.";
+    }
+
+    private void appendSpan(StringBuilder sb, SpanData span, Map<String, List<SpanData>> children,
+            long traceStartNanos, int depth) {
+        String tokens = span.getAttributes().get(INPUT_TOKENS) != null
+                ? "  tokens=%s/%s".formatted(span.getAttributes().get(INPUT_TOKENS),
+                        span.getAttributes().get(OUTPUT_TOKENS))
+                : "";
+        sb.append("%s%-50s %8d ms  (+%d ms)%s%s\n".formatted(
+                "  ".repeat(depth),
+                span.getName(),
+                millis(span),
+                (span.getStartEpochNanos() - traceStartNanos) / 1_000_000,
+                tokens,
+                span.getStatus().getStatusCode() == StatusCode.ERROR ? "  ❌" : ""));
+
+        for (SpanData child : children.getOrDefault(span.getSpanId(), List.of())) {
+            appendSpan(sb, child, children, traceStartNanos, depth + 1);
+        }
+    }
+
+    private Map<String, List<SpanData>> groupByTrace() {
+        Map<String, List<SpanData>> traces = new LinkedHashMap<>();
+        for (SpanData span : exporter.spans()) {
+            traces.computeIfAbsent(span.getTraceId(), id -> new ArrayList<>()).add(span);
+        }
+        return traces;
+    }
+
+    /**
+     * The root is the span whose parent isn't part of the retained trace.
+     */
+    private SpanData root(List<SpanData> spans) {
+        var spanIds = spans.stream().map(SpanData::getSpanId).collect(Collectors.toSet());
+        return spans.stream()
+                .filter(span -> !spanIds.contains(span.getParentSpanId()))
+                .min(Comparator.comparingLong(SpanData::getStartEpochNanos))
+                .orElse(spans.get(0));
+    }
+
+    private static long millis(SpanData span) {
+        return (span.getEndEpochNanos() - span.getStartEpochNanos()) / 1_000_000;
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.ai.basics.common.tracing;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registers the in-memory span exporter. Spring Boot's OpenTelemetry
+ * auto-configuration picks up every SpanExporter bean, so spans from HTTP
+ * requests, @Observed agent methods, Spring AI model calls and tool calls
+ * all end up here and can be browsed at /traces.
+ */
+@Configuration
+public class TracingConfiguration {
+
+    @Bean
+    public InMemorySpanExporter inMemorySpanExporter(
+            @Value("${tracing.in-memory.capacity:5000}") int capacity) {
+        return new InMemorySpanExporter(capacity);
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.ai.basics.day1.controller;
 
+import com.example.ai.basics.common.metrics.LlmMetrics;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.web.bind.annotation.*;
 
@@ -46,9 +47,9 @@ public class Part2BasicPromptController {
      */
     private final ChatClient chatClient;
 
-    public Part2BasicPromptController(ChatClient.Builder chatClientBuilder) {
+    public Part2BasicPromptController(ChatClient.Builder chatClientBuilder, LlmMetrics metrics) {
         // Build the ChatClient with default configuration
-        this.chatClient = chatClientBuilder.build();
+        this.chatClient = chatClientBuilder.defaultAdvisors(metrics.advisor(Part2BasicPromptController.class)).build();
     }
 
     /**
@@ -1,7 +1,9 @@
 package com.example.ai.basics.day1.controller;
 
+import com.example.ai.basics.common.metrics.LlmMetrics;
+import com.example.ai.basics.common.prompt.CompiledPromptTemplate;
+import com.example.ai.basics.common.prompt.PromptTemplateRegistry;
 import org.springframework.ai.chat.client.ChatClient;
-import org.springframework.ai.chat.prompt.PromptTemplate;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Map;
@@ -36,9 +38,12 @@ import java.util.Map;
 public class Part3PromptTemplateController {
 
     private final ChatClient chatClient;
+    private final CompiledPromptTemplate explainTemplate;
 
-    public Part3PromptTemplateController(ChatClient.Builder chatClientBuilder) {
-        this.chatClient = chatClientBuilder.build();
+    public Part3PromptTemplateController(ChatClient.Builder chatClientBuilder, LlmMetrics metrics,
+            PromptTemplateRegistry templates) {
+        this.chatClient = chatClientBuilder.defaultAdvisors(metrics.advisor(Part3PromptTemplateController.class)).build();
+        this.explainTemplate = templates.get("explain-topic", "topic", "audience", "style");
     }
 
     /**
@@ -119,10 +124,16 @@ public class Part3PromptTemplateController {
     }
 
     /**
-     * EXERCISE 3.2: Using Spring AI's PromptTemplate
+     * EXERCISE 3.2: Using Prompt Templates
      * 
-     * Spring AI provides PromptTemplate for dynamic prompt generation.
-     * Variables are defined with {placeholder} syntax.
+     * Templates keep the prompt structure apart from the values filled in.
+     * Variables are defined with {placeholder} syntax, as in Spring AI's
+     * PromptTemplate.
+     * 
+     * The template lives in src/main/resources/prompts/explain-topic.st.
+     * PromptTemplateRegistry compiles it once at startup (a broken template
+     * stops the application from starting), so a request only fills in the
+     * variables instead of parsing the template again.
      * 
      * TRY IT:
      * GET
@@ -134,22 +145,8 @@ public class Part3PromptTemplateController {
             @RequestParam(defaultValue = "beginner") String audience,
             @RequestParam(defaultValue = "friendly") String style) {
 
-        // Define the template with placeholders
-        String templateString = """
-                You are a {style} teacher explaining concepts to a {audience}.
-
-                Explain "{topic}" in a way that is:
-                - Easy to understand for your audience
-                - Engaging and memorable
-                - Practical with real examples
-
-                Include one analogy and one practical tip.
-                Keep your response under 200 words.
-                """;
-
-        // Create PromptTemplate and fill in variables
-        PromptTemplate template = new PromptTemplate(templateString);
-        String filledPrompt = template.render(Map.of(
+        // Fill in the variables of the precompiled template
+        String filledPrompt = explainTemplate.render(Map.of(
                 "topic", topic,
                 "audience", audience,
                 "style", style));
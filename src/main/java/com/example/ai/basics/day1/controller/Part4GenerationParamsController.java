@@ -1,5 +1,6 @@
 package com.example.ai.basics.day1.controller;
 
+import com.example.ai.basics.common.metrics.LlmMetrics;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.ai.openai.OpenAiChatOptions;
 import org.springframework.web.bind.annotation.*;
@@ -45,8 +46,8 @@ public class Part4GenerationParamsController {
 
     private final ChatClient chatClient;
 
-    public Part4GenerationParamsController(ChatClient.Builder chatClientBuilder) {
-        this.chatClient = chatClientBuilder.build();
+    public Part4GenerationParamsController(ChatClient.Builder chatClientBuilder, LlmMetrics metrics) {
+        this.chatClient = chatClientBuilder.defaultAdvisors(metrics.advisor(Part4GenerationParamsController.class)).build();
     }
 
     /**
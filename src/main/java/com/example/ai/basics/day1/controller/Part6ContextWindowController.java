@@ -1,8 +1,17 @@
 package com.example.ai.basics.day1.controller;
 
+import com.example.ai.basics.common.metrics.LlmMetrics;
+import com.example.ai.basics.day1.service.TokenizerFamily;
+import com.example.ai.basics.day1.service.TokenizerService;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.ai.openai.OpenAiChatOptions;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.Locale;
 
 /**
  * =============================================================================
@@ -44,9 +53,14 @@ import org.springframework.web.bind.annotation.*;
 public class Part6ContextWindowController {
 
     private final ChatClient chatClient;
-
-    public Part6ContextWindowController(ChatClient.Builder chatClientBuilder) {
-        this.chatClient = chatClientBuilder.build();
+    private final TokenizerService tokenizer;
+
+    public Part6ContextWindowController(
+            ChatClient.Builder chatClientBuilder,
+            LlmMetrics metrics,
+            TokenizerService tokenizer) {
+        this.chatClient = chatClientBuilder.defaultAdvisors(metrics.advisor(Part6ContextWindowController.class)).build();
+        this.tokenizer = tokenizer;
     }
 
     /**
@@ -255,7 +269,7 @@ public class Part6ContextWindowController {
     /**
      * EXERCISE 6.4: Estimate Token Count
      * 
-     * A rough tool to help understand tokenization.
+     * Compares the rules of thumb with a real BPE tokenizer count.
      * 
      * TRY IT: GET http://localhost:8080/context-window/estimate-tokens?text=Hello
      * world, how are you today?
@@ -271,6 +285,12 @@ public class Part6ContextWindowController {
         // Alternative estimation based on words
         int tokensByWords = (int) (wordCount * 1.3); // ~1.3 tokens per word
 
+        // What the model's tokenizer actually produces
+        TokenizerFamily family = tokenizer.defaultFamily();
+        int actualTokens = tokenizer.countTokens(family, text);
+        String warning = tokenizer.warning(family);
+        String actualLabel = warning == null ? family + " BPE tokenizer" : "⚠️ " + warning;
+
         return String.format("""
                 =================================================================
                 TOKEN ESTIMATION
@@ -286,6 +306,8 @@ public class Part6ContextWindowController {
                 - By characters (~4 chars/token): ~%d tokens
                 - By words (~1.3 tokens/word): ~%d tokens
 
+                ACTUAL TOKENS (%s): %d tokens
+
                 =================================================================
                 📚 HOW TOKENIZATION WORKS:
 
@@ -306,6 +328,58 @@ public class Part6ContextWindowController {
                 TIP: OpenAI provides a tokenizer tool:
                 https://platform.openai.com/tokenizer
                 =================================================================
-                """, text, charCount, wordCount, estimatedTokens, tokensByWords);
+                """, text, charCount, wordCount, estimatedTokens, tokensByWords, actualLabel, actualTokens);
+    }
+
+    /**
+     * EXERCISE 6.5: Batch Token Count
+     * 
+     * Counts tokens for many texts at once, e.g. to budget a prompt before
+     * sending it. "family" is optional (cl100k or llama3).
+     * 
+     * TRY IT:
+     * POST http://localhost:8080/context-window/count-tokens
+     * Content-Type: application/json
+     * 
+     * {
+     * "texts": ["Hello world", "Spring AI is a great framework"],
+     * "family": "llama3"
+     * }
+     */
+    @PostMapping("/count-tokens")
+    public TokenCountResponse countTokens(@RequestBody TokenCountRequest request) {
+        TokenizerFamily family = request.family() == null || request.family().isBlank()
+                ? tokenizer.defaultFamily()
+                : family(request.family());
+        List<String> texts = request.texts() != null ? request.texts() : List.of();
+        List<Integer> counts = tokenizer.countTokens(family, texts);
+
+        return new TokenCountResponse(
+                family.name().toLowerCase(Locale.ROOT),
+                tokenizer.isExact(family),
+                counts,
+                counts.stream().mapToInt(Integer::intValue).sum(),
+                tokenizer.warning(family));
+    }
+
+    private static TokenizerFamily family(String name) {
+        try {
+            return TokenizerFamily.fromName(name);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Unknown tokenizer family '" + name + "', use cl100k or llama3");
+        }
+    }
+
+    // Request/Response records
+    public record TokenCountRequest(List<String> texts, String family) {
+    }
+
+    /**
+     * @param warning set when the counts are not exact, saying what they are
+     *                based on instead
+     */
+    public record TokenCountResponse(String family, boolean exact, List<Integer> counts, int total,
+            @JsonInclude(JsonInclude.Include.NON_NULL) String warning) {
     }
 }
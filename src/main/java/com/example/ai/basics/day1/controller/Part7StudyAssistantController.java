@@ -1,14 +1,31 @@
 package com.example.ai.basics.day1.controller;
 
+import com.example.ai.basics.common.metrics.LlmMetrics;
+import com.example.ai.basics.common.prompt.CompiledPromptTemplate;
+import com.example.ai.basics.common.prompt.PromptTemplateRegistry;
+import com.example.ai.basics.day1.service.ContextPacker;
+import com.example.ai.basics.day1.service.IngestionPipeline;
+import com.example.ai.basics.day1.service.JsonDocumentReader;
+import com.example.ai.basics.day1.service.MetadataFilter;
+import com.example.ai.basics.day1.service.ShardedVectorStore;
 import com.example.ai.basics.day1.service.SimpleVectorStore;
+import com.example.ai.basics.day1.service.SourceDocument;
+import com.example.ai.basics.day1.service.VectorStoreCollections;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.ai.chat.client.ChatClient;
-import org.springframework.ai.chat.prompt.PromptTemplate;
 import org.springframework.ai.openai.OpenAiChatOptions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
 import java.util.stream.Collectors;
 
 /**
@@ -41,6 +58,16 @@ import java.util.stream.Collectors;
  * A - Augmented: Add retrieved content to the prompt
  * G - Generation: LLM generates answer using context
  * 
+ * COLLECTIONS:
+ * Every endpoint takes an optional "?collection=<name>" (default:
+ * "default"). Each collection has its own notes and indexes, so students
+ * or classes never see, search or delete each other's notes.
+ * 
+ * SHARDING:
+ * With ai.rag.cluster.nodes set, each collection is spread over several
+ * instances (see ShardedVectorStore); these endpoints work the same on
+ * every node.
+ * 
  * =============================================================================
  */
 @RestController
@@ -48,20 +75,42 @@ import java.util.stream.Collectors;
 public class Part7StudyAssistantController {
 
     private final ChatClient chatClient;
-    private final SimpleVectorStore vectorStore;
+    private final CompiledPromptTemplate answerTemplate;
+    private final ShardedVectorStore vectorStore;
+    private final VectorStoreCollections collections;
+    private final ContextPacker contextPacker;
+    private final IngestionPipeline ingestion;
+    private final ObjectMapper objectMapper;
+    private final SimpleVectorStore.SearchMode defaultSearchMode;
+    private final double defaultDiversity;
 
     public Part7StudyAssistantController(
             ChatClient.Builder chatClientBuilder,
-            SimpleVectorStore vectorStore) {
-        this.chatClient = chatClientBuilder.build();
+            LlmMetrics metrics,
+            PromptTemplateRegistry templates,
+            ShardedVectorStore vectorStore,
+            VectorStoreCollections collections,
+            ContextPacker contextPacker,
+            IngestionPipeline ingestion,
+            ObjectMapper objectMapper,
+            @Value("${ai.rag.search-mode:hybrid}") String defaultSearchMode,
+            @Value("${ai.rag.diversity:0}") double defaultDiversity) {
+        this.chatClient = chatClientBuilder.defaultAdvisors(metrics.advisor(Part7StudyAssistantController.class)).build();
+        this.answerTemplate = templates.get("study-assistant-answer", "context", "question");
         this.vectorStore = vectorStore;
+        this.collections = collections;
+        this.contextPacker = contextPacker;
+        this.ingestion = ingestion;
+        this.objectMapper = objectMapper;
+        this.defaultSearchMode = SimpleVectorStore.SearchMode.fromName(defaultSearchMode);
+        this.defaultDiversity = defaultDiversity;
     }
 
     /**
      * EXERCISE 7.1: Add Study Notes
      * 
-     * Upload notes to the study assistant. These get converted to embeddings
-     * and stored for later retrieval.
+     * Upload notes to the study assistant. Long notes are split into chunks,
+     * then converted to embeddings and stored for later retrieval.
      * 
      * TRY IT:
      * POST http://localhost:8080/study-assistant/notes
@@ -79,15 +128,25 @@ public class Part7StudyAssistantController {
      * collection."
      * ]
      * }
+     * 
+     * Optional: "metadata" (e.g. {"subject": "biology", "year": 2024}) is
+     * attached to every note and can be filtered on in /ask.
      */
     @PostMapping("/notes")
-    public String addNotes(@RequestBody NotesRequest request) {
+    public String addNotes(
+            @RequestBody NotesRequest request,
+            @RequestParam(required = false) String collection) throws InterruptedException {
         List<String> notes = request.notes();
-
-        // Store each note with a unique ID
-        for (String note : notes) {
-            String id = UUID.randomUUID().toString();
-            vectorStore.store(id, note);
+        String name = collectionName(collection);
+
+        // Chunk, embed (in batches) and store, waiting for the job to finish
+        IngestionPipeline.IngestionJob job = ingestion.submit(collection, "notes",
+                withMetadata(notes, request.metadata()).iterator());
+        job.await(Duration.ofMinutes(5));
+        IngestionPipeline.IngestionJob.Status status = job.status();
+        if (status.state() != IngestionPipeline.IngestionJob.State.COMPLETED) {
+            return "❌ Adding notes did not complete (%s%s). Check GET /study-assistant/ingest/%s"
+                    .formatted(status.state(), status.error() != null ? ": " + status.error() : "", job.id());
         }
 
         return String.format("""
@@ -95,14 +154,15 @@ public class Part7StudyAssistantController {
                 ✅ NOTES ADDED SUCCESSFULLY
                 =================================================================
 
-                Added %d notes to the study assistant.
+                Added %d notes (%d chunks) to the study assistant.
 
                 WHAT HAPPENED BEHIND THE SCENES:
-                1. Each note was sent to the embedding model
-                2. The model converted text → vector (embedding)
-                3. The embedding was stored in our vector store
+                1. Long notes were split into overlapping chunks
+                2. The chunks were sent to the embedding model in batches
+                3. The model converted text → vector (embedding)
+                4. The embeddings were stored in our vector store
 
-                Total notes in knowledge base: %d
+                Total chunks in knowledge base: %d
 
                 =================================================================
                 NEXT STEP: Ask a question about your notes!
@@ -112,7 +172,79 @@ public class Part7StudyAssistantController {
                   "question": "What is photosynthesis?"
                 }
                 =================================================================
-                """, notes.size(), vectorStore.size());
+                """, notes.size(), status.chunksIndexed(), vectorStore.size(name));
+    }
+
+    /**
+     * EXERCISE 7.1b: Bulk Ingestion
+     * 
+     * Starts a background job for a large batch of documents and returns
+     * right away. Poll the job for progress.
+     * 
+     * TRY IT:
+     * POST http://localhost:8080/study-assistant/ingest
+     * Content-Type: application/json
+     * 
+     * {
+     * "source": "biology-textbook",
+     * "documents": ["Chapter 1 ...", "Chapter 2 ..."]
+     * }
+     * 
+     * GET http://localhost:8080/study-assistant/ingest/{jobId}
+     */
+    @PostMapping("/ingest")
+    public IngestionPipeline.IngestionJob.Status ingest(
+            @RequestBody IngestRequest request,
+            @RequestParam(required = false) String collection) {
+        List<String> documents = request.documents() != null ? request.documents() : List.of();
+        String source = request.source() != null ? request.source() : "api";
+        // Invalid collection names are rejected here with a 400
+        collectionName(collection);
+        return ingestion.submit(collection, source, withMetadata(documents, request.metadata()).iterator()).status();
+    }
+
+    /**
+     * EXERCISE 7.1c: Streaming Upload
+     * 
+     * Ingests an upload of any size: records are parsed one at a time as the
+     * body arrives and fed straight into the ingestion pipeline, so memory
+     * use does not depend on the upload size. The request returns when the
+     * whole upload is indexed.
+     * 
+     * TRY IT (NDJSON, one string or {"text": ..., "metadata": {...}} per line):
+     * curl -X POST http://localhost:8080/study-assistant/notes/stream?source=biology \
+     * -H "Content-Type: application/x-ndjson" --data-binary @notes.ndjson
+     * 
+     * A JSON array of the same records works too (Content-Type:
+     * application/json).
+     */
+    @PostMapping(value = "/notes/stream", consumes = { "application/x-ndjson", MediaType.APPLICATION_JSON_VALUE })
+    public IngestionPipeline.IngestionJob.Status streamNotes(
+            InputStream body,
+            @RequestParam(defaultValue = "stream") String source,
+            @RequestParam(required = false) String collection) throws IOException, InterruptedException {
+        // Invalid collection names are rejected here with a 400
+        collectionName(collection);
+        try (JsonDocumentReader documents = new JsonDocumentReader(objectMapper.getFactory(), body)) {
+            // The pipeline reads the body while this request waits (it must not
+            // return before the stream is consumed); progress is visible at
+            // GET /study-assistant/ingest/{jobId} meanwhile
+            IngestionPipeline.IngestionJob job = ingestion.submit(collection, source, documents);
+            job.await();
+            return job.status();
+        }
+    }
+
+    @GetMapping("/ingest/{jobId}")
+    public IngestionPipeline.IngestionJob.Status ingestStatus(@PathVariable String jobId) {
+        return ingestion.job(jobId)
+                .map(IngestionPipeline.IngestionJob::status)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown job " + jobId));
+    }
+
+    @GetMapping("/ingest")
+    public List<IngestionPipeline.IngestionJob.Status> ingestJobs() {
+        return ingestion.jobs();
     }
 
     /**
@@ -127,43 +259,53 @@ public class Part7StudyAssistantController {
      * {
      * "question": "What produces energy in cells?"
      * }
+     * 
+     * Optional: "topK" (max notes in the context), "temperature",
+     * "tokenBudget" (max context tokens, default ai.rag.packing.token-budget)
+     * "searchMode" (vector, keyword or hybrid; default ai.rag.search-mode)
+     * "filter", a metadata filter such as
+     * "subject == 'biology' && year >= 2023", and "diversity" (0 to 1,
+     * default ai.rag.diversity): above 0, notes are picked with maximal
+     * marginal relevance, so near-identical notes don't fill the context.
      */
     @PostMapping("/ask")
-    public String askQuestion(@RequestBody QuestionRequest request) {
+    public String askQuestion(
+            @RequestBody QuestionRequest request,
+            @RequestParam(required = false) String collection) {
+        String name = collectionName(collection);
         String question = request.question();
         int topK = request.topK() != null ? request.topK() : 2;
         Double temperature = request.temperature() != null ? request.temperature() : 0.7;
+        int tokenBudget = request.tokenBudget() != null ? request.tokenBudget() : contextPacker.defaultTokenBudget();
+        SimpleVectorStore.SearchMode searchMode = request.searchMode() != null
+                ? parseSearchMode(request.searchMode())
+                : defaultSearchMode;
+        MetadataFilter filter = parseFilter(request.filter());
+        double diversity = request.diversity() != null ? request.diversity() : defaultDiversity;
+        if (diversity < 0 || diversity > 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "diversity must be between 0 and 1");
+        }
 
-        // Step 1: Find relevant notes using similarity search
-        List<SimpleVectorStore.SimilarityResult> relevantNotes = vectorStore.findSimilar(question, topK);
+        // Step 1: Find relevant notes using similarity search, keyword search
+        // or both (over-fetch so dropped near-duplicates can be replaced),
+        // among the notes matching the filter, on every shard; with
+        // diversity, redundant notes give way to ones adding something new
+        ShardedVectorStore.SearchResult search = vectorStore.findDiverse(name, question, topK * 2, searchMode, filter,
+                diversity);
+        List<SimpleVectorStore.SimilarityResult> candidates = search.results();
 
-        if (relevantNotes.isEmpty()) {
+        if (candidates.isEmpty()) {
             return "❌ No notes found! Please add some notes first using POST /study-assistant/notes";
         }
 
-        // Step 2: Build context from retrieved notes
-        String context = relevantNotes.stream()
-                .map(r -> "- " + r.text())
-                .collect(Collectors.joining("\n"));
-
-        // Step 3: Create the RAG prompt
-        String ragPromptTemplate = """
-                You are a helpful study assistant. Answer the student's question
-                based ONLY on the provided context. If the context doesn't contain
-                enough information, say so honestly.
-
-                CONTEXT (from study notes):
-                {context}
+        // Step 2: Pack the most relevant notes into the token budget
+        ContextPacker.PackedContext packed = contextPacker.pack(question, candidates, topK, tokenBudget);
+        List<ContextPacker.Passage> relevantNotes = packed.passages();
+        String context = packed.render();
 
-                STUDENT'S QUESTION:
-                {question}
-
-                Provide a clear, educational answer. If helpful, suggest what else
-                the student might want to learn about this topic.
-                """;
-
-        PromptTemplate template = new PromptTemplate(ragPromptTemplate);
-        String filledPrompt = template.render(Map.of(
+        // Step 3: Create the RAG prompt (prompts/study-assistant-answer.st,
+        // compiled at startup)
+        String filledPrompt = answerTemplate.render(Map.of(
                 "context", context,
                 "question", question));
 
@@ -178,13 +320,20 @@ public class Part7StudyAssistantController {
 
         // Format detailed response for learning
         StringBuilder retrievalDetails = new StringBuilder();
-        for (SimpleVectorStore.SimilarityResult note : relevantNotes) {
-            retrievalDetails.append(String.format("  [%.4f] %s\n",
+        for (ContextPacker.Passage note : relevantNotes) {
+            retrievalDetails.append(String.format("  [%.4f] %s%s %s\n",
                     note.similarity(),
+                    note.id(),
+                    note.trimmed() ? " (trimmed)" : "",
                     note.text().length() > 80
                             ? note.text().substring(0, 80) + "..."
                             : note.text()));
         }
+        if (!search.unavailableShards().isEmpty()) {
+            retrievalDetails.append(String.format("  ⚠️ Partial results: %d of %d shards answered in time (missing %s)\n",
+                    search.shards() - search.unavailableShards().size(), search.shards(),
+                    search.unavailableShards()));
+        }
 
         return String.format("""
                 =================================================================
@@ -193,11 +342,12 @@ public class Part7StudyAssistantController {
 
                 📝 YOUR QUESTION: "%s"
 
-                🔍 STEP 1 - RETRIEVAL (Finding relevant notes):
-                Found %d relevant notes (similarity scores):
+                🔍 STEP 1 - RETRIEVAL (Finding relevant notes, %s search):
+                Found %d relevant notes (scores):
                 %s
 
                 📄 STEP 2 - CONTEXT (What the LLM sees):
+                %d of %d budget tokens, %d near-duplicates dropped, %d notes trimmed
                 %s
 
                 🤖 STEP 3 - GENERATION (LLM Answer):
@@ -207,6 +357,7 @@ public class Part7StudyAssistantController {
                 ⚙️ PARAMETERS USED:
                 - Top-K retrieved: %d
                 - Temperature: %.2f
+                - Diversity (MMR): %.2f
 
                 📚 THIS IS RAG IN ACTION!
                 R - Retrieved %d relevant notes using embeddings
@@ -218,8 +369,47 @@ public class Part7StudyAssistantController {
                 - Lower temperature = More factual answers
                 - Higher temperature = More creative explanations
                 =================================================================
-                """, question, relevantNotes.size(), retrievalDetails, context,
-                answer, topK, temperature, relevantNotes.size());
+                """, question, searchMode.name().toLowerCase(), relevantNotes.size(), retrievalDetails,
+                packed.tokens(), packed.tokenBudget(), packed.droppedDuplicates(), packed.trimmedPassages(), context,
+                answer, topK, temperature, diversity, relevantNotes.size());
+    }
+
+    /**
+     * EXERCISE 7.2b: Search Many Queries at Once
+     * 
+     * Retrieval only, no LLM: finds the closest notes for every query of a
+     * batch (query expansion, recommendations, duplicate detection). The
+     * queries are embedded in one request and scored in one pass over the
+     * stored vectors, which is much faster than one /ask per query.
+     * 
+     * TRY IT:
+     * POST http://localhost:8080/study-assistant/search/batch
+     * Content-Type: application/json
+     * 
+     * {
+     * "queries": ["What produces energy in cells?", "How do plants make food?"],
+     * "topK": 3
+     * }
+     * 
+     * Optional: "filter", as in /ask.
+     */
+    @PostMapping("/search/batch")
+    public BatchSearchResponse searchBatch(
+            @RequestBody BatchSearchRequest request,
+            @RequestParam(required = false) String collection) {
+        String name = collectionName(collection);
+        if (request.queries() == null || request.queries().isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At least one query is required");
+        }
+        int topK = request.topK() != null ? request.topK() : 5;
+        ShardedVectorStore.BatchSearchResult search = vectorStore.findSimilarBatch(name, request.queries(), topK,
+                parseFilter(request.filter()));
+
+        List<QueryResults> results = new ArrayList<>(request.queries().size());
+        for (int q = 0; q < request.queries().size(); q++) {
+            results.add(new QueryResults(request.queries().get(q), search.results().get(q)));
+        }
+        return new BatchSearchResponse(results, search.unavailableShards());
     }
 
     /**
@@ -240,12 +430,16 @@ public class Part7StudyAssistantController {
      * }
      */
     @PostMapping("/compare-rag")
-    public String compareWithAndWithoutRag(@RequestBody CompareRequest request) {
+    public String compareWithAndWithoutRag(
+            @RequestBody CompareRequest request,
+            @RequestParam(required = false) String collection) {
+        String name = collectionName(collection);
         String question = request.question();
         String customContext = request.customContext();
 
         // Get retrieved context if available
-        List<SimpleVectorStore.SimilarityResult> retrieved = vectorStore.findSimilar(question, 2);
+        List<SimpleVectorStore.SimilarityResult> retrieved =
+                vectorStore.findSimilar(name, question, 2, defaultSearchMode, null).results();
         String retrievedContext = retrieved.stream()
                 .map(r -> "- " + r.text())
                 .collect(Collectors.joining("\n"));
@@ -329,25 +523,95 @@ public class Part7StudyAssistantController {
     /**
      * EXERCISE 7.4: Clear All Notes
      * 
-     * Reset the knowledge base.
+     * Reset one collection's knowledge base; other collections are not
+     * touched.
      * 
-     * TRY IT: DELETE http://localhost:8080/study-assistant/notes
+     * TRY IT: DELETE http://localhost:8080/study-assistant/notes?collection=biology
      */
     @DeleteMapping("/notes")
-    public String clearNotes() {
-        int count = vectorStore.size();
-        vectorStore.clear();
+    public String clearNotes(@RequestParam(required = false) String collection) {
+        String name = collectionName(collection);
+        int count;
+        try {
+            count = vectorStore.drop(name);
+        } catch (IllegalStateException e) {
+            // Some shard could not be reached; dropping again is safe
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+        }
 
         return String.format("""
                 =================================================================
                 🗑️ KNOWLEDGE BASE CLEARED
                 =================================================================
 
-                Removed %d notes from the study assistant.
+                Removed %d notes from collection "%s".
 
-                The vector store is now empty. Add new notes to start fresh!
+                The collection is now empty. Add new notes to start fresh!
                 =================================================================
-                """, count);
+                """, count, name);
+    }
+
+    /**
+     * EXERCISE 7.4b: Fix or Remove a Single Note
+     * 
+     * Replaces the note with the given ID (or adds it) and deletes notes,
+     * without re-embedding the rest of the knowledge base. A note is
+     * addressed by its note ID, the part of a chunk ID before '#' (chunk
+     * IDs are shown next to each retrieved note in /ask): the new text is
+     * chunked again and replaces all of the note's old chunks, and a
+     * delete removes all of them.
+     * 
+     * TRY IT:
+     * PUT http://localhost:8080/study-assistant/notes
+     * Content-Type: application/json
+     * 
+     * {
+     * "id": "a1b2c3d4/0",
+     * "text": "The mitochondria produces most of the cell's ATP."
+     * }
+     * 
+     * DELETE http://localhost:8080/study-assistant/notes?id=a1b2c3d4/0
+     */
+    @PutMapping("/notes")
+    public String upsertNote(
+            @RequestBody NoteRequest request,
+            @RequestParam(required = false) String collection) {
+        String name = collectionName(collection);
+        if (request.id() == null || request.id().isBlank() || request.text() == null || request.text().isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Both id and text are required");
+        }
+        IngestionPipeline.NoteUpdate update;
+        try {
+            update = ingestion.upsertNote(name, request.id(), request.text(), request.metadata());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (IllegalStateException e) {
+            // The owning shard didn't confirm in time; upserting again is safe
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+        }
+        String action = update.replacedChunks() > 0
+                ? "✏️ Replaced note %s (%d chunks, was %d)".formatted(update.noteId(), update.chunks(),
+                        update.replacedChunks())
+                : "✅ Added note %s (%d chunks)".formatted(update.noteId(), update.chunks());
+        return "%s. Chunks in knowledge base: %d".formatted(action, vectorStore.size(name));
+    }
+
+    @DeleteMapping(value = "/notes", params = "id")
+    public String deleteNote(@RequestParam String id, @RequestParam(required = false) String collection) {
+        String name = collectionName(collection);
+        int deleted;
+        try {
+            deleted = ingestion.deleteNote(name, id);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+        }
+        if (deleted == 0) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown note " + id);
+        }
+        return "🗑️ Deleted note %s (%d chunks). Chunks in knowledge base: %d".formatted(id, deleted,
+                vectorStore.size(name));
     }
 
     /**
@@ -358,13 +622,14 @@ public class Part7StudyAssistantController {
      * TRY IT: GET http://localhost:8080/study-assistant/status
      */
     @GetMapping("/status")
-    public String getStatus() {
+    public String getStatus(@RequestParam(required = false) String collection) {
+        String name = collectionName(collection);
         return String.format("""
                 =================================================================
                 📊 STUDY ASSISTANT STATUS
                 =================================================================
 
-                Notes in knowledge base: %d
+                Chunks in collection "%s": %d%s
 
                 =================================================================
                 AVAILABLE ENDPOINTS:
@@ -372,28 +637,107 @@ public class Part7StudyAssistantController {
                 POST /study-assistant/notes
                   - Add new study notes
 
+                POST /study-assistant/ingest, GET /study-assistant/ingest/{jobId}
+                  - Bulk-ingest documents in the background and track progress
+
+                POST /study-assistant/notes/stream
+                  - Stream an NDJSON or JSON array upload of any size
+
                 POST /study-assistant/ask
-                  - Ask a question (with optional topK and temperature)
+                  - Ask a question (optional topK, temperature, tokenBudget, searchMode, filter, diversity)
+
+                POST /study-assistant/search/batch
+                  - Retrieve the closest notes for many queries in one pass (topK, filter)
 
                 POST /study-assistant/compare-rag
                   - Compare answers with and without RAG
 
+                PUT /study-assistant/notes, DELETE /study-assistant/notes?id=...
+                  - Replace (or add) and delete a single note, by note ID (chunk ID before '#')
+
                 DELETE /study-assistant/notes
-                  - Clear all notes
+                  - Clear all notes of the collection
+
+                GET /study-assistant/collections
+                  - List collections (all endpoints take ?collection=<name>)
 
                 GET /study-assistant/status
                   - This status page
                 =================================================================
-                """, vectorStore.size());
+                """, name, vectorStore.size(name), vectorStore.clustered() ? " (over all shards)" : "");
+    }
+
+    /**
+     * EXERCISE 7.6: List Collections
+     * 
+     * Lists the collections (and shard sizes) held by this node.
+     * 
+     * TRY IT: GET http://localhost:8080/study-assistant/collections
+     */
+    @GetMapping("/collections")
+    public List<VectorStoreCollections.CollectionInfo> listCollections() {
+        return collections.list();
+    }
+
+    private static String collectionName(String collection) {
+        try {
+            return VectorStoreCollections.checkName(collection);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    private static List<SourceDocument> withMetadata(List<String> texts, Map<String, Object> metadata) {
+        try {
+            return texts.stream().map(text -> new SourceDocument(text, metadata)).toList();
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    private static SimpleVectorStore.SearchMode parseSearchMode(String searchMode) {
+        try {
+            return SimpleVectorStore.SearchMode.fromName(searchMode);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Unknown searchMode '" + searchMode + "', expected vector, keyword or hybrid");
+        }
+    }
+
+    private static MetadataFilter parseFilter(String filter) {
+        if (filter == null || filter.isBlank()) {
+            return null;
+        }
+        try {
+            return MetadataFilter.parse(filter);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
     }
 
     // Request/Response records
-    public record NotesRequest(List<String> notes) {
+    public record NotesRequest(List<String> notes, Map<String, Object> metadata) {
+    }
+
+    public record NoteRequest(String id, String text, Map<String, Object> metadata) {
+    }
+
+    public record IngestRequest(String source, List<String> documents, Map<String, Object> metadata) {
     }
 
-    public record QuestionRequest(String question, Integer topK, Double temperature) {
+    public record QuestionRequest(String question, Integer topK, Double temperature, Integer tokenBudget,
+            String searchMode, String filter, Double diversity) {
     }
 
     public record CompareRequest(String question, String customContext) {
     }
+
+    public record BatchSearchRequest(List<String> queries, Integer topK, String filter) {
+    }
+
+    public record QueryResults(String query, List<SimpleVectorStore.SimilarityResult> results) {
+    }
+
+    public record BatchSearchResponse(List<QueryResults> queries, List<String> unavailableShards) {
+    }
 }
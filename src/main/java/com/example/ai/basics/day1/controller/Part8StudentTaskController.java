@@ -1,14 +1,25 @@
 package com.example.ai.basics.day1.controller;
 
+import com.example.ai.basics.common.memory.ChatContext;
+import com.example.ai.basics.common.memory.ChatMemoryStrategies;
+import com.example.ai.basics.common.memory.ChatMemoryStrategy;
+import com.example.ai.basics.common.memory.ConversationMemoryStore;
+import com.example.ai.basics.common.memory.ConversationMessage;
+import com.example.ai.basics.common.metrics.LlmMetrics;
 import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.UserMessage;
 import org.springframework.ai.embedding.EmbeddingModel;
 import org.springframework.ai.embedding.EmbeddingResponse;
 import org.springframework.ai.openai.OpenAiChatOptions;
 import org.springframework.ai.chat.prompt.PromptTemplate;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 /**
  * =============================================================================
@@ -57,6 +68,7 @@ import java.util.concurrent.ConcurrentHashMap;
  * - Demonstrate how creativity affects recommendations
  * 
  * TASK 4: Implement conversationalRecommendation() - CONTEXT WINDOW (Part 6)
+ * (a reference implementation is provided - study how it manages memory!)
  * - Maintain conversation history
  * - Implement a strategy to handle context limits (summarization/truncation)
  * - Show awareness of "lost in the middle" problem
@@ -95,16 +107,22 @@ public class Part8StudentTaskController {
     // Simulated movie database with descriptions
     private final List<Movie> movieDatabase;
 
-    // Conversation history storage (in-memory, per session)
-    private final Map<String, List<ConversationMessage>> conversationHistory;
+    // Conversation history storage (bounded, per session, evicting)
+    private final ConversationMemoryStore conversationHistory;
+    // Decides which earlier turns each prompt includes (summary/window/retrieval)
+    private final ChatMemoryStrategies memoryStrategies;
 
     public Part8StudentTaskController(
             ChatClient.Builder chatClientBuilder,
-            EmbeddingModel embeddingModel) {
-        this.chatClient = chatClientBuilder.build();
+            LlmMetrics metrics,
+            EmbeddingModel embeddingModel,
+            ConversationMemoryStore conversationHistory,
+            ChatMemoryStrategies memoryStrategies) {
+        this.chatClient = chatClientBuilder.defaultAdvisors(metrics.advisor(Part8StudentTaskController.class)).build();
         this.embeddingModel = embeddingModel;
         this.movieDatabase = initializeMovieDatabase();
-        this.conversationHistory = new ConcurrentHashMap<>();
+        this.conversationHistory = conversationHistory;
+        this.memoryStrategies = memoryStrategies;
     }
 
     // =========================================================================
@@ -155,9 +173,6 @@ public class Part8StudentTaskController {
     public record ScoredMovie(Movie movie, double similarityScore) {
     }
 
-    public record ConversationMessage(String role, String content, long timestamp) {
-    }
-
     // =========================================================================
     // 📊 PROVIDED: Cosine Similarity Function (You can use this directly)
     // =========================================================================
@@ -401,60 +416,90 @@ public class Part8StudentTaskController {
      * you recommend?
      * GET http://localhost:8080/movie-engine/chat?sessionId=user1&message=reset
      * 
+     * Optional: &memory=summarizing|window|retrieval (default: ai.memory.strategy)
+     * 
      * HINT: Look at Part6ContextWindowController for context management strategies
      */
     @GetMapping("/chat")
     public String conversationalRecommendation(
             @RequestParam String sessionId,
-            @RequestParam String message) {
+            @RequestParam String message,
+            @RequestParam(defaultValue = "") String memory) {
 
-        // =====================================================================
-        // TODO: IMPLEMENT THIS METHOD
-        // =====================================================================
-        //
         // Step 1: Handle special commands
-        // - If message is "reset", clear history and return confirmation
-        //
-        // Step 2: Retrieve or create conversation history for this session
-        // - Use conversationHistory.computeIfAbsent(sessionId, k -> new ArrayList<>())
-        //
-        // Step 3: Add the new user message to history
-        // - new ConversationMessage("user", message, System.currentTimeMillis())
-        //
-        // Step 4: Implement context management (IMPORTANT!)
-        // - If history.size() > 10, either:
-        // a) Summarize older messages into a compact form
-        // b) Keep only the last N messages (sliding window)
-        // - Remember: Put important context at the END of the prompt
-        //
-        // Step 5: Build a prompt that includes:
-        // - System prompt defining the assistant's role
-        // - Conversation history (managed for context limits)
-        // - The current user message (at the END!)
-        //
-        // Step 6: Get the LLM response
-        //
-        // Step 7: Add assistant response to history
-        // - new ConversationMessage("assistant", response, System.currentTimeMillis())
-        //
-        // Step 8: Return the response with conversation context info
-        //
-        // =====================================================================
+        if ("reset".equalsIgnoreCase(message.trim())) {
+            boolean existed = conversationHistory.reset(sessionId);
+            return existed
+                    ? "🔄 Session \"%s\" was reset. Tell me what you're in the mood for!".formatted(sessionId)
+                    : "🔄 Session \"%s\" had no history yet.".formatted(sessionId);
+        }
+
+        // Step 2: Let the memory strategy pick the earlier context: a rolling
+        // summary, a sliding window, or the most relevant past turns. Either
+        // way it stays small however long the chat
+        ChatMemoryStrategy strategy = memoryStrategy(memory);
+        ChatContext context = strategy.contextFor(sessionId, message);
+        List<Message> history = context.messages().stream()
+                .map(turn -> turn.isUser()
+                        ? (Message) new UserMessage(turn.content())
+                        : new AssistantMessage(turn.content()))
+                .toList();
+
+        // Step 3: Role and catalog first, history in the middle, the new
+        // message LAST (where the model pays most attention)
+        String response = chatClient.prompt()
+                .system(chatSystemPrompt(context))
+                .messages(history)
+                .user(message)
+                .call()
+                .content();
+
+        // Step 4: Remember both sides of the turn
+        conversationHistory.append(sessionId, ConversationMessage.user(message));
+        conversationHistory.append(sessionId, ConversationMessage.assistant(response));
+        strategy.afterTurn(sessionId);
 
         return """
-                ⚠️ TASK 4 NOT IMPLEMENTED
+                =================================================================
+                🗣️ MOVIE CHAT (session: %s)
+                =================================================================
 
-                You need to implement the conversationalRecommendation() method!
+                %s
 
-                Expected behavior:
-                - Session: "%s"
-                - Message: "%s"
-                - Maintain conversation history
-                - Manage context window (summarize or truncate old messages)
-                - Put important info at the END (avoid "lost in the middle")
-
-                Hint: Look at Part6ContextWindowController for examples.
-                """.formatted(sessionId, message);
+                -----------------------------------------------------------------
+                📏 Context sent (%s memory): summary of %d earlier messages
+                   + %d recalled messages + %d recent messages
+                =================================================================
+                """.formatted(sessionId, response, strategy.name(), context.summarizedMessages(),
+                context.recalled().size(), history.size());
+    }
+
+    private ChatMemoryStrategy memoryStrategy(String name) {
+        try {
+            return memoryStrategies.get(name);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    private String chatSystemPrompt(ChatContext context) {
+        String catalog = movieDatabase.stream()
+                .map(movie -> "- %s (%s)".formatted(movie.title(), movie.genre()))
+                .collect(Collectors.joining("\n"));
+        return """
+                You are a friendly movie recommendation assistant for a streaming
+                platform. Recommend only movies from this catalog, and keep track
+                of the user's preferences across the conversation.
+
+                CATALOG:
+                %s
+
+                Keep answers short: at most 3 recommendations, one sentence each.
+                """.formatted(catalog)
+                + (context.summary().isEmpty() ? "" : "\nCONVERSATION SO FAR (summary):\n" + context.summary() + "\n")
+                + (context.recalled().isEmpty() ? "" : "\nRELEVANT EARLIER MESSAGES:\n" + context.recalled().stream()
+                        .map(turn -> "- " + turn.role() + ": " + turn.content())
+                        .collect(Collectors.joining("\n")) + "\n");
     }
 
     // =========================================================================
@@ -579,7 +624,7 @@ public class Part8StudentTaskController {
                 =================================================================
                 GOOD LUCK! Remember to apply all concepts from Parts 2-6! 🍿
                 =================================================================
-                """.formatted(movieDatabase.size(), conversationHistory.size());
+                """.formatted(movieDatabase.size(), conversationHistory.sessionCount());
     }
 
     @GetMapping("/movies")
@@ -0,0 +1,122 @@
+package com.example.ai.basics.day1.controller;
+
+import com.example.ai.basics.day1.service.IngestionPipeline;
+import com.example.ai.basics.day1.service.ShardedVectorStore;
+import com.example.ai.basics.day1.service.SimpleVectorStore;
+import com.example.ai.basics.day1.service.VectorStoreClusterProperties;
+import com.example.ai.basics.day1.service.VectorStoreCollections;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * =============================================================================
+ * VECTOR STORE SHARD - Node-to-node endpoints
+ * =============================================================================
+ *
+ * Called by ShardedVectorStore on the other nodes of the cluster. Every
+ * endpoint only touches this node's shard of the collection and never fans
+ * out again, so a request can't bounce around the cluster.
+ *
+ * Not meant for clients: use /study-assistant instead. The endpoints are
+ * only registered when ai.rag.cluster.nodes is set, and reject (403) any
+ * call without the cluster secret in the X-Cluster-Secret header.
+ *
+ * =============================================================================
+ */
+@RestController
+@RequestMapping("/internal/vector-store/{collection}")
+@ConditionalOnProperty(prefix = "ai.rag.cluster", name = "nodes")
+public class VectorStoreShardController {
+
+    private final VectorStoreCollections collections;
+    private final byte[] secret;
+
+    public VectorStoreShardController(VectorStoreCollections collections, VectorStoreClusterProperties properties) {
+        this.collections = collections;
+        this.secret = properties.secret().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Runs before every endpoint of this controller.
+     */
+    @ModelAttribute
+    void authenticate(@RequestHeader(name = ShardedVectorStore.SECRET_HEADER, required = false) String given) {
+        if (secret.length == 0 || given == null
+                || !MessageDigest.isEqual(secret, given.getBytes(StandardCharsets.UTF_8))) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Missing or wrong cluster secret");
+        }
+    }
+
+    /**
+     * Stores already embedded documents; returns how many were replaced.
+     */
+    @PostMapping("/documents")
+    public int store(@PathVariable String collection, @RequestBody List<SimpleVectorStore.StoredDocument> documents) {
+        return shard(collection, store -> store.storeAll(documents));
+    }
+
+    /**
+     * Replaces all chunks of a note; returns how many it had before.
+     */
+    @PutMapping("/notes")
+    public int replaceNote(@PathVariable String collection, @RequestParam String id,
+            @RequestBody List<SimpleVectorStore.StoredDocument> chunks) {
+        return shard(collection, store -> store.replacePrefix(IngestionPipeline.chunkPrefix(id), chunks));
+    }
+
+    @DeleteMapping("/notes")
+    public int deleteNote(@PathVariable String collection, @RequestParam String id) {
+        return shard(collection, store -> store.deletePrefix(IngestionPipeline.chunkPrefix(id)));
+    }
+
+    @PostMapping("/search")
+    public List<SimpleVectorStore.SimilarityResult> search(
+            @PathVariable String collection,
+            @RequestBody ShardedVectorStore.ShardSearchRequest request) {
+        try {
+            return ShardedVectorStore.searchLocal(collections, collection, request);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    @PostMapping("/search/batch")
+    public List<List<SimpleVectorStore.SimilarityResult>> searchBatch(
+            @PathVariable String collection,
+            @RequestBody ShardedVectorStore.ShardBatchSearchRequest request) {
+        try {
+            return ShardedVectorStore.searchLocal(collections, collection, request);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    @GetMapping("/size")
+    public int size(@PathVariable String collection) {
+        return shard(collection, SimpleVectorStore::size);
+    }
+
+    @DeleteMapping
+    public int drop(@PathVariable String collection) {
+        try {
+            return collections.drop(collection);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    private <T> T shard(String collection, Function<SimpleVectorStore, T> operation) {
+        try {
+            return collections.withStore(collection, operation);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+}
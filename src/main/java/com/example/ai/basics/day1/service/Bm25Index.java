@@ -0,0 +1,325 @@
+package com.example.ai.basics.day1.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntPredicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * =============================================================================
+ * BM25 INDEX - Keyword search next to the vectors
+ * =============================================================================
+ *
+ * Embeddings capture meaning but blur exact strings: "ERR-1042" and
+ * "ERR-1024" embed almost identically. An inverted index finds them exactly.
+ *
+ * HOW IT IS STORED:
+ * - Each indexed text gets a doc number, always increasing. Per term, the
+ *   postings list is a byte array of (doc number delta, term frequency)
+ *   pairs as variable-length ints: usually 2 bytes per posting.
+ * - Re-indexing a text issues a new doc number and marks the old one as
+ *   superseded in a BitSet; its postings are skipped at query time, and
+ *   it stops counting towards its terms' document frequencies (each doc
+ *   keeps its postings lists until then), so replacing a text over and
+ *   over doesn't skew the IDFs.
+ *
+ * HOW SEARCH STAYS CHEAP (MaxScore):
+ * - Each term has an upper bound on the score it can add (from its highest
+ *   term frequency). Once the top-K is full, terms whose bounds together
+ *   can't beat the K-th score are "non-essential": documents containing
+ *   only those are never scored, and they are only probed for documents
+ *   that already look promising.
+ *
+ * Identifiers like "ERR-1042" or "sku_77/b" are indexed whole and as their
+ * parts. Not thread-safe: SimpleVectorStore guards it with its lock.
+ *
+ * =============================================================================
+ */
+public final class Bm25Index {
+
+    static final double K1 = 1.2;
+    static final double B = 0.75;
+
+    private static final Pattern TOKEN = Pattern.compile("[\\p{L}\\p{N}]+(?:[-_./:][\\p{L}\\p{N}]+)*");
+    private static final Pattern SEPARATOR = Pattern.compile("[-_./:]");
+
+    private final Map<String, PostingList> postings = new HashMap<>();
+    private final BitSet superseded = new BitSet();
+    private int[] lengths = new int[16];
+    private int[] ordinals = new int[16];
+    // The postings lists each live doc appears in; null once superseded
+    private PostingList[][] docLists = new PostingList[16][];
+    private int docCount;
+    private int liveDocs;
+    private long liveLength;
+
+    /**
+     * Splits text into lowercase terms with their frequencies.
+     */
+    public static Terms analyze(String text) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        int length = 0;
+        Matcher matcher = TOKEN.matcher(text == null ? "" : text);
+        while (matcher.find()) {
+            String token = matcher.group().toLowerCase(Locale.ROOT);
+            frequencies.merge(token, 1, Integer::sum);
+            length++;
+            if (SEPARATOR.matcher(token).find()) {
+                for (String part : SEPARATOR.split(token)) {
+                    frequencies.merge(part, 1, Integer::sum);
+                }
+            }
+        }
+        return new Terms(frequencies, length);
+    }
+
+    /**
+     * Indexes a text for the caller's ordinal.
+     *
+     * @return the doc number, to pass to {@link #supersede} when the text
+     *         is replaced
+     */
+    public int add(int ordinal, Terms terms) {
+        int doc = docCount++;
+        if (doc == lengths.length) {
+            lengths = Arrays.copyOf(lengths, doc * 2);
+            ordinals = Arrays.copyOf(ordinals, doc * 2);
+            docLists = Arrays.copyOf(docLists, doc * 2);
+        }
+        lengths[doc] = terms.length();
+        ordinals[doc] = ordinal;
+        PostingList[] lists = new PostingList[terms.frequencies().size()];
+        int i = 0;
+        for (Map.Entry<String, Integer> term : terms.frequencies().entrySet()) {
+            PostingList list = postings.computeIfAbsent(term.getKey(), t -> new PostingList());
+            list.add(doc, term.getValue());
+            lists[i++] = list;
+        }
+        docLists[doc] = lists;
+        liveDocs++;
+        liveLength += terms.length();
+        return doc;
+    }
+
+    /**
+     * Marks a doc number as replaced; it no longer matches.
+     */
+    public void supersede(int doc) {
+        if (doc >= 0 && doc < docCount && !superseded.get(doc)) {
+            superseded.set(doc);
+            liveDocs--;
+            liveLength -= lengths[doc];
+            for (PostingList list : docLists[doc]) {
+                list.docFrequency--;
+            }
+            docLists[doc] = null;
+        }
+    }
+
+    public void clear() {
+        postings.clear();
+        superseded.clear();
+        lengths = new int[16];
+        ordinals = new int[16];
+        docLists = new PostingList[16][];
+        docCount = 0;
+        liveDocs = 0;
+        liveLength = 0;
+    }
+
+    /**
+     * The {@code k} best-scoring texts, best first, as caller ordinals.
+     */
+    public List<TopK.Hit> search(String query, int k) {
+        return search(query, k, null);
+    }
+
+    /**
+     * Like {@link #search(String, int)}, only returning caller ordinals
+     * accepted by {@code allowed} (null accepts all).
+     */
+    public List<TopK.Hit> search(String query, int k, IntPredicate allowed) {
+        if (liveDocs == 0 || k <= 0) {
+            return List.of();
+        }
+        double avgLength = Math.max(1.0, (double) liveLength / liveDocs);
+
+        // One cursor per distinct query term, cheapest upper bound first
+        Set<String> queryTerms = new LinkedHashSet<>(analyze(query).frequencies().keySet());
+        List<Cursor> found = new ArrayList<>();
+        for (String term : queryTerms) {
+            PostingList list = postings.get(term);
+            if (list != null) {
+                found.add(new Cursor(list, idf(list.docFrequency), avgLength));
+            }
+        }
+        if (found.isEmpty()) {
+            return List.of();
+        }
+        found.sort(Comparator.comparingDouble(cursor -> cursor.upperBound));
+        Cursor[] cursors = found.toArray(new Cursor[0]);
+        double[] boundSum = new double[cursors.length];
+        for (int i = 0; i < cursors.length; i++) {
+            boundSum[i] = cursors[i].upperBound + (i > 0 ? boundSum[i - 1] : 0);
+            cursors[i].next();
+        }
+
+        TopK best = new TopK(k);
+        int essential = 0;
+        while (true) {
+            double threshold = best.threshold();
+            // Terms [0, essential) can't reach the top-K on their own
+            while (essential < cursors.length && boundSum[essential] <= threshold) {
+                essential++;
+            }
+            if (essential == cursors.length) {
+                break;
+            }
+            int doc = Integer.MAX_VALUE;
+            for (int i = essential; i < cursors.length; i++) {
+                doc = Math.min(doc, cursors[i].doc);
+            }
+            if (doc == Integer.MAX_VALUE) {
+                break;
+            }
+
+            double score = 0;
+            for (int i = essential; i < cursors.length; i++) {
+                if (cursors[i].doc == doc) {
+                    score += cursors[i].score();
+                    cursors[i].next();
+                }
+            }
+            for (int i = essential - 1; i >= 0 && score + boundSum[i] > threshold; i--) {
+                cursors[i].advanceTo(doc);
+                if (cursors[i].doc == doc) {
+                    score += cursors[i].score();
+                }
+            }
+            if (!superseded.get(doc) && (allowed == null || allowed.test(ordinals[doc]))) {
+                best.offer(score, doc);
+            }
+        }
+
+        List<TopK.Hit> hits = new ArrayList<>(best.size());
+        for (TopK.Hit hit : best.hitsDescending()) {
+            hits.add(new TopK.Hit(ordinals[hit.ordinal()], hit.score()));
+        }
+        return hits;
+    }
+
+    /**
+     * Bytes held by all postings lists.
+     */
+    public long postingsBytes() {
+        return postings.values().stream().mapToLong(list -> list.length).sum();
+    }
+
+    private double idf(int docFrequency) {
+        return Math.log(1 + Math.max(0, liveDocs - docFrequency + 0.5) / (docFrequency + 0.5));
+    }
+
+    /**
+     * Term frequencies and length (in terms) of one analyzed text.
+     */
+    public record Terms(Map<String, Integer> frequencies, int length) {
+    }
+
+    /**
+     * Delta + varint encoded (doc, frequency) pairs in increasing doc order.
+     */
+    static final class PostingList {
+
+        private byte[] data = new byte[8];
+        private int length;
+        private int lastDoc = -1;
+        // Live docs only: superseded ones are subtracted
+        private int docFrequency;
+        private int maxFrequency;
+
+        void add(int doc, int frequency) {
+            if (data.length - length < 10) {
+                data = Arrays.copyOf(data, data.length * 2);
+            }
+            writeVarint(doc - lastDoc);
+            writeVarint(frequency);
+            lastDoc = doc;
+            docFrequency++;
+            maxFrequency = Math.max(maxFrequency, frequency);
+        }
+
+        private void writeVarint(int value) {
+            while ((value & ~0x7F) != 0) {
+                data[length++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            data[length++] = (byte) value;
+        }
+    }
+
+    /**
+     * Reads one postings list in doc order and scores its current doc.
+     */
+    private final class Cursor {
+
+        private final PostingList list;
+        private final int end;
+        private final double idf;
+        private final double avgLength;
+        private final double upperBound;
+        private int position;
+        private int doc = -1;
+        private int frequency;
+
+        Cursor(PostingList list, double idf, double avgLength) {
+            this.list = list;
+            this.end = list.length;
+            this.idf = idf;
+            this.avgLength = avgLength;
+            // The frequency part is largest for the highest frequency in the shortest doc
+            double maxFrequency = list.maxFrequency;
+            this.upperBound = idf * maxFrequency * (K1 + 1) / (maxFrequency + K1 * (1 - B));
+        }
+
+        void next() {
+            if (position >= end) {
+                doc = Integer.MAX_VALUE;
+                return;
+            }
+            doc += readVarint();
+            frequency = readVarint();
+        }
+
+        void advanceTo(int target) {
+            while (doc < target) {
+                next();
+            }
+        }
+
+        double score() {
+            double norm = K1 * (1 - B + B * lengths[doc] / avgLength);
+            return idf * frequency * (K1 + 1) / (frequency + norm);
+        }
+
+        private int readVarint() {
+            int value = 0;
+            int shift = 0;
+            byte current;
+            do {
+                current = list.data[position++];
+                value |= (current & 0x7F) << shift;
+                shift += 7;
+            } while (current < 0);
+            return value;
+        }
+    }
+}
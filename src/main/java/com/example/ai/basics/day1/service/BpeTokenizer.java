@@ -0,0 +1,321 @@
+package com.example.ai.basics.day1.service;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Byte-pair-encoding tokenizer for tiktoken-format vocabularies.
+ *
+ * Text is split into pieces with the pre-tokenization regex, each piece is
+ * UTF-8 encoded, and adjacent byte ranges are merged lowest-rank-first until
+ * no known pair is left; each remaining range is one token.
+ *
+ * Kept allocation-light because prompt budgeting counts tokens on every
+ * request:
+ * - all token bytes live in one pooled byte[]; lookups hash a slice of the
+ *   scratch buffer into an open-addressed int[] table, so no byte[] or
+ *   String is created per candidate pair
+ * - UTF-8 encoding and merge bookkeeping reuse per-thread scratch arrays
+ * - whole pieces that are already a token (most English words) skip merging
+ *
+ * Thread-safe: the vocabulary is immutable after construction.
+ */
+public final class BpeTokenizer {
+
+    /**
+     * Pre-tokenization regex shared by cl100k_base and Llama 3.
+     */
+    static final Pattern CL100K_PATTERN = Pattern.compile(
+            "(?i:'s|'t|'re|'ve|'m|'ll|'d)|[^\\r\\n\\p{L}\\p{N}]?\\p{L}+|\\p{N}{1,3}"
+                    + "| ?[^\\s\\p{L}\\p{N}]+[\\r\\n]*|\\s*[\\r\\n]+|\\s+(?!\\S)|\\s+",
+            Pattern.UNICODE_CHARACTER_CLASS);
+
+    private static final int NO_RANK = Integer.MAX_VALUE;
+
+    private final Pattern pattern;
+    private final byte[] pool;
+    private final int[] offsets;
+    private final int[] lengths;
+    private final int[] table;
+    private final int mask;
+    private final int vocabularySize;
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+
+    private BpeTokenizer(Pattern pattern, byte[][] tokensByRank, int vocabularySize) {
+        this.pattern = pattern;
+        this.vocabularySize = vocabularySize;
+        this.offsets = new int[tokensByRank.length];
+        this.lengths = new int[tokensByRank.length];
+
+        int totalBytes = 0;
+        for (byte[] token : tokensByRank) {
+            totalBytes += token == null ? 0 : token.length;
+        }
+        this.pool = new byte[totalBytes];
+
+        int capacity = Integer.highestOneBit(Math.max(2, vocabularySize) * 2 - 1) << 1;
+        this.table = new int[capacity];
+        this.mask = capacity - 1;
+
+        int offset = 0;
+        for (int rank = 0; rank < tokensByRank.length; rank++) {
+            byte[] token = tokensByRank[rank];
+            if (token == null) {
+                lengths[rank] = -1;
+                continue;
+            }
+            System.arraycopy(token, 0, pool, offset, token.length);
+            offsets[rank] = offset;
+            lengths[rank] = token.length;
+            offset += token.length;
+
+            int slot = hash(token, 0, token.length) & mask;
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = rank + 1;
+        }
+    }
+
+    /**
+     * Loads a tiktoken vocabulary: one "base64(token-bytes) rank" per line.
+     */
+    public static BpeTokenizer load(InputStream vocabulary, Pattern pattern) throws IOException {
+        byte[][] tokensByRank = new byte[1 << 17][];
+        int maxRank = -1;
+        int count = 0;
+        Base64.Decoder decoder = Base64.getDecoder();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(vocabulary, StandardCharsets.US_ASCII))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int space = line.indexOf(' ');
+                if (space <= 0) {
+                    continue;
+                }
+                int rank = Integer.parseInt(line, space + 1, line.length(), 10);
+                if (rank >= tokensByRank.length) {
+                    tokensByRank = Arrays.copyOf(tokensByRank, Math.max(rank + 1, tokensByRank.length * 2));
+                }
+                tokensByRank[rank] = decoder.decode(line.substring(0, space));
+                maxRank = Math.max(maxRank, rank);
+                count++;
+            }
+        }
+        if (count == 0) {
+            throw new IOException("Empty tokenizer vocabulary");
+        }
+        return new BpeTokenizer(pattern, Arrays.copyOf(tokensByRank, maxRank + 1), count);
+    }
+
+    public int vocabularySize() {
+        return vocabularySize;
+    }
+
+    /**
+     * Number of tokens the text encodes to, without materializing the ids.
+     */
+    public int count(CharSequence text) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+        Scratch scratch = this.scratch.get();
+        Matcher matcher = pattern.matcher(text);
+        int tokens = 0;
+        while (matcher.find()) {
+            int length = scratch.encodeUtf8(text, matcher.start(), matcher.end());
+            tokens += merge(scratch, length, null);
+        }
+        return tokens;
+    }
+
+    /**
+     * Token ids (ranks) for the text.
+     */
+    public int[] encode(CharSequence text) {
+        if (text == null || text.isEmpty()) {
+            return new int[0];
+        }
+        Scratch scratch = this.scratch.get();
+        Matcher matcher = pattern.matcher(text);
+        IntBuffer out = new IntBuffer(Math.max(16, text.length() / 3));
+        while (matcher.find()) {
+            int length = scratch.encodeUtf8(text, matcher.start(), matcher.end());
+            merge(scratch, length, out);
+        }
+        return out.toArray();
+    }
+
+    public String decode(int[] tokens) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(tokens.length * 4);
+        for (int token : tokens) {
+            if (token >= 0 && token < lengths.length && lengths[token] > 0) {
+                bytes.write(pool, offsets[token], lengths[token]);
+            }
+        }
+        return bytes.toString(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Byte-pair merge of scratch.bytes[0, length). Returns the number of
+     * tokens, appending their ids to {@code out} when given.
+     */
+    private int merge(Scratch scratch, int length, IntBuffer out) {
+        byte[] bytes = scratch.bytes;
+        int whole = rank(bytes, 0, length);
+        if (whole != NO_RANK) {
+            if (out != null) {
+                out.add(whole);
+            }
+            return 1;
+        }
+
+        // boundaries[i] is where part i starts; pairRanks[i] is the rank of
+        // parts i and i+1 merged, or NO_RANK
+        scratch.ensureParts(length + 1);
+        int[] boundaries = scratch.boundaries;
+        int[] pairRanks = scratch.pairRanks;
+        int count = length + 1;
+        for (int i = 0; i < count; i++) {
+            boundaries[i] = i;
+        }
+        for (int i = 0; i < count - 2; i++) {
+            pairRanks[i] = rank(bytes, i, i + 2);
+        }
+        pairRanks[count - 2] = NO_RANK;
+
+        while (count > 2) {
+            int best = -1;
+            int bestRank = NO_RANK;
+            for (int i = 0; i < count - 2; i++) {
+                if (pairRanks[i] < bestRank) {
+                    bestRank = pairRanks[i];
+                    best = i;
+                }
+            }
+            if (best < 0) {
+                break;
+            }
+
+            // Drop boundary best+1: parts best and best+1 become one
+            System.arraycopy(boundaries, best + 2, boundaries, best + 1, count - best - 2);
+            System.arraycopy(pairRanks, best + 2, pairRanks, best + 1, count - best - 3);
+            count--;
+            pairRanks[count - 2] = NO_RANK;
+            if (best < count - 2) {
+                pairRanks[best] = rank(bytes, boundaries[best], boundaries[best + 2]);
+            }
+            if (best > 0) {
+                pairRanks[best - 1] = rank(bytes, boundaries[best - 1], boundaries[best + 1]);
+            }
+        }
+
+        if (out != null) {
+            for (int i = 0; i < count - 1; i++) {
+                out.add(rank(bytes, boundaries[i], boundaries[i + 1]));
+            }
+        }
+        return count - 1;
+    }
+
+    private int rank(byte[] bytes, int from, int to) {
+        int length = to - from;
+        int slot = hash(bytes, from, to) & mask;
+        int entry;
+        while ((entry = table[slot]) != 0) {
+            int rank = entry - 1;
+            int offset = offsets[rank];
+            if (lengths[rank] == length && Arrays.equals(pool, offset, offset + length, bytes, from, to)) {
+                return rank;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return NO_RANK;
+    }
+
+    private static int hash(byte[] bytes, int from, int to) {
+        // FNV-1a with a final avalanche so linear probing stays short
+        int hash = 0x811c9dc5;
+        for (int i = from; i < to; i++) {
+            hash = (hash ^ bytes[i]) * 0x01000193;
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Per-thread reusable buffers.
+     */
+    private static final class Scratch {
+
+        byte[] bytes = new byte[256];
+        int[] boundaries = new int[257];
+        int[] pairRanks = new int[257];
+
+        int encodeUtf8(CharSequence text, int start, int end) {
+            int maxBytes = (end - start) * 3;
+            if (bytes.length < maxBytes) {
+                bytes = new byte[Math.max(maxBytes, bytes.length * 2)];
+            }
+            int n = 0;
+            for (int i = start; i < end; i++) {
+                char c = text.charAt(i);
+                if (c < 0x80) {
+                    bytes[n++] = (byte) c;
+                } else if (c < 0x800) {
+                    bytes[n++] = (byte) (0xC0 | (c >> 6));
+                    bytes[n++] = (byte) (0x80 | (c & 0x3F));
+                } else if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(text.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                    bytes[n++] = (byte) (0xF0 | (codePoint >> 18));
+                    bytes[n++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                    bytes[n++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                    bytes[n++] = (byte) (0x80 | (codePoint & 0x3F));
+                } else if (Character.isSurrogate(c)) {
+                    // Lone surrogate: same replacement String.getBytes(UTF_8) uses
+                    bytes[n++] = '?';
+                } else {
+                    bytes[n++] = (byte) (0xE0 | (c >> 12));
+                    bytes[n++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                    bytes[n++] = (byte) (0x80 | (c & 0x3F));
+                }
+            }
+            return n;
+        }
+
+        void ensureParts(int size) {
+            if (boundaries.length < size) {
+                boundaries = new int[size * 2];
+                pairRanks = new int[size * 2];
+            }
+        }
+    }
+
+    private static final class IntBuffer {
+
+        private int[] values;
+        private int size;
+
+        IntBuffer(int capacity) {
+            values = new int[capacity];
+        }
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.example.ai.basics.day1.service;
+
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * =============================================================================
+ * CONTEXT PACKER - Fitting retrieved notes into a token budget
+ * =============================================================================
+ *
+ * Concatenating the top-K notes as-is makes prompt size (and so prefill
+ * latency) depend on whatever happens to be retrieved: one long note can
+ * blow it up. The packer fills the context up to a fixed token budget:
+ *
+ * 1. Candidates are taken in the order given: the search's ranking, or the
+ *    MMR pick order when retrieving for diversity (re-sorting by similarity
+ *    would push the diverse picks back out)
+ * 2. Near-duplicates of an already packed passage are dropped
+ * 3. A passage longer than its share of the budget, or longer than what is
+ *    left, is trimmed to the sentences that best match the question
+ * 4. Packing stops when the budget or the passage limit is reached
+ *
+ * Token counts come from {@link TokenizerService}, so the budget is in the
+ * model's own tokens.
+ *
+ * =============================================================================
+ */
+@Service
+public class ContextPacker {
+
+    private static final Pattern SENTENCE_BOUNDARY = Pattern.compile("(?<=[.!?])\\s+");
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "do", "does", "for", "from", "how", "in", "is",
+            "it", "of", "on", "or", "that", "the", "this", "to", "was", "what", "when", "where", "which",
+            "who", "why", "with");
+
+    // Below this many tokens left, another passage isn't worth adding
+    private static final int MIN_USEFUL_TOKENS = 8;
+
+    private final TokenizerService tokenizer;
+    private final ContextPackerProperties properties;
+
+    public ContextPacker(TokenizerService tokenizer, ContextPackerProperties properties) {
+        this.tokenizer = tokenizer;
+        this.properties = properties;
+    }
+
+    public int defaultTokenBudget() {
+        return properties.tokenBudget();
+    }
+
+    /**
+     * Packs the candidates, best first as ranked by the caller, into at most
+     * {@code maxPassages} passages and {@code tokenBudget} tokens.
+     */
+    public PackedContext pack(String question, List<SimpleVectorStore.SimilarityResult> candidates,
+            int maxPassages, int tokenBudget) {
+        Set<String> questionTerms = terms(question);
+        int passageCap = Math.max(MIN_USEFUL_TOKENS, (int) (tokenBudget * properties.maxPassageShare()));
+
+        List<Passage> passages = new ArrayList<>();
+        List<Set<String>> packedTerms = new ArrayList<>();
+        int used = 0;
+        int duplicates = 0;
+        int trimmed = 0;
+
+        for (SimpleVectorStore.SimilarityResult candidate : candidates) {
+            int remaining = tokenBudget - used;
+            if (passages.size() >= maxPassages || remaining < MIN_USEFUL_TOKENS) {
+                break;
+            }
+
+            Set<String> candidateTerms = terms(candidate.text());
+            if (isNearDuplicate(candidateTerms, packedTerms)) {
+                duplicates++;
+                continue;
+            }
+
+            String text = candidate.text();
+            int tokens = passageTokens(text);
+            int limit = Math.min(remaining, passageCap);
+            if (tokens > limit) {
+                text = mostRelevantSentences(text, questionTerms, limit);
+                if (text.isEmpty()) {
+                    continue;
+                }
+                tokens = passageTokens(text);
+                trimmed++;
+            }
+
+            passages.add(new Passage(candidate.id(), text, candidate.similarity(), !text.equals(candidate.text())));
+            packedTerms.add(candidateTerms);
+            used += tokens;
+        }
+
+        return new PackedContext(passages, used, tokenBudget, duplicates, trimmed);
+    }
+
+    /**
+     * Keeps the sentences sharing the most terms with the question that fit
+     * in {@code limit} tokens, in their original order.
+     */
+    String mostRelevantSentences(String text, Set<String> questionTerms, int limit) {
+        String[] sentences = SENTENCE_BOUNDARY.split(text.strip());
+        Integer[] order = new Integer[sentences.length];
+        double[] scores = new double[sentences.length];
+        for (int i = 0; i < sentences.length; i++) {
+            order[i] = i;
+            scores[i] = overlap(terms(sentences[i]), questionTerms);
+        }
+        // Most relevant first; earlier sentences win ties
+        Arrays.sort(order, Comparator.<Integer>comparingDouble(i -> -scores[i]).thenComparing(Comparator.naturalOrder()));
+
+        boolean[] keep = new boolean[sentences.length];
+        int used = passageTokens("");
+        for (int i : order) {
+            int cost = tokenizer.countTokens(sentences[i] + " ");
+            if (used + cost <= limit) {
+                keep[i] = true;
+                used += cost;
+            }
+        }
+
+        StringBuilder kept = new StringBuilder();
+        for (int i = 0; i < sentences.length; i++) {
+            if (keep[i]) {
+                if (!kept.isEmpty()) {
+                    kept.append(' ');
+                }
+                kept.append(sentences[i]);
+            }
+        }
+        return kept.toString();
+    }
+
+    private int passageTokens(String text) {
+        // Matches how the passage is rendered: "- text\n"
+        return tokenizer.countTokens("- " + text + "\n");
+    }
+
+    private boolean isNearDuplicate(Set<String> candidate, List<Set<String>> packed) {
+        for (Set<String> other : packed) {
+            if (jaccard(candidate, other) >= properties.duplicateThreshold()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static double jaccard(Set<String> a, Set<String> b) {
+        if (a.isEmpty() && b.isEmpty()) {
+            return 1.0;
+        }
+        Set<String> smaller = a.size() <= b.size() ? a : b;
+        Set<String> larger = smaller == a ? b : a;
+        int intersection = 0;
+        for (String term : smaller) {
+            if (larger.contains(term)) {
+                intersection++;
+            }
+        }
+        return (double) intersection / (a.size() + b.size() - intersection);
+    }
+
+    private static double overlap(Set<String> sentenceTerms, Set<String> questionTerms) {
+        if (questionTerms.isEmpty()) {
+            return 0;
+        }
+        int shared = 0;
+        for (String term : questionTerms) {
+            if (sentenceTerms.contains(term)) {
+                shared++;
+            }
+        }
+        return (double) shared / questionTerms.size();
+    }
+
+    static Set<String> terms(String text) {
+        Set<String> terms = new HashSet<>();
+        for (String word : NON_WORD.split(text.toLowerCase(Locale.ROOT))) {
+            if (!word.isEmpty() && !STOP_WORDS.contains(word)) {
+                terms.add(word);
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * A note as it goes into the prompt; {@code trimmed} when only its most
+     * relevant sentences were kept.
+     */
+    public record Passage(String id, String text, double similarity, boolean trimmed) {
+    }
+
+    public record PackedContext(List<Passage> passages, int tokens, int tokenBudget, int droppedDuplicates,
+            int trimmedPassages) {
+
+        public boolean isEmpty() {
+            return passages.isEmpty();
+        }
+
+        /**
+         * The context block as it goes into the prompt.
+         */
+        public String render() {
+            return passages.stream()
+                    .map(passage -> "- " + passage.text())
+                    .collect(Collectors.joining("\n"));
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.ai.basics.day1.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Configuration for {@link ContextPacker}.
+ *
+ * @param tokenBudget         tokens the retrieved context may use in a prompt
+ * @param duplicateThreshold  word-set Jaccard similarity at or above which a
+ *                            passage counts as a near-duplicate of one
+ *                            already packed
+ * @param maxPassageShare     fraction of the budget one passage may take
+ *                            before it is trimmed to its most relevant
+ *                            sentences
+ */
+@ConfigurationProperties("ai.rag.packing")
+public record ContextPackerProperties(
+        @DefaultValue("600") int tokenBudget,
+        @DefaultValue("0.8") double duplicateThreshold,
+        @DefaultValue("0.5") double maxPassageShare) {
+}
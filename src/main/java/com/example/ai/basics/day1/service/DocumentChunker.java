@@ -0,0 +1,126 @@
+package com.example.ai.basics.day1.service;
+
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * =============================================================================
+ * DOCUMENT CHUNKER - Splitting long documents before embedding
+ * =============================================================================
+ *
+ * One embedding for a whole document is a blurry average of everything in
+ * it, and retrieving it drags the whole document into the prompt. Instead
+ * documents are cut into chunks of at most chunkTokens:
+ *
+ * - Chunks end on sentence boundaries; a single sentence longer than a
+ *   chunk is cut on word boundaries instead
+ * - The last sentences of a chunk (up to overlapTokens) are repeated at the
+ *   start of the next, so a fact spanning a boundary is still found
+ *
+ * Short notes come out as a single, unchanged chunk.
+ *
+ * =============================================================================
+ */
+@Service
+public class DocumentChunker {
+
+    private static final Pattern SENTENCE_BOUNDARY = Pattern.compile("(?<=[.!?])\\s+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final TokenizerService tokenizer;
+    private final int chunkTokens;
+    private final int overlapTokens;
+
+    public DocumentChunker(TokenizerService tokenizer, IngestionProperties properties) {
+        this.tokenizer = tokenizer;
+        this.chunkTokens = Math.max(1, properties.chunkTokens());
+        this.overlapTokens = Math.max(0, Math.min(properties.overlapTokens(), chunkTokens / 2));
+    }
+
+    /**
+     * Splits a document into chunks, in document order.
+     */
+    public List<String> chunk(String document) {
+        String text = document == null ? "" : document.strip();
+        if (text.isEmpty()) {
+            return List.of();
+        }
+        if (tokenizer.countTokens(text) <= chunkTokens) {
+            return List.of(text);
+        }
+
+        List<String> chunks = new ArrayList<>();
+        Deque<Piece> current = new ArrayDeque<>();
+        int currentTokens = 0;
+        for (Piece piece : pieces(text)) {
+            if (currentTokens + piece.tokens() > chunkTokens && !current.isEmpty()) {
+                chunks.add(join(current));
+                currentTokens = keepOverlap(current, piece.tokens());
+            }
+            current.addLast(piece);
+            currentTokens += piece.tokens();
+        }
+        if (!current.isEmpty()) {
+            chunks.add(join(current));
+        }
+        return chunks;
+    }
+
+    /**
+     * Sentences, with over-long sentences cut into word windows.
+     */
+    private List<Piece> pieces(String text) {
+        List<Piece> pieces = new ArrayList<>();
+        for (String sentence : SENTENCE_BOUNDARY.split(text)) {
+            int tokens = tokenizer.countTokens(sentence);
+            if (tokens <= chunkTokens) {
+                pieces.add(new Piece(sentence, tokens));
+                continue;
+            }
+            StringBuilder window = new StringBuilder();
+            int windowTokens = 0;
+            for (String word : WHITESPACE.split(sentence)) {
+                int wordTokens = tokenizer.countTokens(" " + word);
+                if (windowTokens + wordTokens > chunkTokens && !window.isEmpty()) {
+                    pieces.add(new Piece(window.toString(), windowTokens));
+                    window.setLength(0);
+                    windowTokens = 0;
+                }
+                window.append(window.isEmpty() ? "" : " ").append(word);
+                windowTokens += wordTokens;
+            }
+            if (!window.isEmpty()) {
+                pieces.add(new Piece(window.toString(), windowTokens));
+            }
+        }
+        return pieces;
+    }
+
+    /**
+     * Drops pieces from the front until what is left fits the overlap and
+     * leaves room for the next piece; returns the remaining tokens.
+     */
+    private int keepOverlap(Deque<Piece> current, int nextTokens) {
+        int tokens = current.stream().mapToInt(Piece::tokens).sum();
+        while (!current.isEmpty() && (tokens > overlapTokens || tokens + nextTokens > chunkTokens)) {
+            tokens -= current.removeFirst().tokens();
+        }
+        return tokens;
+    }
+
+    private static String join(Deque<Piece> pieces) {
+        StringBuilder chunk = new StringBuilder();
+        for (Piece piece : pieces) {
+            chunk.append(chunk.isEmpty() ? "" : " ").append(piece.text());
+        }
+        return chunk.toString();
+    }
+
+    private record Piece(String text, int tokens) {
+    }
+}
@@ -0,0 +1,415 @@
+package com.example.ai.basics.day1.service;
+
+import com.example.ai.basics.common.metrics.LlmMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingResponse;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * =============================================================================
+ * INGESTION PIPELINE - Chunk → embed → index with backpressure
+ * =============================================================================
+ *
+ * Every job runs three stages on their own (virtual) threads, connected by
+ * bounded queues:
+ *
+ *   documents ──► [chunk] ──queue──► [embed × N] ──queue──► [index] ──► store
+ *
+ * - CHUNK reads one document at a time from the source iterator and splits
+ *   it with DocumentChunker
+ * - EMBED takes up to embedBatchSize chunks per embedding request, with
+ *   embedConcurrency requests in flight
+ * - INDEX writes each embedded batch into the job's collection in one go
+ *   (split over the nodes owning the chunks when the store is sharded)
+ *
+ * When a downstream stage falls behind, its queue fills up and the stage
+ * before it blocks on put(): the source is only read as fast as chunks can
+ * be embedded, so memory stays constant however big the corpus is.
+ *
+ * Chunk IDs are "<note>#<chunk>", where the note ID is "<job>/<document>"
+ * for ingested documents; chunks inherit their document's metadata. A
+ * failure in any stage stops the whole job; chunks indexed before that
+ * stay in the store.
+ *
+ * A single note can also be replaced or deleted by its note ID
+ * (upsertNote, deleteNote): the new text is chunked and embedded here,
+ * then swapped for all of the note's old chunks in one write.
+ *
+ * =============================================================================
+ */
+@Service
+public class IngestionPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(IngestionPipeline.class);
+
+    // End-of-stream markers
+    private static final Chunk END_OF_CHUNKS = new Chunk(null, null, null);
+    private static final List<SimpleVectorStore.StoredDocument> END_OF_BATCHES = List.of();
+
+    private final EmbeddingModel embeddingModel;
+    private final LlmMetrics metrics;
+    private final ShardedVectorStore vectorStore;
+    private final DocumentChunker chunker;
+    private final IngestionProperties properties;
+    private final Map<String, IngestionJob> jobs = new ConcurrentHashMap<>();
+
+    public IngestionPipeline(
+            EmbeddingModel embeddingModel,
+            LlmMetrics metrics,
+            ShardedVectorStore vectorStore,
+            DocumentChunker chunker,
+            IngestionProperties properties) {
+        this.embeddingModel = embeddingModel;
+        this.metrics = metrics;
+        this.vectorStore = vectorStore;
+        this.chunker = chunker;
+        this.properties = properties;
+    }
+
+    /**
+     * Starts ingesting the documents into a collection in the background.
+     * The iterator is read from the job's chunking thread, so it may block
+     * (e.g. on a stream).
+     *
+     * @throws IllegalArgumentException if the collection name is invalid
+     */
+    public IngestionJob submit(String collectionName, String source, Iterator<SourceDocument> documents) {
+        String collection = VectorStoreCollections.checkName(collectionName);
+        pruneFinishedJobs();
+        IngestionJob job = new IngestionJob(UUID.randomUUID().toString().substring(0, 8), collection, source);
+        jobs.put(job.id(), job);
+
+        int embedders = Math.max(1, properties.embedConcurrency());
+        int batchSize = Math.max(1, properties.embedBatchSize());
+        BlockingQueue<Chunk> chunks = new ArrayBlockingQueue<>(Math.max(1, properties.queueCapacity()));
+        BlockingQueue<List<SimpleVectorStore.StoredDocument>> batches =
+                new ArrayBlockingQueue<>(Math.max(1, properties.queueCapacity() / batchSize));
+        AtomicInteger runningEmbedders = new AtomicInteger(embedders);
+
+        job.addStage("chunk", () -> {
+            long document = 0;
+            while (documents.hasNext()) {
+                SourceDocument next = documents.next();
+                int index = 0;
+                for (String chunk : chunker.chunk(next.text())) {
+                    chunks.put(new Chunk(chunkPrefix(job.id() + "/" + document) + index++, chunk, next.metadata()));
+                    job.chunksProduced.incrementAndGet();
+                }
+                document++;
+                job.documentsRead.incrementAndGet();
+            }
+            for (int i = 0; i < embedders; i++) {
+                chunks.put(END_OF_CHUNKS);
+            }
+        });
+
+        for (int i = 0; i < embedders; i++) {
+            job.addStage("embed-" + i, () -> {
+                List<Chunk> batch = new ArrayList<>(batchSize);
+                boolean done = false;
+                while (!done) {
+                    batch.clear();
+                    batch.add(chunks.take());
+                    chunks.drainTo(batch, batchSize - 1);
+                    // End markers may have been drained along with real chunks;
+                    // keep one, hand the others back to the other embedders
+                    int ends = 0;
+                    while (batch.remove(END_OF_CHUNKS)) {
+                        ends++;
+                    }
+                    for (int extra = 1; extra < ends; extra++) {
+                        chunks.put(END_OF_CHUNKS);
+                    }
+                    done = ends > 0;
+                    if (!batch.isEmpty()) {
+                        batches.put(embed(batch));
+                        job.chunksEmbedded.addAndGet(batch.size());
+                    }
+                }
+                if (runningEmbedders.decrementAndGet() == 0) {
+                    batches.put(END_OF_BATCHES);
+                }
+            });
+        }
+
+        job.addStage("index", () -> {
+            List<SimpleVectorStore.StoredDocument> batch;
+            while ((batch = batches.take()) != END_OF_BATCHES) {
+                vectorStore.storeAll(collection, batch);
+                job.chunksIndexed.addAndGet(batch.size());
+            }
+            job.complete();
+            logger.info("📥 Ingestion job {} ({} → {}) done: {} documents, {} chunks in {} ms", job.id(), source,
+                    collection, job.documentsRead.get(), job.chunksIndexed.get(), job.status().elapsed().toMillis());
+        });
+        job.start();
+        return job;
+    }
+
+    /**
+     * Replaces a note: chunks and embeds the text, then swaps all chunks
+     * stored under the note ID for the new ones.
+     *
+     * @return how many chunks the note had before (0 for a new note)
+     * @throws IllegalArgumentException if the collection name or note ID is
+     *         invalid, or the text is blank
+     */
+    public NoteUpdate upsertNote(String collectionName, String noteId, String text, Map<String, Object> metadata) {
+        String collection = VectorStoreCollections.checkName(collectionName);
+        String prefix = chunkPrefix(noteId);
+        // Checked before paying for the embeddings
+        Map<String, Object> checkedMetadata = SimpleVectorStore.StoredDocument.checkedMetadata(metadata);
+        List<String> texts = chunker.chunk(text);
+        if (texts.isEmpty()) {
+            throw new IllegalArgumentException("Note " + noteId + " has no text");
+        }
+        int batchSize = Math.max(1, properties.embedBatchSize());
+        List<SimpleVectorStore.StoredDocument> embedded = new ArrayList<>(texts.size());
+        for (int from = 0; from < texts.size(); from += batchSize) {
+            List<Chunk> batch = new ArrayList<>(batchSize);
+            for (int i = from; i < Math.min(texts.size(), from + batchSize); i++) {
+                batch.add(new Chunk(prefix + i, texts.get(i), checkedMetadata));
+            }
+            embedded.addAll(embed(batch));
+        }
+        return new NoteUpdate(noteId, embedded.size(), vectorStore.replaceNote(collection, noteId, embedded));
+    }
+
+    /**
+     * Deletes all chunks of a note.
+     *
+     * @return how many chunks were deleted; 0 if there was no such note
+     * @throws IllegalArgumentException if the collection name or note ID is
+     *         invalid
+     */
+    public int deleteNote(String collectionName, String noteId) {
+        String collection = VectorStoreCollections.checkName(collectionName);
+        chunkPrefix(noteId);
+        return vectorStore.deleteNote(collection, noteId);
+    }
+
+    /**
+     * The note a chunk ID belongs to: everything before the '#'.
+     */
+    public static String noteId(String chunkId) {
+        int hash = chunkId.indexOf('#');
+        return hash < 0 ? chunkId : chunkId.substring(0, hash);
+    }
+
+    /**
+     * What the IDs of all chunks of the note start with.
+     *
+     * @throws IllegalArgumentException if the note ID is blank or contains '#'
+     */
+    public static String chunkPrefix(String noteId) {
+        if (noteId == null || noteId.isBlank() || noteId.indexOf('#') >= 0) {
+            throw new IllegalArgumentException("Invalid note ID '" + noteId
+                    + "': must be non-blank and not contain '#' (use the part of a chunk ID before '#')");
+        }
+        return noteId + "#";
+    }
+
+    public Optional<IngestionJob> job(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    /**
+     * Status of every retained job, newest first.
+     */
+    public List<IngestionJob.Status> jobs() {
+        return jobs.values().stream()
+                .map(IngestionJob::status)
+                .sorted(Comparator.comparing(IngestionJob.Status::startedAt).reversed())
+                .toList();
+    }
+
+    private List<SimpleVectorStore.StoredDocument> embed(List<Chunk> batch) {
+        List<String> texts = batch.stream().map(Chunk::text).toList();
+        EmbeddingResponse response = metrics.timeEmbedding("IngestionPipeline",
+                () -> embeddingModel.embedForResponse(texts));
+        List<SimpleVectorStore.StoredDocument> embedded = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            Chunk chunk = batch.get(i);
+            embedded.add(new SimpleVectorStore.StoredDocument(
+                    chunk.id(), chunk.text(), response.getResults().get(i).getOutput(), chunk.metadata()));
+        }
+        return embedded;
+    }
+
+    private void pruneFinishedJobs() {
+        List<IngestionJob> finished = jobs.values().stream()
+                .filter(IngestionJob::isDone)
+                .sorted(Comparator.comparing(IngestionJob::startedAt))
+                .toList();
+        for (int i = 0; i < finished.size() - properties.retainedJobs() + 1; i++) {
+            jobs.remove(finished.get(i).id());
+        }
+    }
+
+    private record Chunk(String id, String text, Map<String, Object> metadata) {
+    }
+
+    /**
+     * Result of {@link #upsertNote}: the note's new chunk count, and how
+     * many chunks it had before (0 if it was added).
+     */
+    public record NoteUpdate(String noteId, int chunks, int replacedChunks) {
+    }
+
+    /**
+     * A running or finished ingestion job. Counters are updated live.
+     */
+    public static final class IngestionJob {
+
+        public enum State {
+            RUNNING, COMPLETED, FAILED
+        }
+
+        private final String id;
+        private final String collection;
+        private final String source;
+        private final Instant startedAt = Instant.now();
+        private final AtomicLong documentsRead = new AtomicLong();
+        private final AtomicLong chunksProduced = new AtomicLong();
+        private final AtomicLong chunksEmbedded = new AtomicLong();
+        private final AtomicLong chunksIndexed = new AtomicLong();
+        private final List<Thread> stages = new CopyOnWriteArrayList<>();
+        private final CountDownLatch done = new CountDownLatch(1);
+        private volatile State state = State.RUNNING;
+        private volatile String error;
+        private volatile Instant finishedAt;
+
+        IngestionJob(String id, String collection, String source) {
+            this.id = id;
+            this.collection = collection;
+            this.source = source;
+        }
+
+        public String id() {
+            return id;
+        }
+
+        public Instant startedAt() {
+            return startedAt;
+        }
+
+        public boolean isDone() {
+            return done.getCount() == 0;
+        }
+
+        /**
+         * Waits for the job to finish.
+         */
+        public void await() throws InterruptedException {
+            done.await();
+        }
+
+        /**
+         * Waits for the job to finish.
+         *
+         * @return false if it is still running after the timeout
+         */
+        public boolean await(Duration timeout) throws InterruptedException {
+            return done.await(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        public Status status() {
+            Instant end = finishedAt != null ? finishedAt : Instant.now();
+            return new Status(id, collection, source, state, documentsRead.get(), chunksProduced.get(), chunksEmbedded.get(),
+                    chunksIndexed.get(), startedAt, Duration.between(startedAt, end), error);
+        }
+
+        /**
+         * Registers a stage; none runs before {@link #start()}, so a stage
+         * failing early can still interrupt every other one.
+         */
+        void addStage(String name, Stage stage) {
+            stages.add(Thread.ofVirtual().name("ingest-" + id + "-" + name).unstarted(() -> {
+                try {
+                    // Interrupting a thread before it starts may be lost
+                    if (state != State.RUNNING) {
+                        return;
+                    }
+                    stage.run();
+                } catch (InterruptedException e) {
+                    // Usually stopped because another stage failed (then this is a no-op)
+                    Thread.currentThread().interrupt();
+                    fail(name, e);
+                } catch (Throwable e) {
+                    // Errors too (e.g. OutOfMemoryError embedding a big batch):
+                    // a dead stage must never leave the job RUNNING
+                    fail(name, e);
+                    if (e instanceof Error error) {
+                        throw error;
+                    }
+                }
+            }));
+        }
+
+        void start() {
+            stages.forEach(Thread::start);
+        }
+
+        // For tests
+        List<Thread> stages() {
+            return stages;
+        }
+
+        void complete() {
+            finish(State.COMPLETED, null);
+        }
+
+        private void fail(String stage, Throwable e) {
+            String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            if (finish(State.FAILED, stage + ": " + message)) {
+                logger.warn("⚠️ Ingestion job {} failed in stage {}: {}", id, stage, message);
+                // Unblock the other stages waiting on the queues
+                stages.forEach(Thread::interrupt);
+            }
+        }
+
+        private synchronized boolean finish(State result, String error) {
+            if (state != State.RUNNING) {
+                return false;
+            }
+            finishedAt = Instant.now();
+            this.error = error;
+            state = result;
+            done.countDown();
+            return true;
+        }
+
+        /**
+         * Progress snapshot, as returned by the status endpoint.
+         */
+        public record Status(String id, String collection, String source, State state, long documentsRead,
+                long chunksProduced, long chunksEmbedded, long chunksIndexed, Instant startedAt, Duration elapsed,
+                String error) {
+        }
+    }
+
+    @FunctionalInterface
+    interface Stage {
+        void run() throws InterruptedException;
+    }
+}
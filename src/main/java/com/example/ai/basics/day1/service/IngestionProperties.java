@@ -0,0 +1,26 @@
+package com.example.ai.basics.day1.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Configuration for {@link DocumentChunker} and {@link IngestionPipeline}.
+ *
+ * @param chunkTokens       maximum tokens per chunk
+ * @param overlapTokens     trailing sentences of up to this many tokens are
+ *                          repeated at the start of the next chunk
+ * @param embedBatchSize    chunks per embedding request
+ * @param embedConcurrency  embedding requests in flight per job
+ * @param queueCapacity     chunks buffered between stages; a full queue
+ *                          makes the previous stage wait
+ * @param retainedJobs      finished jobs kept for the status endpoint
+ */
+@ConfigurationProperties("ai.rag.ingestion")
+public record IngestionProperties(
+        @DefaultValue("256") int chunkTokens,
+        @DefaultValue("32") int overlapTokens,
+        @DefaultValue("32") int embedBatchSize,
+        @DefaultValue("2") int embedConcurrency,
+        @DefaultValue("256") int queueCapacity,
+        @DefaultValue("50") int retainedJobs) {
+}
@@ -0,0 +1,134 @@
+package com.example.ai.basics.day1.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * =============================================================================
+ * JSON DOCUMENT READER - One document at a time from a JSON stream
+ * =============================================================================
+ *
+ * Binding an upload to a List<String> holds the whole payload in memory
+ * before the first note is embedded. This reader pulls documents from the
+ * stream with Jackson's streaming parser instead, so only the current
+ * document is in memory. Accepted shapes:
+ *
+ *   NDJSON:      "a note"\n{"text": "another note"}\n...
+ *   JSON array:  ["a note", {"text": "another note"}, ...]
+ *
+ * A record is either a string or an object with a "text" (or "content" /
+ * "note") field and optional flat "metadata" (string, number and boolean
+ * values); other fields are skipped:
+ *
+ *   {"text": "...", "metadata": {"subject": "biology", "year": 2024}}
+ *
+ * =============================================================================
+ */
+public final class JsonDocumentReader implements Iterator<SourceDocument>, Closeable {
+
+    private static final Set<String> TEXT_FIELDS = Set.of("text", "content", "note");
+
+    private final JsonParser parser;
+    private final boolean array;
+    private JsonToken pending;
+    private SourceDocument next;
+    private boolean finished;
+
+    public JsonDocumentReader(JsonFactory factory, InputStream input) throws IOException {
+        this.parser = factory.createParser(input);
+        JsonToken first = parser.nextToken();
+        this.array = first == JsonToken.START_ARRAY;
+        this.pending = array ? parser.nextToken() : first;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null && !finished) {
+            next = read();
+        }
+        return next != null;
+    }
+
+    @Override
+    public SourceDocument next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        SourceDocument document = next;
+        next = null;
+        return document;
+    }
+
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+
+    private SourceDocument read() {
+        try {
+            while (true) {
+                JsonToken token = pending != null ? pending : parser.nextToken();
+                pending = null;
+                if (token == null || (array && token == JsonToken.END_ARRAY)) {
+                    finished = true;
+                    return null;
+                }
+                SourceDocument document = switch (token) {
+                    case VALUE_STRING -> SourceDocument.of(parser.getText());
+                    case START_OBJECT -> readObject();
+                    default -> throw new IllegalArgumentException("Expected a string or an object but got "
+                            + token + " at " + parser.currentLocation().offsetDescription());
+                };
+                if (document.text() != null && !document.text().isBlank()) {
+                    return document;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private SourceDocument readObject() throws IOException {
+        String text = null;
+        Map<String, Object> metadata = Map.of();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (text == null && value == JsonToken.VALUE_STRING && TEXT_FIELDS.contains(field)) {
+                text = parser.getText();
+            } else if ("metadata".equals(field) && value == JsonToken.START_OBJECT) {
+                metadata = readMetadata();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return new SourceDocument(text, metadata);
+    }
+
+    private Map<String, Object> readMetadata() throws IOException {
+        Map<String, Object> metadata = new HashMap<>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            switch (parser.nextToken()) {
+                case VALUE_STRING -> metadata.put(field, parser.getText());
+                case VALUE_NUMBER_INT -> metadata.put(field, parser.getLongValue());
+                case VALUE_NUMBER_FLOAT -> metadata.put(field, parser.getDoubleValue());
+                case VALUE_TRUE, VALUE_FALSE -> metadata.put(field, parser.getBooleanValue());
+                // Nested values and nulls aren't filterable
+                default -> parser.skipChildren();
+            }
+        }
+        return metadata;
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.ai.basics.day1.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Maximal marginal relevance (MMR): picks results one at a time, each time
+ * the candidate maximizing
+ *
+ *   (1 - diversity) * relevance - diversity * max similarity to the picks
+ *
+ * so a note that repeats an already picked one loses to a slightly less
+ * relevant note that adds something new. Diversity 0 is plain relevance
+ * order, 1 ignores relevance after the first pick.
+ *
+ * Relevance is the candidate's search score divided by the best score in
+ * the pool (cosine, BM25 and RRF scores live on different scales), so it
+ * is comparable with redundancy, the cosine similarity of the embeddings.
+ *
+ * The naive loop compares every candidate with every pick in every round,
+ * O(pool * k^2) dot products. Here each candidate keeps its highest
+ * similarity to the picks so far, and a round only compares it with the
+ * newest pick: O(pool * k) dot products in total, with the norms computed
+ * once.
+ */
+public final class MaximalMarginalRelevance {
+
+    private MaximalMarginalRelevance() {
+    }
+
+    /**
+     * Selects up to k candidates, in pick order. Candidates must carry
+     * their embeddings; the returned results don't. Candidates whose score
+     * or embedding is NaN are never picked, so fewer than k may come back.
+     */
+    public static List<SimpleVectorStore.SimilarityResult> select(List<SimpleVectorStore.SimilarityResult> candidates,
+            int k, double diversity) {
+        int n = candidates.size();
+        int picks = Math.min(Math.max(0, k), n);
+        double[] relevance = relevance(candidates);
+        double[] norms = new double[n];
+        for (int i = 0; i < n; i++) {
+            norms[i] = VectorMath.norm(candidates.get(i).embedding());
+        }
+        double[] redundancy = new double[n];
+        boolean[] picked = new boolean[n];
+
+        List<SimpleVectorStore.SimilarityResult> selected = new ArrayList<>(picks);
+        int last = -1;
+        while (selected.size() < picks) {
+            int best = -1;
+            double bestScore = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < n; i++) {
+                if (picked[i]) {
+                    continue;
+                }
+                if (last >= 0) {
+                    // Only the newest pick can raise a candidate's redundancy
+                    redundancy[i] = Math.max(redundancy[i], VectorMath.cosineSimilarity(
+                            candidates.get(i).embedding(), norms[i], candidates.get(last).embedding(), norms[last]));
+                }
+                double score = (1 - diversity) * relevance[i] - diversity * redundancy[i];
+                // NaN compares false, so it is skipped here too; kept explicit
+                if (!Double.isNaN(score) && score > bestScore) {
+                    bestScore = score;
+                    best = i;
+                }
+            }
+            if (best < 0) {
+                // Only NaN-scored candidates left
+                break;
+            }
+            picked[best] = true;
+            last = best;
+            SimpleVectorStore.SimilarityResult result = candidates.get(best);
+            selected.add(new SimpleVectorStore.SimilarityResult(result.id(), result.text(), result.similarity(),
+                    result.metadata()));
+        }
+        return selected;
+    }
+
+    // Scores scaled to [0, 1] by the best one (shifted up first if any is
+    // negative); NaN scores stay NaN instead of spreading to the others
+    private static double[] relevance(List<SimpleVectorStore.SimilarityResult> candidates) {
+        double min = 0;
+        double max = Double.NEGATIVE_INFINITY;
+        for (SimpleVectorStore.SimilarityResult candidate : candidates) {
+            if (!Double.isNaN(candidate.similarity())) {
+                min = Math.min(min, candidate.similarity());
+                max = Math.max(max, candidate.similarity());
+            }
+        }
+        double[] relevance = new double[candidates.size()];
+        for (int i = 0; i < relevance.length; i++) {
+            double similarity = candidates.get(i).similarity();
+            relevance[i] = Double.isNaN(similarity) ? Double.NaN : max > min ? (similarity - min) / (max - min) : 1.0;
+        }
+        return relevance;
+    }
+}
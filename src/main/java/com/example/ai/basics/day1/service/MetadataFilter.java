@@ -0,0 +1,250 @@
+package com.example.ai.basics.day1.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * =============================================================================
+ * METADATA FILTER - Which documents a search may return
+ * =============================================================================
+ *
+ * A small expression language over document metadata:
+ *
+ *   genre == 'thriller'
+ *   year >= 2000 && rating > 7.5
+ *   subject in ['biology', 'chemistry'] || !(draft == true)
+ *
+ * Operators: == != > >= < <= in, combined with && || ! and parentheses.
+ * Values are 'strings' (or "strings"), numbers and true/false. Numbers
+ * compare as numbers whatever their stored type (2000 == 2000.0).
+ *
+ * Filters are evaluated against MetadataIndex bitmaps, never per document.
+ *
+ * =============================================================================
+ */
+public sealed interface MetadataFilter {
+
+    record Compare(String field, Operator operator, Object value) implements MetadataFilter {
+    }
+
+    record In(String field, List<Object> values) implements MetadataFilter {
+    }
+
+    record And(List<MetadataFilter> filters) implements MetadataFilter {
+    }
+
+    record Or(List<MetadataFilter> filters) implements MetadataFilter {
+    }
+
+    record Not(MetadataFilter filter) implements MetadataFilter {
+    }
+
+    enum Operator {
+        EQ("=="), NE("!="), GT(">"), GE(">="), LT("<"), LE("<=");
+
+        private final String symbol;
+
+        Operator(String symbol) {
+            this.symbol = symbol;
+        }
+
+        public String symbol() {
+            return symbol;
+        }
+    }
+
+    /**
+     * Parses a filter expression.
+     *
+     * @throws IllegalArgumentException if the expression is malformed
+     */
+    static MetadataFilter parse(String expression) {
+        return new Parser(expression).parse();
+    }
+
+    /**
+     * This filter as an expression that {@link #parse} reads back into an
+     * equal filter (e.g. to send it to another node).
+     */
+    default String toExpression() {
+        if (this instanceof Compare compare) {
+            return compare.field() + " " + compare.operator().symbol() + " " + literal(compare.value());
+        }
+        if (this instanceof In in) {
+            return in.field() + " in [" + String.join(", ", in.values().stream().map(MetadataFilter::literal).toList())
+                    + "]";
+        }
+        if (this instanceof And and) {
+            return "(" + String.join(" && ", and.filters().stream().map(MetadataFilter::toExpression).toList()) + ")";
+        }
+        if (this instanceof Or or) {
+            return "(" + String.join(" || ", or.filters().stream().map(MetadataFilter::toExpression).toList()) + ")";
+        }
+        return "!(" + ((Not) this).filter().toExpression() + ")";
+    }
+
+    private static String literal(Object value) {
+        if (value instanceof String string) {
+            // Strings can't contain their own quote, so one of the two always works
+            return string.indexOf('\'') < 0 ? "'" + string + "'" : "\"" + string + "\"";
+        }
+        return String.valueOf(value);
+    }
+
+    /**
+     * Recursive descent parser: or := and ('||' and)*, and := unary ('&&'
+     * unary)*, unary := '!' unary | '(' or ')' | comparison.
+     */
+    final class Parser {
+
+        private final String input;
+        private int position;
+
+        private Parser(String input) {
+            this.input = input == null ? "" : input;
+        }
+
+        private MetadataFilter parse() {
+            MetadataFilter filter = or();
+            skipWhitespace();
+            if (position < input.length()) {
+                throw error("unexpected '" + input.substring(position) + "'");
+            }
+            return filter;
+        }
+
+        private MetadataFilter or() {
+            List<MetadataFilter> filters = new ArrayList<>(List.of(and()));
+            while (accept("||")) {
+                filters.add(and());
+            }
+            return filters.size() == 1 ? filters.get(0) : new Or(List.copyOf(filters));
+        }
+
+        private MetadataFilter and() {
+            List<MetadataFilter> filters = new ArrayList<>(List.of(unary()));
+            while (accept("&&")) {
+                filters.add(unary());
+            }
+            return filters.size() == 1 ? filters.get(0) : new And(List.copyOf(filters));
+        }
+
+        private MetadataFilter unary() {
+            if (accept("!")) {
+                return new Not(unary());
+            }
+            if (accept("(")) {
+                MetadataFilter filter = or();
+                expect(")");
+                return filter;
+            }
+            return comparison();
+        }
+
+        private MetadataFilter comparison() {
+            String field = identifier();
+            skipWhitespace();
+            if (acceptKeyword("in")) {
+                expect("[");
+                List<Object> values = new ArrayList<>(List.of(value()));
+                while (accept(",")) {
+                    values.add(value());
+                }
+                expect("]");
+                return new In(field, List.copyOf(values));
+            }
+            // Longest symbols first so ">=" isn't read as ">"
+            for (Operator operator : List.of(Operator.EQ, Operator.NE, Operator.GE, Operator.LE, Operator.GT,
+                    Operator.LT)) {
+                if (accept(operator.symbol())) {
+                    return new Compare(field, operator, value());
+                }
+            }
+            throw error("expected a comparison after '" + field + "'");
+        }
+
+        private String identifier() {
+            skipWhitespace();
+            int start = position;
+            while (position < input.length()
+                    && (Character.isLetterOrDigit(input.charAt(position)) || "_.-".indexOf(input.charAt(position)) >= 0)) {
+                position++;
+            }
+            if (start == position) {
+                throw error("expected a field name");
+            }
+            return input.substring(start, position);
+        }
+
+        private Object value() {
+            skipWhitespace();
+            if (position >= input.length()) {
+                throw error("expected a value");
+            }
+            char first = input.charAt(position);
+            if (first == '\'' || first == '"') {
+                int end = input.indexOf(first, position + 1);
+                if (end < 0) {
+                    throw error("unterminated string");
+                }
+                String value = input.substring(position + 1, end);
+                position = end + 1;
+                return value;
+            }
+            if (acceptKeyword("true")) {
+                return Boolean.TRUE;
+            }
+            if (acceptKeyword("false")) {
+                return Boolean.FALSE;
+            }
+            int start = position;
+            while (position < input.length() && "+-.eE0123456789".indexOf(input.charAt(position)) >= 0) {
+                position++;
+            }
+            try {
+                return Double.parseDouble(input.substring(start, position));
+            } catch (NumberFormatException e) {
+                position = start;
+                throw error("expected a string, number or boolean");
+            }
+        }
+
+        private boolean accept(String symbol) {
+            skipWhitespace();
+            if (input.startsWith(symbol, position)) {
+                position += symbol.length();
+                return true;
+            }
+            return false;
+        }
+
+        private boolean acceptKeyword(String keyword) {
+            skipWhitespace();
+            int end = position + keyword.length();
+            if (input.regionMatches(true, position, keyword, 0, keyword.length())
+                    && (end == input.length() || !Character.isLetterOrDigit(input.charAt(end)))) {
+                position = end;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(String symbol) {
+            if (!accept(symbol)) {
+                throw error("expected '" + symbol + "'");
+            }
+        }
+
+        private void skipWhitespace() {
+            while (position < input.length() && Character.isWhitespace(input.charAt(position))) {
+                position++;
+            }
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(String.format(Locale.ROOT,
+                    "Invalid filter at position %d: %s in \"%s\"", position, message, input));
+        }
+    }
+}
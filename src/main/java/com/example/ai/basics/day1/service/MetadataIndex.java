@@ -0,0 +1,161 @@
+package com.example.ai.basics.day1.service;
+
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * =============================================================================
+ * METADATA INDEX - Bitmaps of ordinals per metadata value
+ * =============================================================================
+ *
+ * Filtering after the search means over-fetching and hoping enough results
+ * survive. Filtering before it with a per-document check still touches every
+ * document. Instead every (field, value) pair keeps a compressed bitmap
+ * (RoaringBitmap) of the ordinals that have it:
+ *
+ * - genre == 'thriller'   → the bitmap for ("genre", "thriller")
+ * - year >= 2000          → OR of the bitmaps for every year from 2000 up
+ *                           (numeric values are kept sorted per field)
+ * - && / || / !           → bitmap AND / OR / AND-NOT
+ *
+ * The search then scores only the ordinals in the resulting bitmap, so the
+ * more selective the filter, the cheaper the search.
+ *
+ * Numbers are indexed as doubles, so 2000 and 2000.0 are the same value.
+ * Not thread-safe: SimpleVectorStore guards it with its lock.
+ *
+ * =============================================================================
+ */
+public final class MetadataIndex {
+
+    private final Map<String, FieldIndex> fields = new HashMap<>();
+
+    public void add(int ordinal, Map<String, Object> metadata) {
+        metadata.forEach((field, value) -> fields.computeIfAbsent(field, f -> new FieldIndex())
+                .bitmap(value, true).add(ordinal));
+    }
+
+    public void remove(int ordinal, Map<String, Object> metadata) {
+        metadata.forEach((field, value) -> {
+            FieldIndex index = fields.get(field);
+            RoaringBitmap bitmap = index != null ? index.bitmap(value, false) : null;
+            if (bitmap != null) {
+                bitmap.remove(ordinal);
+                if (bitmap.isEmpty()) {
+                    index.removeValue(value);
+                }
+            }
+        });
+    }
+
+    public void clear() {
+        fields.clear();
+    }
+
+    /**
+     * Ordinals within {@code universe} matching the filter. The result is a
+     * new bitmap the caller may modify.
+     */
+    public RoaringBitmap matching(MetadataFilter filter, RoaringBitmap universe) {
+        if (filter instanceof MetadataFilter.Compare compare) {
+            return compare(compare, universe);
+        }
+        if (filter instanceof MetadataFilter.In in) {
+            RoaringBitmap result = new RoaringBitmap();
+            for (Object value : in.values()) {
+                result.or(equalTo(in.field(), value));
+            }
+            return RoaringBitmap.and(result, universe);
+        }
+        if (filter instanceof MetadataFilter.And and) {
+            RoaringBitmap result = universe.clone();
+            for (MetadataFilter part : and.filters()) {
+                if (result.isEmpty()) {
+                    break;
+                }
+                // Narrowing the universe keeps NOTs and later parts cheap
+                result = matching(part, result);
+            }
+            return result;
+        }
+        if (filter instanceof MetadataFilter.Or or) {
+            RoaringBitmap result = new RoaringBitmap();
+            for (MetadataFilter part : or.filters()) {
+                result.or(matching(part, universe));
+            }
+            return result;
+        }
+        if (filter instanceof MetadataFilter.Not not) {
+            return RoaringBitmap.andNot(universe, matching(not.filter(), universe));
+        }
+        throw new IllegalArgumentException("Unsupported filter: " + filter);
+    }
+
+    private RoaringBitmap compare(MetadataFilter.Compare compare, RoaringBitmap universe) {
+        MetadataFilter.Operator operator = compare.operator();
+        if (operator == MetadataFilter.Operator.EQ) {
+            return RoaringBitmap.and(equalTo(compare.field(), compare.value()), universe);
+        }
+        if (operator == MetadataFilter.Operator.NE) {
+            return RoaringBitmap.andNot(universe, equalTo(compare.field(), compare.value()));
+        }
+        if (!(compare.value() instanceof Number number)) {
+            throw new IllegalArgumentException(
+                    "'" + compare.field() + " " + operator.symbol() + "' needs a number, got " + compare.value());
+        }
+
+        FieldIndex index = fields.get(compare.field());
+        if (index == null) {
+            return new RoaringBitmap();
+        }
+        double bound = number.doubleValue();
+        NavigableMap<Double, RoaringBitmap> range = switch (operator) {
+            case GT -> index.numbers.tailMap(bound, false);
+            case GE -> index.numbers.tailMap(bound, true);
+            case LT -> index.numbers.headMap(bound, false);
+            case LE -> index.numbers.headMap(bound, true);
+            default -> throw new IllegalStateException("Unexpected operator " + operator);
+        };
+        if (range.isEmpty()) {
+            return new RoaringBitmap();
+        }
+        return RoaringBitmap.and(FastAggregation.or(range.values().iterator()), universe);
+    }
+
+    private RoaringBitmap equalTo(String field, Object value) {
+        FieldIndex index = fields.get(field);
+        RoaringBitmap bitmap = index != null ? index.bitmap(value, false) : null;
+        return bitmap != null ? bitmap : new RoaringBitmap();
+    }
+
+    /**
+     * Bitmaps of one field: numbers sorted (for ranges), other values hashed.
+     */
+    private static final class FieldIndex {
+
+        private final NavigableMap<Double, RoaringBitmap> numbers = new TreeMap<>();
+        private final Map<Object, RoaringBitmap> values = new HashMap<>();
+
+        RoaringBitmap bitmap(Object value, boolean create) {
+            if (value instanceof Number number) {
+                return create
+                        ? numbers.computeIfAbsent(number.doubleValue(), v -> new RoaringBitmap())
+                        : numbers.get(number.doubleValue());
+            }
+            return create ? values.computeIfAbsent(value, v -> new RoaringBitmap()) : values.get(value);
+        }
+
+        void removeValue(Object value) {
+            if (value instanceof Number number) {
+                numbers.remove(number.doubleValue());
+            } else {
+                values.remove(value);
+            }
+        }
+    }
+}
@@ -0,0 +1,568 @@
+package com.example.ai.basics.day1.service;
+
+import com.example.ai.basics.common.metrics.LlmMetrics;
+import com.example.ai.basics.common.tracing.ContextPropagation;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingResponse;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClient;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * =============================================================================
+ * SHARDED VECTOR STORE - One logical store over several nodes
+ * =============================================================================
+ *
+ * When a corpus outgrows one heap, every node keeps only a shard of each
+ * collection and this class makes them look like one store:
+ *
+ * - WRITES go to the node owning the document's note ID (the part of the
+ *   chunk ID before '#', see IngestionPipeline) on a consistent hash ring
+ *   (ConsistentHashRing), so adding a node only moves ~1/N of the documents
+ *   and all chunks of a note live on one node, where they can be replaced
+ *   or deleted together
+ * - SEARCHES scatter to all nodes in parallel (virtual threads) and gather
+ *   their top-K into the global top-K. The query is embedded once, here.
+ *   Cosine scores are comparable across shards and are merged by score.
+ *   BM25 scores are not (each shard has its own document frequencies and
+ *   lengths), so keyword rankings are merged by rank, with RRF. HYBRID
+ *   fetches the vector and keyword rankings from every shard, merges each
+ *   side, then fuses the two with RRF like SimpleVectorStore does locally.
+ *   Batches of queries are embedded in one request and sent to every shard
+ *   as one batch, merged query by query.
+ * - DIVERSITY: findDiverse fetches a larger pool (with the vectors) and
+ *   picks the final top K with maximal marginal relevance on top of the
+ *   merged pool.
+ * - DEADLINE: a search waits at most ai.rag.cluster.deadline. Shards that
+ *   haven't answered by then (or failed) are left out and listed in the
+ *   result, so one slow node degrades recall instead of latency. Writes
+ *   and deletes can't be left out: they fail once write-deadline passes.
+ *   HTTP calls to other nodes also time out (connect-timeout, and the
+ *   longer of both deadlines for reading), so abandoned calls don't pile
+ *   up threads and connections.
+ *
+ * Nodes talk over the /internal/vector-store endpoints, which only ever
+ * touch the local shard. The node's own shard is called in-process. Those
+ * endpoints only exist when the cluster is configured, and only answer
+ * calls carrying ai.rag.cluster.secret in the X-Cluster-Secret header.
+ *
+ * Without ai.rag.cluster.nodes everything simply runs on the local
+ * VectorStoreCollections.
+ *
+ * =============================================================================
+ */
+@Service
+public class ShardedVectorStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardedVectorStore.class);
+
+    /**
+     * Carries ai.rag.cluster.secret on node-to-node calls.
+     */
+    public static final String SECRET_HEADER = "X-Cluster-Secret";
+
+    // MMR picks from a pool of MMR_POOL_FACTOR x topK (at least MMR_MIN_POOL) candidates
+    private static final int MMR_POOL_FACTOR = 4;
+    private static final int MMR_MIN_POOL = 20;
+
+    private final VectorStoreCollections collections;
+    private final EmbeddingModel embeddingModel;
+    private final LlmMetrics metrics;
+    private final RestClient restClient;
+    private final VectorStoreClusterProperties properties;
+    private final ConsistentHashRing ring;
+
+    private final ExecutorService shardExecutor = ContextPropagation.wrap(
+            Executors.newVirtualThreadPerTaskExecutor());
+
+    public ShardedVectorStore(
+            VectorStoreCollections collections,
+            EmbeddingModel embeddingModel,
+            LlmMetrics metrics,
+            RestClient.Builder restClientBuilder,
+            VectorStoreClusterProperties properties) {
+        this.collections = collections;
+        this.embeddingModel = embeddingModel;
+        this.metrics = metrics;
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(properties.connectTimeout());
+        requestFactory.setReadTimeout(properties.deadline().compareTo(properties.writeDeadline()) > 0
+                ? properties.deadline() : properties.writeDeadline());
+        this.restClient = restClientBuilder
+                .requestFactory(requestFactory)
+                .defaultHeader(SECRET_HEADER, properties.secret())
+                .build();
+        this.properties = properties;
+        if (properties.nodes().isEmpty()) {
+            this.ring = null;
+        } else {
+            if (!properties.nodes().contains(properties.self())) {
+                throw new IllegalStateException("ai.rag.cluster.self (" + properties.self()
+                        + ") must be one of ai.rag.cluster.nodes " + properties.nodes());
+            }
+            if (properties.secret().isBlank()) {
+                throw new IllegalStateException("ai.rag.cluster.secret must be set when ai.rag.cluster.nodes is: "
+                        + "the /internal/vector-store endpoints only accept calls carrying it");
+            }
+            this.ring = new ConsistentHashRing(properties.nodes(), properties.virtualNodes());
+            logger.info("🧩 Vector store sharded over {} nodes, this one is {}", properties.nodes().size(),
+                    properties.self());
+        }
+    }
+
+    public boolean clustered() {
+        return ring != null;
+    }
+
+    /**
+     * Stores (or replaces) embedded documents on the nodes owning their notes.
+     *
+     * @return how many existing documents were replaced
+     */
+    public int storeAll(String collection, List<SimpleVectorStore.StoredDocument> batch) {
+        String name = VectorStoreCollections.checkName(collection);
+        if (!clustered()) {
+            return collections.withStore(name, store -> store.storeAll(batch));
+        }
+        Map<String, List<SimpleVectorStore.StoredDocument>> byNode = new LinkedHashMap<>();
+        for (SimpleVectorStore.StoredDocument document : batch) {
+            byNode.computeIfAbsent(ring.nodeFor(IngestionPipeline.noteId(document.id())), node -> new ArrayList<>())
+                    .add(document);
+        }
+        // Writes wait for every owner: a lost write must fail the caller
+        Map<String, CompletableFuture<Integer>> writes = new LinkedHashMap<>();
+        byNode.forEach((node, documents) -> writes.put(node, CompletableFuture.supplyAsync(() -> isSelf(node)
+                ? collections.withStore(name, store -> store.storeAll(documents))
+                : restClient.post()
+                        .uri(node + "/internal/vector-store/{collection}/documents", name)
+                        .body(documents)
+                        .retrieve()
+                        .body(Integer.class), shardExecutor)));
+        return awaitWrites(writes).stream().mapToInt(Integer::intValue).sum();
+    }
+
+    /**
+     * Replaces all chunks of a note ("<noteId>#<n>") with the given,
+     * already embedded ones, in one write on the node owning the note.
+     *
+     * @return how many chunks the note had before
+     */
+    public int replaceNote(String collection, String noteId, List<SimpleVectorStore.StoredDocument> chunks) {
+        String name = VectorStoreCollections.checkName(collection);
+        String owner = clustered() ? ring.nodeFor(noteId) : null;
+        if (owner == null || isSelf(owner)) {
+            return collections.withStore(name,
+                    store -> store.replacePrefix(IngestionPipeline.chunkPrefix(noteId), chunks));
+        }
+        return awaitWrite(owner, () -> restClient.put()
+                .uri(owner + "/internal/vector-store/{collection}/notes?id={id}", name, noteId)
+                .body(chunks)
+                .retrieve()
+                .body(Integer.class));
+    }
+
+    /**
+     * Deletes all chunks of a note.
+     *
+     * @return how many chunks were deleted; 0 if there was no such note
+     */
+    public int deleteNote(String collection, String noteId) {
+        String name = VectorStoreCollections.checkName(collection);
+        String owner = clustered() ? ring.nodeFor(noteId) : null;
+        if (owner == null || isSelf(owner)) {
+            return collections.withStore(name, store -> store.deletePrefix(IngestionPipeline.chunkPrefix(noteId)));
+        }
+        return awaitWrite(owner, () -> restClient.delete()
+                .uri(owner + "/internal/vector-store/{collection}/notes?id={id}", name, noteId)
+                .retrieve()
+                .body(Integer.class));
+    }
+
+    /**
+     * Documents in the collection over all shards that answered in time.
+     */
+    public int size(String collection) {
+        String name = VectorStoreCollections.checkName(collection);
+        if (!clustered()) {
+            return collections.withStore(name, SimpleVectorStore::size);
+        }
+        return scatter(node -> isSelf(node)
+                ? collections.withStore(name, SimpleVectorStore::size)
+                : restClient.get()
+                        .uri(node + "/internal/vector-store/{collection}/size", name)
+                        .retrieve()
+                        .body(Integer.class))
+                .answers().values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    /**
+     * Removes the collection from every shard.
+     *
+     * @return how many documents it held
+     * @throws IllegalStateException if a shard didn't confirm within the
+     *         write deadline; dropping again is safe
+     */
+    public int drop(String collection) {
+        String name = VectorStoreCollections.checkName(collection);
+        if (!clustered()) {
+            return collections.drop(name);
+        }
+        // A write like any other: every shard must confirm, on the write deadline
+        Map<String, CompletableFuture<Integer>> drops = new LinkedHashMap<>();
+        for (String node : ring.nodes()) {
+            drops.put(node, CompletableFuture.supplyAsync(() -> isSelf(node)
+                    ? collections.drop(name)
+                    : restClient.delete()
+                            .uri(node + "/internal/vector-store/{collection}", name)
+                            .retrieve()
+                            .body(Integer.class), shardExecutor));
+        }
+        return awaitWrites(drops).stream().mapToInt(Integer::intValue).sum();
+    }
+
+    /**
+     * Finds the best matching documents across all shards.
+     */
+    public SearchResult findSimilar(String collection, String query, int topK, SimpleVectorStore.SearchMode mode,
+            MetadataFilter filter) {
+        return search(VectorStoreCollections.checkName(collection), query, topK, mode, filter, false);
+    }
+
+    /**
+     * Like {@link #findSimilar}, but picks the top K out of a larger pool
+     * of candidates with maximal marginal relevance, so near-identical
+     * notes don't crowd out the rest. Diversity 0 is plain findSimilar.
+     */
+    public SearchResult findDiverse(String collection, String query, int topK, SimpleVectorStore.SearchMode mode,
+            MetadataFilter filter, double diversity) {
+        String name = VectorStoreCollections.checkName(collection);
+        if (diversity <= 0) {
+            return search(name, query, topK, mode, filter, false);
+        }
+        SearchResult pool = search(name, query, Math.max(MMR_MIN_POOL, topK * MMR_POOL_FACTOR), mode, filter, true);
+        return new SearchResult(MaximalMarginalRelevance.select(pool.results(), topK, Math.min(1, diversity)),
+                pool.shards(), pool.unavailableShards());
+    }
+
+    private SearchResult search(String name, String query, int topK, SimpleVectorStore.SearchMode mode,
+            MetadataFilter filter, boolean withEmbeddings) {
+        if (!clustered()) {
+            return collections.withStore(name, store -> {
+                if (!withEmbeddings || store.size() == 0) {
+                    return new SearchResult(store.findSimilar(query, topK, mode, filter), 1, List.of());
+                }
+                return new SearchResult(store.findSimilar(query, embed(query, mode), topK, mode, filter, true), 1,
+                        List.of());
+            });
+        }
+
+        float[] embedding = embed(query, mode);
+        String expression = filter != null ? filter.toExpression() : null;
+
+        if (mode != SimpleVectorStore.SearchMode.HYBRID) {
+            Gathered<List<SimpleVectorStore.SimilarityResult>> gathered = scatter(
+                    node -> searchShard(node, name, new ShardSearchRequest(query, embedding, topK, mode.name(),
+                            expression, withEmbeddings)));
+            List<SimpleVectorStore.SimilarityResult> merged = mode == SimpleVectorStore.SearchMode.KEYWORD
+                    ? mergeByRank(gathered.answers().values(), topK)
+                    : mergeByScore(gathered.answers().values(), topK);
+            return new SearchResult(merged, ring.nodes().size(), gathered.unavailable());
+        }
+
+        // Both rankings from every shard, merged globally, then fused
+        int candidates = Math.max(20, topK * 4);
+        Gathered<List<List<SimpleVectorStore.SimilarityResult>>> gathered = scatter(node -> List.of(
+                searchShard(node, name, new ShardSearchRequest(query, embedding, candidates,
+                        SimpleVectorStore.SearchMode.VECTOR.name(), expression, withEmbeddings)),
+                searchShard(node, name, new ShardSearchRequest(query, null, candidates,
+                        SimpleVectorStore.SearchMode.KEYWORD.name(), expression, withEmbeddings))));
+        List<List<SimpleVectorStore.SimilarityResult>> vector = new ArrayList<>();
+        List<List<SimpleVectorStore.SimilarityResult>> keyword = new ArrayList<>();
+        gathered.answers().values().forEach(rankings -> {
+            vector.add(rankings.get(0));
+            keyword.add(rankings.get(1));
+        });
+        return new SearchResult(fuse(topK, mergeByScore(vector, candidates), mergeByRank(keyword, candidates)),
+                ring.nodes().size(), gathered.unavailable());
+    }
+
+    // Null in KEYWORD mode, which doesn't need the query vector
+    private float[] embed(String query, SimpleVectorStore.SearchMode mode) {
+        return mode != SimpleVectorStore.SearchMode.KEYWORD
+                ? metrics.timeEmbedding("ShardedVectorStore",
+                        () -> embeddingModel.embedForResponse(List.of(query)).getResult().getOutput())
+                : null;
+    }
+
+    /**
+     * Finds the most similar documents (VECTOR mode) for each of several
+     * queries, embedding them in one request and scanning every shard once
+     * for the whole batch.
+     */
+    public BatchSearchResult findSimilarBatch(String collection, List<String> queries, int topK,
+            MetadataFilter filter) {
+        String name = VectorStoreCollections.checkName(collection);
+        if (queries.isEmpty()) {
+            return new BatchSearchResult(List.of(), clustered() ? ring.nodes().size() : 1, List.of());
+        }
+        EmbeddingResponse response = metrics.timeEmbedding("ShardedVectorStore",
+                () -> embeddingModel.embedForResponse(queries));
+        float[][] embeddings = new float[queries.size()][];
+        for (int q = 0; q < embeddings.length; q++) {
+            embeddings[q] = response.getResults().get(q).getOutput();
+        }
+        if (!clustered()) {
+            return new BatchSearchResult(collections.withStore(name,
+                    store -> store.findSimilarBatch(embeddings, topK, filter)), 1, List.of());
+        }
+
+        ShardBatchSearchRequest request = new ShardBatchSearchRequest(embeddings, topK,
+                filter != null ? filter.toExpression() : null);
+        Gathered<List<List<SimpleVectorStore.SimilarityResult>>> gathered = scatter(node -> isSelf(node)
+                ? searchLocal(collections, name, request)
+                : restClient.post()
+                        .uri(node + "/internal/vector-store/{collection}/search/batch", name)
+                        .body(request)
+                        .retrieve()
+                        .body(new ParameterizedTypeReference<List<List<SimpleVectorStore.SimilarityResult>>>() {
+                        }));
+        List<List<SimpleVectorStore.SimilarityResult>> merged = new ArrayList<>(queries.size());
+        for (int q = 0; q < queries.size(); q++) {
+            int query = q;
+            merged.add(mergeByScore(gathered.answers().values().stream().map(shard -> shard.get(query)).toList(),
+                    topK));
+        }
+        return new BatchSearchResult(merged, ring.nodes().size(), gathered.unavailable());
+    }
+
+    /**
+     * Searches one shard; the local one in-process.
+     */
+    private List<SimpleVectorStore.SimilarityResult> searchShard(String node, String collection,
+            ShardSearchRequest request) {
+        if (isSelf(node)) {
+            return searchLocal(collections, collection, request);
+        }
+        return restClient.post()
+                .uri(node + "/internal/vector-store/{collection}/search", collection)
+                .body(request)
+                .retrieve()
+                .body(new ParameterizedTypeReference<List<SimpleVectorStore.SimilarityResult>>() {
+                });
+    }
+
+    /**
+     * Runs a shard search against this node's own collection.
+     */
+    public static List<SimpleVectorStore.SimilarityResult> searchLocal(VectorStoreCollections collections,
+            String collection, ShardSearchRequest request) {
+        MetadataFilter filter = request.filter() != null ? MetadataFilter.parse(request.filter()) : null;
+        SimpleVectorStore.SearchMode mode = SimpleVectorStore.SearchMode.fromName(request.mode());
+        return collections.withStore(collection, store -> store.findSimilar(request.query(), request.embedding(),
+                request.topK(), mode, filter, request.embeddings()));
+    }
+
+    /**
+     * Runs a shard batch search against this node's own collection.
+     */
+    public static List<List<SimpleVectorStore.SimilarityResult>> searchLocal(VectorStoreCollections collections,
+            String collection, ShardBatchSearchRequest request) {
+        MetadataFilter filter = request.filter() != null ? MetadataFilter.parse(request.filter()) : null;
+        return collections.withStore(collection,
+                store -> store.findSimilarBatch(request.embeddings(), request.topK(), filter));
+    }
+
+    /**
+     * Calls every node in parallel and keeps the answers that arrive before
+     * the deadline.
+     */
+    private <T> Gathered<T> scatter(Function<String, T> call) {
+        Map<String, CompletableFuture<T>> calls = new LinkedHashMap<>();
+        for (String node : ring.nodes()) {
+            calls.put(node, CompletableFuture.supplyAsync(() -> call.apply(node), shardExecutor));
+        }
+
+        long deadline = System.nanoTime() + properties.deadline().toNanos();
+        Map<String, T> answers = new LinkedHashMap<>();
+        List<String> unavailable = new ArrayList<>();
+        calls.forEach((node, future) -> {
+            try {
+                answers.put(node, future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                unavailable.add(node);
+                logger.warn("⏱️ Shard {} missed the {} ms deadline", node, properties.deadline().toMillis());
+            } catch (ExecutionException e) {
+                unavailable.add(node);
+                logger.warn("⚠️ Shard {} failed: {}", node, e.getCause().getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                unavailable.add(node);
+            }
+        });
+        return new Gathered<>(answers, unavailable);
+    }
+
+    private <T> T awaitWrite(String node, Supplier<T> write) {
+        return awaitWrites(Map.of(node, CompletableFuture.supplyAsync(write, shardExecutor))).getFirst();
+    }
+
+    /**
+     * Waits for writes on several nodes, at most the write deadline in
+     * total.
+     *
+     * @throws IllegalStateException if a node didn't answer in time; its
+     *         write may still be applied, and retrying is safe (writes
+     *         replace by ID)
+     */
+    private <T> List<T> awaitWrites(Map<String, CompletableFuture<T>> writes) {
+        long deadline = System.nanoTime() + properties.writeDeadline().toNanos();
+        List<T> results = new ArrayList<>(writes.size());
+        for (Map.Entry<String, CompletableFuture<T>> write : writes.entrySet()) {
+            try {
+                results.add(write.getValue().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+            } catch (TimeoutException e) {
+                write.getValue().cancel(true);
+                throw new IllegalStateException("Shard " + write.getKey() + " did not confirm the write within "
+                        + properties.writeDeadline().toMillis() + " ms", e);
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof RuntimeException cause
+                        ? cause
+                        : new IllegalStateException("Write on shard " + write.getKey() + " failed", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted waiting for shard " + write.getKey(), e);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Global top K of per-shard rankings, by their scores. Only for scores
+     * that mean the same on every shard, i.e. cosine similarities.
+     */
+    static List<SimpleVectorStore.SimilarityResult> mergeByScore(
+            Iterable<List<SimpleVectorStore.SimilarityResult>> rankings, int topK) {
+        List<SimpleVectorStore.SimilarityResult> all = new ArrayList<>();
+        rankings.forEach(all::addAll);
+        TopK best = new TopK(topK);
+        for (int i = 0; i < all.size(); i++) {
+            best.offer(all.get(i).similarity(), i);
+        }
+        return best.hitsDescending().stream().map(hit -> all.get(hit.ordinal())).toList();
+    }
+
+    /**
+     * Global top K of per-shard rankings by rank: RRF over the shards'
+     * rankings, so the shards' k-th results are interleaved. For BM25,
+     * whose scores depend on each shard's statistics. The results carry
+     * their RRF scores.
+     */
+    @SuppressWarnings("unchecked")
+    static List<SimpleVectorStore.SimilarityResult> mergeByRank(
+            Iterable<List<SimpleVectorStore.SimilarityResult>> rankings, int topK) {
+        Map<String, Integer> ordinals = new HashMap<>();
+        List<SimpleVectorStore.SimilarityResult> documents = new ArrayList<>();
+        List<List<TopK.Hit>> shardHits = new ArrayList<>();
+        rankings.forEach(ranking -> shardHits.add(hits(ranking, ordinals, documents)));
+        return results(SimpleVectorStore.fuse(topK, shardHits.toArray(List[]::new)), documents);
+    }
+
+    /**
+     * RRF over two merged rankings, matching documents by ID.
+     */
+    static List<SimpleVectorStore.SimilarityResult> fuse(int topK, List<SimpleVectorStore.SimilarityResult> vector,
+            List<SimpleVectorStore.SimilarityResult> keyword) {
+        Map<String, Integer> ordinals = new HashMap<>();
+        List<SimpleVectorStore.SimilarityResult> documents = new ArrayList<>();
+        List<TopK.Hit> vectorHits = hits(vector, ordinals, documents);
+        List<TopK.Hit> keywordHits = hits(keyword, ordinals, documents);
+        return results(SimpleVectorStore.fuse(topK, vectorHits, keywordHits), documents);
+    }
+
+    // The fused hits as results, with their fused scores
+    private static List<SimpleVectorStore.SimilarityResult> results(List<TopK.Hit> fused,
+            List<SimpleVectorStore.SimilarityResult> documents) {
+        return fused.stream()
+                .map(hit -> {
+                    SimpleVectorStore.SimilarityResult document = documents.get(hit.ordinal());
+                    return new SimpleVectorStore.SimilarityResult(document.id(), document.text(), hit.score(),
+                            document.metadata(), document.embedding());
+                })
+                .toList();
+    }
+
+    private static List<TopK.Hit> hits(List<SimpleVectorStore.SimilarityResult> ranking,
+            Map<String, Integer> ordinals, List<SimpleVectorStore.SimilarityResult> documents) {
+        List<TopK.Hit> hits = new ArrayList<>(ranking.size());
+        for (SimpleVectorStore.SimilarityResult result : ranking) {
+            int ordinal = ordinals.computeIfAbsent(result.id(), id -> {
+                documents.add(result);
+                return documents.size() - 1;
+            });
+            hits.add(new TopK.Hit(ordinal, result.similarity()));
+        }
+        return hits;
+    }
+
+    private boolean isSelf(String node) {
+        return node.equals(properties.self());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        shardExecutor.shutdownNow();
+    }
+
+    /**
+     * One shard's search, as sent to /internal/vector-store/{collection}/search.
+     * The embedding is null in KEYWORD mode, the filter is an expression;
+     * embeddings asks for the results' vectors (for MMR).
+     */
+    public record ShardSearchRequest(String query, float[] embedding, int topK, String mode, String filter,
+            boolean embeddings) {
+    }
+
+    /**
+     * A batch of embedded queries, as sent to
+     * /internal/vector-store/{collection}/search/batch.
+     */
+    public record ShardBatchSearchRequest(float[][] embeddings, int topK, String filter) {
+    }
+
+    /**
+     * Merged results; unavailableShards lists the nodes left out (slow or
+     * failed), so the results may be incomplete when it isn't empty.
+     */
+    public record SearchResult(List<SimpleVectorStore.SimilarityResult> results, int shards,
+            List<String> unavailableShards) {
+    }
+
+    /**
+     * Merged results per query, in query order; see {@link SearchResult}.
+     */
+    public record BatchSearchResult(List<List<SimpleVectorStore.SimilarityResult>> results, int shards,
+            List<String> unavailableShards) {
+    }
+
+    private record Gathered<T>(Map<String, T> answers, List<String> unavailable) {
+    }
+}
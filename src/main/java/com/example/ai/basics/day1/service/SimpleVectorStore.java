@@ -1,16 +1,31 @@
 package com.example.ai.basics.day1.service;
 
+import com.example.ai.basics.common.metrics.LlmMetrics;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.ai.embedding.EmbeddingModel;
-import org.springframework.stereotype.Service;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BinaryOperator;
+import java.util.function.IntPredicate;
+import java.util.function.ObjIntConsumer;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * =============================================================================
  * SIMPLE IN-MEMORY VECTOR STORE
  * =============================================================================
  * 
- * This service stores text embeddings in memory for similarity search.
+ * This class stores text embeddings in memory for similarity search. Each
+ * collection gets its own instance (see VectorStoreCollections), so a
+ * search only ever scans one collection's documents.
  * In production, you would use a vector database like:
  * - Pinecone
  * - Weaviate
@@ -23,18 +38,93 @@ import java.util.*;
  * - How similarity search works at a basic level
  * - The foundation for RAG (Retrieval-Augmented Generation)
  * 
+ * HOW THE SEARCH IS KEPT CHEAP:
+ * - Documents live in a dense array, addressed by an ordinal
+ * - Each vector's norm is computed once when it is stored
+ * - Only the K best candidates are kept while scanning (see TopK)
+ * 
+ * SEARCH MODES:
+ * - VECTOR:  cosine similarity of embeddings (meaning)
+ * - KEYWORD: BM25 over an inverted index (exact words, IDs, error codes)
+ * - HYBRID:  both, merged with reciprocal rank fusion (RRF): each document
+ *            scores sum(1 / (60 + rank)) over the two rankings, so no score
+ *            normalization is needed
+ * 
+ * METADATA FILTERS:
+ * Documents can carry typed metadata (strings, numbers, booleans). A
+ * MetadataFilter such as "genre == 'thriller' && year >= 2000" is turned
+ * into a bitmap of matching ordinals first (see MetadataIndex); only those
+ * are scored.
+ * 
+ * UPDATES AND DELETES:
+ * Storing an existing ID replaces the document in place (upsert).
+ * replacePrefix swaps every document whose ID starts with a prefix (e.g.
+ * all chunks of a note) for a new batch in one write. Deleting
+ * one only marks its ordinal in a tombstone BitSet: scans skip tombstoned
+ * ordinals, the keyword and metadata indexes forget it. Replaced and
+ * deleted entries still take space (the text in the BM25 postings, the
+ * slot in the arrays), so once they make up more than the compaction
+ * threshold of all entries, a background thread rebuilds the store from
+ * the live documents and swaps the result in.
+ * 
+ * PARALLEL SCAN:
+ * Above parallelScanThreshold candidates, the vector scan splits the
+ * ordinals into one shard per core, scans the shards on the fork-join pool
+ * and merges their top-K heaps (TopK.addAll). Below it, the coordination
+ * costs more than it saves and one thread scans everything.
+ * 
+ * BATCHED QUERIES:
+ * findSimilarBatch scores many queries in one scan, like a matrix
+ * multiply: stored vectors are taken in blocks small enough to stay in
+ * the CPU cache, every query is scored against the block (four queries
+ * per pass over each vector, see VectorMath.dot4), then the next block is
+ * loaded. Each stored vector comes from memory once per batch instead of
+ * once per query.
+ * 
+ * THREAD SAFETY:
+ * Searches share a read lock and run in parallel; store/delete/clear take
+ * the write lock, so background ingestion can write while requests query.
+ * Embedding calls happen outside the lock. Compaction only holds the read
+ * lock to copy the live documents and the write lock to swap them in; if a
+ * write landed in between, the rebuild is thrown away and tried again.
+ * 
  * =============================================================================
  */
-@Service
 public class SimpleVectorStore {
 
+    private static final Logger logger = LoggerFactory.getLogger(SimpleVectorStore.class);
+
+    // Standard RRF damping constant; each side contributes this many candidates at least
+    private static final int RRF_K = 60;
+    private static final int HYBRID_MIN_CANDIDATES = 20;
+    // Don't bother compacting for a handful of dead entries
+    private static final int COMPACTION_MIN_GARBAGE = 64;
+    private static final int COMPACTION_ATTEMPTS = 3;
+    private static final int SCAN_SHARDS = Runtime.getRuntime().availableProcessors();
+    // Stored vectors per batch block: sized to stay in a (typical) L2 cache
+    private static final int BATCH_BLOCK_BYTES = 256 * 1024;
+
+    // The collection, as tagged on the query metrics
+    private final String name;
     private final EmbeddingModel embeddingModel;
+    private final LlmMetrics metrics;
+    private final double compactionThreshold;
+    private final int parallelScanThreshold;
 
-    // In-memory storage: Maps document ID to (text, embedding) pairs
-    private final Map<String, StoredDocument> documents = new HashMap<>();
+    // Documents, vectors and indexes; replaced as a whole by compaction
+    private Segment segment = new Segment();
+    // Bumped by every write, so compaction can tell whether its copy is stale
+    private long modifications;
+    private final AtomicBoolean compacting = new AtomicBoolean();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
 
-    public SimpleVectorStore(EmbeddingModel embeddingModel) {
+    public SimpleVectorStore(String name, EmbeddingModel embeddingModel, LlmMetrics metrics,
+            VectorStoreProperties properties) {
+        this.name = name;
         this.embeddingModel = embeddingModel;
+        this.metrics = metrics;
+        this.compactionThreshold = properties.compactionThreshold();
+        this.parallelScanThreshold = properties.parallelScanThreshold();
     }
 
     /**
@@ -44,11 +134,27 @@ public class SimpleVectorStore {
      * @param text The text content to store
      */
     public void store(String id, String text) {
-        // Generate embedding for the text
-        float[] embedding = embeddingModel.embedForResponse(List.of(text))
-                .getResult().getOutput();
+        store(id, text, Map.of());
+    }
 
-        documents.put(id, new StoredDocument(id, text, embedding));
+    /**
+     * Embeds and stores a document with metadata, replacing any document
+     * with the same ID.
+     *
+     * @return true if a document was replaced
+     */
+    public boolean store(String id, String text, Map<String, Object> metadata) {
+        return storeAll(List.of(new StoredDocument(id, text, embed(text), metadata))) > 0;
+    }
+
+    /**
+     * Stores a document whose embedding was already computed (e.g. in a batch).
+     * Storing an existing ID replaces the previous document.
+     *
+     * @return true if a document was replaced
+     */
+    public boolean store(String id, String text, float[] embedding) {
+        return storeAll(List.of(new StoredDocument(id, text, embedding))) > 0;
     }
 
     /**
@@ -58,6 +164,93 @@ public class SimpleVectorStore {
         textByIds.forEach(this::store);
     }
 
+    /**
+     * Stores (or replaces) already embedded documents under a single write
+     * lock.
+     *
+     * @return how many existing documents were replaced
+     */
+    public int storeAll(List<StoredDocument> batch) {
+        return write(null, batch);
+    }
+
+    /**
+     * Deletes every document whose ID starts with the prefix and stores
+     * the batch, under a single write lock: searches see either the old
+     * documents or the new ones, never a mix.
+     *
+     * @return how many documents were deleted
+     */
+    public int replacePrefix(String prefix, List<StoredDocument> batch) {
+        return write(Objects.requireNonNull(prefix), batch);
+    }
+
+    /**
+     * Deletes every document whose ID starts with the prefix.
+     *
+     * @return how many documents were deleted
+     */
+    public int deletePrefix(String prefix) {
+        return replacePrefix(prefix, List.of());
+    }
+
+    // Deletes the prefix's documents (unless null), then stores the batch;
+    // returns how many documents were deleted or replaced
+    private int write(String prefix, List<StoredDocument> batch) {
+        double[] batchNorms = new double[batch.size()];
+        List<Bm25Index.Terms> batchTerms = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            batchNorms[i] = VectorMath.norm(batch.get(i).embedding());
+            batchTerms.add(Bm25Index.analyze(batch.get(i).text()));
+        }
+
+        int replaced = 0;
+        boolean compact;
+        lock.writeLock().lock();
+        try {
+            if (prefix != null) {
+                replaced += segment.deletePrefix(prefix);
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                if (segment.put(batch.get(i), batchNorms[i], batchTerms.get(i))) {
+                    replaced++;
+                }
+            }
+            modifications++;
+            compact = needsCompaction();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (compact) {
+            startCompaction();
+        }
+        return replaced;
+    }
+
+    /**
+     * Deletes a document. Its space is reclaimed by a later compaction.
+     *
+     * @return false if there was no document with this ID
+     */
+    public boolean delete(String id) {
+        boolean deleted;
+        boolean compact;
+        lock.writeLock().lock();
+        try {
+            deleted = segment.delete(id);
+            if (deleted) {
+                modifications++;
+            }
+            compact = deleted && needsCompaction();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (compact) {
+            startCompaction();
+        }
+        return deleted;
+    }
+
     /**
      * Finds the most similar documents to the query.
      * 
@@ -66,61 +259,598 @@ public class SimpleVectorStore {
      * @return List of similar documents, ranked by similarity
      */
     public List<SimilarityResult> findSimilar(String query, int topK) {
-        if (documents.isEmpty()) {
+        return findSimilar(query, topK, SearchMode.VECTOR, null);
+    }
+
+    /**
+     * Finds the best matching documents using the given search mode.
+     * Similarity is the cosine similarity (VECTOR), the BM25 score (KEYWORD)
+     * or the RRF score (HYBRID); higher is better in all three.
+     */
+    public List<SimilarityResult> findSimilar(String query, int topK, SearchMode mode) {
+        return findSimilar(query, topK, mode, null);
+    }
+
+    /**
+     * Like {@link #findSimilar(String, int, SearchMode)}, only returning
+     * documents whose metadata matches the filter (null matches all).
+     */
+    public List<SimilarityResult> findSimilar(String query, int topK, SearchMode mode, MetadataFilter filter) {
+        if (size() == 0) {
+            return Collections.emptyList();
+        }
+
+        long start = System.nanoTime();
+        float[] queryEmbedding = mode != SearchMode.KEYWORD ? embed(query) : null;
+        return search(query, queryEmbedding, topK, mode, filter, false, start);
+    }
+
+    /**
+     * Like {@link #findSimilar(String, int, SearchMode, MetadataFilter)} for
+     * a query embedded by the caller (may be null in KEYWORD mode), e.g. once
+     * for all shards.
+     */
+    public List<SimilarityResult> findSimilar(String query, float[] queryEmbedding, int topK, SearchMode mode,
+            MetadataFilter filter) {
+        return findSimilar(query, queryEmbedding, topK, mode, filter, false);
+    }
+
+    /**
+     * Like {@link #findSimilar(String, float[], int, SearchMode, MetadataFilter)},
+     * optionally returning the documents' embeddings too (e.g. for
+     * MaximalMarginalRelevance).
+     */
+    public List<SimilarityResult> findSimilar(String query, float[] queryEmbedding, int topK, SearchMode mode,
+            MetadataFilter filter, boolean withEmbeddings) {
+        if (size() == 0) {
             return Collections.emptyList();
         }
+        return search(query, queryEmbedding, topK, mode, filter, withEmbeddings, System.nanoTime());
+    }
+
+    private List<SimilarityResult> search(String query, float[] queryEmbedding, int topK, SearchMode mode,
+            MetadataFilter filter, boolean withEmbeddings, long start) {
+        List<SimilarityResult> results;
+        int scanned;
+        lock.readLock().lock();
+        try {
+            Segment current = segment;
+            RoaringBitmap allowed = current.allowed(filter);
+            scanned = allowed != null ? allowed.getCardinality() : current.live();
+            results = switch (mode) {
+                case VECTOR -> current.toResults(vectorHits(current, queryEmbedding, topK, allowed), withEmbeddings);
+                case KEYWORD -> current.toResults(current.keywordIndex.search(query, topK, predicate(allowed)),
+                        withEmbeddings);
+                case HYBRID -> current.toResults(fuse(topK,
+                        vectorHits(current, queryEmbedding, hybridCandidates(topK), allowed),
+                        current.keywordIndex.search(query, hybridCandidates(topK), predicate(allowed))),
+                        withEmbeddings);
+            };
+        } finally {
+            lock.readLock().unlock();
+        }
+        metrics.recordVectorQuery(name, scanned, System.nanoTime() - start);
+        return results;
+    }
+
+    /**
+     * Finds the most similar documents to an already embedded query.
+     */
+    public List<SimilarityResult> findSimilar(float[] queryEmbedding, int topK) {
+        return findSimilar(queryEmbedding, topK, null);
+    }
 
-        // Generate embedding for the query
-        float[] queryEmbedding = embeddingModel.embedForResponse(List.of(query))
-                .getResult().getOutput();
+    /**
+     * Finds the most similar documents to an already embedded query among
+     * those matching the filter (null matches all).
+     */
+    public List<SimilarityResult> findSimilar(float[] queryEmbedding, int topK, MetadataFilter filter) {
+        long start = System.nanoTime();
+        List<SimilarityResult> results;
+        int scanned;
+        lock.readLock().lock();
+        try {
+            Segment current = segment;
+            RoaringBitmap allowed = current.allowed(filter);
+            scanned = allowed != null ? allowed.getCardinality() : current.live();
+            results = current.toResults(vectorHits(current, queryEmbedding, topK, allowed), false);
+        } finally {
+            lock.readLock().unlock();
+        }
+        metrics.recordVectorQuery(name, scanned, System.nanoTime() - start);
+        return results;
+    }
 
-        // Calculate similarity with all stored documents
-        List<SimilarityResult> results = new ArrayList<>();
-        for (StoredDocument doc : documents.values()) {
-            double similarity = cosineSimilarity(queryEmbedding, doc.embedding());
-            results.add(new SimilarityResult(doc.id(), doc.text(), similarity));
+    /**
+     * Finds the most similar documents for each of several already
+     * embedded queries in a single scan over the stored vectors, among the
+     * documents matching the filter (null matches all).
+     *
+     * @return one result list per query, in query order
+     */
+    public List<List<SimilarityResult>> findSimilarBatch(float[][] queryEmbeddings, int topK, MetadataFilter filter) {
+        long start = System.nanoTime();
+        List<List<SimilarityResult>> results = new ArrayList<>(queryEmbeddings.length);
+        int scanned;
+        lock.readLock().lock();
+        try {
+            Segment current = segment;
+            RoaringBitmap allowed = current.allowed(filter);
+            scanned = allowed != null ? allowed.getCardinality() : current.live();
+            for (TopK best : batchHits(current, queryEmbeddings, topK, allowed)) {
+                results.add(current.toResults(best.hitsDescending(), false));
+            }
+        } finally {
+            lock.readLock().unlock();
         }
+        metrics.recordVectorQuery(name, scanned, System.nanoTime() - start);
+        return results;
+    }
+
+    // Callers hold the read lock, which also covers the fork-join workers
+    private List<TopK.Hit> vectorHits(Segment segment, float[] queryEmbedding, int topK, RoaringBitmap allowed) {
+        double queryNorm = VectorMath.norm(queryEmbedding);
+        int candidates = allowed != null ? allowed.getCardinality() : segment.live();
+        return scanRanges(segment, candidates,
+                (from, to) -> segment.scan(queryEmbedding, queryNorm, topK, allowed, from, to),
+                (best, other) -> {
+                    best.addAll(other);
+                    return best;
+                }).hitsDescending();
+    }
 
-        // Sort by similarity (highest first) and return top K
-        results.sort((a, b) -> Double.compare(b.similarity(), a.similarity()));
-        return results.subList(0, Math.min(topK, results.size()));
+    // Callers hold the read lock
+    private TopK[] batchHits(Segment segment, float[][] queryEmbeddings, int topK, RoaringBitmap allowed) {
+        double[] queryNorms = new double[queryEmbeddings.length];
+        for (int q = 0; q < queryEmbeddings.length; q++) {
+            queryNorms[q] = VectorMath.norm(queryEmbeddings[q]);
+        }
+        int candidates = allowed != null ? allowed.getCardinality() : segment.live();
+        // A batch is worth splitting when the total work is, not the store size alone
+        int work = (int) Math.min(Integer.MAX_VALUE, (long) candidates * queryEmbeddings.length);
+        return scanRanges(segment, work,
+                (from, to) -> segment.scanBatch(queryEmbeddings, queryNorms, topK, allowed, from, to),
+                (best, other) -> {
+                    for (int q = 0; q < best.length; q++) {
+                        best[q].addAll(other[q]);
+                    }
+                    return best;
+                });
+    }
+
+    /**
+     * Scans all ordinals with one thread, or in one shard per core on the
+     * fork-join pool when there are at least parallelScanThreshold
+     * similarities to compute.
+     */
+    private <T> T scanRanges(Segment segment, int work, RangeScan<T> scan, BinaryOperator<T> merge) {
+        int slots = segment.documents.size();
+        if (SCAN_SHARDS == 1 || work < parallelScanThreshold) {
+            return scan.scan(0, slots);
+        }
+        int shardSize = (slots + SCAN_SHARDS - 1) / SCAN_SHARDS;
+        return ForkJoinPool.commonPool().invoke(new ScanTask<>(scan, merge, 0, slots, shardSize));
+    }
+
+    private static IntPredicate predicate(RoaringBitmap allowed) {
+        return allowed != null ? allowed::contains : null;
+    }
+
+    /**
+     * Reciprocal rank fusion of several rankings (best first).
+     */
+    @SafeVarargs
+    static List<TopK.Hit> fuse(int topK, List<TopK.Hit>... rankings) {
+        Map<Integer, Double> fused = new HashMap<>();
+        for (List<TopK.Hit> ranking : rankings) {
+            for (int rank = 0; rank < ranking.size(); rank++) {
+                fused.merge(ranking.get(rank).ordinal(), 1.0 / (RRF_K + rank + 1), Double::sum);
+            }
+        }
+        TopK best = new TopK(topK);
+        fused.forEach((ordinal, score) -> best.offer(score, ordinal));
+        return best.hitsDescending();
+    }
+
+    private static int hybridCandidates(int topK) {
+        return Math.max(HYBRID_MIN_CANDIDATES, topK * 4);
+    }
+
+    // Callers hold the lock
+    private boolean needsCompaction() {
+        int garbage = segment.garbage;
+        return garbage >= COMPACTION_MIN_GARBAGE
+                && garbage > compactionThreshold * (segment.live() + garbage);
+    }
+
+    private void startCompaction() {
+        if (compacting.compareAndSet(false, true)) {
+            Thread.ofVirtual().name("vector-store-compaction-" + name).start(() -> {
+                try {
+                    compact();
+                } finally {
+                    compacting.set(false);
+                }
+            });
+        }
+    }
+
+    /**
+     * Rebuilds the store from its live documents, dropping tombstones and
+     * superseded keyword postings.
+     *
+     * @return false if writes kept invalidating the rebuild; the next write
+     *         that finds too much garbage tries again
+     */
+    boolean compact() {
+        for (int attempt = 0; attempt < COMPACTION_ATTEMPTS; attempt++) {
+            long version;
+            List<StoredDocument> live = new ArrayList<>();
+            double[] liveNorms;
+            int garbage;
+            lock.readLock().lock();
+            try {
+                version = modifications;
+                garbage = segment.garbage;
+                liveNorms = new double[segment.live()];
+                segment.forEachLive((document, ordinal) -> {
+                    liveNorms[live.size()] = segment.norms[ordinal];
+                    live.add(document);
+                });
+            } finally {
+                lock.readLock().unlock();
+            }
+
+            // Queries (and writes) carry on while the new segment is built
+            Segment rebuilt = new Segment();
+            for (int i = 0; i < live.size(); i++) {
+                rebuilt.put(live.get(i), liveNorms[i], Bm25Index.analyze(live.get(i).text()));
+            }
+
+            lock.writeLock().lock();
+            try {
+                if (modifications == version) {
+                    segment = rebuilt;
+                    logger.info("🧹 Compacted vector store: {} live documents, {} dead entries reclaimed",
+                            live.size(), garbage);
+                    return true;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        logger.debug("Vector store compaction gave up after {} attempts; writes kept changing the store",
+                COMPACTION_ATTEMPTS);
+        return false;
+    }
+
+    /**
+     * A copy of the live documents, in the order they were first stored.
+     */
+    public List<StoredDocument> documents() {
+        lock.readLock().lock();
+        try {
+            List<StoredDocument> live = new ArrayList<>(segment.live());
+            segment.forEachLive((document, ordinal) -> live.add(document));
+            return live;
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
      * Clears all stored documents.
      */
     public void clear() {
-        documents.clear();
+        lock.writeLock().lock();
+        try {
+            segment = new Segment();
+            modifications++;
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     /**
      * Returns the number of stored documents.
      */
     public int size() {
-        return documents.size();
+        lock.readLock().lock();
+        try {
+            return segment.live();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private float[] embed(String text) {
+        return metrics.timeEmbedding("SimpleVectorStore", () -> embeddingModel.embedForResponse(List.of(text))
+                .getResult().getOutput());
+    }
+
+    /**
+     * Documents by ordinal with their norms and indexes. Deleted ordinals
+     * keep their slot (set to null and tombstoned) until compaction builds
+     * a new segment. Guarded by the store's lock.
+     */
+    private static final class Segment {
+
+        private final List<StoredDocument> documents = new ArrayList<>();
+        // Sorted, so the IDs sharing a prefix are one range
+        private final NavigableMap<String, Integer> ordinals = new TreeMap<>();
+        private final BitSet tombstones = new BitSet();
+        private double[] norms = new double[16];
+        // Keyword index, kept in sync with the documents (ordinal -> doc number)
+        private final Bm25Index keywordIndex = new Bm25Index();
+        private int[] keywordDocs = new int[16];
+        private final MetadataIndex metadataIndex = new MetadataIndex();
+        // Replaced and deleted entries since the segment was built
+        private int garbage;
+
+        /**
+         * @return true if a live document with the same ID was replaced
+         */
+        boolean put(StoredDocument document, double norm, Bm25Index.Terms terms) {
+            Integer existing = ordinals.get(document.id());
+            int ordinal = existing != null ? existing : documents.size();
+            if (existing != null) {
+                metadataIndex.remove(ordinal, documents.get(ordinal).metadata());
+                documents.set(ordinal, document);
+                keywordIndex.supersede(keywordDocs[ordinal]);
+                garbage++;
+            } else {
+                documents.add(document);
+                ordinals.put(document.id(), ordinal);
+                if (ordinal == norms.length) {
+                    norms = Arrays.copyOf(norms, norms.length * 2);
+                    keywordDocs = Arrays.copyOf(keywordDocs, keywordDocs.length * 2);
+                }
+            }
+            norms[ordinal] = norm;
+            keywordDocs[ordinal] = keywordIndex.add(ordinal, terms);
+            metadataIndex.add(ordinal, document.metadata());
+            return existing != null;
+        }
+
+        boolean delete(String id) {
+            Integer ordinal = ordinals.remove(id);
+            if (ordinal == null) {
+                return false;
+            }
+            metadataIndex.remove(ordinal, documents.get(ordinal).metadata());
+            keywordIndex.supersede(keywordDocs[ordinal]);
+            // Drop the text and vector now; the slot goes at compaction
+            documents.set(ordinal, null);
+            tombstones.set(ordinal);
+            garbage++;
+            return true;
+        }
+
+        int deletePrefix(String prefix) {
+            List<String> ids = new ArrayList<>(ordinals.subMap(prefix, prefix + Character.MAX_VALUE).keySet());
+            ids.forEach(this::delete);
+            return ids.size();
+        }
+
+        int live() {
+            return ordinals.size();
+        }
+
+        void forEachLive(ObjIntConsumer<StoredDocument> action) {
+            int slots = documents.size();
+            for (int ordinal = tombstones.nextClearBit(0); ordinal < slots;
+                    ordinal = tombstones.nextClearBit(ordinal + 1)) {
+                action.accept(documents.get(ordinal), ordinal);
+            }
+        }
+
+        // Live ordinals matching the filter, or null for all
+        RoaringBitmap allowed(MetadataFilter filter) {
+            if (filter == null) {
+                return null;
+            }
+            RoaringBitmap universe = new RoaringBitmap();
+            universe.add(0L, documents.size());
+            for (int dead = tombstones.nextSetBit(0); dead >= 0; dead = tombstones.nextSetBit(dead + 1)) {
+                universe.remove(dead);
+            }
+            return metadataIndex.matching(filter, universe);
+        }
+
+        /**
+         * The top K of the live (or allowed) ordinals in [from, to).
+         */
+        TopK scan(float[] queryEmbedding, double queryNorm, int topK, RoaringBitmap allowed, int from, int to) {
+            // Calculate similarity with the stored documents, keeping only the top K
+            TopK best = new TopK(topK);
+            if (allowed == null) {
+                for (int ordinal = tombstones.nextClearBit(from); ordinal < to;
+                        ordinal = tombstones.nextClearBit(ordinal + 1)) {
+                    best.offer(VectorMath.cosineSimilarity(
+                            queryEmbedding, queryNorm, documents.get(ordinal).embedding(), norms[ordinal]), ordinal);
+                }
+            } else {
+                // Only the documents that passed the filter
+                PeekableIntIterator ordinals = allowed.getIntIterator();
+                ordinals.advanceIfNeeded(from);
+                while (ordinals.hasNext() && ordinals.peekNext() < to) {
+                    int ordinal = ordinals.next();
+                    best.offer(VectorMath.cosineSimilarity(
+                            queryEmbedding, queryNorm, documents.get(ordinal).embedding(), norms[ordinal]), ordinal);
+                }
+            }
+            return best;
+        }
+
+        /**
+         * The top K of the live (or allowed) ordinals in [from, to) for each
+         * query: ordinals are collected into cache-sized blocks and every
+         * query is scored against a block before the next one is read.
+         */
+        TopK[] scanBatch(float[][] queries, double[] queryNorms, int topK, RoaringBitmap allowed, int from, int to) {
+            TopK[] best = new TopK[queries.length];
+            for (int q = 0; q < queries.length; q++) {
+                best[q] = new TopK(topK);
+            }
+            int dimensions = queries.length > 0 ? queries[0].length : 1;
+            int[] block = new int[Math.max(4, BATCH_BLOCK_BYTES / (Float.BYTES * Math.max(1, dimensions)))];
+            int filled = 0;
+            if (allowed == null) {
+                for (int ordinal = tombstones.nextClearBit(from); ordinal < to;
+                        ordinal = tombstones.nextClearBit(ordinal + 1)) {
+                    block[filled++] = ordinal;
+                    if (filled == block.length) {
+                        scoreBlock(block, filled, queries, queryNorms, best);
+                        filled = 0;
+                    }
+                }
+            } else {
+                PeekableIntIterator ordinals = allowed.getIntIterator();
+                ordinals.advanceIfNeeded(from);
+                while (ordinals.hasNext() && ordinals.peekNext() < to) {
+                    block[filled++] = ordinals.next();
+                    if (filled == block.length) {
+                        scoreBlock(block, filled, queries, queryNorms, best);
+                        filled = 0;
+                    }
+                }
+            }
+            scoreBlock(block, filled, queries, queryNorms, best);
+            return best;
+        }
+
+        // Scores every query against block[0, size), four queries per pass over each vector
+        private void scoreBlock(int[] block, int size, float[][] queries, double[] queryNorms, TopK[] best) {
+            double[] dots = new double[4];
+            int q = 0;
+            for (; q + 4 <= queries.length; q += 4) {
+                for (int i = 0; i < size; i++) {
+                    int ordinal = block[i];
+                    VectorMath.dot4(documents.get(ordinal).embedding(),
+                            queries[q], queries[q + 1], queries[q + 2], queries[q + 3], dots);
+                    for (int j = 0; j < 4; j++) {
+                        best[q + j].offer(cosine(dots[j], queryNorms[q + j], norms[ordinal]), ordinal);
+                    }
+                }
+            }
+            for (; q < queries.length; q++) {
+                for (int i = 0; i < size; i++) {
+                    int ordinal = block[i];
+                    best[q].offer(VectorMath.cosineSimilarity(
+                            queries[q], queryNorms[q], documents.get(ordinal).embedding(), norms[ordinal]), ordinal);
+                }
+            }
+        }
+
+        private static double cosine(double dot, double normA, double normB) {
+            return normA == 0 || normB == 0 ? 0.0 : dot / (normA * normB);
+        }
+
+        // Highest score first
+        List<SimilarityResult> toResults(List<TopK.Hit> hits, boolean withEmbeddings) {
+            List<SimilarityResult> results = new ArrayList<>(hits.size());
+            for (TopK.Hit hit : hits) {
+                StoredDocument doc = documents.get(hit.ordinal());
+                results.add(new SimilarityResult(doc.id(), doc.text(), hit.score(), doc.metadata(),
+                        withEmbeddings ? doc.embedding() : null));
+            }
+            return results;
+        }
+    }
+
+    /**
+     * Scans the ordinals in [from, to) of the current segment.
+     */
+    @FunctionalInterface
+    private interface RangeScan<T> {
+        T scan(int from, int to);
     }
 
     /**
-     * Calculate cosine similarity between two vectors.
+     * Scans an ordinal range: halves it (forking one half) until a half is
+     * at most shardSize long, then merges the halves' results (top K heaps).
      */
-    private double cosineSimilarity(float[] a, float[] b) {
-        double dotProduct = 0.0;
-        double normA = 0.0;
-        double normB = 0.0;
+    private static final class ScanTask<T> extends RecursiveTask<T> {
+
+        private final RangeScan<T> scan;
+        private final BinaryOperator<T> merge;
+        private final int from;
+        private final int to;
+        private final int shardSize;
+
+        ScanTask(RangeScan<T> scan, BinaryOperator<T> merge, int from, int to, int shardSize) {
+            this.scan = scan;
+            this.merge = merge;
+            this.from = from;
+            this.to = to;
+            this.shardSize = shardSize;
+        }
 
-        for (int i = 0; i < a.length; i++) {
-            dotProduct += a[i] * b[i];
-            normA += a[i] * a[i];
-            normB += b[i] * b[i];
+        @Override
+        protected T compute() {
+            if (to - from <= shardSize) {
+                return scan.scan(from, to);
+            }
+            int middle = (from + to) >>> 1;
+            ScanTask<T> left = new ScanTask<>(scan, merge, from, middle, shardSize);
+            left.fork();
+            T right = new ScanTask<>(scan, merge, middle, to, shardSize).compute();
+            return merge.apply(right, left.join());
         }
+    }
+
+    public enum SearchMode {
+        VECTOR, KEYWORD, HYBRID;
 
-        return dotProduct / (Math.sqrt(normA) * Math.sqrt(normB));
+        public static SearchMode fromName(String name) {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        }
     }
 
     // Record classes for data storage
-    public record StoredDocument(String id, String text, float[] embedding) {
+    public record StoredDocument(String id, String text, float[] embedding, Map<String, Object> metadata) {
+
+        public StoredDocument {
+            metadata = checkedMetadata(metadata);
+        }
+
+        public StoredDocument(String id, String text, float[] embedding) {
+            this(id, text, embedding, Map.of());
+        }
+
+        /**
+         * An immutable copy of the metadata (null becomes empty).
+         *
+         * @throws IllegalArgumentException if a value isn't a string, number
+         *         or boolean
+         */
+        static Map<String, Object> checkedMetadata(Map<String, Object> metadata) {
+            if (metadata == null) {
+                return Map.of();
+            }
+            metadata.forEach((field, value) -> {
+                if (!(value instanceof String || value instanceof Number || value instanceof Boolean)) {
+                    throw new IllegalArgumentException("Metadata '" + field
+                            + "' must be a string, number or boolean, got " + value);
+                }
+            });
+            return Map.copyOf(metadata);
+        }
     }
 
-    public record SimilarityResult(String id, String text, double similarity) {
+    /**
+     * A search hit. The embedding is only set when a search asks for it
+     * (and then left out of JSON when null).
+     */
+    public record SimilarityResult(String id, String text, double similarity, Map<String, Object> metadata,
+            @JsonInclude(JsonInclude.Include.NON_NULL) float[] embedding) {
+
+        public SimilarityResult(String id, String text, double similarity, Map<String, Object> metadata) {
+            this(id, text, similarity, metadata, null);
+        }
+
+        public SimilarityResult(String id, String text, double similarity) {
+            this(id, text, similarity, Map.of());
+        }
     }
 }
@@ -0,0 +1,18 @@
+package com.example.ai.basics.day1.service;
+
+import java.util.Map;
+
+/**
+ * A document to ingest: its text plus metadata that every chunk inherits.
+ * Metadata values must be strings, numbers or booleans.
+ */
+public record SourceDocument(String text, Map<String, Object> metadata) {
+
+    public SourceDocument {
+        metadata = SimpleVectorStore.StoredDocument.checkedMetadata(metadata);
+    }
+
+    public static SourceDocument of(String text) {
+        return new SourceDocument(text, Map.of());
+    }
+}
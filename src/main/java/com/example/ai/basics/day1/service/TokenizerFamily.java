@@ -0,0 +1,57 @@
+package com.example.ai.basics.day1.service;
+
+import java.util.Locale;
+
+/**
+ * Tokenizer vocabularies the app knows how to load.
+ *
+ * Both families use tiktoken-format vocabularies (one "base64-token rank" per
+ * line) and the same pre-tokenization regex; Llama 3's tokenizer is the
+ * cl100k vocabulary plus ~28K extra tokens.
+ */
+public enum TokenizerFamily {
+
+    CL100K("tokenizers/cl100k_base.tiktoken", null),
+    // Without its own vocabulary, Llama 3 is counted with cl100k, which it extends
+    LLAMA3("tokenizers/llama3.tiktoken", CL100K);
+
+    private final String vocabularyResource;
+    private final TokenizerFamily fallback;
+
+    TokenizerFamily(String vocabularyResource, TokenizerFamily fallback) {
+        this.vocabularyResource = vocabularyResource;
+        this.fallback = fallback;
+    }
+
+    /**
+     * Classpath location of the vocabulary file.
+     */
+    public String vocabularyResource() {
+        return vocabularyResource;
+    }
+
+    /**
+     * The closest family to count with when this one's vocabulary is
+     * missing, or null.
+     */
+    public TokenizerFamily fallback() {
+        return fallback;
+    }
+
+    /**
+     * Best guess from a chat model name: Llama models use LLAMA3, everything
+     * else (GPT-3.5/4 and most OpenAI-compatible defaults) CL100K.
+     */
+    public static TokenizerFamily forModel(String model) {
+        return model != null && model.toLowerCase(Locale.ROOT).contains("llama") ? LLAMA3 : CL100K;
+    }
+
+    /**
+     * Parses "cl100k", "cl100k_base" or "llama3" (any case).
+     *
+     * @throws IllegalArgumentException for an unknown family
+     */
+    public static TokenizerFamily fromName(String name) {
+        return valueOf(name.trim().toUpperCase(Locale.ROOT).replace("_BASE", "").replace("-", ""));
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.ai.basics.day1.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * =============================================================================
+ * TOKENIZER SERVICE - Counting tokens the way the model does
+ * =============================================================================
+ *
+ * Prompt budgets are measured in tokens, not characters. This service wraps
+ * an in-process BPE tokenizer ({@link BpeTokenizer}) per tokenizer family.
+ *
+ * Vocabularies are loaded lazily from the classpath:
+ * - tokenizers/cl100k_base.tiktoken   (GPT-3.5 / GPT-4, downloaded by the
+ *                                      build, see downloadTokenizers)
+ * - tokenizers/llama3.tiktoken        (Llama 3.x, add it yourself)
+ *
+ * Without the llama3 vocabulary, Llama 3 is counted with cl100k (close:
+ * Llama 3 extends it). Without any vocabulary, counts fall back to the ~4
+ * chars/token estimate so the app still runs, but that is logged at startup
+ * and reported by the token endpoints ({@link #warning}).
+ *
+ * The default family follows ai.tokenizer.family, or is guessed from the
+ * configured chat model name.
+ *
+ * =============================================================================
+ */
+@Service
+public class TokenizerService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenizerService.class);
+
+    private final TokenizerFamily defaultFamily;
+    private final Map<TokenizerFamily, Optional<BpeTokenizer>> tokenizers = new ConcurrentHashMap<>();
+
+    @Autowired
+    public TokenizerService(
+            @Value("${ai.tokenizer.family:}") String family,
+            @Value("${spring.ai.openai.chat.options.model:}") String chatModel) {
+        this.defaultFamily = family.isBlank() ? TokenizerFamily.forModel(chatModel) : TokenizerFamily.fromName(family);
+        String warning = warning(defaultFamily);
+        if (warning == null) {
+            logger.info("🔤 Default tokenizer family: {} (exact counts)", defaultFamily);
+        } else {
+            logger.warn("⚠️ Default tokenizer family: {}. {}", defaultFamily, warning);
+        }
+    }
+
+    private TokenizerService(TokenizerFamily defaultFamily) {
+        this.defaultFamily = defaultFamily;
+        for (TokenizerFamily family : TokenizerFamily.values()) {
+            tokenizers.put(family, Optional.empty());
+        }
+    }
+
+    /**
+     * A service that never loads a vocabulary and always uses the ~4
+     * chars/token estimate, whatever is on the classpath. For tests that
+     * need predictable counts.
+     */
+    static TokenizerService estimating(TokenizerFamily defaultFamily) {
+        return new TokenizerService(defaultFamily);
+    }
+
+    public TokenizerFamily defaultFamily() {
+        return defaultFamily;
+    }
+
+    /**
+     * True when the family's vocabulary is available, i.e. counts are exact
+     * rather than estimated.
+     */
+    public boolean isExact(TokenizerFamily family) {
+        return vocabulary(family).isPresent();
+    }
+
+    /**
+     * Null when counts for the family are exact, otherwise what they are
+     * based on instead.
+     */
+    public String warning(TokenizerFamily family) {
+        if (isExact(family)) {
+            return null;
+        }
+        TokenizerFamily fallback = family.fallback();
+        if (fallback != null && isExact(fallback)) {
+            return "%s vocabulary missing: counted with the %s vocabulary, close but not exact"
+                    .formatted(family, fallback);
+        }
+        return "%s vocabulary missing: counts are ~4 chars/token estimates. See src/main/resources/tokenizers/README.md"
+                .formatted(family);
+    }
+
+    public int countTokens(String text) {
+        return countTokens(defaultFamily, text);
+    }
+
+    public int countTokens(TokenizerFamily family, String text) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+        return tokenizer(family)
+                .map(tokenizer -> tokenizer.count(text))
+                .orElseGet(() -> estimate(text));
+    }
+
+    public List<Integer> countTokens(TokenizerFamily family, List<String> texts) {
+        return texts.stream().map(text -> countTokens(family, text)).toList();
+    }
+
+    /**
+     * The ~4 characters per token rule of thumb for English text.
+     */
+    static int estimate(String text) {
+        return Math.max(1, text.length() / 4);
+    }
+
+    // The family's own vocabulary, else its fallback's
+    private Optional<BpeTokenizer> tokenizer(TokenizerFamily family) {
+        Optional<BpeTokenizer> tokenizer = vocabulary(family);
+        return tokenizer.isEmpty() && family.fallback() != null ? vocabulary(family.fallback()) : tokenizer;
+    }
+
+    private Optional<BpeTokenizer> vocabulary(TokenizerFamily family) {
+        return tokenizers.computeIfAbsent(family, this::load);
+    }
+
+    private Optional<BpeTokenizer> load(TokenizerFamily family) {
+        ClassPathResource resource = new ClassPathResource(family.vocabularyResource());
+        if (!resource.exists()) {
+            logger.warn("⚠️ Tokenizer vocabulary {} not found on the classpath. "
+                    + "See src/main/resources/tokenizers/README.md", resource.getPath());
+            return Optional.empty();
+        }
+        long start = System.nanoTime();
+        try (InputStream in = resource.getInputStream()) {
+            BpeTokenizer tokenizer = BpeTokenizer.load(in, BpeTokenizer.CL100K_PATTERN);
+            logger.info("🔤 Loaded {} vocabulary: {} tokens in {} ms", family, tokenizer.vocabularySize(),
+                    (System.nanoTime() - start) / 1_000_000);
+            return Optional.of(tokenizer);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("⚠️ Could not load tokenizer vocabulary {}: {}", resource.getPath(), e.getMessage());
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.ai.basics.day1.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bounded top-K selection over (score, ordinal) pairs.
+ *
+ * Sorting every score to keep K of them costs O(n log n) and allocates a
+ * result object per candidate. A min-heap of size K keeps the K best seen so
+ * far in O(n log K): most candidates are rejected with a single comparison
+ * against the heap's smallest score.
+ *
+ * Not thread-safe; use one instance per search (or per partition and merge).
+ */
+public final class TopK {
+
+    private final int capacity;
+    private final double[] scores;
+    private final int[] ordinals;
+    private int size;
+
+    public TopK(int capacity) {
+        this.capacity = Math.max(0, capacity);
+        this.scores = new double[this.capacity];
+        this.ordinals = new int[this.capacity];
+    }
+
+    /**
+     * Offers a candidate; keeps it only if it beats the current K-th best.
+     */
+    public void offer(double score, int ordinal) {
+        if (capacity == 0) {
+            return;
+        }
+        if (size < capacity) {
+            scores[size] = score;
+            ordinals[size] = ordinal;
+            siftUp(size++);
+        } else if (score > scores[0]) {
+            scores[0] = score;
+            ordinals[0] = ordinal;
+            siftDown(0);
+        }
+    }
+
+    /**
+     * Merges another collector's candidates into this one.
+     */
+    public void addAll(TopK other) {
+        for (int i = 0; i < other.size; i++) {
+            offer(other.scores[i], other.ordinals[i]);
+        }
+    }
+
+    /**
+     * Lowest score currently kept, or negative infinity while not yet full.
+     * Candidates at or below this score can be skipped.
+     */
+    public double threshold() {
+        return size < capacity ? Double.NEGATIVE_INFINITY : scores[0];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the kept candidates, best score first.
+     */
+    public List<Hit> hitsDescending() {
+        List<Hit> hits = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            hits.add(new Hit(ordinals[i], scores[i]));
+        }
+        hits.sort((a, b) -> Double.compare(b.score(), a.score()));
+        return hits;
+    }
+
+    public record Hit(int ordinal, double score) {
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (scores[i] >= scores[parent]) {
+                return;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int left = 2 * i + 1;
+            if (left >= size) {
+                return;
+            }
+            int smallest = left + 1 < size && scores[left + 1] < scores[left] ? left + 1 : left;
+            if (scores[i] <= scores[smallest]) {
+                return;
+            }
+            swap(i, smallest);
+            i = smallest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        double score = scores[a];
+        scores[a] = scores[b];
+        scores[b] = score;
+        int ordinal = ordinals[a];
+        ordinals[a] = ordinals[b];
+        ordinals[b] = ordinal;
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.ai.basics.day1.service;
+
+/**
+ * =============================================================================
+ * VECTOR MATH - Similarity kernels used by the vector store
+ * =============================================================================
+ *
+ * Cosine similarity = dot(a, b) / (|a| * |b|)
+ *
+ * The straightforward version recomputes both norms for every comparison.
+ * When the same query is compared against thousands of stored vectors, the
+ * query norm is the same every time, and stored norms can be computed once at
+ * insert time, so the hot loop only needs the dot product.
+ *
+ * =============================================================================
+ */
+public final class VectorMath {
+
+    private VectorMath() {
+    }
+
+    /**
+     * Cosine similarity computing both norms on the fly (reference version).
+     */
+    public static double cosineSimilarity(float[] a, float[] b) {
+        double dotProduct = 0.0;
+        double normA = 0.0;
+        double normB = 0.0;
+
+        for (int i = 0; i < a.length; i++) {
+            dotProduct += a[i] * b[i];
+            normA += a[i] * a[i];
+            normB += b[i] * b[i];
+        }
+
+        return dotProduct / (Math.sqrt(normA) * Math.sqrt(normB));
+    }
+
+    /**
+     * Cosine similarity with precomputed norms: only the dot product is left
+     * in the loop.
+     */
+    public static double cosineSimilarity(float[] a, double normA, float[] b, double normB) {
+        if (normA == 0 || normB == 0) {
+            return 0.0;
+        }
+        return dot(a, b) / (normA * normB);
+    }
+
+    /**
+     * Dot product with four independent accumulators, so the CPU can overlap
+     * the multiply-adds instead of waiting on one running sum. The sums are
+     * doubles, like in the reference version, so rankings don't change.
+     */
+    public static double dot(float[] a, float[] b) {
+        double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        int i = 0;
+        int bound = a.length & ~3;
+        for (; i < bound; i += 4) {
+            s0 += a[i] * b[i];
+            s1 += a[i + 1] * b[i + 1];
+            s2 += a[i + 2] * b[i + 2];
+            s3 += a[i + 3] * b[i + 3];
+        }
+        for (; i < a.length; i++) {
+            s0 += a[i] * b[i];
+        }
+        return s0 + s1 + s2 + s3;
+    }
+
+    /**
+     * Dot products of v with four vectors in one pass: each element of v is
+     * loaded once for four multiply-adds (the register-blocked inner kernel
+     * of a matrix multiply). The four sums also run independently, like the
+     * accumulators in {@link #dot}.
+     */
+    public static void dot4(float[] v, float[] a, float[] b, float[] c, float[] d, double[] out) {
+        double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        for (int i = 0; i < v.length; i++) {
+            float x = v[i];
+            s0 += x * a[i];
+            s1 += x * b[i];
+            s2 += x * c[i];
+            s3 += x * d[i];
+        }
+        out[0] = s0;
+        out[1] = s1;
+        out[2] = s2;
+        out[3] = s3;
+    }
+
+    /**
+     * Euclidean length of a vector.
+     */
+    public static double norm(float[] v) {
+        return Math.sqrt(dot(v, v));
+    }
+}
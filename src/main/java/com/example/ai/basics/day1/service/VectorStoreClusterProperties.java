@@ -0,0 +1,34 @@
+package com.example.ai.basics.day1.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Configuration for {@link ShardedVectorStore}. Without nodes, every
+ * collection lives on this instance only.
+ *
+ * @param nodes          base URLs of all nodes holding shards, this one
+ *                       included, e.g. http://localhost:8080
+ * @param self           this node's base URL, as it appears in nodes
+ * @param secret         shared by all nodes and sent with every
+ *                       node-to-node call; required with nodes
+ * @param deadline       how long a search waits for the shards; later
+ *                       answers are left out of the result
+ * @param writeDeadline  how long a write or delete waits for the owning
+ *                       nodes before failing
+ * @param connectTimeout how long connecting to another node may take
+ * @param virtualNodes   points per node on the hash ring
+ */
+@ConfigurationProperties("ai.rag.cluster")
+public record VectorStoreClusterProperties(
+        @DefaultValue List<String> nodes,
+        @DefaultValue("") String self,
+        @DefaultValue("") String secret,
+        @DefaultValue("2s") Duration deadline,
+        @DefaultValue("10s") Duration writeDeadline,
+        @DefaultValue("1s") Duration connectTimeout,
+        @DefaultValue("128") int virtualNodes) {
+}
@@ -0,0 +1,229 @@
+package com.example.ai.basics.day1.service;
+
+import com.example.ai.basics.common.metrics.LlmMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * =============================================================================
+ * VECTOR STORE COLLECTIONS - One store per tenant
+ * =============================================================================
+ *
+ * Every collection (a class, a user, a tenant...) is a separate
+ * SimpleVectorStore with its own documents and indexes, so:
+ * - a search only scans its own collection: its cost depends on that
+ *   collection's size, not on everyone's
+ * - deleting a collection can't touch the others
+ *
+ * LIFECYCLE:
+ * - Created on first use, no setup needed
+ * - A scheduled sweep writes collections idle for idleTtl to
+ *   "<directory>/<name>.vectors" and drops them from memory
+ * - The next use reads the file back (and deletes it)
+ *
+ * Stores are only handed out for the duration of one operation
+ * (withStore), which pins the collection: the sweep skips pinned
+ * collections, so a write can't land in a store that was already written
+ * to disk and dropped. Pinning, loading and evicting run inside
+ * ConcurrentHashMap.compute for that name, so they never interleave.
+ *
+ * =============================================================================
+ */
+@Service
+public class VectorStoreCollections {
+
+    private static final Logger logger = LoggerFactory.getLogger(VectorStoreCollections.class);
+
+    public static final String DEFAULT = "default";
+
+    private static final Pattern NAME = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+    private static final String EXTENSION = ".vectors";
+
+    private final EmbeddingModel embeddingModel;
+    private final LlmMetrics metrics;
+    private final VectorStoreProperties properties;
+    private final Map<String, LoadedCollection> collections = new ConcurrentHashMap<>();
+
+    public VectorStoreCollections(EmbeddingModel embeddingModel, LlmMetrics metrics, VectorStoreProperties properties) {
+        this.embeddingModel = embeddingModel;
+        this.metrics = metrics;
+        this.properties = properties;
+    }
+
+    /**
+     * Runs an operation on the collection's store, created or loaded from
+     * disk if needed. The collection stays in memory until the operation
+     * returns; don't keep the store beyond that.
+     *
+     * @param name letters, digits, '-' and '_'; null or blank for the
+     *             default collection
+     * @throws IllegalArgumentException if the name is invalid
+     */
+    public <T> T withStore(String name, Function<SimpleVectorStore, T> operation) {
+        LoadedCollection pinned = collections.compute(checkName(name), (collection, loaded) -> {
+            LoadedCollection current = loaded != null ? loaded : load(collection);
+            current.users.incrementAndGet();
+            return current;
+        });
+        try {
+            return operation.apply(pinned.store);
+        } finally {
+            pinned.lastAccess = System.currentTimeMillis();
+            pinned.users.decrementAndGet();
+        }
+    }
+
+    /**
+     * Removes a collection from memory and disk.
+     *
+     * @return how many documents it held
+     */
+    public int drop(String name) {
+        AtomicInteger removed = new AtomicInteger();
+        collections.compute(checkName(name), (collection, loaded) -> {
+            Path file = file(collection);
+            try {
+                if (loaded != null) {
+                    removed.set(loaded.store.size());
+                    metrics.removeVectorStoreMeters(collection);
+                } else if (Files.exists(file)) {
+                    removed.set(VectorStoreFiles.count(file));
+                }
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return null;
+        });
+        return removed.get();
+    }
+
+    /**
+     * All collections, in memory or on disk, by name.
+     */
+    public List<CollectionInfo> list() {
+        Map<String, CollectionInfo> all = new TreeMap<>();
+        if (Files.isDirectory(properties.directory())) {
+            try (Stream<Path> files = Files.list(properties.directory())) {
+                for (Path file : files.filter(f -> f.getFileName().toString().endsWith(EXTENSION)).toList()) {
+                    String fileName = file.getFileName().toString();
+                    String name = fileName.substring(0, fileName.length() - EXTENSION.length());
+                    all.put(name, new CollectionInfo(name, VectorStoreFiles.count(file), false));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        collections.forEach((name, loaded) -> all.put(name, new CollectionInfo(name, loaded.store.size(), true)));
+        return List.copyOf(all.values());
+    }
+
+    /**
+     * Writes collections idle for longer than the TTL to disk.
+     */
+    @Scheduled(fixedDelayString = "${ai.rag.store.sweep-interval-ms:60000}")
+    public void evictIdleCollections() {
+        evictIdle(System.currentTimeMillis() - properties.idleTtl().toMillis());
+    }
+
+    /**
+     * Evicts collections last used before the cutoff.
+     *
+     * @return how many were evicted
+     */
+    int evictIdle(long cutoffMillis) {
+        AtomicInteger evicted = new AtomicInteger();
+        for (String name : collections.keySet()) {
+            collections.computeIfPresent(name, (collection, loaded) -> {
+                if (loaded.lastAccess >= cutoffMillis || loaded.users.get() > 0) {
+                    return loaded;
+                }
+                try {
+                    List<SimpleVectorStore.StoredDocument> documents = loaded.store.documents();
+                    if (!documents.isEmpty()) {
+                        VectorStoreFiles.write(file(collection), documents);
+                    }
+                    metrics.removeVectorStoreMeters(collection);
+                    evicted.incrementAndGet();
+                    return null;
+                } catch (IOException e) {
+                    logger.warn("⚠️ Could not write idle collection {} to disk, keeping it in memory: {}",
+                            collection, e.getMessage());
+                    return loaded;
+                }
+            });
+        }
+        if (evicted.get() > 0) {
+            logger.info("💾 Moved {} idle collections to disk ({} left in memory)", evicted.get(), collections.size());
+        }
+        return evicted.get();
+    }
+
+    private LoadedCollection load(String name) {
+        SimpleVectorStore store = new SimpleVectorStore(name, embeddingModel, metrics, properties);
+        Path file = file(name);
+        if (Files.exists(file)) {
+            try {
+                List<SimpleVectorStore.StoredDocument> documents = VectorStoreFiles.read(file);
+                store.storeAll(documents);
+                Files.delete(file);
+                logger.info("📂 Loaded collection {} from disk ({} documents)", name, documents.size());
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not load collection " + name, e);
+            }
+        }
+        return new LoadedCollection(store);
+    }
+
+    private Path file(String name) {
+        return properties.directory().resolve(name + EXTENSION);
+    }
+
+    /**
+     * The collection name to use: the name itself, or DEFAULT for null or
+     * blank.
+     *
+     * @throws IllegalArgumentException if the name is invalid
+     */
+    public static String checkName(String name) {
+        if (name == null || name.isBlank()) {
+            return DEFAULT;
+        }
+        if (!NAME.matcher(name).matches()) {
+            throw new IllegalArgumentException(
+                    "Invalid collection name '" + name + "': use up to 64 letters, digits, '-' or '_'");
+        }
+        return name;
+    }
+
+    private static final class LoadedCollection {
+
+        private final SimpleVectorStore store;
+        // Operations running on the store; pinned in memory while above 0
+        private final AtomicInteger users = new AtomicInteger();
+        private volatile long lastAccess = System.currentTimeMillis();
+
+        LoadedCollection(SimpleVectorStore store) {
+            this.store = store;
+        }
+    }
+
+    public record CollectionInfo(String name, int documents, boolean inMemory) {
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.ai.basics.day1.service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary file format for a collection's documents:
+ *
+ *   MAGIC, VERSION, count, then per document: id, text, dimensions,
+ *   the floats, metadata count and (field, type tag, value) entries
+ *
+ * Strings are length-prefixed UTF-8. Only the documents are written; norms
+ * and indexes are rebuilt when the file is read back.
+ */
+final class VectorStoreFiles {
+
+    private static final int MAGIC = 0x56535431; // "VST1"
+    private static final int VERSION = 1;
+
+    private VectorStoreFiles() {
+    }
+
+    /**
+     * Writes the documents to a temporary file first and moves it into
+     * place, so a crash never leaves a half-written file behind.
+     */
+    static void write(Path file, List<SimpleVectorStore.StoredDocument> documents) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(documents.size());
+            for (SimpleVectorStore.StoredDocument document : documents) {
+                writeString(out, document.id());
+                writeString(out, document.text());
+                float[] embedding = document.embedding();
+                out.writeInt(embedding.length);
+                for (float value : embedding) {
+                    out.writeFloat(value);
+                }
+                out.writeInt(document.metadata().size());
+                for (Map.Entry<String, Object> entry : document.metadata().entrySet()) {
+                    writeString(out, entry.getKey());
+                    writeValue(out, entry.getValue());
+                }
+            }
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * The number of documents in a file, read from its header.
+     */
+    static int count(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            checkHeader(in, file);
+            return in.readInt();
+        }
+    }
+
+    static List<SimpleVectorStore.StoredDocument> read(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            checkHeader(in, file);
+            int count = in.readInt();
+            List<SimpleVectorStore.StoredDocument> documents = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                String id = readString(in);
+                String text = readString(in);
+                float[] embedding = new float[in.readInt()];
+                for (int d = 0; d < embedding.length; d++) {
+                    embedding[d] = in.readFloat();
+                }
+                int fields = in.readInt();
+                Map<String, Object> metadata = new HashMap<>(fields * 2);
+                for (int f = 0; f < fields; f++) {
+                    metadata.put(readString(in), readValue(in));
+                }
+                documents.add(new SimpleVectorStore.StoredDocument(id, text, embedding, metadata));
+            }
+            return documents;
+        }
+    }
+
+    private static void checkHeader(DataInputStream in, Path file) throws IOException {
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+            throw new IOException("Not a vector store file: " + file);
+        }
+    }
+
+    private static void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value instanceof String string) {
+            out.writeByte('S');
+            writeString(out, string);
+        } else if (value instanceof Boolean bool) {
+            out.writeByte('B');
+            out.writeBoolean(bool);
+        } else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            out.writeByte('L');
+            out.writeLong(((Number) value).longValue());
+        } else {
+            out.writeByte('D');
+            out.writeDouble(((Number) value).doubleValue());
+        }
+    }
+
+    private static Object readValue(DataInputStream in) throws IOException {
+        int tag = in.readByte();
+        return switch (tag) {
+            case 'S' -> readString(in);
+            case 'B' -> in.readBoolean();
+            case 'L' -> in.readLong();
+            case 'D' -> in.readDouble();
+            default -> throw new IOException("Unknown metadata type " + tag);
+        };
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
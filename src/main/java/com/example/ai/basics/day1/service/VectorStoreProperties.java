@@ -0,0 +1,28 @@
+package com.example.ai.basics.day1.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Configuration for {@link VectorStoreCollections} and its
+ * {@link SimpleVectorStore}s.
+ *
+ * @param compactionThreshold share of replaced or deleted entries above which
+ *                            a collection is compacted in the background
+ * @param idleTtl             collections not used for this long are written
+ *                            to disk and dropped from memory
+ * @param directory           where idle collections are written
+ * @param parallelScanThreshold vector searches over at least this many
+ *                            documents are split across all cores
+ *                            (batches: documents x queries)
+ */
+@ConfigurationProperties("ai.rag.store")
+public record VectorStoreProperties(
+        @DefaultValue("0.3") double compactionThreshold,
+        @DefaultValue("30m") Duration idleTtl,
+        @DefaultValue("data/vector-store") Path directory,
+        @DefaultValue("50000") int parallelScanThreshold) {
+}
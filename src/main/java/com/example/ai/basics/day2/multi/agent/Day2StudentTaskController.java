@@ -1,5 +1,6 @@
 package com.example.ai.basics.day2.multi.agent;
 
+import com.example.ai.basics.common.metrics.LlmMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.chat.client.ChatClient;
@@ -69,8 +70,8 @@ public class Day2StudentTaskController {
     private static final Logger logger = LoggerFactory.getLogger(Day2StudentTaskController.class);
     private final ChatClient chatClient;
 
-    public Day2StudentTaskController(ChatClient.Builder chatClientBuilder) {
-        this.chatClient = chatClientBuilder.build();
+    public Day2StudentTaskController(ChatClient.Builder chatClientBuilder, LlmMetrics metrics) {
+        this.chatClient = chatClientBuilder.defaultAdvisors(metrics.advisor(Day2StudentTaskController.class)).build();
     }
 
     // =========================================================================
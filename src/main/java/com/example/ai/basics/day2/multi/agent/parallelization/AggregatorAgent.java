@@ -1,9 +1,13 @@
 package com.example.ai.basics.day2.multi.agent.parallelization;
 
+import com.example.ai.basics.common.metrics.LlmMetrics;
+import com.example.ai.basics.common.model.ModelTierPolicy;
+import io.micrometer.observation.annotation.Observed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
 
 import java.util.Map;
 
@@ -12,25 +16,49 @@ public class AggregatorAgent {
 
     private static final Logger logger = LoggerFactory.getLogger(AggregatorAgent.class);
     private final ChatClient chatClient;
+    private final ModelTierPolicy modelTiers;
 
-    public AggregatorAgent(ChatClient.Builder builder) {
-        this.chatClient = builder.build();
+    public AggregatorAgent(ChatClient.Builder builder, ModelTierPolicy modelTiers, LlmMetrics metrics) {
+        this.chatClient = builder.defaultAdvisors(metrics.advisor(AggregatorAgent.class)).build();
+        this.modelTiers = modelTiers;
     }
 
+    @Observed(name = "ai.agent", contextualName = "AggregatorAgent.aggregate")
     public String aggregate(Map<String, String> findings) {
         logger.info("🕵️ Aggregator Agent: Starting discovery of root cause from all analysis...");
-        String prompt = """
-                You are an incident commander.
-                Combine the following findings into a single root cause analysis:
-
-                %s
-                """.formatted(findings);
+        String prompt = buildPrompt(findings);
 
-        String response = chatClient.prompt()
+        String response = modelTiers.call("aggregator", options -> chatClient.prompt()
                 .user(prompt)
+                .options(options)
                 .call()
-                .content();
+                .content());
         logger.info("✅ Aggregator Agent: Final analysis complete.");
         return response;
     }
+
+    /**
+     * Same as {@link #aggregate(Map)} but emits the root cause analysis token by
+     * token as the model generates it.
+     */
+    public Flux<String> aggregateStream(Map<String, String> findings) {
+        logger.info("🕵️ Aggregator Agent: Streaming root cause from all analysis...");
+        String prompt = buildPrompt(findings);
+
+        return modelTiers.stream("aggregator", options -> chatClient.prompt()
+                .user(prompt)
+                .options(options)
+                .stream()
+                .content())
+                .doOnComplete(() -> logger.info("✅ Aggregator Agent: Final analysis streamed."));
+    }
+
+    private String buildPrompt(Map<String, String> findings) {
+        return """
+                You are an incident commander.
+                Combine the following findings into a single root cause analysis:
+
+                %s
+                """.formatted(findings);
+    }
 }
@@ -1,5 +1,8 @@
 package com.example.ai.basics.day2.multi.agent.parallelization;
 
+import com.example.ai.basics.common.metrics.LlmMetrics;
+import com.example.ai.basics.common.model.ModelTierPolicy;
+import io.micrometer.observation.annotation.Observed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.chat.client.ChatClient;
@@ -10,21 +13,25 @@ public class LogAnalysisAgent {
 
     private static final Logger logger = LoggerFactory.getLogger(LogAnalysisAgent.class);
     private final ChatClient chatClient;
+    private final ModelTierPolicy modelTiers;
 
-    public LogAnalysisAgent(ChatClient.Builder builder) {
-        this.chatClient = builder.build();
+    public LogAnalysisAgent(ChatClient.Builder builder, ModelTierPolicy modelTiers, LlmMetrics metrics) {
+        this.chatClient = builder.defaultAdvisors(metrics.advisor(LogAnalysisAgent.class)).build();
+        this.modelTiers = modelTiers;
     }
 
+    @Observed(name = "ai.agent", contextualName = "LogAnalysisAgent.analyze")
     public String analyze(String incident) {
         logger.info("📜 Log Analysis Agent: Starting analysis for incident...");
-        String response = chatClient.prompt()
+        String response = modelTiers.call("analysis", options -> chatClient.prompt()
                 .user("""
                         You are a log analysis expert.
                         Analyze logs related to this incident:
                         %s
                         """.formatted(incident))
+                .options(options)
                 .call()
-                .content();
+                .content());
         logger.info("✅ Log Analysis Agent: Analysis complete.");
         return response;
     }
@@ -1,5 +1,8 @@
 package com.example.ai.basics.day2.multi.agent.parallelization;
 
+import com.example.ai.basics.common.metrics.LlmMetrics;
+import com.example.ai.basics.common.model.ModelTierPolicy;
+import io.micrometer.observation.annotation.Observed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.chat.client.ChatClient;
@@ -10,21 +13,25 @@ public class MetricsAnalysisAgent {
 
     private static final Logger logger = LoggerFactory.getLogger(MetricsAnalysisAgent.class);
     private final ChatClient chatClient;
+    private final ModelTierPolicy modelTiers;
 
-    public MetricsAnalysisAgent(ChatClient.Builder builder) {
-        this.chatClient = builder.build();
+    public MetricsAnalysisAgent(ChatClient.Builder builder, ModelTierPolicy modelTiers, LlmMetrics metrics) {
+        this.chatClient = builder.defaultAdvisors(metrics.advisor(MetricsAnalysisAgent.class)).build();
+        this.modelTiers = modelTiers;
     }
 
+    @Observed(name = "ai.agent", contextualName = "MetricsAnalysisAgent.analyze")
     public String analyze(String incident) {
         logger.info("📈 Metrics Analysis Agent: Starting analysis for incident...");
-        String response = chatClient.prompt()
+        String response = modelTiers.call("analysis", options -> chatClient.prompt()
                 .user("""
                         You are a performance engineer.
                         Analyze system metrics for this incident:
                         %s
                         """.formatted(incident))
+                .options(options)
                 .call()
-                .content();
+                .content());
         logger.info("✅ Metrics Analysis Agent: Analysis complete.");
         return response;
     }
@@ -3,11 +3,19 @@ package com.example.ai.basics.day2.multi.agent.parallelization;
 import com.example.ai.basics.day2.multi.agent.workflow.ReviewerAgent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.util.Map;
 
 @RestController
@@ -15,6 +23,8 @@ import java.util.Map;
 public class ParallelIncidentController {
 
     private static final Logger logger = LoggerFactory.getLogger(ParallelIncidentController.class);
+    private static final long STREAM_TIMEOUT_MILLIS = Duration.ofMinutes(5).toMillis();
+
     private final ParallelIncidentService parallelService;
     private final AggregatorAgent aggregator;
     private final ReviewerAgent reviewer;
@@ -51,4 +61,72 @@ public class ParallelIncidentController {
                 %s
                 """.formatted(results, aggregated, review);
     }
+
+    /**
+     * STREAMING INVESTIGATION (Server-Sent Events)
+     * 
+     * Same pipeline as {@link #investigate(String)}, but nothing waits for the
+     * whole stage before talking to the client:
+     * - "finding" events are pushed as soon as each analysis agent finishes
+     * - "aggregate" events carry the aggregator's tokens as they are generated
+     * - "review" events carry the reviewer's tokens as they are generated
+     * - a final "done" event closes the stream
+     * 
+     * Try:
+     * curl -N "http://localhost:8080/incident/parallel/stream?incident=Checkout%20API%20returns%20504"
+     */
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter investigateStream(@RequestParam String incident) {
+        logger.info("🎬 Streaming Investigation: Starting for incident '{}'", incident);
+
+        SseEmitter emitter = new SseEmitter(STREAM_TIMEOUT_MILLIS);
+        // Stays disposed once the client is gone: a generation set later (the
+        // findings arriving after a disconnect) is disposed right away
+        Disposable.Swap generation = Disposables.swap();
+        emitter.onCompletion(generation::dispose);
+        emitter.onTimeout(generation::dispose);
+        emitter.onError(error -> generation.dispose());
+
+        parallelService.runStreaming(incident,
+                (agent, finding) -> send(emitter, "finding", Map.of("agent", agent, "finding", finding)))
+                .thenAccept(findings -> {
+                    if (generation.isDisposed()) {
+                        logger.info("🎬 Streaming Investigation: Client gone, not aggregating.");
+                        return;
+                    }
+                    StringBuilder aggregated = new StringBuilder();
+                    generation.replace(aggregator.aggregateStream(findings)
+                            .doOnNext(token -> {
+                                aggregated.append(token);
+                                send(emitter, "aggregate", token);
+                            })
+                            .thenMany(Flux.defer(() -> reviewer.reviewStream(incident, aggregated.toString())))
+                            .doOnNext(token -> send(emitter, "review", token))
+                            .subscribe(
+                                    token -> {
+                                    },
+                                    emitter::completeWithError,
+                                    () -> {
+                                        send(emitter, "done", "Investigation complete");
+                                        emitter.complete();
+                                        logger.info("🎬 Streaming Investigation: Fully complete.");
+                                    }));
+                })
+                .exceptionally(error -> {
+                    logger.error("Streaming investigation failed", error);
+                    emitter.completeWithError(error);
+                    return null;
+                });
+
+        return emitter;
+    }
+
+    private void send(SseEmitter emitter, String event, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(event).data(data));
+        } catch (IOException e) {
+            // Client went away: fail the pipeline so generation stops
+            throw new UncheckedIOException(e);
+        }
+    }
 }
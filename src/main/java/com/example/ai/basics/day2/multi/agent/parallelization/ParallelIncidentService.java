@@ -1,11 +1,18 @@
 package com.example.ai.basics.day2.multi.agent.parallelization;
 
+import com.example.ai.basics.common.tracing.ContextPropagation;
+import io.micrometer.observation.annotation.Observed;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiConsumer;
 
 @Service
 public class ParallelIncidentService {
@@ -15,6 +22,11 @@ public class ParallelIncidentService {
         private final MetricsAnalysisAgent metricsAgent;
         private final DatabaseAnalysisAgent dbAgent;
 
+        // Propagates the request's trace into the fan-out, so each agent span
+        // is a child of the request instead of a separate root trace
+        private final ExecutorService agentExecutor = ContextPropagation.wrap(
+                        Executors.newVirtualThreadPerTaskExecutor());
+
         public ParallelIncidentService(
                         LogAnalysisAgent logAgent,
                         MetricsAnalysisAgent metricsAgent,
@@ -24,14 +36,15 @@ public class ParallelIncidentService {
                 this.dbAgent = dbAgent;
         }
 
+        @Observed(name = "ai.agent", contextualName = "ParallelIncidentService.runInParallel")
         public Map<String, String> runInParallel(String incident) {
                 logger.info("⚡ Parallel Incident Service: Starting parallel analysis...");
 
-                CompletableFuture<String> logs = CompletableFuture.supplyAsync(() -> logAgent.analyze(incident));
+                CompletableFuture<String> logs = CompletableFuture.supplyAsync(() -> logAgent.analyze(incident), agentExecutor);
 
-                CompletableFuture<String> metrics = CompletableFuture.supplyAsync(() -> metricsAgent.analyze(incident));
+                CompletableFuture<String> metrics = CompletableFuture.supplyAsync(() -> metricsAgent.analyze(incident), agentExecutor);
 
-                CompletableFuture<String> database = CompletableFuture.supplyAsync(() -> dbAgent.analyze(incident));
+                CompletableFuture<String> database = CompletableFuture.supplyAsync(() -> dbAgent.analyze(incident), agentExecutor);
 
                 CompletableFuture.allOf(logs, metrics, database).join();
 
@@ -42,4 +55,39 @@ public class ParallelIncidentService {
                                 "Metrics", metrics.join(),
                                 "Database", database.join());
         }
+
+        /**
+         * Non-blocking variant of {@link #runInParallel(String)}: every finding is
+         * handed to {@code onFinding} as soon as its agent finishes, and the
+         * returned future completes with all findings once the last callback ran.
+         */
+        @Observed(name = "ai.agent", contextualName = "ParallelIncidentService.runStreaming")
+        public CompletableFuture<Map<String, String>> runStreaming(
+                        String incident,
+                        BiConsumer<String, String> onFinding) {
+                logger.info("⚡ Parallel Incident Service: Starting streaming analysis...");
+
+                Map<String, CompletableFuture<String>> tasks = new LinkedHashMap<>();
+                tasks.put("Logs", CompletableFuture.supplyAsync(() -> logAgent.analyze(incident), agentExecutor));
+                tasks.put("Metrics", CompletableFuture.supplyAsync(() -> metricsAgent.analyze(incident), agentExecutor));
+                tasks.put("Database", CompletableFuture.supplyAsync(() -> dbAgent.analyze(incident), agentExecutor));
+
+                // Wait for the callbacks, not just the agents, so every finding is
+                // published before the caller moves on to aggregation
+                CompletableFuture<?>[] published = tasks.entrySet().stream()
+                                .map(task -> task.getValue().thenAccept(finding -> onFinding.accept(task.getKey(), finding)))
+                                .toArray(CompletableFuture[]::new);
+
+                return CompletableFuture.allOf(published).thenApply(done -> {
+                        logger.info("⚡ Parallel Incident Service: All parallel tasks complete.");
+                        Map<String, String> findings = new LinkedHashMap<>();
+                        tasks.forEach((name, task) -> findings.put(name, task.join()));
+                        return findings;
+                });
+        }
+
+        @PreDestroy
+        void shutdown() {
+                agentExecutor.shutdownNow();
+        }
 }
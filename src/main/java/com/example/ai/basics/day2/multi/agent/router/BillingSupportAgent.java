@@ -1,5 +1,8 @@
 package com.example.ai.basics.day2.multi.agent.router;
 
+import com.example.ai.basics.common.metrics.LlmMetrics;
+import com.example.ai.basics.common.model.ModelTierPolicy;
+import io.micrometer.observation.annotation.Observed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.chat.client.ChatClient;
@@ -10,17 +13,21 @@ public class BillingSupportAgent {
 
     private static final Logger logger = LoggerFactory.getLogger(BillingSupportAgent.class);
     private final ChatClient chatClient;
+    private final ModelTierPolicy modelTiers;
 
-    public BillingSupportAgent(ChatClient.Builder builder) {
-        this.chatClient = builder.build();
+    public BillingSupportAgent(ChatClient.Builder builder, ModelTierPolicy modelTiers, LlmMetrics metrics) {
+        this.chatClient = builder.defaultAdvisors(metrics.advisor(BillingSupportAgent.class)).build();
+        this.modelTiers = modelTiers;
     }
 
+    @Observed(name = "ai.agent", contextualName = "BillingSupportAgent.handle")
     public String handle(String input) {
         logger.info("💰 Billing Support Agent: Handling request...");
-        return chatClient.prompt()
+        return modelTiers.call("support", options -> chatClient.prompt()
                 .system("You are a Billing Specialist. Answer questions about invoices, payments, and subscriptions with a professional and helpful tone.")
                 .user(input)
+                .options(options)
                 .call()
-                .content();
+                .content());
     }
 }
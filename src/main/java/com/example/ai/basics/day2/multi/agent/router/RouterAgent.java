@@ -1,5 +1,8 @@
 package com.example.ai.basics.day2.multi.agent.router;
 
+import com.example.ai.basics.common.metrics.LlmMetrics;
+import com.example.ai.basics.common.model.ModelTierPolicy;
+import io.micrometer.observation.annotation.Observed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.chat.client.ChatClient;
@@ -10,15 +13,18 @@ public class RouterAgent {
 
     private static final Logger logger = LoggerFactory.getLogger(RouterAgent.class);
     private final ChatClient chatClient;
+    private final ModelTierPolicy modelTiers;
 
-    public RouterAgent(ChatClient.Builder builder) {
-        this.chatClient = builder.build();
+    public RouterAgent(ChatClient.Builder builder, ModelTierPolicy modelTiers, LlmMetrics metrics) {
+        this.chatClient = builder.defaultAdvisors(metrics.advisor(RouterAgent.class)).build();
+        this.modelTiers = modelTiers;
     }
 
+    @Observed(name = "ai.agent", contextualName = "RouterAgent.route")
     public String route(String input) {
         logger.info("🚦 Router Agent: Classifying input...");
 
-        String category = chatClient.prompt()
+        String category = modelTiers.call("router", options -> chatClient.prompt()
                 .system("""
                         Classify the user input into exactly one of these categories:
                         - TECHNICAL: Issues with software, bugs, installation, or performance.
@@ -28,8 +34,9 @@ public class RouterAgent {
                         Return ONLY the category name in uppercase.
                         """)
                 .user(input)
+                .options(options)
                 .call()
-                .content()
+                .content())
                 .trim()
                 .toUpperCase();
 
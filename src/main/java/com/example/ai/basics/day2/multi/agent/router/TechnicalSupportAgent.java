@@ -1,5 +1,8 @@
 package com.example.ai.basics.day2.multi.agent.router;
 
+import com.example.ai.basics.common.metrics.LlmMetrics;
+import com.example.ai.basics.common.model.ModelTierPolicy;
+import io.micrometer.observation.annotation.Observed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.chat.client.ChatClient;
@@ -10,17 +13,21 @@ public class TechnicalSupportAgent {
 
     private static final Logger logger = LoggerFactory.getLogger(TechnicalSupportAgent.class);
     private final ChatClient chatClient;
+    private final ModelTierPolicy modelTiers;
 
-    public TechnicalSupportAgent(ChatClient.Builder builder) {
-        this.chatClient = builder.build();
+    public TechnicalSupportAgent(ChatClient.Builder builder, ModelTierPolicy modelTiers, LlmMetrics metrics) {
+        this.chatClient = builder.defaultAdvisors(metrics.advisor(TechnicalSupportAgent.class)).build();
+        this.modelTiers = modelTiers;
     }
 
+    @Observed(name = "ai.agent", contextualName = "TechnicalSupportAgent.handle")
     public String handle(String input) {
         logger.info("🔧 Technical Support Agent: Handling request...");
-        return chatClient.prompt()
+        return modelTiers.call("support", options -> chatClient.prompt()
                 .system("You are a Technical Support Expert. Provide detailed technical troubleshooting steps for the user's issue.")
                 .user(input)
+                .options(options)
                 .call()
-                .content();
+                .content());
     }
 }
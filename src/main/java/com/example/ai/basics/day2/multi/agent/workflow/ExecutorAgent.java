@@ -1,5 +1,8 @@
 package com.example.ai.basics.day2.multi.agent.workflow;
 
+import com.example.ai.basics.common.metrics.LlmMetrics;
+import com.example.ai.basics.common.model.ModelTierPolicy;
+import io.micrometer.observation.annotation.Observed;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.stereotype.Component;
 
@@ -7,11 +10,14 @@ import org.springframework.stereotype.Component;
 public class ExecutorAgent {
 
     private final ChatClient chatClient;
+    private final ModelTierPolicy modelTiers;
 
-    public ExecutorAgent(ChatClient.Builder builder) {
-        this.chatClient = builder.build();
+    public ExecutorAgent(ChatClient.Builder builder, ModelTierPolicy modelTiers, LlmMetrics metrics) {
+        this.chatClient = builder.defaultAdvisors(metrics.advisor(ExecutorAgent.class)).build();
+        this.modelTiers = modelTiers;
     }
 
+    @Observed(name = "ai.agent", contextualName = "ExecutorAgent.executeStep")
     public String executeStep(String step) {
         String prompt = """
                 You are a software engineer.
@@ -21,9 +27,10 @@ public class ExecutorAgent {
                 %s
                 """.formatted(step);
 
-        return chatClient.prompt()
+        return modelTiers.call("executor", options -> chatClient.prompt()
                 .user(prompt)
+                .options(options)
                 .call()
-                .content();
+                .content());
     }
 }
@@ -1,5 +1,8 @@
 package com.example.ai.basics.day2.multi.agent.workflow;
 
+import com.example.ai.basics.common.metrics.LlmMetrics;
+import com.example.ai.basics.common.model.ModelTierPolicy;
+import io.micrometer.observation.annotation.Observed;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.stereotype.Component;
 
@@ -7,11 +10,14 @@ import org.springframework.stereotype.Component;
 public class PlannerAgent {
 
     private final ChatClient chatClient;
+    private final ModelTierPolicy modelTiers;
 
-    public PlannerAgent(ChatClient.Builder builder) {
-        this.chatClient = builder.build();
+    public PlannerAgent(ChatClient.Builder builder, ModelTierPolicy modelTiers, LlmMetrics metrics) {
+        this.chatClient = builder.defaultAdvisors(metrics.advisor(PlannerAgent.class)).build();
+        this.modelTiers = modelTiers;
     }
 
+    @Observed(name = "ai.agent", contextualName = "PlannerAgent.createPlan")
     public String createPlan(String incidentDescription) {
         String prompt = """
                 You are a senior SRE.
@@ -25,9 +31,10 @@ public class PlannerAgent {
                 - Each step must be concrete and actionable
                 """.formatted(incidentDescription);
 
-        return chatClient.prompt()
+        return modelTiers.call("planner", options -> chatClient.prompt()
                 .user(prompt)
+                .options(options)
                 .call()
-                .content();
+                .content());
     }
 }
@@ -1,19 +1,49 @@
 package com.example.ai.basics.day2.multi.agent.workflow;
 
+import com.example.ai.basics.common.metrics.LlmMetrics;
+import com.example.ai.basics.common.model.ModelTierPolicy;
+import io.micrometer.observation.annotation.Observed;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
 
 @Component
 public class ReviewerAgent {
 
     private final ChatClient chatClient;
+    private final ModelTierPolicy modelTiers;
 
-    public ReviewerAgent(ChatClient.Builder builder) {
-        this.chatClient = builder.build();
+    public ReviewerAgent(ChatClient.Builder builder, ModelTierPolicy modelTiers, LlmMetrics metrics) {
+        this.chatClient = builder.defaultAdvisors(metrics.advisor(ReviewerAgent.class)).build();
+        this.modelTiers = modelTiers;
     }
 
+    @Observed(name = "ai.agent", contextualName = "ReviewerAgent.review")
     public String review(String originalIncident, String executionResult) {
-        String prompt = """
+        String prompt = buildPrompt(originalIncident, executionResult);
+
+        return modelTiers.call("reviewer", options -> chatClient.prompt()
+                .user(prompt)
+                .options(options)
+                .call()
+                .content());
+    }
+
+    /**
+     * Same as {@link #review(String, String)} but emits the review token by token.
+     */
+    public Flux<String> reviewStream(String originalIncident, String executionResult) {
+        String prompt = buildPrompt(originalIncident, executionResult);
+
+        return modelTiers.stream("reviewer", options -> chatClient.prompt()
+                .user(prompt)
+                .options(options)
+                .stream()
+                .content());
+    }
+
+    private String buildPrompt(String originalIncident, String executionResult) {
+        return """
                 You are a technical reviewer.
 
                 Incident:
@@ -27,10 +57,5 @@ public class ReviewerAgent {
                 - Identify gaps
                 - Suggest next actions
                 """.formatted(originalIncident, executionResult);
-
-        return chatClient.prompt()
-                .user(prompt)
-                .call()
-                .content();
     }
 }
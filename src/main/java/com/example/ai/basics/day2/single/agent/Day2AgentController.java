@@ -1,6 +1,6 @@
 package com.example.ai.basics.day2.single.agent;
 
-import org.springframework.ai.chat.client.ChatClient;
+import com.example.ai.basics.common.tools.ParallelToolExecutor;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -10,10 +10,10 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping("/day2/agent")
 public class Day2AgentController {
 
-    private final ChatClient chatClient;
+    private final ParallelToolExecutor toolExecutor;
 
-    public Day2AgentController(ChatClient.Builder builder) {
-        this.chatClient = builder.build();
+    public Day2AgentController(ParallelToolExecutor toolExecutor) {
+        this.toolExecutor = toolExecutor;
     }
 
     /**
@@ -27,16 +27,17 @@ public class Day2AgentController {
      * 5. The result "15°C, Rainy" is fed back to the LLM
      * 6. The LLM generates the final natural language response.
      * 
+     * If the LLM asks for several tools in the same turn (e.g. the weather in
+     * two cities), ParallelToolExecutor runs them concurrently instead of one
+     * after another.
+     * 
      * Try:
      * http://localhost:8080/day2/agent/chat?message=What%20is%20the%20weather%20in%20London%3F
      */
     @GetMapping("/chat")
     public String chatWithAgent(@RequestParam(defaultValue = "What is the weather in London?") String message) {
-        String response = chatClient.prompt()
-                .user(message)
-                .functions("currentWeather", "sumNumbers") // Enable specific tools by name
-                .call()
-                .content();
+        // Enable specific tools by name
+        String response = toolExecutor.chat(null, message, "currentWeather", "sumNumbers");
 
         return response != null ? response : "No response generated.";
     }
@@ -53,12 +54,10 @@ public class Day2AgentController {
     @GetMapping("/reasoning")
     public String chatWithReasoning(
             @RequestParam(defaultValue = "If I arrive in Tokyo at 2pm today, what is the weather likely to be?") String message) {
-        String response = chatClient.prompt()
-                .system("You are a helpful assistant. Before answering, explain your plan of which tools you will use.")
-                .user(message)
-                .functions("currentWeather")
-                .call()
-                .content();
+        String response = toolExecutor.chat(
+                "You are a helpful assistant. Before answering, explain your plan of which tools you will use.",
+                message,
+                "currentWeather");
 
         return response != null ? response : "No response generated.";
     }
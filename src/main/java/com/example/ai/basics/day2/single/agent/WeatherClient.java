@@ -0,0 +1,213 @@
+package com.example.ai.basics.day2.single.agent;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * =============================================================================
+ * OPEN-METEO WEATHER CLIENT (shared by every currentWeather tool call)
+ * =============================================================================
+ *
+ * A weather lookup is two upstream calls: geocoding (city → coordinates) and
+ * the forecast for those coordinates. To keep agent tool calls cheap:
+ *
+ * - One shared HttpClient is reused, so its connection pool keeps
+ * connections to Open-Meteo warm between tool calls.
+ * - Geocoding results are kept in a bounded LRU cache (cities don't move).
+ * - Weather is cached for a short TTL, keyed by coordinates rounded to ~1 km.
+ * - Both caches store the in-flight future, so concurrent agent calls for
+ * the same city share a single upstream request instead of racing.
+ * - Waiting on them is interruptible: a tool call that times out stops
+ * waiting and frees its thread (the shared request carries on for the
+ * other callers and the cache).
+ *
+ * =============================================================================
+ */
+@Component
+public class WeatherClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(WeatherClient.class);
+
+    // Expired weather entries are swept once the cache grows past this size
+    private static final int WEATHER_CACHE_SWEEP_SIZE = 1000;
+
+    private final WeatherClientProperties properties;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, CompletableFuture<Optional<Location>>> geocodeCache;
+    private final Map<String, CachedWeather> weatherCache = new ConcurrentHashMap<>();
+
+    public WeatherClient(WeatherClientProperties properties) {
+        this.properties = properties;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(properties.timeout())
+                .build();
+        this.geocodeCache = Collections.synchronizedMap(
+                new LinkedHashMap<>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(
+                            Map.Entry<String, CompletableFuture<Optional<Location>>> eldest) {
+                        return size() > properties.geocodeCacheSize();
+                    }
+                });
+    }
+
+    public record Location(String name, String country, double latitude, double longitude) {
+    }
+
+    public record Weather(double temperature, int humidity, int weatherCode) {
+    }
+
+    private record CachedWeather(CompletableFuture<Weather> weather, long expiresAtNanos) {
+
+        boolean isExpired(long now) {
+            return now - expiresAtNanos >= 0;
+        }
+    }
+
+    /**
+     * Returns a human-readable description of the current weather in a city.
+     */
+    public String currentWeather(String city) {
+        try {
+            Optional<Location> found = geocode(city).get();
+            if (found.isEmpty()) {
+                return "City not found: " + city;
+            }
+
+            Location location = found.get();
+            Weather weather = weather(location.latitude(), location.longitude()).get();
+
+            return String.format("Current weather in %s, %s: %.1f°C, %s, Humidity: %d%%",
+                    location.name(), location.country(), weather.temperature(),
+                    getWeatherCondition(weather.weatherCode()), weather.humidity());
+
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            logger.error("Error fetching weather", cause);
+            return "Error fetching weather data: " + cause.getMessage();
+        } catch (InterruptedException e) {
+            // Usually the tool call timing out
+            Thread.currentThread().interrupt();
+            return "Weather lookup for " + city + " was interrupted";
+        }
+    }
+
+    /**
+     * Resolves a city to coordinates, served from the LRU cache when possible.
+     */
+    public CompletableFuture<Optional<Location>> geocode(String city) {
+        String key = city.trim().toLowerCase(Locale.ROOT);
+        CompletableFuture<Optional<Location>> lookup = geocodeCache.computeIfAbsent(key, k -> {
+            logger.info("🗺️ Geocoding {} (cache miss)", city);
+            var url = "%s/v1/search?name=%s&count=1&language=en&format=json"
+                    .formatted(properties.geocodingUrl(), URLEncoder.encode(city, StandardCharsets.UTF_8));
+            return fetchJson(url).thenApply(this::parseLocation);
+        });
+        lookup.whenComplete((location, error) -> {
+            if (error != null) {
+                // Don't cache failures: the next call should retry upstream
+                geocodeCache.remove(key, lookup);
+            }
+        });
+        return lookup;
+    }
+
+    /**
+     * Fetches current weather for coordinates, served from the TTL cache when
+     * a lookup for the same ~1 km cell is still fresh.
+     */
+    public CompletableFuture<Weather> weather(double latitude, double longitude) {
+        String key = String.format(Locale.ROOT, "%.2f,%.2f", latitude, longitude);
+        long now = System.nanoTime();
+        CachedWeather entry = weatherCache.compute(key, (k, cached) -> {
+            if (cached != null && !cached.isExpired(now)) {
+                return cached;
+            }
+            var url = String.format(Locale.ROOT, "%s/v1/forecast?latitude=%.4f&longitude=%.4f"
+                    + "&current=temperature_2m,relative_humidity_2m,weather_code&wind_speed_unit=ms",
+                    properties.forecastUrl(), latitude, longitude);
+            return new CachedWeather(fetchJson(url).thenApply(this::parseWeather),
+                    now + properties.weatherTtl().toNanos());
+        });
+        entry.weather().whenComplete((weather, error) -> {
+            if (error != null) {
+                weatherCache.remove(key, entry);
+            }
+        });
+        if (weatherCache.size() > WEATHER_CACHE_SWEEP_SIZE) {
+            weatherCache.values().removeIf(cached -> cached.isExpired(now));
+        }
+        return entry.weather();
+    }
+
+    private CompletableFuture<JsonNode> fetchJson(String url) {
+        var request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(properties.timeout())
+                .build();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .thenApply(response -> {
+                    if (response.statusCode() != 200) {
+                        throw new IllegalStateException("HTTP " + response.statusCode() + " from " + url);
+                    }
+                    try {
+                        return objectMapper.readTree(response.body());
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    private Optional<Location> parseLocation(JsonNode geoJson) {
+        if (!geoJson.has("results") || geoJson.get("results").isEmpty()) {
+            return Optional.empty();
+        }
+        JsonNode location = geoJson.get("results").get(0);
+        return Optional.of(new Location(
+                location.get("name").asText(),
+                location.has("country") ? location.get("country").asText() : "Unknown",
+                location.get("latitude").asDouble(),
+                location.get("longitude").asDouble()));
+    }
+
+    private Weather parseWeather(JsonNode weatherJson) {
+        JsonNode current = weatherJson.get("current");
+        return new Weather(
+                current.get("temperature_2m").asDouble(),
+                current.get("relative_humidity_2m").asInt(),
+                current.get("weather_code").asInt());
+    }
+
+    private String getWeatherCondition(int code) {
+        return switch (code) {
+            case 0 -> "Clear sky";
+            case 1, 2, 3 -> "Partly cloudy";
+            case 45, 48 -> "Foggy";
+            case 51, 53, 55 -> "Drizzle";
+            case 61, 63, 65 -> "Rain";
+            case 71, 73, 75 -> "Snow";
+            case 95, 96, 99 -> "Thunderstorm";
+            default -> "Unknown conditions (" + code + ")";
+        };
+    }
+}
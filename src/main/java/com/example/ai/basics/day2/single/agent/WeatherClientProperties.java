@@ -0,0 +1,26 @@
+package com.example.ai.basics.day2.single.agent;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuration for {@link WeatherClient}.
+ *
+ * @param geocodingUrl     base URL of the Open-Meteo geocoding API
+ * @param forecastUrl      base URL of the Open-Meteo forecast API
+ * @param geocodeCacheSize maximum number of cities kept in the geocode cache
+ * @param weatherTtl       how long a weather lookup is reused for nearby calls
+ * @param timeout          connect and request timeout for upstream calls; a
+ *                         lookup makes two, so keep the currentWeather tool
+ *                         timeout (ai.tools.timeouts) above twice this
+ */
+@ConfigurationProperties("agent-tools.weather")
+public record WeatherClientProperties(
+        @DefaultValue("https://geocoding-api.open-meteo.com") String geocodingUrl,
+        @DefaultValue("https://api.open-meteo.com") String forecastUrl,
+        @DefaultValue("1000") int geocodeCacheSize,
+        @DefaultValue("10m") Duration weatherTtl,
+        @DefaultValue("5s") Duration timeout) {
+}
@@ -0,0 +1,111 @@
+package com.example.ai.basics.common.memory;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConversationMemoryStoreTest {
+
+	@Test
+	void keepsOnlyTheNewestMessagesPerSession() {
+		ConversationMemoryStore store = store(4, Duration.ofMinutes(30), DataSize.ofMegabytes(1));
+
+		IntStream.range(0, 10).forEach(i -> store.append("s1", ConversationMessage.user("message " + i)));
+
+		assertThat(store.history("s1")).extracting(ConversationMessage::content)
+				.containsExactly("message 6", "message 7", "message 8", "message 9");
+		assertThat(store.recent("s1", 2)).extracting(ConversationMessage::content)
+				.containsExactly("message 8", "message 9");
+		assertThat(store.nextSequence("s1")).isEqualTo(10);
+	}
+
+	@Test
+	void memoryStaysFlatAsSessionsKeepArriving() {
+		// Each message is ~96 + 2 * 100 bytes; the cap fits roughly 30 of them
+		ConversationMemoryStore store = store(4, Duration.ofMinutes(30), DataSize.ofBytes(9_000));
+		String content = "x".repeat(100);
+
+		IntStream.range(0, 1_000).forEach(i -> store.append("session-" + i, ConversationMessage.user(content)));
+
+		assertThat(store.memoryBytes()).isLessThanOrEqualTo(9_000);
+		assertThat(store.sessionCount()).isLessThan(40);
+		// The most recent session survives, the oldest is gone
+		assertThat(store.history("session-999")).hasSize(1);
+		assertThat(store.history("session-0")).isEmpty();
+	}
+
+	@Test
+	void summaryWatermarkSplitsHistory() {
+		ConversationMemoryStore store = store(10, Duration.ofMinutes(30), DataSize.ofMegabytes(1));
+		IntStream.range(0, 6).forEach(i -> store.append("s1", ConversationMessage.user("message " + i)));
+
+		ConversationSummary summary = new ConversationSummary("likes sci-fi", 4);
+		assertThat(store.replaceSummary("s1", ConversationSummary.NONE, summary)).isTrue();
+		// A stale writer loses
+		assertThat(store.replaceSummary("s1", ConversationSummary.NONE, new ConversationSummary("stale", 2))).isFalse();
+
+		assertThat(store.summary("s1")).isEqualTo(summary);
+		assertThat(store.since("s1", summary.throughSequence())).extracting(ConversationMessage::content)
+				.containsExactly("message 4", "message 5");
+		assertThat(store.range("s1", 1, 3)).extracting(ConversationMessage::content)
+				.containsExactly("message 1", "message 2");
+	}
+
+	@Test
+	void removesIdleSessions() {
+		ConversationMemoryStore store = store(4, Duration.ZERO, DataSize.ofMegabytes(1));
+		store.append("idle", ConversationMessage.user("hello"));
+
+		store.evictIdleSessions();
+
+		assertThat(store.sessionCount()).isZero();
+		assertThat(store.memoryBytes()).isZero();
+	}
+
+	@Test
+	void concurrentAppendsAreAllCounted() {
+		ConversationMemoryStore store = store(10_000, Duration.ofMinutes(30), DataSize.ofMegabytes(16));
+
+		CompletableFuture.allOf(IntStream.range(0, 8)
+				.mapToObj(t -> CompletableFuture.runAsync(() -> IntStream.range(0, 500)
+						.forEach(i -> store.append("shared", ConversationMessage.user(t + ":" + i)))))
+				.toArray(CompletableFuture[]::new))
+				.join();
+
+		assertThat(store.nextSequence("shared")).isEqualTo(4_000);
+		assertThat(store.history("shared")).hasSize(4_000);
+	}
+
+	@Test
+	void evictionRacingAppendsLeavesNoBytesBehind() {
+		// Room for a handful of sessions: appends and evictions keep overlapping
+		ConversationMemoryStore store = store(4, Duration.ofMinutes(30), DataSize.ofBytes(2_000));
+		String content = "x".repeat(100);
+
+		CompletableFuture.allOf(IntStream.range(0, 8)
+				.mapToObj(t -> CompletableFuture.runAsync(() -> IntStream.range(0, 2_000).forEach(i -> {
+					store.append("session-" + (i % 16), ConversationMessage.user(content));
+					if (i % 100 == t) {
+						store.reset("session-" + (i % 16));
+					}
+				})))
+				.toArray(CompletableFuture[]::new))
+				.join();
+		IntStream.range(0, 16).forEach(i -> store.reset("session-" + i));
+
+		assertThat(store.sessionCount()).isZero();
+		assertThat(store.memoryBytes()).isZero();
+	}
+
+	private static ConversationMemoryStore store(int perSession, Duration idleTtl, DataSize maxMemory) {
+		return new ConversationMemoryStore(new ConversationMemoryProperties(perSession, idleTtl, maxMemory, 1000, 6,
+				"summarizing", 10, 4, 1000), new SimpleMeterRegistry());
+	}
+
+}
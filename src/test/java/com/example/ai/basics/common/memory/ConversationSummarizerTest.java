@@ -0,0 +1,168 @@
+package com.example.ai.basics.common.memory;
+
+import com.example.ai.basics.common.metrics.LlmMetrics;
+import com.example.ai.basics.common.model.ModelTierPolicy;
+import com.example.ai.basics.common.model.ModelTierProperties;
+import com.example.ai.basics.day1.service.TokenizerService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.RETURNS_SELF;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ConversationSummarizerTest {
+
+	// Every message below costs 10 tokens; summaries start above 50
+	private static final int TOKENS_PER_MESSAGE = 10;
+	private static final int SUMMARIZE_ABOVE_TOKENS = 50;
+	private static final int KEEP_RECENT_MESSAGES = 2;
+
+	private final ConversationMemoryProperties properties = new ConversationMemoryProperties(40,
+			Duration.ofMinutes(30), DataSize.ofMegabytes(1), SUMMARIZE_ABOVE_TOKENS, KEEP_RECENT_MESSAGES,
+			"summarizing", 10, 4, 1000);
+	private final ConversationMemoryStore memory = new ConversationMemoryStore(properties, new SimpleMeterRegistry());
+	private final ChatClient.ChatClientRequestSpec request = mock(ChatClient.ChatClientRequestSpec.class, RETURNS_SELF);
+	private final ChatClient.CallResponseSpec response = mock(ChatClient.CallResponseSpec.class);
+	private ConversationSummarizer summarizer;
+
+	@BeforeEach
+	void summarizer() {
+		ChatClient chatClient = mock(ChatClient.class);
+		when(chatClient.prompt()).thenReturn(request);
+		when(request.call()).thenReturn(response);
+		ChatClient.Builder builder = mock(ChatClient.Builder.class, RETURNS_SELF);
+		when(builder.build()).thenReturn(chatClient);
+
+		TokenizerService tokenizer = mock(TokenizerService.class);
+		when(tokenizer.countTokens(anyString())).thenReturn(TOKENS_PER_MESSAGE);
+
+		ModelTierPolicy modelTiers = new ModelTierPolicy(
+				new ModelTierProperties(true, "fast", "standard", Map.of(), 8, Duration.ofSeconds(10)));
+		summarizer = new ConversationSummarizer(builder, new LlmMetrics(new SimpleMeterRegistry()), modelTiers,
+				tokenizer, memory, properties);
+	}
+
+	@AfterEach
+	void shutdown() {
+		summarizer.shutdown();
+	}
+
+	@Test
+	void shortHistoryIsNotSummarized() {
+		append("s1", 4);
+
+		summarizer.afterTurn("s1");
+
+		verify(response, after(200).never()).content();
+		assertThat(memory.summary("s1")).isEqualTo(ConversationSummary.NONE);
+	}
+
+	@Test
+	void historyAboveTheTokenThresholdIsSummarizedInTheBackground() {
+		when(response.content()).thenReturn("  likes sci-fi, disliked Alien  ");
+		append("s1", 6);
+
+		summarizer.afterTurn("s1");
+
+		ConversationSummary summary = await(() -> memory.summary("s1"));
+		assertThat(summary.text()).isEqualTo("likes sci-fi, disliked Alien");
+		assertThat(summary.throughSequence()).isEqualTo(6 - KEEP_RECENT_MESSAGES);
+	}
+
+	@Test
+	void theNewestMessagesStayVerbatim() {
+		when(response.content()).thenReturn("likes sci-fi");
+		append("s1", 6);
+
+		summarizer.compact("s1");
+
+		ArgumentCaptor<String> prompt = ArgumentCaptor.forClass(String.class);
+		verify(request).user(prompt.capture());
+		assertThat(prompt.getValue()).contains("message 0", "message 3").doesNotContain("message 4", "message 5");
+		ChatContext context = summarizer.contextFor("s1", "next question");
+		assertThat(context.summary()).isEqualTo("likes sci-fi");
+		assertThat(context.messages()).extracting(ConversationMessage::content)
+				.containsExactly("message 4", "message 5");
+	}
+
+	@Test
+	void onlyOneJobRunsPerSession() throws InterruptedException {
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		when(response.content()).thenAnswer(invocation -> {
+			started.countDown();
+			release.await(5, TimeUnit.SECONDS);
+			return "likes sci-fi";
+		});
+		append("s1", 6);
+
+		summarizer.afterTurn("s1");
+		assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+		// More turns while the first job is still running
+		append("s1", 2);
+		summarizer.afterTurn("s1");
+		summarizer.afterTurn("s1");
+
+		verify(response, after(200).times(1)).content();
+		release.countDown();
+		assertThat(await(() -> memory.summary("s1")).text()).isEqualTo("likes sci-fi");
+	}
+
+	@Test
+	void aSummaryChangedMeanwhileIsNotOverwritten() {
+		ConversationSummary concurrent = new ConversationSummary("written by someone else", 3);
+		when(response.content()).thenAnswer(invocation -> {
+			// Another writer moves the watermark while the model is summarizing
+			assertThat(memory.replaceSummary("s1", ConversationSummary.NONE, concurrent)).isTrue();
+			return "stale summary";
+		});
+		append("s1", 6);
+
+		summarizer.compact("s1");
+
+		assertThat(memory.summary("s1")).isEqualTo(concurrent);
+	}
+
+	@Test
+	void nothingToFoldMeansNoModelCall() {
+		append("s1", KEEP_RECENT_MESSAGES);
+
+		summarizer.compact("s1");
+
+		verify(request, never()).call();
+	}
+
+	private void append(String sessionId, int count) {
+		long first = memory.nextSequence(sessionId);
+		IntStream.range(0, count).forEach(i -> memory.append(sessionId,
+				ConversationMessage.user("message " + (first + i))));
+	}
+
+	private static ConversationSummary await(Supplier<ConversationSummary> summary) {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (summary.get().isEmpty() && System.nanoTime() < deadline) {
+			LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(5));
+		}
+		return summary.get();
+	}
+}
@@ -0,0 +1,44 @@
+package com.example.ai.basics.common.memory;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RetrievalChatMemoryTest {
+
+	@Test
+	void recallsMostSimilarMessagesInConversationOrder() {
+		RetrievalChatMemory.SessionIndex index = new RetrievalChatMemory.SessionIndex(10);
+		ConversationMessage horror = ConversationMessage.user("I hate horror movies");
+		ConversationMessage scifi = ConversationMessage.user("I love sci-fi");
+		ConversationMessage weather = ConversationMessage.user("Nice weather today");
+		ConversationMessage space = ConversationMessage.user("Space operas are great");
+		index.add(horror, new float[] { 0, 1, 0 });
+		index.add(scifi, new float[] { 1, 0, 0 });
+		index.add(weather, new float[] { 0, 0, 1 });
+		index.add(space, new float[] { 0.9f, 0.1f, 0 });
+
+		// space is most similar, but it was already sent as a recent message
+		assertThat(index.search(new float[] { 1, 0.2f, 0 }, 2, List.of(space)))
+				.containsExactly(horror, scifi);
+	}
+
+	@Test
+	void dropsOldestMessagesBeyondCapacity() {
+		RetrievalChatMemory.SessionIndex index = new RetrievalChatMemory.SessionIndex(2);
+		ConversationMessage first = ConversationMessage.user("first");
+		ConversationMessage second = ConversationMessage.user("second");
+		ConversationMessage third = ConversationMessage.user("third");
+
+		long added = index.add(first, new float[] { 1, 0 });
+		index.add(second, new float[] { 1, 0 });
+		long replaced = index.add(third, new float[] { 1, 0 });
+
+		assertThat(added).isPositive();
+		assertThat(replaced).isZero();
+		assertThat(index.search(new float[] { 1, 0 }, 5, List.of())).containsExactly(second, third);
+	}
+
+}
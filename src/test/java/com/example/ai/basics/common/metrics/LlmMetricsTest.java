@@ -0,0 +1,53 @@
+package com.example.ai.basics.common.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LlmMetricsTest {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final LlmMetrics metrics = new LlmMetrics(registry);
+
+	@AfterEach
+	void clearRequest() {
+		RequestContextHolder.resetRequestAttributes();
+	}
+
+	@Test
+	void tagsTheMatchedMappingNotTheRawUri() {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/ingest/3f2a");
+		request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/ingest/{jobId}");
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+		assertThat(LlmMetrics.currentEndpoint()).isEqualTo("/ingest/{jobId}");
+	}
+
+	@Test
+	void requestsWithoutAMatchedMappingShareOneTag() {
+		RequestContextHolder.setRequestAttributes(
+				new ServletRequestAttributes(new MockHttpServletRequest("GET", "/wp-admin/setup.php")));
+
+		assertThat(LlmMetrics.currentEndpoint()).isEqualTo("UNKNOWN");
+	}
+
+	@Test
+	void noRequestMeansNoEndpoint() {
+		assertThat(LlmMetrics.currentEndpoint()).isEqualTo("none");
+	}
+
+	@Test
+	void cancelledCallsAreNotCountedAsSuccesses() {
+		metrics.startChat("RouterAgent", "stream").cancelled();
+
+		assertThat(registry.find("ai.chat.calls").tag("outcome", "cancelled").timer()).isNotNull();
+		assertThat(registry.find("ai.chat.calls").tag("outcome", "success").timer()).isNull();
+		assertThat(registry.get("ai.chat.in.flight").tag("agent", "RouterAgent").gauge().value()).isZero();
+	}
+}
@@ -0,0 +1,127 @@
+package com.example.ai.basics.common.model;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ModelTierPolicyTest {
+
+	private static final Map<String, ModelTier> CALL_SITES = Map.of("router", ModelTier.FAST, "answer",
+			ModelTier.STANDARD);
+
+	@Test
+	void usesTheCallSiteProfileWhenNotOverloaded() {
+		ModelTierPolicy policy = policy(true, 8, Duration.ofSeconds(10));
+
+		assertThat(policy.resolve("router")).isEqualTo(ModelTier.FAST);
+		assertThat(policy.resolve("answer")).isEqualTo(ModelTier.STANDARD);
+		// Unlisted call sites stay on STANDARD
+		assertThat(policy.resolve("unknown")).isEqualTo(ModelTier.STANDARD);
+		assertThat(policy.options("answer").getModel()).isEqualTo("standard-model");
+	}
+
+	@Test
+	void disabledTieringUsesTheDefaultModelEverywhere() {
+		ModelTierPolicy policy = policy(false, 0, Duration.ofMillis(1));
+
+		assertThat(policy.resolve("router")).isEqualTo(ModelTier.STANDARD);
+		assertThat(policy.resolve("answer")).isEqualTo(ModelTier.STANDARD);
+		// Not even load downgrades
+		policy.call("answer", options -> {
+			assertThat(options.getModel()).isEqualTo("standard-model");
+			assertThat(policy.resolve("answer")).isEqualTo(ModelTier.STANDARD);
+			return null;
+		});
+	}
+
+	@Test
+	void downgradesStandardCallsWhileTooManyAreInFlight() {
+		ModelTierPolicy policy = policy(true, 1, Duration.ofSeconds(10));
+
+		ModelTier nested = policy.call("answer", outer -> policy.call("answer", inner -> policy.resolve("answer")));
+
+		assertThat(nested).isEqualTo(ModelTier.FAST);
+		assertThat(policy.inFlight()).isZero();
+		// Back to normal once the calls are done
+		assertThat(policy.resolve("answer")).isEqualTo(ModelTier.STANDARD);
+	}
+
+	@Test
+	void downgradesStandardCallsWhileLatencyIsHigh() {
+		ModelTierPolicy policy = policy(true, 8, Duration.ofMillis(5));
+
+		policy.call("answer", options -> {
+			sleep(50);
+			return null;
+		});
+
+		assertThat(policy.averageLatencyMillis()).isGreaterThan(5);
+		assertThat(policy.resolve("answer")).isEqualTo(ModelTier.FAST);
+		assertThat(policy.options("answer").getModel()).isEqualTo("fast-model");
+		// FAST call sites are unaffected
+		assertThat(policy.resolve("router")).isEqualTo(ModelTier.FAST);
+	}
+
+	@Test
+	void onlyStandardCallsCountTowardsTheLatency() {
+		ModelTierPolicy policy = policy(true, 8, Duration.ofMillis(5));
+
+		policy.call("router", options -> {
+			sleep(50);
+			return null;
+		});
+
+		assertThat(policy.averageLatencyMillis()).isZero();
+		assertThat(policy.resolve("answer")).isEqualTo(ModelTier.STANDARD);
+	}
+
+	@Test
+	void streamsCountTheTimeToTheFirstElement() {
+		ModelTierPolicy policy = policy(true, 8, Duration.ofMillis(100));
+
+		List<String> tokens = policy.stream("answer", options -> Flux.just("The", " answer")
+				.concatWith(Flux.just(" is", " long").delayElements(Duration.ofMillis(150))))
+				.collectList()
+				.block();
+
+		assertThat(tokens).hasSize(4);
+		assertThat(policy.inFlight()).isZero();
+		assertThat(policy.averageLatencyMillis()).isLessThan(100);
+		assertThat(policy.resolve("answer")).isEqualTo(ModelTier.STANDARD);
+	}
+
+	@Test
+	void probesTheStandardModelWhileDowngradedForLatency() {
+		ModelTierPolicy policy = new ModelTierPolicy(new ModelTierProperties(true, "fast-model", "standard-model",
+				CALL_SITES, 8, Duration.ofMillis(5)), Duration.ofMillis(100));
+		policy.call("answer", options -> {
+			sleep(50);
+			return null;
+		});
+		assertThat(policy.resolve("answer")).isEqualTo(ModelTier.FAST);
+
+		sleep(150);
+
+		// One call gets through, the ones after it wait for the next probe
+		assertThat(policy.resolve("answer")).isEqualTo(ModelTier.STANDARD);
+		assertThat(policy.resolve("answer")).isEqualTo(ModelTier.FAST);
+	}
+
+	private static ModelTierPolicy policy(boolean enabled, int maxInFlight, Duration latencyThreshold) {
+		return new ModelTierPolicy(new ModelTierProperties(enabled, "fast-model", "standard-model", CALL_SITES,
+				maxInFlight, latencyThreshold));
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,53 @@
+package com.example.ai.basics.common.prompt;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PromptTemplateRegistryTest {
+
+	@Test
+	void rendersCompiledTemplates() {
+		CompiledPromptTemplate template = CompiledPromptTemplate.compile("greeting",
+				"Hi {name}! {name}, reply as JSON: \\{\"mood\": \"{mood}\"\\}");
+
+		assertThat(template.variables()).containsExactly("name", "mood");
+		assertThat(template.render(Map.of("name", "Ada", "mood", "happy")))
+				.isEqualTo("Hi Ada! Ada, reply as JSON: {\"mood\": \"happy\"}");
+		assertThat(template.renderTo(new StringBuilder("> "), Map.of("name", "{x}", "mood", 1)))
+				.hasToString("> Hi {x}! {x}, reply as JSON: {\"mood\": \"1\"}");
+		assertThatThrownBy(() -> template.render(Map.of("name", "Ada")))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("missing variable 'mood'");
+		assertThatThrownBy(() -> template.render(Map.of("name", "Ada", "mood", "ok", "extra", "?")))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("no variable 'extra'");
+	}
+
+	@Test
+	void brokenTemplatesFailWhenTheRegistryIsCreated() {
+		assertThatThrownBy(() -> new PromptTemplateRegistry(Map.of("broken", "Line one\nAnswer {question")))
+				.isInstanceOf(IllegalStateException.class)
+				.hasMessageContaining("line 2, column 8: unclosed '{'");
+		assertThatThrownBy(() -> new PromptTemplateRegistry(Map.of("json", "Reply as {\"a\": 1}")))
+				.isInstanceOf(IllegalStateException.class)
+				.hasMessageContaining("invalid variable name");
+	}
+
+	@Test
+	void checksTheVariablesOfTheApplicationTemplates() {
+		PromptTemplateRegistry registry = new PromptTemplateRegistry();
+
+		assertThat(registry.get("study-assistant-answer", "question", "context").variables())
+				.containsExactly("context", "question");
+		assertThat(registry.get("explain-topic", "topic", "audience", "style")).isNotNull();
+		assertThatThrownBy(() -> registry.get("explain-topic", "topic"))
+				.isInstanceOf(IllegalStateException.class);
+		assertThatThrownBy(() -> registry.get("missing"))
+				.isInstanceOf(IllegalStateException.class);
+	}
+
+}
@@ -0,0 +1,129 @@
+package com.example.ai.basics.common.tools;
+
+import com.example.ai.basics.common.metrics.LlmMetrics;
+import com.example.ai.basics.common.model.ModelTierPolicy;
+import com.example.ai.basics.common.model.ModelTierProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.ToolResponseMessage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.model.function.FunctionCallback;
+import org.springframework.ai.model.function.FunctionCallbackResolver;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ParallelToolExecutorTest {
+
+	private final Map<String, FunctionCallback> tools = new HashMap<>();
+	private final CountDownLatch release = new CountDownLatch(1);
+	private ParallelToolExecutor executor;
+
+	@AfterEach
+	void shutdown() {
+		release.countDown();
+		executor.shutdown();
+	}
+
+	@Test
+	void runsTheToolsOfATurnConcurrently() {
+		executor = executor(4, 16, Duration.ofSeconds(5), Map.of());
+		// Each call only finishes once all three are running at the same time
+		CountDownLatch allStarted = new CountDownLatch(3);
+		for (String name : List.of("flightSearch", "hotelSearch", "currentWeather")) {
+			tool(name, () -> {
+				allStarted.countDown();
+				return await(allStarted, 2_000) ? name + " done" : name + " ran alone";
+			});
+		}
+
+		List<ToolResponseMessage.ToolResponse> responses = executor.executeAll(List.of(
+				call("1", "flightSearch"), call("2", "hotelSearch"), call("3", "currentWeather")));
+
+		// In the order the model asked for them
+		assertThat(responses).extracting(ToolResponseMessage.ToolResponse::id).containsExactly("1", "2", "3");
+		assertThat(responses).extracting(ToolResponseMessage.ToolResponse::responseData)
+				.containsExactly("flightSearch done", "hotelSearch done", "currentWeather done");
+	}
+
+	@Test
+	void aSlowToolTimesOutWithoutHoldingUpTheOthers() {
+		executor = executor(4, 16, Duration.ofSeconds(5), Map.of("slow", Duration.ofMillis(100)));
+		tool("slow", () -> await(release, 10_000) ? "too late" : "never");
+		tool("fast", () -> "fast done");
+
+		long start = System.nanoTime();
+		List<ToolResponseMessage.ToolResponse> responses = executor.executeAll(List.of(
+				call("1", "slow"), call("2", "fast")));
+
+		assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(2));
+		assertThat(responses).extracting(ToolResponseMessage.ToolResponse::responseData)
+				.containsExactly("Tool slow timed out after PT0.1S", "fast done");
+	}
+
+	@Test
+	void rejectsCallsWhenThePoolIsSaturatedInsteadOfRunningThemInline() {
+		// One thread and one queue slot: the third call has nowhere to go
+		executor = executor(1, 1, Duration.ofMillis(200), Map.of());
+		Thread requestThread = Thread.currentThread();
+		tool("blocking", () -> {
+			if (Thread.currentThread() == requestThread) {
+				return "ran on the request thread";
+			}
+			return await(release, 10_000) ? "released" : "never";
+		});
+
+		long start = System.nanoTime();
+		List<ToolResponseMessage.ToolResponse> responses = executor.executeAll(List.of(
+				call("1", "blocking"), call("2", "blocking"), call("3", "blocking")));
+
+		assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(2));
+		assertThat(responses).extracting(ToolResponseMessage.ToolResponse::responseData).containsExactly(
+				"Tool blocking timed out after PT0.2S",
+				"Tool blocking timed out after PT0.2S",
+				"Tool blocking rejected: too many tool calls running");
+	}
+
+	private ParallelToolExecutor executor(int poolSize, int queueCapacity, Duration defaultTimeout,
+			Map<String, Duration> timeouts) {
+		ModelTierPolicy modelTiers = new ModelTierPolicy(
+				new ModelTierProperties(true, "fast", "standard", Map.of(), 8, Duration.ofSeconds(10)));
+		FunctionCallbackResolver resolver = mock(FunctionCallbackResolver.class);
+		when(resolver.resolve(anyString())).thenAnswer(invocation -> tools.get(invocation.<String>getArgument(0)));
+		return new ParallelToolExecutor(mock(ChatModel.class), resolver, modelTiers,
+				new ToolExecutionProperties(poolSize, queueCapacity, defaultTimeout, timeouts, 5),
+				new LlmMetrics(new SimpleMeterRegistry()), ObservationRegistry.NOOP);
+	}
+
+	private void tool(String name, Supplier<String> behaviour) {
+		FunctionCallback callback = mock(FunctionCallback.class);
+		when(callback.call(anyString())).thenAnswer(invocation -> behaviour.get());
+		tools.put(name, callback);
+	}
+
+	private static AssistantMessage.ToolCall call(String id, String name) {
+		return new AssistantMessage.ToolCall(id, "function", name, "{}");
+	}
+
+	private static boolean await(CountDownLatch latch, long millis) {
+		try {
+			return latch.await(millis, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+}
@@ -0,0 +1,134 @@
+package com.example.ai.basics.common.tracing;
+
+import com.example.ai.basics.day2.multi.agent.parallelization.DatabaseAnalysisAgent;
+import com.example.ai.basics.day2.multi.agent.parallelization.LogAnalysisAgent;
+import com.example.ai.basics.day2.multi.agent.parallelization.MetricsAnalysisAgent;
+import com.example.ai.basics.day2.multi.agent.parallelization.ParallelIncidentService;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.contextpropagation.ObservationThreadLocalAccessor;
+import io.micrometer.tracing.handler.DefaultTracingObservationHandler;
+import io.micrometer.tracing.otel.bridge.OtelCurrentTraceContext;
+import io.micrometer.tracing.otel.bridge.OtelTracer;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ContextPropagationTest {
+
+	private final InMemorySpanExporter exporter = new InMemorySpanExporter(100);
+	private final SdkTracerProvider tracerProvider = SdkTracerProvider.builder()
+			.addSpanProcessor(SimpleSpanProcessor.create(exporter))
+			.build();
+	private final ObservationRegistry observations = ObservationRegistry.create();
+	private final ExecutorService pool = Executors.newFixedThreadPool(2);
+
+	@BeforeEach
+	void tracing() {
+		OtelTracer tracer = new OtelTracer(tracerProvider.get("test"), new OtelCurrentTraceContext(), event -> {
+		});
+		observations.observationConfig().observationHandler(new DefaultTracingObservationHandler(tracer));
+		// What Spring Boot does for the application's registry
+		ObservationThreadLocalAccessor.getInstance().setObservationRegistry(observations);
+	}
+
+	@AfterEach
+	void shutdown() {
+		pool.shutdownNow();
+		tracerProvider.close();
+	}
+
+	@Test
+	void workOnAWrappedExecutorJoinsTheCallersTrace() throws Exception {
+		ExecutorService wrapped = ContextPropagation.wrap(pool);
+
+		observe("http get /incident", () -> {
+			try {
+				return wrapped.submit(() -> observe("LogAnalysisAgent.analyze", () -> "ok")).get();
+			} catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+		});
+
+		SpanData root = span("http get /incident");
+		SpanData child = span("LogAnalysisAgent.analyze");
+		assertThat(child.getTraceId()).isEqualTo(root.getTraceId());
+		assertThat(child.getParentSpanId()).isEqualTo(root.getSpanId());
+	}
+
+	@Test
+	void workOnAPlainExecutorStartsASeparateTrace() throws Exception {
+		observe("http get /incident", () -> {
+			try {
+				return pool.submit(() -> observe("LogAnalysisAgent.analyze", () -> "ok")).get();
+			} catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+		});
+
+		assertThat(span("LogAnalysisAgent.analyze").getTraceId())
+				.isNotEqualTo(span("http get /incident").getTraceId());
+	}
+
+	@Test
+	void parallelIncidentAgentsAreChildrenOfTheRequestTrace() {
+		ParallelIncidentService service = new ParallelIncidentService(
+				agent(LogAnalysisAgent.class, "LogAnalysisAgent.analyze"),
+				agent(MetricsAnalysisAgent.class, "MetricsAnalysisAgent.analyze"),
+				agent(DatabaseAnalysisAgent.class, "DatabaseAnalysisAgent.analyze"));
+
+		observe("http get /incident/parallel", () -> service.runInParallel("checkout latency spike"));
+
+		SpanData root = span("http get /incident/parallel");
+		for (String agent : List.of("LogAnalysisAgent.analyze", "MetricsAnalysisAgent.analyze",
+				"DatabaseAnalysisAgent.analyze")) {
+			SpanData span = span(agent);
+			assertThat(span.getTraceId()).as(agent).isEqualTo(root.getTraceId());
+			assertThat(span.getParentSpanId()).as(agent).isEqualTo(root.getSpanId());
+		}
+
+		String trace = new TraceController(exporter).showTrace(root.getTraceId());
+		assertThat(trace)
+				.contains("http get /incident/parallel")
+				.contains("  LogAnalysisAgent.analyze")
+				.contains("  MetricsAnalysisAgent.analyze")
+				.contains("  DatabaseAnalysisAgent.analyze");
+	}
+
+	// Stands in for the @Observed agent method, which needs the AOP proxy
+	private <T> T agent(Class<T> type, String spanName) {
+		T agent = mock(type);
+		if (agent instanceof LogAnalysisAgent log) {
+			when(log.analyze(anyString())).thenAnswer(invocation -> observe(spanName, () -> "logs fine"));
+		} else if (agent instanceof MetricsAnalysisAgent metrics) {
+			when(metrics.analyze(anyString())).thenAnswer(invocation -> observe(spanName, () -> "p99 up"));
+		} else if (agent instanceof DatabaseAnalysisAgent database) {
+			when(database.analyze(anyString())).thenAnswer(invocation -> observe(spanName, () -> "pool exhausted"));
+		}
+		return agent;
+	}
+
+	private <T> T observe(String name, Supplier<T> work) {
+		return Observation.createNotStarted("test", observations).contextualName(name).observe(work);
+	}
+
+	private SpanData span(String name) {
+		return exporter.spans().stream()
+				.filter(span -> span.getName().equals(name))
+				.findFirst()
+				.orElseThrow(() -> new AssertionError("No span " + name + " in " + exporter.spans()));
+	}
+}
@@ -0,0 +1,68 @@
+package com.example.ai.basics.day1.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class Bm25IndexTest {
+
+	@Test
+	void findsExactIdentifiers() {
+		Bm25Index index = new Bm25Index();
+		index.add(0, Bm25Index.analyze("Payment failed with ERR-1024 after the retry window."));
+		index.add(1, Bm25Index.analyze("Payment failed with ERR-1042: card declined."));
+		index.add(2, Bm25Index.analyze("The mitochondria is the powerhouse of the cell."));
+
+		assertThat(index.search("what does err-1042 mean", 3)).extracting(TopK.Hit::ordinal).first().isEqualTo(1);
+		assertThat(index.search("ERR", 3)).extracting(TopK.Hit::ordinal).containsExactlyInAnyOrder(0, 1);
+	}
+
+	@Test
+	void supersededTextsNoLongerMatch() {
+		Bm25Index index = new Bm25Index();
+		int doc = index.add(0, Bm25Index.analyze("photosynthesis in chloroplasts"));
+		index.supersede(doc);
+		index.add(0, Bm25Index.analyze("cellular respiration in mitochondria"));
+
+		assertThat(index.search("photosynthesis", 5)).isEmpty();
+		assertThat(index.search("mitochondria", 5)).extracting(TopK.Hit::ordinal).containsExactly(0);
+	}
+
+	@Test
+	void pruningKeepsTheExactTopK() {
+		Bm25Index index = new Bm25Index();
+		SplittableRandom random = new SplittableRandom(7);
+		for (int ordinal = 0; ordinal < 2_000; ordinal++) {
+			StringBuilder text = new StringBuilder();
+			for (int word = 5 + random.nextInt(30); word > 0; word--) {
+				// Skewed vocabulary: a few very common terms, a long tail of rare ones
+				text.append("w").append((int) Math.pow(random.nextInt(20), 2)).append(' ');
+			}
+			index.add(ordinal, Bm25Index.analyze(text.toString()));
+		}
+
+		for (String query : List.of("w0 w1 w361", "w4 w9 w16 w225", "w324 w0")) {
+			List<TopK.Hit> pruned = index.search(query, 5);
+			// A K larger than the corpus never prunes
+			List<TopK.Hit> exhaustive = index.search(query, 10_000);
+			assertThat(pruned).hasSize(5);
+			for (int i = 0; i < pruned.size(); i++) {
+				// Same scores; only the summation order may differ
+				assertThat(pruned.get(i).score()).isCloseTo(exhaustive.get(i).score(), within(1e-9));
+			}
+		}
+	}
+
+	@Test
+	void reciprocalRankFusionFavorsDocumentsRankedByBoth() {
+		List<TopK.Hit> vector = List.of(new TopK.Hit(1, 0.9), new TopK.Hit(2, 0.8), new TopK.Hit(3, 0.7));
+		List<TopK.Hit> keyword = List.of(new TopK.Hit(3, 12.0), new TopK.Hit(4, 9.0));
+
+		assertThat(SimpleVectorStore.fuse(2, vector, keyword)).extracting(TopK.Hit::ordinal).containsExactly(3, 1);
+	}
+
+}
@@ -0,0 +1,66 @@
+package com.example.ai.basics.day1.service;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BpeTokenizerTest {
+
+	private static BpeTokenizer tokenizer;
+
+	@BeforeAll
+	static void loadTinyVocabulary() throws IOException {
+		// Every single byte, plus a few merges: he, ll, hell, hello
+		StringBuilder vocabulary = new StringBuilder();
+		for (int b = 0; b < 256; b++) {
+			vocabulary.append(line(new byte[] { (byte) b }, b));
+		}
+		vocabulary.append(line("he".getBytes(StandardCharsets.UTF_8), 256));
+		vocabulary.append(line("ll".getBytes(StandardCharsets.UTF_8), 257));
+		vocabulary.append(line("hell".getBytes(StandardCharsets.UTF_8), 258));
+		vocabulary.append(line("hello".getBytes(StandardCharsets.UTF_8), 259));
+
+		tokenizer = BpeTokenizer.load(
+				new ByteArrayInputStream(vocabulary.toString().getBytes(StandardCharsets.US_ASCII)),
+				BpeTokenizer.CL100K_PATTERN);
+	}
+
+	@Test
+	void wholeWordInVocabularyIsOneToken() {
+		assertThat(tokenizer.encode("hello")).containsExactly(259);
+	}
+
+	@Test
+	void mergesLowestRankPairsFirst() {
+		// he + l + l + x -> he + ll + x -> hell + x
+		assertThat(tokenizer.encode("hellx")).containsExactly(258, 'x');
+	}
+
+	@Test
+	void splitsOnPreTokenizationBoundaries() {
+		// "hello" and " hello" are separate pieces; the space never merges
+		assertThat(tokenizer.encode("hello hello")).containsExactly(259, ' ', 259);
+		assertThat(tokenizer.count("hello hello")).isEqualTo(3);
+	}
+
+	@Test
+	void roundTripsMultiByteText() {
+		String text = "héllo wörld 🙂 naïve café";
+
+		int[] tokens = tokenizer.encode(text);
+
+		assertThat(tokenizer.decode(tokens)).isEqualTo(text);
+		assertThat(tokenizer.count(text)).isEqualTo(tokens.length);
+	}
+
+	private static String line(byte[] token, int rank) {
+		return Base64.getEncoder().encodeToString(token) + " " + rank + "\n";
+	}
+
+}
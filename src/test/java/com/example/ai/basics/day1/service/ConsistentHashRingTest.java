@@ -0,0 +1,48 @@
+package com.example.ai.basics.day1.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConsistentHashRingTest {
+
+	private static final List<String> NODES = List.of("http://localhost:8080", "http://localhost:8081",
+			"http://localhost:8082");
+
+	@Test
+	void spreadsKeysEvenlyAndDeterministically() {
+		ConsistentHashRing ring = new ConsistentHashRing(NODES, 128);
+		Map<String, Integer> counts = new HashMap<>();
+		for (int i = 0; i < 30_000; i++) {
+			counts.merge(ring.nodeFor("doc-" + i), 1, Integer::sum);
+		}
+
+		assertThat(counts).containsOnlyKeys(NODES);
+		assertThat(counts.values()).allSatisfy(count -> assertThat(count).isBetween(7_000, 13_000));
+		assertThat(new ConsistentHashRing(List.copyOf(NODES), 128).nodeFor("doc-42")).isEqualTo(ring.nodeFor("doc-42"));
+	}
+
+	@Test
+	void addingANodeOnlyMovesKeysToIt() {
+		ConsistentHashRing before = new ConsistentHashRing(NODES, 128);
+		String added = "http://localhost:8083";
+		ConsistentHashRing after = new ConsistentHashRing(
+				List.of(NODES.get(0), NODES.get(1), NODES.get(2), added), 128);
+
+		int moved = 0;
+		for (int i = 0; i < 20_000; i++) {
+			String key = "doc-" + i;
+			if (!before.nodeFor(key).equals(after.nodeFor(key))) {
+				assertThat(after.nodeFor(key)).isEqualTo(added);
+				moved++;
+			}
+		}
+		// About a quarter of the keys belong to the new node
+		assertThat(moved).isBetween(3_500, 6_500);
+	}
+
+}
@@ -0,0 +1,67 @@
+package com.example.ai.basics.day1.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContextPackerTest {
+
+	// The build puts cl100k on the classpath; the expectations use the ~4 chars/token estimate
+	private final TokenizerService tokenizer = TokenizerService.estimating(TokenizerFamily.CL100K);
+	private final ContextPacker packer = new ContextPacker(tokenizer, new ContextPackerProperties(600, 0.8, 0.5));
+
+	@Test
+	void keepsMostRelevantNotesFirst() {
+		ContextPacker.PackedContext packed = packer.pack("What produces energy?", List.of(
+				result("mito", "The mitochondria produces ATP through cellular respiration.", 0.92),
+				result("dna", "DNA stands for deoxyribonucleic acid.", 0.41)), 1, 600);
+
+		assertThat(packed.passages()).extracting(ContextPacker.Passage::id).containsExactly("mito");
+	}
+
+	@Test
+	void keepsTheCallersOrderSoDiversePicksSurvive() {
+		// MMR order: the chloroplast note was picked over a closer but redundant one
+		ContextPacker.PackedContext packed = packer.pack("What happens in a cell?", List.of(
+				result("mito", "The mitochondria produces ATP through cellular respiration.", 0.92),
+				result("chloro", "Photosynthesis happens in the chloroplasts.", 0.55),
+				result("mito-2", "Mitochondria make the cell's ATP by respiration.", 0.90)), 2, 600);
+
+		assertThat(packed.passages()).extracting(ContextPacker.Passage::id).containsExactly("mito", "chloro");
+	}
+
+	@Test
+	void dropsNearDuplicatePassages() {
+		ContextPacker.PackedContext packed = packer.pack("What is the powerhouse of the cell?", List.of(
+				result("a", "The mitochondria is the powerhouse of the cell.", 0.95),
+				result("b", "The mitochondria is the powerhouse of the cell!", 0.94),
+				result("c", "Photosynthesis happens in the chloroplasts.", 0.60)), 3, 600);
+
+		assertThat(packed.passages()).extracting(ContextPacker.Passage::id).containsExactly("a", "c");
+		assertThat(packed.droppedDuplicates()).isEqualTo(1);
+	}
+
+	@Test
+	void trimsLongNotesToTheirMostRelevantSentencesWithinBudget() {
+		String longNote = "Cells contain many organelles. "
+				+ "The nucleus stores the genetic material of the organism and controls cell division. "
+				+ "The mitochondria produces ATP, the energy currency of the cell. "
+				+ "The golgi apparatus packages proteins for transport to other parts of the cell.";
+
+		ContextPacker.PackedContext packed = packer.pack("Which organelle produces ATP energy?",
+				List.of(result("long", longNote, 0.9)), 2, 40);
+
+		assertThat(packed.tokens()).isLessThanOrEqualTo(40);
+		assertThat(packed.trimmedPassages()).isEqualTo(1);
+		assertThat(packed.passages().get(0).text())
+				.contains("The mitochondria produces ATP")
+				.doesNotContain("golgi");
+	}
+
+	private static SimpleVectorStore.SimilarityResult result(String id, String text, double similarity) {
+		return new SimpleVectorStore.SimilarityResult(id, text, similarity);
+	}
+
+}
@@ -0,0 +1,49 @@
+package com.example.ai.basics.day1.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DocumentChunkerTest {
+
+	// The build puts cl100k on the classpath; the expectations use the ~4 chars/token estimate
+	private final TokenizerService tokenizer = TokenizerService.estimating(TokenizerFamily.CL100K);
+
+	@Test
+	void keepsShortNotesWhole() {
+		DocumentChunker chunker = chunker(10, 0);
+
+		assertThat(chunker.chunk("  DNA stores genes.  ")).containsExactly("DNA stores genes.");
+		assertThat(chunker.chunk(" ")).isEmpty();
+	}
+
+	@Test
+	void splitsOnSentencesAndRepeatsTheOverlap() {
+		DocumentChunker chunker = chunker(12, 6);
+
+		List<String> chunks = chunker.chunk("Cells have a nucleus. Mitochondria make ATP. "
+				+ "Ribosomes build proteins. Golgi packs them.");
+
+		assertThat(chunks).containsExactly(
+				"Cells have a nucleus. Mitochondria make ATP.",
+				"Mitochondria make ATP. Ribosomes build proteins.",
+				"Ribosomes build proteins. Golgi packs them.");
+	}
+
+	@Test
+	void cutsOverlongSentencesOnWords() {
+		DocumentChunker chunker = chunker(10, 0);
+
+		List<String> chunks = chunker.chunk("word ".repeat(40).strip());
+
+		assertThat(chunks).hasSizeGreaterThan(1);
+		assertThat(String.join(" ", chunks)).isEqualTo("word ".repeat(40).strip());
+	}
+
+	private DocumentChunker chunker(int chunkTokens, int overlapTokens) {
+		return new DocumentChunker(tokenizer, new IngestionProperties(chunkTokens, overlapTokens, 32, 2, 256, 50));
+	}
+
+}
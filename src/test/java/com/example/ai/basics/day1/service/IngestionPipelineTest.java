@@ -0,0 +1,155 @@
+package com.example.ai.basics.day1.service;
+
+import com.example.ai.basics.common.metrics.LlmMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.ai.embedding.Embedding;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingResponse;
+import org.springframework.web.client.RestClient;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class IngestionPipelineTest {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void anErrorInAStageFailsTheJob() throws InterruptedException {
+		IngestionPipeline.IngestionJob job = new IngestionPipeline.IngestionJob("job1", "default", "test");
+		CountDownLatch never = new CountDownLatch(1);
+		// A stage blocked on its queue, like the index stage waiting for batches
+		job.addStage("index", never::await);
+
+		job.addStage("embed-0", () -> {
+			throw new OutOfMemoryError("Java heap space");
+		});
+		job.start();
+
+		assertThat(job.await(Duration.ofSeconds(5))).isTrue();
+		IngestionPipeline.IngestionJob.Status status = job.status();
+		assertThat(status.state()).isEqualTo(IngestionPipeline.IngestionJob.State.FAILED);
+		assertThat(status.error()).isEqualTo("embed-0: Java heap space");
+	}
+
+	@Test
+	void theFirstFailureIsTheOneReported() throws InterruptedException {
+		IngestionPipeline.IngestionJob job = new IngestionPipeline.IngestionJob("job2", "default", "test");
+		CountDownLatch never = new CountDownLatch(1);
+		job.addStage("chunk", never::await);
+
+		job.addStage("index", () -> {
+			throw new IllegalStateException("shard unavailable");
+		});
+		job.start();
+
+		assertThat(job.await(Duration.ofSeconds(5))).isTrue();
+		// The interrupted chunk stage doesn't overwrite the cause
+		Thread.sleep(50);
+		assertThat(job.status().error()).isEqualTo("index: shard unavailable");
+	}
+
+	@Test
+	void aFailingFirstDocumentStopsEveryStage() throws InterruptedException {
+		IngestionPipeline pipeline = pipeline(localVectorStore(), 6);
+		Iterator<SourceDocument> documents = new Iterator<>() {
+
+			@Override
+			public boolean hasNext() {
+				return true;
+			}
+
+			@Override
+			public SourceDocument next() {
+				throw new IllegalStateException("unreadable file");
+			}
+		};
+
+		IngestionPipeline.IngestionJob job = pipeline.submit("biology", "test", documents);
+
+		assertThat(job.await(Duration.ofSeconds(5))).isTrue();
+		assertThat(job.status().error()).isEqualTo("chunk: unreadable file");
+		// The embed and index stages must not stay blocked on their empty queues
+		assertThat(job.stages()).hasSize(3);
+		for (Thread stage : job.stages()) {
+			assertThat(stage.join(Duration.ofSeconds(5))).as(stage.getName()).isTrue();
+		}
+	}
+
+	@Test
+	void upsertingANoteReplacesAllOfItsChunks() {
+		ShardedVectorStore vectorStore = localVectorStore();
+		// One sentence per chunk
+		IngestionPipeline pipeline = pipeline(vectorStore, 6);
+
+		IngestionPipeline.NoteUpdate added = pipeline.upsertNote("biology", "cells",
+				"Cells have a nucleus. Mitochondria make ATP. Ribosomes build proteins. Golgi packs them.",
+				Map.of("subject", "biology"));
+		pipeline.upsertNote("biology", "cells-2", "Chloroplasts capture light.", Map.of());
+		assertThat(added.chunks()).isEqualTo(4);
+		assertThat(added.replacedChunks()).isZero();
+
+		IngestionPipeline.NoteUpdate replaced = pipeline.upsertNote("biology", "cells",
+				"Mitochondria produce most of the ATP.", Map.of());
+
+		assertThat(replaced.chunks()).isEqualTo(1);
+		assertThat(replaced.replacedChunks()).isEqualTo(4);
+		assertThat(vectorStore.size("biology")).isEqualTo(2);
+		assertThat(vectorStore.findSimilar("biology", "cells", 10, SimpleVectorStore.SearchMode.VECTOR, null)
+				.results())
+				.extracting(SimpleVectorStore.SimilarityResult::id)
+				.containsExactlyInAnyOrder("cells#0", "cells-2#0");
+		assertThat(vectorStore.findSimilar("biology", "nucleus ribosomes golgi", 10,
+				SimpleVectorStore.SearchMode.KEYWORD, null).results()).isEmpty();
+
+		assertThat(pipeline.deleteNote("biology", "cells")).isEqualTo(1);
+		assertThat(pipeline.deleteNote("biology", "cells")).isZero();
+		assertThatThrownBy(() -> pipeline.deleteNote("biology", "cells#0"))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThat(vectorStore.size("biology")).isEqualTo(1);
+	}
+
+	private ShardedVectorStore localVectorStore() {
+		LlmMetrics metrics = new LlmMetrics(new SimpleMeterRegistry());
+		VectorStoreCollections collections = new VectorStoreCollections(embeddingModel(), metrics,
+				new VectorStoreProperties(0.3, Duration.ofMinutes(30), directory, 50_000));
+		return new ShardedVectorStore(collections, embeddingModel(), metrics, RestClient.builder(),
+				new VectorStoreClusterProperties(List.of(), "", "", Duration.ofSeconds(2), Duration.ofSeconds(10),
+						Duration.ofSeconds(1), 128));
+	}
+
+	private static IngestionPipeline pipeline(ShardedVectorStore vectorStore, int chunkTokens) {
+		IngestionProperties properties = new IngestionProperties(chunkTokens, 0, 2, 1, 16, 10);
+		DocumentChunker chunker = new DocumentChunker(TokenizerService.estimating(TokenizerFamily.CL100K), properties);
+		return new IngestionPipeline(embeddingModel(), new LlmMetrics(new SimpleMeterRegistry()), vectorStore, chunker,
+				properties);
+	}
+
+	// The same vector for every text: vector searches return every live chunk
+	private static EmbeddingModel embeddingModel() {
+		EmbeddingModel model = mock(EmbeddingModel.class);
+		when(model.embedForResponse(anyList())).thenAnswer(invocation -> {
+			List<String> texts = invocation.getArgument(0);
+			List<Embedding> embeddings = new ArrayList<>();
+			for (int i = 0; i < texts.size(); i++) {
+				embeddings.add(new Embedding(new float[] { 1, 0 }, i));
+			}
+			return new EmbeddingResponse(embeddings);
+		});
+		return model;
+	}
+}
@@ -0,0 +1,70 @@
+package com.example.ai.basics.day1.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JsonDocumentReaderTest {
+
+	@Test
+	void readsNdjsonStringsAndObjects() throws IOException {
+		String ndjson = """
+				"Photosynthesis happens in chloroplasts."
+				{"id": 7, "tags": ["cell"], "text": "Mitochondria produce ATP."}
+
+				{"content": "DNA stores genetic instructions."}
+				""";
+
+		assertThat(read(ndjson)).containsExactly(
+				"Photosynthesis happens in chloroplasts.",
+				"Mitochondria produce ATP.",
+				"DNA stores genetic instructions.");
+	}
+
+	@Test
+	void readsJsonArraysAndSkipsRecordsWithoutText() throws IOException {
+		assertThat(read("[\"one\", {\"text\": \"two\"}, {\"title\": \"no text\"}, \"\"]")).containsExactly("one", "two");
+		assertThat(read("")).isEmpty();
+	}
+
+	@Test
+	void readsFlatMetadata() throws IOException {
+		String json = "{\"metadata\": {\"subject\": \"biology\", \"year\": 2024, \"score\": 7.5, \"draft\": false,"
+				+ " \"tags\": [\"cell\"]}, \"text\": \"Mitochondria produce ATP.\"}";
+
+		try (JsonDocumentReader reader = reader(json)) {
+			assertThat(reader.next()).isEqualTo(new SourceDocument("Mitochondria produce ATP.",
+					Map.of("subject", "biology", "year", 2024L, "score", 7.5, "draft", false)));
+			assertThat(reader.hasNext()).isFalse();
+		}
+	}
+
+	@Test
+	void rejectsOtherValues() {
+		assertThatThrownBy(() -> read("[\"one\", 42]"))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("VALUE_NUMBER_INT");
+	}
+
+	private static List<String> read(String json) throws IOException {
+		List<String> documents = new ArrayList<>();
+		try (JsonDocumentReader reader = reader(json)) {
+			reader.forEachRemaining(document -> documents.add(document.text()));
+		}
+		return documents;
+	}
+
+	private static JsonDocumentReader reader(String json) throws IOException {
+		return new JsonDocumentReader(new JsonFactory(), new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+	}
+
+}
@@ -0,0 +1,52 @@
+package com.example.ai.basics.day1.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MaximalMarginalRelevanceTest {
+
+	// "b" is a near copy of "a"; "c" is less relevant but about something else
+	private static final List<SimpleVectorStore.SimilarityResult> CANDIDATES = List.of(
+			result("a", 0.95, 1, 0, 0),
+			result("b", 0.94, 0.99f, 0.05f, 0),
+			result("c", 0.80, 0, 1, 0),
+			result("d", 0.60, 0, 0, 1));
+
+	@Test
+	void withoutDiversityKeepsRelevanceOrder() {
+		assertThat(ids(MaximalMarginalRelevance.select(CANDIDATES, 3, 0))).containsExactly("a", "b", "c");
+	}
+
+	@Test
+	void skipsNearDuplicatesOfEarlierPicks() {
+		List<SimpleVectorStore.SimilarityResult> selected = MaximalMarginalRelevance.select(CANDIDATES, 3, 0.5);
+
+		assertThat(ids(selected)).containsExactly("a", "c", "d");
+		assertThat(selected).allSatisfy(result -> assertThat(result.embedding()).isNull());
+		assertThat(MaximalMarginalRelevance.select(CANDIDATES, 10, 0.5)).hasSize(4);
+	}
+
+	@Test
+	void neverPicksNaNScores() {
+		List<SimpleVectorStore.SimilarityResult> candidates = List.of(
+				result("nan", Double.NaN, 1, 0, 0),
+				result("a", 0.9, 0, 1, 0),
+				result("zero", 0.5, 0, 0, 0));
+
+		assertThat(ids(MaximalMarginalRelevance.select(candidates, 3, 0.5))).containsExactly("a", "zero");
+		assertThat(MaximalMarginalRelevance.select(List.of(result("x", Double.NaN, 1, 0)), 1, 0.5)).isEmpty();
+	}
+
+	private static SimpleVectorStore.SimilarityResult result(String id, double similarity, float... embedding) {
+		return new SimpleVectorStore.SimilarityResult(id, "note " + id, similarity, Map.of(), embedding);
+	}
+
+	private static List<String> ids(List<SimpleVectorStore.SimilarityResult> results) {
+		return results.stream().map(SimpleVectorStore.SimilarityResult::id).toList();
+	}
+
+}
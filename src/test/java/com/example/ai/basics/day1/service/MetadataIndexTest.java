@@ -0,0 +1,81 @@
+package com.example.ai.basics.day1.service;
+
+import org.junit.jupiter.api.Test;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MetadataIndexTest {
+
+	private static final List<Map<String, Object>> DOCUMENTS = List.of(
+			Map.of("subject", "biology", "year", 2022, "draft", false),
+			Map.of("subject", "biology", "year", 2024.0, "draft", true),
+			Map.of("subject", "chemistry", "year", 2023),
+			Map.of("subject", "physics"));
+
+	@Test
+	void parsesPrecedenceAndValues() {
+		assertThat(MetadataFilter.parse("a == 'x' || b >= 2 && !(c in [true, \"y\"])")).isEqualTo(
+				new MetadataFilter.Or(List.of(
+						new MetadataFilter.Compare("a", MetadataFilter.Operator.EQ, "x"),
+						new MetadataFilter.And(List.of(
+								new MetadataFilter.Compare("b", MetadataFilter.Operator.GE, 2.0),
+								new MetadataFilter.Not(new MetadataFilter.In("c", List.of(true, "y"))))))));
+
+		MetadataFilter filter = MetadataFilter.parse("a == \"it's\" || !(b in [1, 'y']) && c != false");
+		assertThat(MetadataFilter.parse(filter.toExpression())).isEqualTo(filter);
+
+		assertThatThrownBy(() -> MetadataFilter.parse("year >= "))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("position 8");
+	}
+
+	@Test
+	void evaluatesFiltersAsBitmaps() {
+		MetadataIndex index = index();
+
+		assertThat(matching(index, "subject == 'biology'")).containsExactly(0, 1);
+		assertThat(matching(index, "year >= 2023")).containsExactly(1, 2);
+		assertThat(matching(index, "year == 2024 || subject in ['physics']")).containsExactly(1, 3);
+		assertThat(matching(index, "subject == 'biology' && !(draft == true)")).containsExactly(0);
+		assertThat(matching(index, "subject != 'biology'")).containsExactly(2, 3);
+		assertThat(matching(index, "missing > 1")).isEmpty();
+	}
+
+	@Test
+	void forgetsRemovedValues() {
+		MetadataIndex index = index();
+		index.remove(1, DOCUMENTS.get(1));
+		index.add(1, Map.of("subject", "physics"));
+
+		assertThat(matching(index, "subject == 'biology'")).containsExactly(0);
+		assertThat(matching(index, "year > 2023")).isEmpty();
+		assertThat(matching(index, "subject == 'physics'")).containsExactly(1, 3);
+	}
+
+	@Test
+	void rejectsRangesOverText() {
+		assertThatThrownBy(() -> matching(index(), "subject > 'a'"))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("needs a number");
+	}
+
+	private static MetadataIndex index() {
+		MetadataIndex index = new MetadataIndex();
+		for (int ordinal = 0; ordinal < DOCUMENTS.size(); ordinal++) {
+			index.add(ordinal, DOCUMENTS.get(ordinal));
+		}
+		return index;
+	}
+
+	private static int[] matching(MetadataIndex index, String filter) {
+		RoaringBitmap universe = new RoaringBitmap();
+		universe.add(0L, DOCUMENTS.size());
+		return index.matching(MetadataFilter.parse(filter), universe).toArray();
+	}
+
+}
@@ -0,0 +1,199 @@
+package com.example.ai.basics.day1.service;
+
+import com.example.ai.basics.common.metrics.LlmMetrics;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class ShardedVectorStoreTest {
+
+	private static final String SELF = "http://self.invalid";
+	private static final String SECRET = "s3cret";
+	private static final String REMOTE_HITS = """
+			[{"id": "r1", "text": "ATP from the remote shard", "similarity": 3.5, "metadata": {}}]""";
+
+	@TempDir
+	Path directory;
+
+	// The other node: answers searches with REMOTE_HITS and writes with 1
+	private HttpServer remote;
+	private String remoteUrl;
+	private volatile Duration remoteDelay = Duration.ZERO;
+	private volatile int remoteStatus = 200;
+	private final List<String> receivedSecrets = new CopyOnWriteArrayList<>();
+
+	@BeforeEach
+	void startRemote() throws IOException {
+		remote = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		remote.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+		remote.createContext("/internal/vector-store/biology", exchange -> {
+			receivedSecrets.add(exchange.getRequestHeaders().getFirst(ShardedVectorStore.SECRET_HEADER));
+			exchange.getRequestBody().readAllBytes();
+			try {
+				Thread.sleep(remoteDelay);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			byte[] body = (exchange.getRequestURI().getPath().endsWith("/search") ? REMOTE_HITS : "1")
+					.getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().add("Content-Type", "application/json");
+			exchange.sendResponseHeaders(remoteStatus, body.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(body);
+			}
+		});
+		remote.start();
+		remoteUrl = "http://127.0.0.1:" + remote.getAddress().getPort();
+	}
+
+	@AfterEach
+	void stopRemote() {
+		remote.stop(0);
+	}
+
+	@Test
+	void gathersTheLocalAndRemoteShards() {
+		ShardedVectorStore store = clusteredStore();
+
+		ShardedVectorStore.SearchResult result = store.findSimilar("biology", "ATP", 5,
+				SimpleVectorStore.SearchMode.KEYWORD, null);
+
+		assertThat(ids(result.results())).containsExactlyInAnyOrder("l1", "r1");
+		assertThat(result.shards()).isEqualTo(2);
+		assertThat(result.unavailableShards()).isEmpty();
+		assertThat(receivedSecrets).containsExactly(SECRET);
+	}
+
+	@Test
+	void aSlowShardIsLeftOutAtTheDeadline() {
+		ShardedVectorStore store = clusteredStore();
+		remoteDelay = Duration.ofSeconds(3);
+
+		long start = System.nanoTime();
+		ShardedVectorStore.SearchResult result = store.findSimilar("biology", "ATP", 5,
+				SimpleVectorStore.SearchMode.KEYWORD, null);
+
+		assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(2));
+		assertThat(ids(result.results())).containsExactly("l1");
+		assertThat(result.unavailableShards()).containsExactly(remoteUrl);
+	}
+
+	@Test
+	void aFailingShardIsLeftOut() {
+		ShardedVectorStore store = clusteredStore();
+		remoteStatus = 500;
+
+		ShardedVectorStore.SearchResult result = store.findSimilar("biology", "ATP", 5,
+				SimpleVectorStore.SearchMode.KEYWORD, null);
+
+		assertThat(ids(result.results())).containsExactly("l1");
+		assertThat(result.unavailableShards()).containsExactly(remoteUrl);
+	}
+
+	@Test
+	void writesFailOnceTheWriteDeadlinePasses() {
+		ShardedVectorStore store = clusteredStore();
+		remoteDelay = Duration.ofSeconds(3);
+		ConsistentHashRing ring = new ConsistentHashRing(List.of(SELF, remoteUrl), 128);
+		String noteId = "note-0";
+		for (int i = 1; !ring.nodeFor(noteId).equals(remoteUrl); i++) {
+			noteId = "note-" + i;
+		}
+		String remoteNote = noteId;
+
+		assertThatThrownBy(() -> store.replaceNote("biology", remoteNote, List.of(
+				new SimpleVectorStore.StoredDocument(remoteNote + "#0", "ATP", new float[] { 1, 0 }))))
+				.isInstanceOf(IllegalStateException.class)
+				.hasMessageContaining("did not confirm the write");
+		assertThatThrownBy(() -> store.deleteNote("biology", remoteNote))
+				.isInstanceOf(IllegalStateException.class);
+	}
+
+	@Test
+	void dropsWaitForEveryShardUpToTheWriteDeadline() {
+		// Slower than the search deadline, well within the write deadline
+		ShardedVectorStore store = clusteredStore(Duration.ofMillis(100), Duration.ofSeconds(5));
+		remoteDelay = Duration.ofMillis(500);
+
+		assertThat(store.drop("biology")).isEqualTo(2);
+
+		remoteDelay = Duration.ofSeconds(3);
+		assertThatThrownBy(() -> clusteredStore().drop("biology"))
+				.isInstanceOf(IllegalStateException.class)
+				.hasMessageContaining("did not confirm the write");
+	}
+
+	@Test
+	void aClusterNeedsASecret() {
+		assertThatThrownBy(() -> new ShardedVectorStore(collections(), null, metrics(), RestClient.builder(),
+				new VectorStoreClusterProperties(List.of(SELF, remoteUrl), SELF, "", Duration.ofSeconds(2),
+						Duration.ofSeconds(10), Duration.ofSeconds(1), 128)))
+				.isInstanceOf(IllegalStateException.class)
+				.hasMessageContaining("ai.rag.cluster.secret");
+	}
+
+	@Test
+	void keywordRankingsAreMergedByRankNotByShardScores() {
+		// BM25 scores from a shard with rarer terms are much higher; they don't make its hits better
+		List<SimpleVectorStore.SimilarityResult> shardA = List.of(
+				new SimpleVectorStore.SimilarityResult("a1", "ATP", 9.0),
+				new SimpleVectorStore.SimilarityResult("a2", "ATP synthase", 8.0));
+		List<SimpleVectorStore.SimilarityResult> shardB = List.of(
+				new SimpleVectorStore.SimilarityResult("b1", "ATP", 2.0),
+				new SimpleVectorStore.SimilarityResult("b2", "ATP yield", 1.0));
+
+		List<SimpleVectorStore.SimilarityResult> merged = ShardedVectorStore.mergeByRank(List.of(shardA, shardB), 3);
+
+		assertThat(ids(merged.subList(0, 2))).containsExactlyInAnyOrder("a1", "b1");
+		assertThat(ids(merged.subList(2, 3))).isSubsetOf("a2", "b2");
+		assertThat(merged.get(0).similarity()).isCloseTo(1.0 / 61, within(1e-12));
+		assertThat(ids(ShardedVectorStore.mergeByScore(List.of(shardA, shardB), 3))).containsExactly("a1", "a2", "b1");
+	}
+
+	// This node holds l1; KEYWORD searches need no embedding model. Searches
+	// wait 300 ms, writes 200 ms (so the write deadline fires before the
+	// HTTP read timeout, the longer of the two)
+	private ShardedVectorStore clusteredStore() {
+		return clusteredStore(Duration.ofMillis(300), Duration.ofMillis(200));
+	}
+
+	private ShardedVectorStore clusteredStore(Duration deadline, Duration writeDeadline) {
+		VectorStoreCollections collections = collections();
+		collections.withStore("biology", store -> store.store("l1", "ATP from the local shard", new float[] { 1, 0 }));
+		return new ShardedVectorStore(collections, null, metrics(), RestClient.builder(),
+				new VectorStoreClusterProperties(List.of(SELF, remoteUrl), SELF, SECRET, deadline, writeDeadline,
+						Duration.ofSeconds(1), 128));
+	}
+
+	private VectorStoreCollections collections() {
+		return new VectorStoreCollections(null, metrics(),
+				new VectorStoreProperties(0.3, Duration.ofMinutes(30), directory, 50_000));
+	}
+
+	private static LlmMetrics metrics() {
+		return new LlmMetrics(new SimpleMeterRegistry());
+	}
+
+	private static List<String> ids(List<SimpleVectorStore.SimilarityResult> results) {
+		return results.stream().map(SimpleVectorStore.SimilarityResult::id).toList();
+	}
+
+}
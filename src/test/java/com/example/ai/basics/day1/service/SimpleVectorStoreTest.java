@@ -0,0 +1,190 @@
+package com.example.ai.basics.day1.service;
+
+import com.example.ai.basics.common.metrics.LlmMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class SimpleVectorStoreTest {
+
+	// No embedding model: everything is stored pre-embedded. A compaction
+	// threshold above 1 never triggers background compaction.
+	private final SimpleVectorStore store = store(Integer.MAX_VALUE);
+
+	@Test
+	void upsertsReplaceInPlace() {
+		assertThat(store.store("a", "first", vector(1, 0))).isFalse();
+		assertThat(store.store("a", "second", vector(0, 1))).isTrue();
+
+		assertThat(store.size()).isEqualTo(1);
+		assertThat(store.findSimilar(vector(0, 1), 5))
+				.extracting(SimpleVectorStore.SimilarityResult::text)
+				.containsExactly("second");
+		assertThat(store.findSimilar("first", 5, SimpleVectorStore.SearchMode.KEYWORD)).isEmpty();
+	}
+
+	@Test
+	void deletedDocumentsAreSkippedEverywhere() {
+		store.storeAll(List.of(
+				new SimpleVectorStore.StoredDocument("a", "error ERR-1", vector(1, 0), Map.of("kind", "log")),
+				new SimpleVectorStore.StoredDocument("b", "error ERR-2", vector(1, 0.1f), Map.of("kind", "log"))));
+
+		assertThat(store.delete("a")).isTrue();
+		assertThat(store.delete("a")).isFalse();
+
+		assertThat(store.size()).isEqualTo(1);
+		assertThat(ids(store.findSimilar(vector(1, 0), 5))).containsExactly("b");
+		assertThat(ids(store.findSimilar(vector(1, 0), 5, MetadataFilter.parse("kind != 'trace'"))))
+				.containsExactly("b");
+		assertThat(ids(store.findSimilar("error", 5, SimpleVectorStore.SearchMode.KEYWORD))).containsExactly("b");
+	}
+
+	@Test
+	void upsertingTheSameNoteAgainKeepsKeywordScores() {
+		store.store("a", "mitochondria produce ATP", vector(1, 0));
+		store.store("b", "chloroplasts capture light", vector(0, 1));
+		store.store("c", "ribosomes build proteins", vector(1, 1));
+		List<SimpleVectorStore.SimilarityResult> before = store.findSimilar("mitochondria ATP light", 5,
+				SimpleVectorStore.SearchMode.KEYWORD);
+
+		for (int i = 0; i < 10; i++) {
+			store.store("a", "mitochondria produce ATP", vector(1, 0));
+			store.replacePrefix("b", List.of(new SimpleVectorStore.StoredDocument("b", "chloroplasts capture light",
+					vector(0, 1))));
+		}
+
+		List<SimpleVectorStore.SimilarityResult> after = store.findSimilar("mitochondria ATP light", 5,
+				SimpleVectorStore.SearchMode.KEYWORD);
+		assertThat(ids(after)).isEqualTo(ids(before));
+		for (int i = 0; i < before.size(); i++) {
+			assertThat(after.get(i).similarity()).isCloseTo(before.get(i).similarity(), within(1e-12));
+		}
+	}
+
+	@Test
+	void replacingAPrefixSwapsAllOfItsDocuments() {
+		store.storeAll(List.of(
+				new SimpleVectorStore.StoredDocument("n/1#0", "Cells have a nucleus.", vector(1, 0)),
+				new SimpleVectorStore.StoredDocument("n/1#1", "Mitochondria make ATP.", vector(1, 0.1f)),
+				new SimpleVectorStore.StoredDocument("n/1#2", "Golgi packs proteins.", vector(1, 0.2f)),
+				new SimpleVectorStore.StoredDocument("n/10#0", "Ribosomes build proteins.", vector(0, 1))));
+
+		assertThat(store.replacePrefix("n/1#", List.of(
+				new SimpleVectorStore.StoredDocument("n/1#0", "Mitochondria produce ATP.", vector(1, 0))))).isEqualTo(3);
+
+		assertThat(store.size()).isEqualTo(2);
+		assertThat(ids(store.findSimilar(vector(1, 0), 5))).containsExactly("n/1#0", "n/10#0");
+		assertThat(store.findSimilar("nucleus Golgi", 5, SimpleVectorStore.SearchMode.KEYWORD)).isEmpty();
+		assertThat(ids(store.findSimilar("proteins", 5, SimpleVectorStore.SearchMode.KEYWORD)))
+				.containsExactly("n/10#0");
+
+		assertThat(store.deletePrefix("n/1#")).isEqualTo(1);
+		assertThat(store.deletePrefix("n/1#")).isZero();
+		assertThat(ids(store.findSimilar(vector(1, 0), 5))).containsExactly("n/10#0");
+	}
+
+	@Test
+	void compactionKeepsLiveDocumentsAndAllowsReinserting() {
+		for (int i = 0; i < 100; i++) {
+			store.store("doc-" + i, "note " + i, vector(i, 1));
+		}
+		for (int i = 0; i < 100; i += 2) {
+			store.delete("doc-" + i);
+		}
+		store.store("doc-1", "note one, edited", vector(-1, 0));
+
+		assertThat(store.compact()).isTrue();
+
+		assertThat(store.size()).isEqualTo(50);
+		assertThat(ids(store.findSimilar(vector(-1, 0), 1))).containsExactly("doc-1");
+		assertThat(ids(store.findSimilar("edited", 5, SimpleVectorStore.SearchMode.KEYWORD)))
+				.containsExactly("doc-1");
+		assertThat(store.store("doc-0", "note zero again", vector(0, 1))).isFalse();
+		assertThat(store.size()).isEqualTo(51);
+	}
+
+	@Test
+	void parallelScanFindsTheSameDocuments() {
+		SimpleVectorStore parallel = store(0);
+		SplittableRandom random = new SplittableRandom(7);
+		for (int i = 0; i < 5_000; i++) {
+			float[] embedding = { (float) random.nextGaussian(), (float) random.nextGaussian(),
+					(float) random.nextGaussian() };
+			Map<String, Object> metadata = Map.of("even", i % 2 == 0);
+			store.storeAll(List.of(new SimpleVectorStore.StoredDocument("doc-" + i, "note", embedding, metadata)));
+			parallel.storeAll(List.of(new SimpleVectorStore.StoredDocument("doc-" + i, "note", embedding, metadata)));
+		}
+		for (int i = 0; i < 5_000; i += 3) {
+			store.delete("doc-" + i);
+			parallel.delete("doc-" + i);
+		}
+
+		float[] query = { 0.3f, -1, 0.5f };
+		assertThat(ids(parallel.findSimilar(query, 10))).containsExactlyElementsOf(ids(store.findSimilar(query, 10)));
+		MetadataFilter even = MetadataFilter.parse("even == true");
+		assertThat(ids(parallel.findSimilar(query, 10, even)))
+				.containsExactlyElementsOf(ids(store.findSimilar(query, 10, even)));
+	}
+
+	@Test
+	void batchSearchMatchesOneQueryAtATime() {
+		SimpleVectorStore parallel = store(0);
+		SplittableRandom random = new SplittableRandom(11);
+		for (int i = 0; i < 3_000; i++) {
+			float[] embedding = randomVector(random, 24);
+			Map<String, Object> metadata = Map.of("even", i % 2 == 0);
+			store.store("doc-" + i, "note", embedding);
+			parallel.storeAll(List.of(new SimpleVectorStore.StoredDocument("doc-" + i, "note", embedding, metadata)));
+		}
+		store.delete("doc-7");
+		parallel.delete("doc-7");
+
+		// Six queries: one block of four plus two scored one by one
+		float[][] queries = new float[6][];
+		for (int q = 0; q < queries.length; q++) {
+			queries[q] = randomVector(random, 24);
+		}
+		List<List<SimpleVectorStore.SimilarityResult>> batch = store.findSimilarBatch(queries, 5, null);
+		List<List<SimpleVectorStore.SimilarityResult>> parallelBatch = parallel.findSimilarBatch(queries, 5, null);
+		MetadataFilter even = MetadataFilter.parse("even == true");
+		List<List<SimpleVectorStore.SimilarityResult>> filtered = parallel.findSimilarBatch(queries, 5, even);
+
+		assertThat(batch).hasSize(queries.length);
+		for (int q = 0; q < queries.length; q++) {
+			List<String> expected = ids(store.findSimilar(queries[q], 5));
+			assertThat(ids(batch.get(q))).containsExactlyElementsOf(expected);
+			assertThat(ids(parallelBatch.get(q))).containsExactlyElementsOf(expected);
+			assertThat(ids(filtered.get(q))).containsExactlyElementsOf(ids(parallel.findSimilar(queries[q], 5, even)));
+		}
+	}
+
+	private static SimpleVectorStore store(int parallelScanThreshold) {
+		return new SimpleVectorStore("test", null, new LlmMetrics(new SimpleMeterRegistry()),
+				new VectorStoreProperties(2.0, Duration.ofMinutes(30), Path.of("unused"), parallelScanThreshold));
+	}
+
+	private static float[] vector(float x, float y) {
+		return new float[] { x, y };
+	}
+
+	private static float[] randomVector(SplittableRandom random, int dimensions) {
+		float[] vector = new float[dimensions];
+		for (int i = 0; i < dimensions; i++) {
+			vector[i] = (float) random.nextGaussian();
+		}
+		return vector;
+	}
+
+	private static List<String> ids(List<SimpleVectorStore.SimilarityResult> results) {
+		return results.stream().map(SimpleVectorStore.SimilarityResult::id).toList();
+	}
+
+}
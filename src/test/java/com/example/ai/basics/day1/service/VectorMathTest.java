@@ -0,0 +1,51 @@
+package com.example.ai.basics.day1.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class VectorMathTest {
+
+	@Test
+	void kernelsMatchTheDoublePrecisionReference() {
+		Random random = new Random(42);
+		for (int dimensions : new int[] { 3, 384, 1537 }) {
+			float[] query = vector(random, dimensions);
+			float[][] documents = new float[4][];
+			for (int d = 0; d < documents.length; d++) {
+				documents[d] = vector(random, dimensions);
+			}
+			double[] block = new double[4];
+			VectorMath.dot4(query, documents[0], documents[1], documents[2], documents[3], block);
+
+			for (int d = 0; d < documents.length; d++) {
+				double reference = reference(query, documents[d]);
+				assertThat(VectorMath.dot(query, documents[d])).isCloseTo(reference, within(1e-9));
+				assertThat(block[d]).isCloseTo(reference, within(1e-9));
+				assertThat(VectorMath.cosineSimilarity(query, VectorMath.norm(query), documents[d],
+						VectorMath.norm(documents[d]))).isCloseTo(VectorMath.cosineSimilarity(query, documents[d]),
+								within(1e-12));
+			}
+		}
+	}
+
+	// The loop the store used before the kernels: float products, double sum
+	private static double reference(float[] a, float[] b) {
+		double sum = 0;
+		for (int i = 0; i < a.length; i++) {
+			sum += a[i] * b[i];
+		}
+		return sum;
+	}
+
+	private static float[] vector(Random random, int dimensions) {
+		float[] vector = new float[dimensions];
+		for (int i = 0; i < dimensions; i++) {
+			vector[i] = (float) random.nextGaussian();
+		}
+		return vector;
+	}
+}
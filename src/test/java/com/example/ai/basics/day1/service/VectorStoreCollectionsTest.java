@@ -0,0 +1,104 @@
+package com.example.ai.basics.day1.service;
+
+import com.example.ai.basics.common.metrics.LlmMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class VectorStoreCollectionsTest {
+
+	@TempDir
+	Path directory;
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	@Test
+	void collectionsAreIsolated() {
+		VectorStoreCollections collections = collections();
+		store(collections, "biology").store("a", "cells", new float[] { 1, 0 });
+		store(collections, "chemistry").store("a", "atoms", new float[] { 0, 1 });
+
+		assertThat(store(collections, "biology").findSimilar(new float[] { 0, 1 }, 5))
+				.extracting(SimpleVectorStore.SimilarityResult::text)
+				.containsExactly("cells");
+		assertThat(collections.drop("chemistry")).isEqualTo(1);
+		assertThat(store(collections, "biology").size()).isEqualTo(1);
+		assertThat(store(collections, null)).isSameAs(store(collections, VectorStoreCollections.DEFAULT));
+		assertThatThrownBy(() -> store(collections, "../etc"))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void idleCollectionsAreWrittenToDiskAndLoadedBack() {
+		VectorStoreCollections collections = collections();
+		store(collections, "biology").storeAll(List.of(new SimpleVectorStore.StoredDocument(
+				"a", "Mitochondria produce ATP", new float[] { 0.5f, -1 }, Map.of("year", 2024, "draft", false))));
+		store(collections, "empty");
+
+		assertThat(collections.evictIdle(Long.MAX_VALUE)).isEqualTo(2);
+		assertThat(collections.list()).containsExactly(new VectorStoreCollections.CollectionInfo("biology", 1, false));
+
+		SimpleVectorStore reloaded = store(collections, "biology");
+		assertThat(reloaded.findSimilar(new float[] { 0.5f, -1 }, 1, MetadataFilter.parse("year == 2024")))
+				.singleElement()
+				.satisfies(result -> {
+					assertThat(result.text()).isEqualTo("Mitochondria produce ATP");
+					assertThat(result.metadata()).containsEntry("year", 2024L).containsEntry("draft", false);
+				});
+		assertThat(collections.list()).containsExactly(new VectorStoreCollections.CollectionInfo("biology", 1, true));
+	}
+
+	@Test
+	void collectionsInUseAreNotEvicted() {
+		VectorStoreCollections collections = collections();
+		collections.withStore("biology", store -> {
+			store.store("a", "cells", new float[] { 1, 0 });
+			// The sweep runs while the store is held
+			assertThat(collections.evictIdle(Long.MAX_VALUE)).isZero();
+			return store.store("b", "atoms", new float[] { 0, 1 });
+		});
+
+		assertThat(collections.evictIdle(Long.MAX_VALUE)).isEqualTo(1);
+		assertThat(collections.list()).containsExactly(new VectorStoreCollections.CollectionInfo("biology", 2, false));
+		assertThat(collections.withStore("biology", SimpleVectorStore::documents))
+				.extracting(SimpleVectorStore.StoredDocument::id)
+				.containsExactly("a", "b");
+	}
+
+	@Test
+	void droppedAndEvictedCollectionsLeaveNoMeters() {
+		VectorStoreCollections collections = collections();
+		for (String name : List.of("biology", "chemistry")) {
+			collections.withStore(name, store -> {
+				store.store("a", "cells", new float[] { 1, 0 });
+				return store.findSimilar(new float[] { 1, 0 }, 1, null);
+			});
+		}
+		assertThat(registry.find("ai.vectorstore.query").meters()).hasSize(2);
+
+		collections.drop("biology");
+		assertThat(registry.find("ai.vectorstore.query").tag("store", "biology").meters()).isEmpty();
+		collections.evictIdle(Long.MAX_VALUE);
+		assertThat(registry.find("ai.vectorstore.query").meters()).isEmpty();
+		assertThat(registry.find("ai.vectorstore.scan.size").meters()).isEmpty();
+	}
+
+	private VectorStoreCollections collections() {
+		return new VectorStoreCollections(null, new LlmMetrics(registry),
+				new VectorStoreProperties(0.3, Duration.ofMinutes(30), directory, 50_000));
+	}
+
+	// Only safe because nothing evicts behind these tests' backs
+	private static SimpleVectorStore store(VectorStoreCollections collections, String name) {
+		return collections.withStore(name, store -> store);
+	}
+
+}
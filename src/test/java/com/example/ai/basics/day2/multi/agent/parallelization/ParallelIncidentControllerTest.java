@@ -0,0 +1,135 @@
+package com.example.ai.basics.day2.multi.agent.parallelization;
+
+import com.example.ai.basics.stub.OpenAiStubServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ParallelIncidentControllerTest {
+
+	private static final OpenAiStubServer stub = startStub();
+
+	@LocalServerPort
+	private int port;
+
+	@DynamicPropertySource
+	static void pointSpringAiAtStub(DynamicPropertyRegistry registry) {
+		registry.add("spring.ai.openai.base-url", stub::baseUrl);
+		registry.add("spring.ai.openai.api-key", () -> "stub");
+	}
+
+	@AfterEach
+	void restoreStub() {
+		stub.completionTokens(8);
+		stub.perTokenDelay(Duration.ofMillis(1));
+	}
+
+	@AfterAll
+	static void stopStub() {
+		stub.close();
+	}
+
+	@Test
+	void streamsFindingsThenAggregateThenReviewThenDone() throws Exception {
+		List<String> events = new ArrayList<>();
+		try (BufferedReader stream = openStream("Checkout API returns 504")) {
+			String line;
+			while ((line = stream.readLine()) != null) {
+				if (line.startsWith("event:")) {
+					events.add(line.substring("event:".length()).trim());
+				}
+			}
+		}
+
+		assertThat(events.stream().filter("finding"::equals)).hasSize(3);
+		assertThat(withoutRepeats(events)).containsExactly("finding", "aggregate", "review", "done");
+	}
+
+	@Test
+	void generationStopsWhenTheClientDisconnects() throws Exception {
+		// Every answer takes ~2 s: the aggregator is still streaming when the client leaves
+		stub.completionTokens(200);
+		stub.perTokenDelay(Duration.ofMillis(10));
+		long chatRequestsBefore = stub.chatRequests();
+		long abortedBefore = stub.abortedStreams();
+
+		try (BufferedReader stream = openStream("Checkout API returns 504")) {
+			// Leave at the first aggregator token
+			String line = stream.readLine();
+			while (line != null && !line.startsWith("event:aggregate")) {
+				line = stream.readLine();
+			}
+			assertThat(line).isNotNull();
+		}
+
+		// The aggregator's upstream stream is cancelled...
+		long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+		while (stub.abortedStreams() == abortedBefore && System.nanoTime() < deadline) {
+			Thread.sleep(50);
+		}
+		assertThat(stub.abortedStreams()).isGreaterThan(abortedBefore);
+		// ...and the reviewer never starts: 3 analyses + 1 aggregation
+		Thread.sleep(Duration.ofSeconds(3));
+		assertThat(stub.chatRequests() - chatRequestsBefore).isEqualTo(4);
+	}
+
+	private BufferedReader openStream(String incident) throws IOException, InterruptedException {
+		HttpResponse<InputStream> response = HttpClient.newBuilder()
+				.version(HttpClient.Version.HTTP_1_1)
+				.build()
+				.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port
+						+ "/incident/parallel/stream?incident=" + URLEncoder.encode(incident, StandardCharsets.UTF_8)))
+						.header("Accept", "text/event-stream")
+						.build(), HttpResponse.BodyHandlers.ofInputStream());
+		assertThat(response.statusCode()).isEqualTo(200);
+		return new BufferedReader(new InputStreamReader(response.body(), StandardCharsets.UTF_8));
+	}
+
+	private static List<String> withoutRepeats(List<String> events) {
+		List<String> distinct = new ArrayList<>();
+		for (String event : events) {
+			if (distinct.isEmpty() || !distinct.getLast().equals(event)) {
+				distinct.add(event);
+			}
+		}
+		return distinct;
+	}
+
+	private static OpenAiStubServer startStub() {
+		try {
+			return OpenAiStubServer.builder()
+					.timeToFirstToken(Duration.ofMillis(5))
+					.perTokenDelay(Duration.ofMillis(1))
+					.completionTokens(8)
+					.embeddingDimensions(32)
+					.build()
+					.start();
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+}
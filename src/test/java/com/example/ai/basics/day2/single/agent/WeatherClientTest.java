@@ -0,0 +1,118 @@
+package com.example.ai.basics.day2.single.agent;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WeatherClientTest {
+
+	private HttpServer server;
+	private final AtomicInteger geocodeHits = new AtomicInteger();
+	private final AtomicInteger forecastHits = new AtomicInteger();
+	private WeatherClient weatherClient;
+
+	@BeforeEach
+	void startStandInServer() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.setExecutor(Executors.newCachedThreadPool());
+		server.createContext("/v1/search", exchange -> {
+			geocodeHits.incrementAndGet();
+			String query = exchange.getRequestURI().getQuery();
+			if (query.contains("name=Slowville")) {
+				sleep(3000);
+			}
+			respond(exchange, query.contains("name=Atlantis")
+					? "{}"
+					: """
+							{"results":[{"name":"London","country":"United Kingdom","latitude":51.5085,"longitude":-0.1257}]}
+							""");
+		});
+		server.createContext("/v1/forecast", exchange -> {
+			forecastHits.incrementAndGet();
+			respond(exchange, """
+					{"current":{"temperature_2m":15.2,"relative_humidity_2m":81,"weather_code":61}}
+					""");
+		});
+		server.start();
+
+		String baseUrl = "http://localhost:" + server.getAddress().getPort();
+		weatherClient = new WeatherClient(new WeatherClientProperties(
+				baseUrl, baseUrl, 100, Duration.ofMinutes(10), Duration.ofSeconds(5)));
+	}
+
+	@AfterEach
+	void stopStandInServer() {
+		server.stop(0);
+	}
+
+	@Test
+	void repeatedLookupsAreServedFromCache() {
+		String first = weatherClient.currentWeather("London");
+		String second = weatherClient.currentWeather("london");
+
+		assertThat(first).isEqualTo("Current weather in London, United Kingdom: 15.2°C, Rain, Humidity: 81%");
+		assertThat(second).isEqualTo(first);
+		assertThat(geocodeHits).hasValue(1);
+		assertThat(forecastHits).hasValue(1);
+	}
+
+	@Test
+	void concurrentLookupsForSameCityAreCoalesced() {
+		List<CompletableFuture<String>> calls = IntStream.range(0, 20)
+				.mapToObj(i -> CompletableFuture.supplyAsync(() -> weatherClient.currentWeather("London")))
+				.toList();
+
+		calls.forEach(call -> assertThat(call.join()).startsWith("Current weather in London"));
+		assertThat(geocodeHits).hasValue(1);
+		assertThat(forecastHits).hasValue(1);
+	}
+
+	@Test
+	void unknownCityIsReported() {
+		assertThat(weatherClient.currentWeather("Atlantis")).isEqualTo("City not found: Atlantis");
+		assertThat(forecastHits).hasValue(0);
+	}
+
+	@Test
+	void interruptingALookupStopsTheWait() throws InterruptedException {
+		AtomicReference<String> answer = new AtomicReference<>();
+		Thread lookup = Thread.ofVirtual().start(() -> answer.set(weatherClient.currentWeather("Slowville")));
+		Thread.sleep(100);
+
+		lookup.interrupt();
+
+		assertThat(lookup.join(Duration.ofSeconds(1))).isTrue();
+		assertThat(answer).hasValue("Weather lookup for Slowville was interrupted");
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static void respond(HttpExchange exchange, String body) throws IOException {
+		byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().add("Content-Type", "application/json");
+		exchange.sendResponseHeaders(200, bytes.length);
+		exchange.getResponseBody().write(bytes);
+		exchange.close();
+	}
+}
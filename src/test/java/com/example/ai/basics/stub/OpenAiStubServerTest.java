@@ -0,0 +1,122 @@
+package com.example.ai.basics.stub;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class OpenAiStubServerTest {
+
+	private static final OpenAiStubServer stub = startStub();
+
+	@Autowired
+	private ChatClient.Builder chatClientBuilder;
+
+	@Autowired
+	private EmbeddingModel embeddingModel;
+
+	@DynamicPropertySource
+	static void pointSpringAiAtStub(DynamicPropertyRegistry registry) {
+		registry.add("spring.ai.openai.base-url", stub::baseUrl);
+		registry.add("spring.ai.openai.api-key", () -> "stub");
+	}
+
+	@AfterAll
+	static void stopStub() {
+		stub.close();
+	}
+
+	@Test
+	void answersBlockingChatCompletions() {
+		String answer = chatClientBuilder.build().prompt()
+				.user("What is photosynthesis?")
+				.call()
+				.content();
+
+		assertThat(answer).startsWith("Stub answer to \"What is photosynthesis?\":");
+	}
+
+	@Test
+	void streamsChatCompletionsTokenByToken() {
+		List<String> chunks = chatClientBuilder.build().prompt()
+				.user("Stream please")
+				.stream()
+				.content()
+				.collectList()
+				.block(Duration.ofSeconds(10));
+
+		assertThat(chunks.stream().filter(chunk -> !chunk.isEmpty())).hasSize(8);
+		assertThat(String.join("", chunks)).startsWith("Stub answer to \"Stream please\":");
+	}
+
+	@Test
+	void embeddingsAreDeterministicAndSimilarForOverlappingText() {
+		float[] first = embeddingModel.embed("the mitochondria is the powerhouse of the cell");
+		float[] again = embeddingModel.embed("the mitochondria is the powerhouse of the cell");
+		float[] related = embeddingModel.embed("what is the powerhouse of the cell");
+		float[] unrelated = embeddingModel.embed("volcanoes erupt molten rock");
+
+		assertThat(first).hasSize(32).containsExactly(again);
+		assertThat(dot(first, related)).isGreaterThan(dot(first, unrelated));
+	}
+
+	@Test
+	void injectsErrorsAtTheConfiguredRate() throws Exception {
+		stub.errorRate(1.0);
+		try {
+			HttpResponse<String> response = HttpClient.newHttpClient().send(
+					HttpRequest.newBuilder(URI.create(stub.baseUrl() + "/v1/chat/completions"))
+							.POST(HttpRequest.BodyPublishers.ofString("""
+									{"model":"stub","messages":[{"role":"user","content":"hi"}]}
+									"""))
+							.build(),
+					HttpResponse.BodyHandlers.ofString());
+
+			assertThat(response.statusCode()).isEqualTo(503);
+			assertThat(response.body()).contains("Injected failure");
+		}
+		finally {
+			stub.errorRate(0);
+		}
+	}
+
+	private static OpenAiStubServer startStub() {
+		try {
+			return OpenAiStubServer.builder()
+					.timeToFirstToken(Duration.ofMillis(5))
+					.perTokenDelay(Duration.ofMillis(1))
+					.completionTokens(8)
+					.embeddingDimensions(32)
+					.build()
+					.start();
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static double dot(float[] a, float[] b) {
+		double sum = 0;
+		for (int i = 0; i < a.length; i++) {
+			sum += a[i] * b[i];
+		}
+		return sum;
+	}
+
+}
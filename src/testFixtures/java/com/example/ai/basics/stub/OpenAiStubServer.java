@@ -0,0 +1,467 @@
+package com.example.ai.basics.stub;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * =============================================================================
+ * OPENAI-COMPATIBLE STUB MODEL SERVER
+ * =============================================================================
+ *
+ * A stand-in for the model provider, so load and latency tests don't burn
+ * GPU time or API money. It speaks just enough of the OpenAI API for Spring
+ * AI's OpenAI client:
+ *
+ * - POST /v1/chat/completions   blocking and streaming (SSE) responses
+ * - POST /v1/embeddings         deterministic pseudo-embeddings
+ *
+ * Latency is shaped like a real model: the first token arrives after
+ * {@code timeToFirstToken}, then one token every {@code perTokenDelay}.
+ * A configurable fraction of requests fails with {@code errorStatus}.
+ *
+ * Embeddings are a normalized sum of one pseudo-random vector per word
+ * (seeded by the word), so texts sharing words are similar and the same
+ * text always gets the same vector - good enough to exercise retrieval.
+ *
+ * IN TESTS:
+ *
+ * <pre>
+ * OpenAiStubServer stub = OpenAiStubServer.builder().timeToFirstToken(Duration.ofMillis(50)).build().start();
+ * // spring.ai.openai.base-url = stub.baseUrl()
+ * </pre>
+ *
+ * STANDALONE: ./gradlew runModelStub (see build.gradle for settings)
+ *
+ * =============================================================================
+ */
+public class OpenAiStubServer implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(OpenAiStubServer.class);
+
+    private static final String[] FILLER = ("This is a simulated answer from the stub model server . It streams "
+            + "tokens with a configurable delay so latency and throughput can be measured without a real model .")
+            .split(" ");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final int port;
+    private final AtomicLong chatRequests = new AtomicLong();
+    private final AtomicLong embeddingRequests = new AtomicLong();
+    private final AtomicLong injectedErrors = new AtomicLong();
+    private final AtomicLong abortedStreams = new AtomicLong();
+
+    private volatile Duration timeToFirstToken;
+    private volatile Duration perTokenDelay;
+    private volatile int completionTokens;
+    private volatile double errorRate;
+    private volatile int errorStatus;
+    private volatile int embeddingDimensions;
+
+    private HttpServer server;
+    private ExecutorService executor;
+
+    private OpenAiStubServer(Builder builder) {
+        this.port = builder.port;
+        this.timeToFirstToken = builder.timeToFirstToken;
+        this.perTokenDelay = builder.perTokenDelay;
+        this.completionTokens = builder.completionTokens;
+        this.errorRate = builder.errorRate;
+        this.errorStatus = builder.errorStatus;
+        this.embeddingDimensions = builder.embeddingDimensions;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public OpenAiStubServer start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", port), 512);
+        // Every request mostly sleeps, so one virtual thread per request is enough
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext("/v1/chat/completions", this::handleChat);
+        server.createContext("/v1/embeddings", this::handleEmbeddings);
+        server.start();
+        logger.info("🧪 OpenAI stub server listening on {}", baseUrl());
+        return this;
+    }
+
+    @Override
+    public void close() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+        }
+    }
+
+    public String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    // -------------------------------------------------------------------------
+    // Runtime knobs (tests can change them between requests)
+    // -------------------------------------------------------------------------
+
+    public void timeToFirstToken(Duration timeToFirstToken) {
+        this.timeToFirstToken = timeToFirstToken;
+    }
+
+    public void perTokenDelay(Duration perTokenDelay) {
+        this.perTokenDelay = perTokenDelay;
+    }
+
+    public void completionTokens(int completionTokens) {
+        this.completionTokens = completionTokens;
+    }
+
+    public void errorRate(double errorRate) {
+        this.errorRate = errorRate;
+    }
+
+    public long chatRequests() {
+        return chatRequests.get();
+    }
+
+    public long embeddingRequests() {
+        return embeddingRequests.get();
+    }
+
+    public long injectedErrors() {
+        return injectedErrors.get();
+    }
+
+    /**
+     * Streaming responses the client hung up on before the last token.
+     */
+    public long abortedStreams() {
+        return abortedStreams.get();
+    }
+
+    // -------------------------------------------------------------------------
+    // /v1/chat/completions
+    // -------------------------------------------------------------------------
+
+    private void handleChat(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            chatRequests.incrementAndGet();
+            JsonNode request = objectMapper.readTree(exchange.getRequestBody());
+            if (injectError(exchange)) {
+                return;
+            }
+
+            String model = request.path("model").asText("stub-model");
+            int promptTokens = countPromptTokens(request.path("messages"));
+            List<String> tokens = completionFor(lastUserMessage(request.path("messages")));
+            String id = "chatcmpl-stub-" + chatRequests.get();
+
+            if (request.path("stream").asBoolean(false)) {
+                streamCompletion(exchange, id, model, tokens, promptTokens);
+            } else {
+                sleep(timeToFirstToken.plus(perTokenDelay.multipliedBy(tokens.size())));
+                ObjectNode response = objectMapper.createObjectNode()
+                        .put("id", id)
+                        .put("object", "chat.completion")
+                        .put("created", System.currentTimeMillis() / 1000)
+                        .put("model", model);
+                ObjectNode choice = response.putArray("choices").addObject().put("index", 0);
+                choice.putObject("message").put("role", "assistant").put("content", String.join("", tokens));
+                choice.put("finish_reason", "stop");
+                response.set("usage", usage(promptTokens, tokens.size()));
+                writeJson(exchange, 200, response);
+            }
+        }
+    }
+
+    private void streamCompletion(HttpExchange exchange, String id, String model, List<String> tokens,
+            int promptTokens) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        OutputStream out = exchange.getResponseBody();
+
+        sleep(timeToFirstToken);
+        for (int i = 0; i < tokens.size(); i++) {
+            if (i > 0) {
+                sleep(perTokenDelay);
+            }
+            ObjectNode chunk = chunk(id, model);
+            ObjectNode choice = chunk.withArray("choices").addObject().put("index", 0);
+            ObjectNode delta = choice.putObject("delta");
+            if (i == 0) {
+                delta.put("role", "assistant");
+            }
+            delta.put("content", tokens.get(i));
+            choice.putNull("finish_reason");
+            try {
+                writeEvent(out, chunk.toString());
+            } catch (IOException e) {
+                abortedStreams.incrementAndGet();
+                throw e;
+            }
+        }
+
+        ObjectNode last = chunk(id, model);
+        ObjectNode choice = last.withArray("choices").addObject().put("index", 0);
+        choice.putObject("delta");
+        choice.put("finish_reason", "stop");
+        last.set("usage", usage(promptTokens, tokens.size()));
+        writeEvent(out, last.toString());
+        writeEvent(out, "[DONE]");
+    }
+
+    private ObjectNode chunk(String id, String model) {
+        return objectMapper.createObjectNode()
+                .put("id", id)
+                .put("object", "chat.completion.chunk")
+                .put("created", System.currentTimeMillis() / 1000)
+                .put("model", model);
+    }
+
+    private List<String> completionFor(String userMessage) {
+        List<String> tokens = new ArrayList<>(completionTokens);
+        String topic = userMessage.length() > 40 ? userMessage.substring(0, 40) : userMessage;
+        tokens.add("Stub answer to \"" + topic.replace('\n', ' ') + "\":");
+        for (int i = 1; i < completionTokens; i++) {
+            tokens.add(" " + FILLER[(i - 1) % FILLER.length]);
+        }
+        return tokens;
+    }
+
+    private String lastUserMessage(JsonNode messages) {
+        String last = "";
+        for (JsonNode message : messages) {
+            if ("user".equals(message.path("role").asText())) {
+                last = message.path("content").asText("");
+            }
+        }
+        return last;
+    }
+
+    private int countPromptTokens(JsonNode messages) {
+        int words = 0;
+        for (JsonNode message : messages) {
+            words += countWords(message.path("content").asText(""));
+        }
+        return words;
+    }
+
+    // -------------------------------------------------------------------------
+    // /v1/embeddings
+    // -------------------------------------------------------------------------
+
+    private void handleEmbeddings(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            embeddingRequests.incrementAndGet();
+            JsonNode request = objectMapper.readTree(exchange.getRequestBody());
+            if (injectError(exchange)) {
+                return;
+            }
+
+            List<String> inputs = new ArrayList<>();
+            JsonNode input = request.path("input");
+            if (input.isArray()) {
+                input.forEach(text -> inputs.add(text.asText()));
+            } else {
+                inputs.add(input.asText());
+            }
+
+            ObjectNode response = objectMapper.createObjectNode()
+                    .put("object", "list")
+                    .put("model", request.path("model").asText("stub-embedding"));
+            ArrayNode data = response.putArray("data");
+            int tokens = 0;
+            for (int i = 0; i < inputs.size(); i++) {
+                ObjectNode item = data.addObject().put("object", "embedding").put("index", i);
+                ArrayNode vector = item.putArray("embedding");
+                for (float value : embed(inputs.get(i))) {
+                    vector.add(value);
+                }
+                tokens += countWords(inputs.get(i));
+            }
+            response.putObject("usage").put("prompt_tokens", tokens).put("total_tokens", tokens);
+            writeJson(exchange, 200, response);
+        }
+    }
+
+    /**
+     * Deterministic pseudo-embedding: normalized sum of per-word random vectors.
+     */
+    public float[] embed(String text) {
+        int dimensions = embeddingDimensions;
+        float[] vector = new float[dimensions];
+        for (String word : text.toLowerCase(Locale.ROOT).split("\\W+")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            SplittableRandom random = new SplittableRandom(word.hashCode());
+            for (int d = 0; d < dimensions; d++) {
+                vector[d] += (float) (random.nextDouble() * 2 - 1);
+            }
+        }
+        double norm = 0;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        if (norm == 0) {
+            vector[0] = 1f;
+            return vector;
+        }
+        float scale = (float) (1 / Math.sqrt(norm));
+        for (int d = 0; d < dimensions; d++) {
+            vector[d] *= scale;
+        }
+        return vector;
+    }
+
+    // -------------------------------------------------------------------------
+    // Helpers
+    // -------------------------------------------------------------------------
+
+    private boolean injectError(HttpExchange exchange) throws IOException {
+        if (errorRate <= 0 || ThreadLocalRandom.current().nextDouble() >= errorRate) {
+            return false;
+        }
+        injectedErrors.incrementAndGet();
+        ObjectNode error = objectMapper.createObjectNode();
+        error.putObject("error")
+                .put("message", "Injected failure from stub server")
+                .put("type", "server_error")
+                .put("code", errorStatus);
+        writeJson(exchange, errorStatus, error);
+        return true;
+    }
+
+    private ObjectNode usage(int promptTokens, int completionTokens) {
+        return objectMapper.createObjectNode()
+                .put("prompt_tokens", promptTokens)
+                .put("completion_tokens", completionTokens)
+                .put("total_tokens", promptTokens + completionTokens);
+    }
+
+    private void writeJson(HttpExchange exchange, int status, JsonNode body) throws IOException {
+        byte[] bytes = objectMapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    private static void writeEvent(OutputStream out, String data) throws IOException {
+        out.write(("data: " + data + "\n\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    private static int countWords(String text) {
+        String trimmed = text.trim();
+        return trimmed.isEmpty() ? 0 : trimmed.split("\\s+").length;
+    }
+
+    private static void sleep(Duration duration) {
+        if (duration.isZero() || duration.isNegative()) {
+            return;
+        }
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Runs the stub standalone. Settings come from system properties:
+     * stub.port (8089), stub.ttft (200ms), stub.token-delay (20ms),
+     * stub.tokens (64), stub.error-rate (0), stub.embedding-dimensions (768).
+     */
+    public static void main(String[] args) throws IOException {
+        OpenAiStubServer server = builder()
+                .port(Integer.getInteger("stub.port", 8089))
+                .timeToFirstToken(Duration.parse("PT" + System.getProperty("stub.ttft", "0.2S")))
+                .perTokenDelay(Duration.parse("PT" + System.getProperty("stub.token-delay", "0.02S")))
+                .completionTokens(Integer.getInteger("stub.tokens", 64))
+                .errorRate(Double.parseDouble(System.getProperty("stub.error-rate", "0")))
+                .embeddingDimensions(Integer.getInteger("stub.embedding-dimensions", 768))
+                .build()
+                .start();
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+    }
+
+    public static final class Builder {
+
+        private int port = 0;
+        private Duration timeToFirstToken = Duration.ofMillis(200);
+        private Duration perTokenDelay = Duration.ofMillis(20);
+        private int completionTokens = 64;
+        private double errorRate = 0;
+        private int errorStatus = 503;
+        private int embeddingDimensions = 768;
+
+        private Builder() {
+        }
+
+        /**
+         * Port to listen on; 0 picks a free port.
+         */
+        public Builder port(int port) {
+            this.port = port;
+            return this;
+        }
+
+        public Builder timeToFirstToken(Duration timeToFirstToken) {
+            this.timeToFirstToken = timeToFirstToken;
+            return this;
+        }
+
+        public Builder perTokenDelay(Duration perTokenDelay) {
+            this.perTokenDelay = perTokenDelay;
+            return this;
+        }
+
+        public Builder completionTokens(int completionTokens) {
+            this.completionTokens = Math.max(1, completionTokens);
+            return this;
+        }
+
+        /**
+         * Fraction of requests (0.0 - 1.0) that fail with {@link #errorStatus}.
+         */
+        public Builder errorRate(double errorRate) {
+            this.errorRate = errorRate;
+            return this;
+        }
+
+        public Builder errorStatus(int errorStatus) {
+            this.errorStatus = errorStatus;
+            return this;
+        }
+
+        public Builder embeddingDimensions(int embeddingDimensions) {
+            this.embeddingDimensions = embeddingDimensions;
+            return this;
+        }
+
+        public OpenAiStubServer build() {
+            return new OpenAiStubServer(this);
+        }
+    }
+}